@@ -28,6 +28,7 @@ import org.openstreetmap.josm.io.OsmServerLocationReader;
 import org.openstreetmap.josm.io.OsmServerReader;
 import org.openstreetmap.josm.io.OsmTransferCanceledException;
 import org.openstreetmap.josm.io.OsmTransferException;
+import org.openstreetmap.josm.io.TiledBoundingBoxDownloader;
 import org.openstreetmap.josm.tools.Utils;
 import org.xml.sax.SAXException;
 
@@ -71,7 +72,9 @@ public class DownloadOsmTask extends AbstractDownloadTask<DataSet> {
 
     @Override
     public Future<?> download(boolean newLayer, Bounds downloadArea, ProgressMonitor progressMonitor) {
-        return download(new BoundingBoxDownloader(downloadArea), newLayer, downloadArea, progressMonitor);
+        BoundingBoxDownloader reader = Main.pref.getBoolean("download.osm.tiled", false)
+                ? new TiledBoundingBoxDownloader(downloadArea) : new BoundingBoxDownloader(downloadArea);
+        return download(reader, newLayer, downloadArea, progressMonitor);
     }
 
     /**
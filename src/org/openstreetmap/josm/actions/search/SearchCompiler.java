@@ -21,6 +21,8 @@ import org.openstreetmap.josm.Main;
 import org.openstreetmap.josm.actions.search.PushbackTokenizer.Range;
 import org.openstreetmap.josm.actions.search.PushbackTokenizer.Token;
 import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.DataSourceIndex;
+import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
@@ -1405,8 +1407,9 @@ public class SearchCompiler {
 
         @Override
         protected Bounds getBounds() {
-            return Main.main.getCurrentDataSet() == null || Main.main.getCurrentDataSet().getDataSourceArea() == null
-                    ? null : new Bounds(Main.main.getCurrentDataSet().getDataSourceArea().getBounds2D());
+            DataSet ds = Main.main.getCurrentDataSet();
+            DataSourceIndex index = ds == null ? null : ds.getDataSourceIndex();
+            return index == null ? null : index.getBounds();
         }
 
         @Override
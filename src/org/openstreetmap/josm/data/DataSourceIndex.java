@@ -0,0 +1,159 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.openstreetmap.josm.data.coor.LatLon;
+
+/**
+ * Index of the bounds of data sources, to test whether a position is in the downloaded area
+ * without building the union of all bounds.
+ * <p>
+ * The bounds are registered in the cells of a uniform grid covering all of them. A position is in the
+ * downloaded area if one of the bounds of its cell contains it, which gives the same result as
+ * {@link DataSource#getDataSourceArea(Collection)}. Instances are immutable, hence thread safe.
+ */
+public class DataSourceIndex {
+
+    /** Bounds covering more cells are tested for each query instead */
+    private static final int MAX_CELLS_PER_BOUNDS = 64;
+
+    private final Rectangle2D.Double[] rects;
+    private final Bounds bounds;
+
+    private final double gridMinX;
+    private final double gridMinY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int columns;
+    private final int rows;
+    /** bounds of cell {@code c} are {@code cellRects[cellStart[c]]} to {@code cellRects[cellStart[c + 1] - 1]} */
+    private final int[] cellStart;
+    private final int[] cellRects;
+    /** bounds which are not registered in the grid */
+    private final int[] unindexed;
+
+    /**
+     * Constructs a new {@code DataSourceIndex}.
+     * @param dataSources the data sources
+     */
+    public DataSourceIndex(Collection<DataSource> dataSources) {
+        List<Rectangle2D.Double> list = new ArrayList<>(dataSources.size());
+        Rectangle2D union = null;
+        for (DataSource source : dataSources) {
+            Rectangle2D.Double r = source.bounds.asRect();
+            if (!r.isEmpty()) {
+                list.add(r);
+                if (union == null) {
+                    union = new Rectangle2D.Double(r.x, r.y, r.width, r.height);
+                } else {
+                    union.add(r);
+                }
+            }
+        }
+        rects = list.toArray(new Rectangle2D.Double[list.size()]);
+        bounds = union == null ? null : new Bounds(union);
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Rectangle2D.Double r : rects) {
+            minX = Math.min(minX, r.getMinX());
+            minY = Math.min(minY, r.getMinY());
+            maxX = Math.max(maxX, r.getMaxX());
+            maxY = Math.max(maxY, r.getMaxY());
+        }
+        int n = Math.max(1, (int) Math.ceil(Math.sqrt(rects.length)));
+        columns = n;
+        rows = n;
+        gridMinX = minX;
+        gridMinY = minY;
+        cellWidth = maxX > minX ? (maxX - minX) / columns : 1;
+        cellHeight = maxY > minY ? (maxY - minY) / rows : 1;
+
+        // count, then fill the bounds of each cell
+        int[] count = new int[columns * rows + 1];
+        int unindexedCount = 0;
+        for (int i = 0; i < rects.length; i++) {
+            if (isIndexed(rects[i])) {
+                for (int r = row(rects[i].getMinY()); r <= row(rects[i].getMaxY()); r++) {
+                    for (int c = column(rects[i].getMinX()); c <= column(rects[i].getMaxX()); c++) {
+                        count[r * columns + c + 1]++;
+                    }
+                }
+            } else {
+                unindexedCount++;
+            }
+        }
+        cellStart = new int[columns * rows + 1];
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] = cellStart[c] + count[c + 1];
+        }
+        cellRects = new int[cellStart[columns * rows]];
+        unindexed = new int[unindexedCount];
+        int[] fill = Arrays.copyOf(cellStart, columns * rows);
+        unindexedCount = 0;
+        for (int i = 0; i < rects.length; i++) {
+            if (isIndexed(rects[i])) {
+                for (int r = row(rects[i].getMinY()); r <= row(rects[i].getMaxY()); r++) {
+                    for (int c = column(rects[i].getMinX()); c <= column(rects[i].getMaxX()); c++) {
+                        cellRects[fill[r * columns + c]++] = i;
+                    }
+                }
+            } else {
+                unindexed[unindexedCount++] = i;
+            }
+        }
+    }
+
+    private boolean isIndexed(Rectangle2D.Double r) {
+        return (long) (column(r.getMaxX()) - column(r.getMinX()) + 1) * (row(r.getMaxY()) - row(r.getMinY()) + 1)
+                <= MAX_CELLS_PER_BOUNDS;
+    }
+
+    private int column(double value) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((value - gridMinX) / cellWidth)));
+    }
+
+    private int row(double value) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((value - gridMinY) / cellHeight)));
+    }
+
+    /**
+     * Determines if a position is in the downloaded area.
+     * @param ll the position
+     * @return {@code true} if the bounds of a data source contain {@code ll}
+     */
+    public boolean contains(LatLon ll) {
+        double x = ll.lon();
+        double y = ll.lat();
+        if (rects.length == 0 || Double.isNaN(x) || Double.isNaN(y)) {
+            return false;
+        }
+        int cell = row(y) * columns + column(x);
+        for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+            if (rects[cellRects[k]].contains(x, y)) {
+                return true;
+            }
+        }
+        for (int i : unindexed) {
+            if (rects[i].contains(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the bounding box of the downloaded area.
+     * @return the bounding box of the downloaded area, or {@code null} if it is empty
+     */
+    public Bounds getBounds() {
+        return bounds == null ? null : new Bounds(bounds);
+    }
+}
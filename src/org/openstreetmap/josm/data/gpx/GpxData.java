@@ -3,6 +3,7 @@ package org.openstreetmap.josm.data.gpx;
 
 import java.awt.geom.Area;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
@@ -17,6 +18,8 @@ import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.Data;
 import org.openstreetmap.josm.data.DataSource;
 import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.projection.Projections;
 import org.openstreetmap.josm.tools.Utils;
 
 /**
@@ -369,7 +372,7 @@ public class GpxData extends WithAttributes implements Data {
         if (tracks != null) {
             for (GpxTrack track: tracks) {
                 for (GpxTrackSegment segment: track.getSegments()) {
-                    for (WayPoint wp: segment.getWayPoints()) {
+                    for (WayPoint wp: getProjectedWayPoints(segment)) {
                         wp.invalidateEastNorthCache();
                     }
                 }
@@ -387,6 +390,51 @@ public class GpxData extends WithAttributes implements Data {
         }
     }
 
+    /**
+     * Returns the way points of a segment whose east/north coordinates may be cached.
+     * The way points of a {@link PackedGpxTrackSegment} are not created only to update their coordinates.
+     * @param segment track segment
+     * @return the way points of {@code segment} which exist
+     */
+    private static Collection<WayPoint> getProjectedWayPoints(GpxTrackSegment segment) {
+        if (segment instanceof PackedGpxTrackSegment)
+            return ((PackedGpxTrackSegment) segment).getExistingWayPoints();
+        return segment.getWayPoints();
+    }
+
+    /**
+     * Computes the east/north coordinates of all way points for the current projection at once.
+     * This is much faster than projecting each way point on demand after {@link #resetEastNorthCache()},
+     * as the points are converted in bulk and in parallel.
+     * @see Projections#project(double[])
+     */
+    public void updateEastNorthCache() {
+        List<WayPoint> points = new ArrayList<>(waypoints);
+        for (GpxTrack track: tracks) {
+            for (GpxTrackSegment segment: track.getSegments()) {
+                points.addAll(getProjectedWayPoints(segment));
+            }
+        }
+        for (GpxRoute route: routes) {
+            if (route.routePoints != null) {
+                points.addAll(route.routePoints);
+            }
+        }
+        double[] coords = new double[2 * points.size()];
+        int i = 0;
+        for (WayPoint wp : points) {
+            LatLon ll = wp.getCoor();
+            coords[i++] = ll.lat();
+            coords[i++] = ll.lon();
+        }
+        Projections.project(coords);
+        i = 0;
+        for (WayPoint wp : points) {
+            wp.setEastNorthCache(coords[i], coords[i + 1]);
+            i += 2;
+        }
+    }
+
     /**
      * Iterates over all track segments and then over all routes.
      */
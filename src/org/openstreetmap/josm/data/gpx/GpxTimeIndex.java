@@ -0,0 +1,270 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.tools.date.PrimaryDateParser;
+
+/**
+ * Time index of the track points of a {@link GpxData}, used to find the position at a given time.
+ * <p>
+ * All timed track points are stored in primitive arrays. Each pair of consecutive timed points of a segment
+ * defines a time interval in which the position is linearly interpolated. The first point of a segment (and each point
+ * going back in time) covers a short interval before its own time, in which its position is used as-is.
+ * <p>
+ * The intervals are flattened into a time-sorted array of breakpoints, so that a lookup is a binary search.
+ * When several intervals overlap (e.g. overlapping tracks), the interval which comes first in the track order wins.
+ */
+public final class GpxTimeIndex {
+
+    /** Time covered before the first point of a segment, in milliseconds */
+    private static final long FIRST_POINT_INTERVAL = 5 * 1000;
+
+    // track points, in track order
+    private final double[] lat;
+    private final double[] lon;
+    private final double[] ele;
+    private final long[] time;
+
+    // intervals, in track order. from is -1 for intervals which only use the position of their end point
+    private final int[] from;
+    private final int[] to;
+
+    // time-sorted breakpoints and the interval matching exactly at / strictly after each breakpoint (or -1)
+    private final long[] breakpoints;
+    private final int[] atBreakpoint;
+    private final int[] afterBreakpoint;
+
+    /**
+     * Result of a lookup in a {@link GpxTimeIndex}.
+     */
+    public static final class Match {
+        private final LatLon coor;
+        private final Double speed;
+        private final Double elevation;
+
+        Match(LatLon coor, Double speed, Double elevation) {
+            this.coor = coor;
+            this.speed = speed;
+            this.elevation = elevation;
+        }
+
+        /**
+         * Returns the (interpolated) position.
+         * @return the position
+         */
+        public LatLon getCoor() {
+            return coor;
+        }
+
+        /**
+         * Returns the speed between the surrounding track points.
+         * @return the speed in km/h, or {@code null} if unknown
+         */
+        public Double getSpeed() {
+            return speed;
+        }
+
+        /**
+         * Returns the (interpolated) elevation.
+         * @return the elevation in meters, or {@code null} if unknown
+         */
+        public Double getElevation() {
+            return elevation;
+        }
+    }
+
+    /**
+     * Builds the time index of the given GPX data.
+     * @param data GPX data
+     */
+    public GpxTimeIndex(GpxData data) {
+        int size = 0;
+        for (GpxTrack trk : data.tracks) {
+            for (GpxTrackSegment segment : trk.getSegments()) {
+                size += segment.getWayPoints().size();
+            }
+        }
+        double[] pLat = new double[size];
+        double[] pLon = new double[size];
+        double[] pEle = new double[size];
+        long[] pTime = new long[size];
+        int[] iFrom = new int[size];
+        int[] iTo = new int[size];
+        final long[] iStart = new long[size];
+        final long[] iEnd = new long[size];
+
+        PrimaryDateParser dateParser = new PrimaryDateParser();
+        int n = 0;
+        for (GpxTrack trk : data.tracks) {
+            for (GpxTrackSegment segment : trk.getSegments()) {
+                int prev = -1;
+                for (WayPoint wp : segment.getWayPoints()) {
+                    Long t = getTime(wp, dateParser);
+                    if (t == null) {
+                        prev = -1;
+                        continue;
+                    }
+                    LatLon coor = wp.getCoor();
+                    pLat[n] = coor.lat();
+                    pLon[n] = coor.lon();
+                    pEle[n] = getElevation(wp);
+                    pTime[n] = t;
+                    iTo[n] = n;
+                    iEnd[n] = t;
+                    if (prev < 0 || t <= pTime[prev]) {
+                        long interval = prev < 0 ? FIRST_POINT_INTERVAL : pTime[prev] - t;
+                        iFrom[n] = -1;
+                        iStart[n] = t - interval;
+                    } else {
+                        iFrom[n] = prev;
+                        iStart[n] = pTime[prev];
+                    }
+                    prev = n;
+                    n++;
+                }
+            }
+        }
+        lat = Arrays.copyOf(pLat, n);
+        lon = Arrays.copyOf(pLon, n);
+        ele = Arrays.copyOf(pEle, n);
+        time = Arrays.copyOf(pTime, n);
+        from = Arrays.copyOf(iFrom, n);
+        to = Arrays.copyOf(iTo, n);
+
+        // Sweep over the interval bounds, keeping the active intervals ordered by track order
+        Integer[] byStart = new Integer[n];
+        Integer[] byEnd = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byStart[i] = i;
+            byEnd[i] = i;
+        }
+        Arrays.sort(byStart, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(iStart[a], iStart[b]);
+            }
+        });
+        Arrays.sort(byEnd, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(iEnd[a], iEnd[b]);
+            }
+        });
+        long[] bounds = new long[2 * n];
+        System.arraycopy(iStart, 0, bounds, 0, n);
+        System.arraycopy(iEnd, 0, bounds, n, n);
+        Arrays.sort(bounds, 0, 2 * n);
+        int distinct = 0;
+        for (int i = 0; i < 2 * n; i++) {
+            if (distinct == 0 || bounds[distinct - 1] != bounds[i]) {
+                bounds[distinct++] = bounds[i];
+            }
+        }
+        breakpoints = Arrays.copyOf(bounds, distinct);
+        atBreakpoint = new int[distinct];
+        afterBreakpoint = new int[distinct];
+
+        PriorityQueue<Integer> active = new PriorityQueue<>();
+        boolean[] ended = new boolean[n];
+        int s = 0;
+        int e = 0;
+        for (int k = 0; k < distinct; k++) {
+            long x = breakpoints[k];
+            while (s < n && iStart[byStart[s]] == x) {
+                active.add(byStart[s++]);
+            }
+            atBreakpoint[k] = first(active, ended);
+            while (e < n && iEnd[byEnd[e]] == x) {
+                ended[byEnd[e++]] = true;
+            }
+            afterBreakpoint[k] = first(active, ended);
+        }
+    }
+
+    private static int first(PriorityQueue<Integer> active, boolean[] ended) {
+        while (!active.isEmpty() && ended[active.peek()]) {
+            active.poll();
+        }
+        return active.isEmpty() ? -1 : active.peek();
+    }
+
+    private static Long getTime(WayPoint wp, PrimaryDateParser dateParser) {
+        Object timeStr = wp.get(GpxConstants.PT_TIME);
+        if (timeStr == null) {
+            return null;
+        }
+        if (wp.time != 0) {
+            // already parsed by the GPX reader
+            return Math.round(wp.time * 1000);
+        }
+        try {
+            return dateParser.parse(timeStr.toString()).getTime();
+        } catch (ParseException e) {
+            Main.error("Error while parsing date \"" + timeStr + '"');
+            Main.error(e);
+            return null;
+        }
+    }
+
+    private static double getElevation(WayPoint wp) {
+        String value = wp.getString(GpxConstants.PT_ELE);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                Main.warn(e);
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Returns the number of timed track points.
+     * @return the number of timed track points
+     */
+    public int size() {
+        return time.length;
+    }
+
+    /**
+     * Finds the position at the given time.
+     * @param t time in milliseconds since the epoch
+     * @return the position at the given time, or {@code null} if no track covers this time
+     */
+    public Match find(long t) {
+        int k = Arrays.binarySearch(breakpoints, t);
+        int i;
+        if (k >= 0) {
+            i = atBreakpoint[k];
+        } else {
+            int insertion = -k - 1;
+            i = insertion == 0 ? -1 : afterBreakpoint[insertion - 1];
+        }
+        if (i < 0) {
+            return null;
+        }
+        int cur = to[i];
+        int prev = from[i];
+        if (prev < 0) {
+            return new Match(new LatLon(lat[cur], lon[cur]), null, Double.isNaN(ele[cur]) ? null : ele[cur]);
+        }
+        LatLon prevCoor = new LatLon(lat[prev], lon[prev]);
+        LatLon curCoor = new LatLon(lat[cur], lon[cur]);
+        long interval = time[cur] - time[prev];
+        // This is in km/h, 3.6 * m/s
+        Double speed = 3600 * prevCoor.greatCircleDistance(curCoor) / interval;
+        // The values of timeDiff are between 0 and 1, it is not seconds but a dimensionless variable
+        double timeDiff = (double) (t - time[prev]) / interval;
+        Double elevation = null;
+        if (!Double.isNaN(ele[prev]) && !Double.isNaN(ele[cur])) {
+            elevation = ele[prev] + (ele[cur] - ele[prev]) * timeDiff;
+        }
+        return new Match(prevCoor.interpolate(curCoor, timeDiff), speed, elevation);
+    }
+}
@@ -29,6 +29,18 @@ public class ImmutableGpxTrack extends WithAttributes implements GpxTrack {
         this.bounds = calculateBounds();
     }
 
+    /**
+     * Constructs a new {@code ImmutableGpxTrack} from already built segments.
+     * @param segments track segments, e.g. {@link PackedGpxTrackSegment}s
+     * @param attributes track attributes
+     */
+    public ImmutableGpxTrack(List<GpxTrackSegment> segments, Map<String, Object> attributes) {
+        this.attr = Collections.unmodifiableMap(new HashMap<>(attributes));
+        this.segments = Collections.unmodifiableCollection(new ArrayList<>(segments));
+        this.length = calculateLength();
+        this.bounds = calculateBounds();
+    }
+
     private double calculateLength() {
         double result = 0.0; // in meters
 
@@ -78,6 +90,10 @@ public class ImmutableGpxTrack extends WithAttributes implements GpxTrack {
 
     @Override
     public int getUpdateCount() {
-        return 0;
+        int updateCount = 0;
+        for (GpxTrackSegment segment : segments) {
+            updateCount += segment.getUpdateCount();
+        }
+        return updateCount;
     }
 }
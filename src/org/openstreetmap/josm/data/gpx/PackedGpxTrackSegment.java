@@ -0,0 +1,343 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.tools.date.DateUtils;
+
+/**
+ * Read-only GPX track segment storing its points in primitive columnar arrays.
+ * <p>
+ * Coordinates are stored as fixed-point integers (1e-7 degrees, i.e. about one centimeter), time as milliseconds
+ * since the epoch and elevation as double. An elevation is only stored as double if it is written back the same way,
+ * e.g. {@code "12"} or {@code "412.5"}, other values such as {@code "12.0"} are kept as strings.
+ * Other attributes are only stored for points which have some.
+ * {@link WayPoint} objects are created on demand by {@link #getWayPoints()} and only softly referenced,
+ * so that they can be reclaimed when memory runs low. The update count of the segment is increased
+ * each time the way points have to be created again, since their rendering state is lost.
+ * <p>
+ * The time is normalized to the XML UTC format when the way points are created.
+ * @see GpxConstants#PT_TIME
+ */
+public class PackedGpxTrackSegment implements GpxTrackSegment {
+
+    private static final double COORD_FACTOR = 1e7;
+    private static final int NO_COORD = Integer.MIN_VALUE;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final int size;
+    private final int[] lat;
+    private final int[] lon;
+    /** time in milliseconds, {@code null} if no point has a time */
+    private final long[] time;
+    /** elevation in meters, {@code null} if no point has an elevation */
+    private final double[] ele;
+    /** index into {@link #attrs}, {@code null} if no point has other attributes */
+    private final int[] attrIndex;
+    private final List<Map<String, Object>> attrs;
+
+    private final Bounds bounds;
+    private final double length;
+
+    private SoftReference<WayPoint[]> wayPointsRef = new SoftReference<>(null);
+    private int updateCount = -1;
+
+    /**
+     * Builds a {@link PackedGpxTrackSegment} point by point.
+     */
+    public static class Builder {
+        private int size;
+        private int[] lat = new int[16];
+        private int[] lon = new int[16];
+        private long[] time;
+        private double[] ele;
+        private int[] attrIndex;
+        private final List<Map<String, Object>> attrs = new ArrayList<>();
+
+        /**
+         * Appends a way point. The way point is not referenced by the resulting segment.
+         * @param wp way point
+         */
+        public void add(WayPoint wp) {
+            LatLon coor = wp.getCoor();
+            add(coor.lat(), coor.lon(), wp.attr, wp.time);
+        }
+
+        /**
+         * Appends a point without creating its way point. The attribute map is not referenced by the resulting
+         * segment, so that it can be reused for the next point.
+         * @param lat latitude
+         * @param lon longitude
+         * @param attr the attributes of the point, as in {@link WayPoint#attr}
+         */
+        public void add(double lat, double lon, Map<String, Object> attr) {
+            Object t = attr.get(GpxConstants.PT_TIME);
+            add(lat, lon, attr, t == null ? 0 : WayPoint.parseTime(t));
+        }
+
+        private void add(double latitude, double longitude, Map<String, Object> attr, double seconds) {
+            if (size == lat.length) {
+                int capacity = size * 2;
+                lat = Arrays.copyOf(lat, capacity);
+                lon = Arrays.copyOf(lon, capacity);
+                if (time != null) {
+                    time = Arrays.copyOf(time, capacity);
+                }
+                if (ele != null) {
+                    ele = Arrays.copyOf(ele, capacity);
+                }
+                if (attrIndex != null) {
+                    attrIndex = Arrays.copyOf(attrIndex, capacity);
+                }
+            }
+            lat[size] = toFixed(latitude);
+            lon[size] = toFixed(longitude);
+            if (time != null) {
+                time[size] = NO_TIME;
+            }
+            if (ele != null) {
+                ele[size] = Double.NaN;
+            }
+            if (attrIndex != null) {
+                attrIndex[size] = -1;
+            }
+
+            Map<String, Object> other = null;
+            for (Map.Entry<String, Object> e : attr.entrySet()) {
+                String key = e.getKey();
+                Object value = e.getValue();
+                double elevation = GpxConstants.PT_ELE.equals(key) ? parseElevation(value) : Double.NaN;
+                if (GpxConstants.PT_TIME.equals(key) && seconds != 0) {
+                    if (time == null) {
+                        time = new long[lat.length];
+                        Arrays.fill(time, NO_TIME);
+                    }
+                    time[size] = Math.round(seconds * 1000);
+                } else if (!Double.isNaN(elevation)) {
+                    if (ele == null) {
+                        ele = new double[lat.length];
+                        Arrays.fill(ele, Double.NaN);
+                    }
+                    ele[size] = elevation;
+                } else {
+                    if (other == null) {
+                        other = new HashMap<>(attr.size());
+                    }
+                    other.put(key, value);
+                }
+            }
+            if (other != null) {
+                if (attrIndex == null) {
+                    attrIndex = new int[lat.length];
+                    Arrays.fill(attrIndex, -1);
+                }
+                attrIndex[size] = attrs.size();
+                attrs.add(other);
+            }
+            size++;
+        }
+
+        /**
+         * Parses an elevation which is written back unchanged when the way point is created.
+         * @param value the elevation
+         * @return the elevation, or {@code NaN} if it has to be kept as is
+         */
+        private static double parseElevation(Object value) {
+            if (value instanceof String) {
+                try {
+                    double e = Double.parseDouble((String) value);
+                    if (!Double.isNaN(e) && formatElevation(e).equals(value))
+                        return e;
+                } catch (NumberFormatException ex) {
+                    return Double.NaN;
+                }
+            }
+            return Double.NaN;
+        }
+
+        /**
+         * Determines if no point has been added.
+         * @return {@code true} if no point has been added
+         */
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Creates the segment.
+         * @return the segment
+         */
+        public PackedGpxTrackSegment build() {
+            return new PackedGpxTrackSegment(this);
+        }
+    }
+
+    protected PackedGpxTrackSegment(Builder builder) {
+        size = builder.size;
+        lat = Arrays.copyOf(builder.lat, size);
+        lon = Arrays.copyOf(builder.lon, size);
+        time = builder.time == null ? null : Arrays.copyOf(builder.time, size);
+        ele = builder.ele == null ? null : Arrays.copyOf(builder.ele, size);
+        attrIndex = builder.attrIndex == null ? null : Arrays.copyOf(builder.attrIndex, size);
+        attrs = new ArrayList<>(builder.attrs);
+        bounds = calculateBounds();
+        length = calculateLength();
+    }
+
+    /**
+     * Creates a packed copy of the given way points.
+     * @param wayPoints way points
+     * @return a packed segment
+     */
+    public static PackedGpxTrackSegment create(Collection<WayPoint> wayPoints) {
+        Builder builder = new Builder();
+        for (WayPoint wp : wayPoints) {
+            builder.add(wp);
+        }
+        return builder.build();
+    }
+
+    private static int toFixed(double value) {
+        return Double.isNaN(value) ? NO_COORD : (int) Math.round(value * COORD_FACTOR);
+    }
+
+    private static String formatElevation(double e) {
+        return e == Math.rint(e) && Math.abs(e) < 1e15 ? Long.toString((long) e) : Double.toString(e);
+    }
+
+    private static double toDouble(int value) {
+        return value == NO_COORD ? Double.NaN : value / COORD_FACTOR;
+    }
+
+    private Bounds calculateBounds() {
+        Bounds result = null;
+        for (int i = 0; i < size; i++) {
+            LatLon ll = new LatLon(toDouble(lat[i]), toDouble(lon[i]));
+            if (result == null) {
+                result = new Bounds(ll);
+            } else {
+                result.extend(ll);
+            }
+        }
+        return result;
+    }
+
+    private double calculateLength() {
+        double result = 0.0; // in meters
+        LatLon last = null;
+        for (int i = 0; i < size; i++) {
+            LatLon ll = new LatLon(toDouble(lat[i]), toDouble(lon[i]));
+            if (last != null) {
+                Double d = last.greatCircleDistance(ll);
+                if (!d.isNaN() && !d.isInfinite()) {
+                    result += d;
+                }
+            }
+            last = ll;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of points.
+     * @return the number of points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the coordinates of the given point, without creating its way point.
+     * @param index point index
+     * @return the coordinates
+     */
+    public LatLon getCoor(int index) {
+        return new LatLon(toDouble(lat[index]), toDouble(lon[index]));
+    }
+
+    /**
+     * Returns the time of the given point, without creating its way point.
+     * @param index point index
+     * @return the time in milliseconds since the epoch, or {@code Long.MIN_VALUE} if the point has no time
+     */
+    public long getTime(int index) {
+        return time == null ? NO_TIME : time[index];
+    }
+
+    private WayPoint createWayPoint(int i) {
+        WayPoint wp = new WayPoint(getCoor(i));
+        if (attrIndex != null && attrIndex[i] >= 0) {
+            wp.attr.putAll(attrs.get(attrIndex[i]));
+        }
+        if (ele != null && !Double.isNaN(ele[i])) {
+            wp.attr.put(GpxConstants.PT_ELE, formatElevation(ele[i]));
+        }
+        if (time != null && time[i] != NO_TIME) {
+            wp.attr.put(GpxConstants.PT_TIME, DateUtils.fromDate(new Date(time[i])));
+            wp.time = time[i] / 1000.;
+        }
+        return wp;
+    }
+
+    private synchronized WayPoint[] getWayPointArray() {
+        WayPoint[] wayPoints = wayPointsRef.get();
+        if (wayPoints == null) {
+            if (updateCount >= 0 && Main.isDebugEnabled()) {
+                Main.debug("Recreating " + size + " way points of packed GPX segment");
+            }
+            wayPoints = new WayPoint[size];
+            for (int i = 0; i < size; i++) {
+                wayPoints[i] = createWayPoint(i);
+            }
+            wayPointsRef = new SoftReference<>(wayPoints);
+            updateCount++;
+        }
+        return wayPoints;
+    }
+
+    /**
+     * Returns the way points if they currently exist, without creating them.
+     * Way points created later get their east/north coordinates on demand.
+     * @return the way points, or an empty list if they do not exist
+     */
+    synchronized List<WayPoint> getExistingWayPoints() {
+        WayPoint[] wayPoints = wayPointsRef.get();
+        return wayPoints == null ? Collections.<WayPoint>emptyList() : Arrays.asList(wayPoints);
+    }
+
+    @Override
+    public Bounds getBounds() {
+        if (bounds == null)
+            return null;
+        else
+            return new Bounds(bounds);
+    }
+
+    @Override
+    public Collection<WayPoint> getWayPoints() {
+        // one traversal must see a single generation of way points, even if they are reclaimed meanwhile
+        return Collections.unmodifiableList(Arrays.asList(getWayPointArray()));
+    }
+
+    @Override
+    public double length() {
+        return length;
+    }
+
+    @Override
+    public synchronized int getUpdateCount() {
+        // the way points are created for the first time: not an update
+        return Math.max(0, updateCount);
+    }
+}
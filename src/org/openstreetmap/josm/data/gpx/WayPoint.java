@@ -65,6 +65,17 @@ public class WayPoint extends WithAttributes implements Comparable<WayPoint>, Te
         this.north = Double.NaN;
     }
 
+    /**
+     * Sets the internal cache of east/north coordinates, computed for the current projection.
+     * @param east east coordinate
+     * @param north north coordinate
+     * @see GpxData#updateEastNorthCache()
+     */
+    void setEastNorthCache(double east, double north) {
+        this.east = east;
+        this.north = north;
+    }
+
     public final LatLon getCoor() {
         return new LatLon(lat, lon);
     }
@@ -102,11 +113,20 @@ public class WayPoint extends WithAttributes implements Comparable<WayPoint>, Te
      */
     public void setTime() {
         if (attr.containsKey(PT_TIME)) {
-            try {
-                time = dateParser.get().parse(get(PT_TIME).toString()).getTime() / 1000.; /* ms => seconds */
-            } catch (Exception e) {
-                time = 0;
-            }
+            time = parseTime(get(PT_TIME));
+        }
+    }
+
+    /**
+     * Converts a time stamp into seconds from the epoch, as {@link #setTime()} does.
+     * @param value the time stamp
+     * @return the seconds from the epoch, or 0 if {@code value} is not a valid time stamp
+     */
+    static double parseTime(Object value) {
+        try {
+            return dateParser.get().parse(value.toString()).getTime() / 1000.; /* ms => seconds */
+        } catch (Exception e) {
+            return 0;
         }
     }
 
@@ -489,6 +489,18 @@ public abstract class AbstractPrimitive implements IPrimitive {
      */
     protected String[] keys;
 
+    /**
+     * Replies the keys and values of this primitive, without copying them. The array is never modified,
+     * a change of the keys replaces it.
+     *
+     * @return the alternating keys and values of this primitive, or {@code null} if it has no key.
+     * Must not be modified
+     * @see #getKeys()
+     */
+    public final String[] getKeysArray() {
+        return keys;
+    }
+
     /**
      * Replies the map of key/value pairs. Never replies null. The map can be empty, though.
      *
@@ -572,8 +584,10 @@ public abstract class AbstractPrimitive implements IPrimitive {
         } else {
             for (int i = 0; i < keys.length; i += 2) {
                 if (keys[i].equals(key)) {
-                    // This modifies the keys array but it doesn't make it invalidate for any time so its ok (see note no top)
-                    keys[i+1] = value;
+                    // the array is copied, as it may be shared (see note on top)
+                    String[] newKeys = Arrays.copyOf(keys, keys.length);
+                    newKeys[i+1] = value;
+                    keys = newKeys;
                     keysChangedImpl(originalKeys);
                     return;
                 }
@@ -10,6 +10,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -17,6 +18,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -25,6 +29,7 @@ import org.openstreetmap.josm.Main;
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.Data;
 import org.openstreetmap.josm.data.DataSource;
+import org.openstreetmap.josm.data.DataSourceIndex;
 import org.openstreetmap.josm.data.ProjectionBounds;
 import org.openstreetmap.josm.data.SelectionChangedListener;
 import org.openstreetmap.josm.data.coor.EastNorth;
@@ -33,6 +38,7 @@ import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
 import org.openstreetmap.josm.data.osm.event.ChangesetIdChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.DatasetChanges;
 import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
 import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
 import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
@@ -42,6 +48,7 @@ import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
 import org.openstreetmap.josm.data.osm.visitor.BoundingXYVisitor;
 import org.openstreetmap.josm.data.projection.Projection;
 import org.openstreetmap.josm.data.projection.ProjectionChangeListener;
+import org.openstreetmap.josm.data.projection.Projections;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.gui.tagging.ac.AutoCompletionManager;
 import org.openstreetmap.josm.tools.FilteredCollection;
@@ -101,7 +108,8 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
     private static final int MAX_SINGLE_EVENTS = 30;
 
     /**
-     * Maximum number of events to kept between beginUpdate/endUpdate. When more events are created, that simple DatasetChangedEvent is sent)
+     * Maximum number of events to kept between beginUpdate/endUpdate. When more events are created, they are summarized
+     * in a {@link DatasetChanges} sent with a DatasetChangedEvent)
      */
     private static final int MAX_EVENTS = 1000;
 
@@ -117,6 +125,10 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
     private int updateCount;
     // Events that occurred while dataset was locked but should be fired after write lock is released
     private final List<AbstractDatasetChangedEvent> cachedEvents = new ArrayList<>();
+    // Summary of the events that occurred while dataset was locked, once there are too many events to keep them
+    private DatasetChanges cachedChanges;
+    // Ways and relations to reindex at the end of the current bulk update, null if no bulk update is running
+    private Set<OsmPrimitive> deferredReindex;
 
     private int highlightUpdateCount;
 
@@ -125,6 +137,15 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private final Object selectionLock = new Object();
 
+    /** Number of nodes reprojected at once by {@link #reproject()}, while holding the read lock */
+    private static final int REPROJECTION_CHUNK_SIZE = 1 << 15;
+
+    private static final ExecutorService REPROJECTION_EXECUTOR = Executors.newCachedThreadPool(
+            Utils.newThreadFactory("dataset-reprojection-%d", Thread.NORM_PRIORITY));
+
+    private final Object reprojectionLock = new Object();
+    private Reprojection reprojection; // guarded by reprojectionLock
+
     /**
      * Constructs a new {@code DataSet}.
      */
@@ -390,10 +411,28 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
         return relations.contains(r);
     }
 
+    /**
+     * List of data sources, counting its modifications to invalidate the cached download area.
+     */
+    private static final class DataSourceList extends LinkedList<DataSource> {
+        private static final long serialVersionUID = 1L;
+
+        int getModCount() {
+            return modCount;
+        }
+    }
+
     /**
      * All data sources of this DataSet.
      */
-    public final Collection<DataSource> dataSources = new LinkedList<>();
+    public final Collection<DataSource> dataSources = new DataSourceList();
+
+    /** cached union of the data source bounds, see {@link #getDataSourceArea()} */
+    private Area dataSourceArea;
+    /** cached index of the data source bounds, see {@link #getDataSourceIndex()} */
+    private DataSourceIndex dataSourceIndex;
+    /** modification count of {@link #dataSources} when the cached area and index were computed */
+    private int dataSourceModCount = -1;
 
     /**
      * Returns a collection containing all primitives of the dataset.
@@ -924,9 +963,40 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
         return dataSources;
     }
 
+    /**
+     * Returns the total area of downloaded data (the "yellow rectangles").
+     * <p>
+     * The union is computed once and cached until {@link #dataSources} changes. Each call returns a copy,
+     * which can be modified by the caller. To test positions, use {@link #getDataSourceIndex()} instead.
+     * @return Area object encompassing downloaded data.
+     */
     @Override
     public Area getDataSourceArea() {
-        return DataSource.getDataSourceArea(dataSources);
+        synchronized (dataSources) {
+            updateDataSourceCache();
+            return dataSourceArea == null ? null : new Area(dataSourceArea);
+        }
+    }
+
+    /**
+     * Returns an index of the downloaded area, for fast containment tests.
+     * It is computed once and cached until {@link #dataSources} changes.
+     * @return the index of the downloaded area, or {@code null} if there is no data source
+     */
+    public DataSourceIndex getDataSourceIndex() {
+        synchronized (dataSources) {
+            updateDataSourceCache();
+            return dataSourceIndex;
+        }
+    }
+
+    private void updateDataSourceCache() {
+        int modCount = ((DataSourceList) dataSources).getModCount();
+        if (modCount != dataSourceModCount) {
+            dataSourceArea = DataSource.getDataSourceArea(dataSources);
+            dataSourceIndex = dataSources.isEmpty() ? null : new DataSourceIndex(dataSources);
+            dataSourceModCount = modCount;
+        }
     }
 
     /**
@@ -1076,7 +1146,9 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
         if (!nodes.add(node))
             throw new RuntimeException("Reindexing node failed to add");
         for (OsmPrimitive primitive: node.getReferrers()) {
-            if (primitive instanceof Way) {
+            if (deferredReindex != null) {
+                deferredReindex.add(primitive);
+            } else if (primitive instanceof Way) {
                 reindexWay((Way) primitive);
             } else {
                 reindexRelation((Relation) primitive);
@@ -1143,6 +1215,35 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
         updateCount++;
     }
 
+    /**
+     * Starts a bulk update, like {@link #beginUpdate()}. The spatial index of the ways and relations whose nodes or
+     * members are changed is only updated when the update ends, once per primitive, instead of after each change.
+     * This is meant for operations changing many primitives at once, like merging data sets. Until the end of the
+     * update, ways and relations must not be searched by bounding box.
+     */
+    void beginBulkUpdate() {
+        beginUpdate();
+        if (deferredReindex == null) {
+            deferredReindex = Collections.newSetFromMap(new IdentityHashMap<OsmPrimitive, Boolean>());
+        }
+    }
+
+    private void reindexDeferred() {
+        Set<OsmPrimitive> primitives = deferredReindex;
+        deferredReindex = null;
+        // the relations referring to reindexed ways are reindexed too if needed
+        for (OsmPrimitive primitive : primitives) {
+            if (primitive instanceof Way && primitive.getDataSet() == this) {
+                reindexWay((Way) primitive);
+            }
+        }
+        for (OsmPrimitive primitive : primitives) {
+            if (primitive instanceof Relation && primitive.getDataSet() == this) {
+                reindexRelation((Relation) primitive);
+            }
+        }
+    }
+
     /**
      * @see DataSet#beginUpdate()
      */
@@ -1150,19 +1251,29 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
         if (updateCount > 0) {
             updateCount--;
             if (updateCount == 0) {
-                List<AbstractDatasetChangedEvent> eventsCopy = new ArrayList<>(cachedEvents);
-                cachedEvents.clear();
-                lock.writeLock().unlock();
+                List<AbstractDatasetChangedEvent> eventsCopy;
+                DatasetChanges changesCopy;
+                try {
+                    if (deferredReindex != null) {
+                        reindexDeferred();
+                    }
+                } finally {
+                    eventsCopy = new ArrayList<>(cachedEvents);
+                    cachedEvents.clear();
+                    changesCopy = cachedChanges;
+                    cachedChanges = null;
+                    lock.writeLock().unlock();
+                }
 
-                if (!eventsCopy.isEmpty()) {
+                if (!eventsCopy.isEmpty() || changesCopy != null) {
                     lock.readLock().lock();
                     try {
-                        if (eventsCopy.size() < MAX_SINGLE_EVENTS) {
+                        if (changesCopy != null) {
+                            fireEventToListeners(new DataChangedEvent(this, null, changesCopy));
+                        } else if (eventsCopy.size() < MAX_SINGLE_EVENTS) {
                             for (AbstractDatasetChangedEvent event: eventsCopy) {
                                 fireEventToListeners(event);
                             }
-                        } else if (eventsCopy.size() == MAX_EVENTS) {
-                            fireEventToListeners(new DataChangedEvent(this));
                         } else {
                             fireEventToListeners(new DataChangedEvent(this, eventsCopy));
                         }
@@ -1187,8 +1298,18 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
     private void fireEvent(AbstractDatasetChangedEvent event) {
         if (updateCount == 0)
             throw new AssertionError("dataset events can be fired only when dataset is locked");
-        if (cachedEvents.size() < MAX_EVENTS) {
+        if (cachedChanges != null) {
+            cachedChanges.add(event);
+        } else if (cachedEvents.size() < MAX_EVENTS) {
             cachedEvents.add(event);
+        } else {
+            // too many events to keep them all, summarize them
+            cachedChanges = new DatasetChanges();
+            for (AbstractDatasetChangedEvent e : cachedEvents) {
+                cachedChanges.add(e);
+            }
+            cachedEvents.clear();
+            cachedChanges.add(event);
         }
     }
 
@@ -1205,7 +1326,11 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
     }
 
     void fireRelationMembersChanged(Relation r) {
-        reindexRelation(r);
+        if (deferredReindex != null) {
+            deferredReindex.add(r);
+        } else {
+            reindexRelation(r);
+        }
         fireEvent(new RelationMembersChangedEvent(this, r));
     }
 
@@ -1215,7 +1340,11 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
     }
 
     void fireWayNodesChanged(Way way) {
-        reindexWay(way);
+        if (deferredReindex != null) {
+            deferredReindex.add(way);
+        } else {
+            reindexWay(way);
+        }
         fireEvent(new WayNodesChangedEvent(this, way));
     }
 
@@ -1234,6 +1363,7 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
      * changed.
      */
     public void invalidateEastNorthCache() {
+        cancelReprojection();
         if (Main.getProjection() == null) return; // sanity check
         try {
             beginUpdate();
@@ -1245,6 +1375,78 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
         }
     }
 
+    /**
+     * Computes the projected east/north coordinates of all nodes in the background.
+     * <p>
+     * Nodes are projected in parallel, by chunks. Until the task completes, the coordinates of the nodes
+     * not processed yet are still computed on demand, so that the map view can be painted meanwhile.
+     * The task is cancelled by {@link #invalidateEastNorthCache()}.
+     *
+     * @return the background task
+     */
+    public Future<?> reproject() {
+        synchronized (reprojectionLock) {
+            cancelReprojection();
+            reprojection = new Reprojection();
+            return REPROJECTION_EXECUTOR.submit(reprojection);
+        }
+    }
+
+    private void cancelReprojection() {
+        synchronized (reprojectionLock) {
+            if (reprojection != null) {
+                // the chunk being processed holds the read lock, so no stale coordinates are stored once
+                // the caller gets the write lock
+                reprojection.cancelled = true;
+                reprojection = null;
+            }
+        }
+    }
+
+    private final class Reprojection implements Runnable {
+        private volatile boolean cancelled;
+
+        @Override
+        public void run() {
+            List<Node> all;
+            lock.readLock().lock();
+            try {
+                if (cancelled) return;
+                all = new ArrayList<>(getNodes());
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (int start = 0; start < all.size(); start += REPROJECTION_CHUNK_SIZE) {
+                lock.readLock().lock();
+                try {
+                    if (cancelled) return;
+                    reproject(all.subList(start, Math.min(all.size(), start + REPROJECTION_CHUNK_SIZE)));
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        }
+
+        private void reproject(List<Node> chunk) {
+            double[] coords = new double[2 * chunk.size()];
+            int i = 0;
+            for (Node n : chunk) {
+                LatLon ll = n.getCoor();
+                coords[i++] = ll == null ? Double.NaN : ll.lat();
+                coords[i++] = ll == null ? Double.NaN : ll.lon();
+            }
+            Projections.project(coords);
+            i = 0;
+            for (Node n : chunk) {
+                // nodes removed from the dataset meanwhile may be moved without lock
+                if (n.getDataSet() == DataSet.this && !Double.isNaN(coords[i]) && !Double.isNaN(coords[i + 1])) {
+                    n.setEastNorthCache(coords[i], coords[i + 1]);
+                }
+                i += 2;
+            }
+        }
+    }
+
     /**
      * Cleanups all deleted primitives (really delete them from the dataset).
      */
@@ -1348,6 +1550,9 @@ public final class DataSet implements Data, Cloneable, ProjectionChangeListener
     @Override
     public void projectionChanged(Projection oldValue, Projection newValue) {
         invalidateEastNorthCache();
+        if (newValue != null && !allPrimitives.isEmpty() && Main.pref.getBoolean("projection.background-reprojection", true)) {
+            reproject();
+        }
     }
 
     public ProjectionBounds getDataSourceBoundingBox() {
@@ -380,6 +380,28 @@ public class DataSetMerger {
         return true;
     }
 
+    /**
+     * Returns the target primitives onto which new source primitives may be merged, i.e. the new primitives
+     * which are not deleted. The list is only built if there is a new source primitive to merge.
+     * @param targets the target primitives
+     * @param sources the source primitives
+     * @return the possible merge targets of the new primitives in {@code sources}
+     */
+    private static <T extends OsmPrimitive> List<T> getCandidates(Collection<T> targets, Collection<T> sources) {
+        List<T> candidates = new ArrayList<>();
+        for (T source : sources) {
+            if (source.isNew() && !source.isDeleted()) {
+                for (T target : targets) {
+                    if (target.isNew() && !target.isDeleted()) {
+                        candidates.add(target);
+                    }
+                }
+                break;
+            }
+        }
+        return candidates;
+    }
+
     /**
      * Runs the merge operation. Successfully merged {@link OsmPrimitive}s are in
      * {@link #getTargetDataSet()}.
@@ -403,32 +425,29 @@ public class DataSetMerger {
         if (progressMonitor != null) {
             progressMonitor.beginTask(tr("Merging data..."), sourceDataSet.allPrimitives().size());
         }
-        targetDataSet.beginUpdate();
+        targetDataSet.beginBulkUpdate();
         try {
-            List<? extends OsmPrimitive> candidates = new ArrayList<>(targetDataSet.getNodes());
+            List<? extends OsmPrimitive> candidates = getCandidates(targetDataSet.getNodes(), sourceDataSet.getNodes());
             for (Node node: sourceDataSet.getNodes()) {
                 mergePrimitive(node, candidates);
                 if (progressMonitor != null) {
                     progressMonitor.worked(1);
                 }
             }
-            candidates.clear();
-            candidates = new ArrayList<>(targetDataSet.getWays());
+            candidates = getCandidates(targetDataSet.getWays(), sourceDataSet.getWays());
             for (Way way: sourceDataSet.getWays()) {
                 mergePrimitive(way, candidates);
                 if (progressMonitor != null) {
                     progressMonitor.worked(1);
                 }
             }
-            candidates.clear();
-            candidates = new ArrayList<>(targetDataSet.getRelations());
+            candidates = getCandidates(targetDataSet.getRelations(), sourceDataSet.getRelations());
             for (Relation relation: sourceDataSet.getRelations()) {
                 mergePrimitive(relation, candidates);
                 if (progressMonitor != null) {
                     progressMonitor.worked(1);
                 }
             }
-            candidates.clear();
             fixReferences();
         } finally {
             targetDataSet.endUpdate();
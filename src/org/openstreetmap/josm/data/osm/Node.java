@@ -6,6 +6,7 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.DataSourceIndex;
 import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.osm.visitor.PrimitiveVisitor;
@@ -244,7 +245,8 @@ public final class Node extends OsmPrimitive implements INode {
         boolean locked = writeLock();
         try {
             super.mergeFrom(other);
-            if (!other.isIncomplete()) {
+            // do not move (and reindex) the node if the coordinates are unchanged
+            if (!other.isIncomplete() && (((Node) other).lat != lat || ((Node) other).lon != lon)) {
                 setCoor(((Node) other).getCoor());
             }
         } finally {
@@ -344,6 +346,17 @@ public final class Node extends OsmPrimitive implements INode {
         this.north = Double.NaN;
     }
 
+    /**
+     * Sets the internal cache of projected east/north coordinates, computed for the current projection.
+     * @param east east coordinate
+     * @param north north coordinate
+     * @see DataSet#reproject()
+     */
+    void setEastNorthCache(double east, double north) {
+        this.east = east;
+        this.north = north;
+    }
+
     @Override
     public boolean concernsArea() {
         // A node cannot be an area
@@ -385,7 +398,9 @@ public final class Node extends OsmPrimitive implements INode {
 
     @Override
     public boolean isOutsideDownloadArea() {
-        return !isNewOrUndeleted() && getDataSet() != null && getDataSet().getDataSourceArea() != null
-                && !getCoor().isIn(getDataSet().getDataSourceArea());
+        if (isNewOrUndeleted() || getDataSet() == null)
+            return false;
+        DataSourceIndex index = getDataSet().getDataSourceIndex();
+        return index != null && !index.contains(getCoor());
     }
 }
@@ -40,7 +40,13 @@ public class OsmPrimitiveComparator implements Comparator<OsmPrimitive>, Seriali
         this.relationsFirst = relationsFirst;
     }
 
-    private String cachedName(OsmPrimitive p) {
+    /**
+     * Returns the display name of a primitive, computed once per comparator.
+     * Can be overridden to share the names with other components.
+     * @param p the primitive
+     * @return the display name of {@code p}
+     */
+    protected String cachedName(OsmPrimitive p) {
         String name = cache.get(p);
         if (name == null) {
             name = p.getDisplayName(DefaultNameFormatter.getInstance());
@@ -11,12 +11,24 @@ import org.openstreetmap.josm.data.osm.OsmPrimitive;
 public class DataChangedEvent extends AbstractDatasetChangedEvent {
 
     private final List<AbstractDatasetChangedEvent> events;
+    private DatasetChanges changes;
 
     public DataChangedEvent(DataSet dataSet, List<AbstractDatasetChangedEvent> events) {
         super(dataSet);
         this.events = events;
     }
 
+    /**
+     * Constructs a new {@code DataChangedEvent} consolidating many changes.
+     * @param dataSet the data set
+     * @param events the events that caused this event, or {@code null} if they are not kept
+     * @param changes the summary of the changes, or {@code null} to compute it from {@code events}
+     */
+    public DataChangedEvent(DataSet dataSet, List<AbstractDatasetChangedEvent> events, DatasetChanges changes) {
+        this(dataSet, events);
+        this.changes = changes;
+    }
+
     public DataChangedEvent(DataSet dataSet) {
         this(dataSet, null);
     }
@@ -47,4 +59,22 @@ public class DataChangedEvent extends AbstractDatasetChangedEvent {
         return events;
     }
 
+    /**
+     * Returns the summary of the changes which caused this event, if known. Listeners may use it to update
+     * themselves in proportion to the change, instead of processing the whole data set.
+     * @return the summary of the changes, or {@code null} if the whole data set should be considered as changed
+     */
+    public synchronized DatasetChanges getChanges() {
+        if (changes == null && events != null) {
+            DatasetChanges c = new DatasetChanges();
+            for (AbstractDatasetChangedEvent event : events) {
+                if (event instanceof DataChangedEvent && ((DataChangedEvent) event).getChanges() == null)
+                    return null;
+                c.add(event);
+            }
+            changes = c;
+        }
+        return changes;
+    }
+
 }
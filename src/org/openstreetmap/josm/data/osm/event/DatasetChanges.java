@@ -0,0 +1,137 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.event;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent.DatasetEventType;
+
+/**
+ * Summary of the changes of a data set, i.e. the set of primitives affected by each type of event.
+ * <p>
+ * Unlike a list of events, the summary grows with the number of changed primitives, not with the number of
+ * changes, and two summaries can be merged. It is used to consolidate many events into one
+ * {@link DataChangedEvent}, so that listeners can update themselves in proportion to the change instead of
+ * refreshing all their data. The order of the changes and the details of the events, like the original keys of
+ * a {@link TagsChangedEvent}, are not kept.
+ */
+public class DatasetChanges {
+
+    private final Map<DatasetEventType, Set<OsmPrimitive>> primitives = new EnumMap<>(DatasetEventType.class);
+
+    /**
+     * Constructs a new empty {@code DatasetChanges}.
+     */
+    public DatasetChanges() {
+        // Do nothing
+    }
+
+    /**
+     * Adds the changes of an event.
+     * @param event the event
+     * @throws IllegalArgumentException if {@code event} is a {@link DataChangedEvent} telling that the whole data
+     * set has changed, without details
+     */
+    public void add(AbstractDatasetChangedEvent event) {
+        if (event instanceof DataChangedEvent) {
+            DatasetChanges changes = ((DataChangedEvent) event).getChanges();
+            if (changes == null)
+                throw new IllegalArgumentException("Event without details: " + event);
+            addAll(changes);
+        } else {
+            add(event.getType(), event.getPrimitives());
+        }
+    }
+
+    /**
+     * Adds primitives affected by a type of change.
+     * @param type the type of change
+     * @param changed the changed primitives
+     */
+    public void add(DatasetEventType type, Collection<? extends OsmPrimitive> changed) {
+        if (changed.isEmpty())
+            return;
+        Set<OsmPrimitive> set = primitives.get(type);
+        if (set == null) {
+            set = new LinkedHashSet<>();
+            primitives.put(type, set);
+        }
+        set.addAll(changed);
+    }
+
+    /**
+     * Merges other changes into these changes.
+     * @param other the changes to merge
+     */
+    public void addAll(DatasetChanges other) {
+        for (Map.Entry<DatasetEventType, Set<OsmPrimitive>> e : other.primitives.entrySet()) {
+            add(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Returns the primitives affected by a type of change.
+     * @param type the type of change
+     * @return the primitives affected by {@code type}, in the order they changed first. Never null
+     */
+    public Set<OsmPrimitive> getPrimitives(DatasetEventType type) {
+        Set<OsmPrimitive> set = primitives.get(type);
+        return set == null ? Collections.<OsmPrimitive>emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Returns all the changed primitives.
+     * @return the primitives affected by any type of change
+     */
+    public Set<OsmPrimitive> getPrimitives() {
+        Set<OsmPrimitive> all = new LinkedHashSet<>();
+        for (Set<OsmPrimitive> set : primitives.values()) {
+            all.addAll(set);
+        }
+        return all;
+    }
+
+    /**
+     * Determines if a type of change occurred.
+     * @param type the type of change
+     * @return {@code true} if primitives are affected by {@code type}
+     */
+    public boolean contains(DatasetEventType type) {
+        return primitives.containsKey(type);
+    }
+
+    /**
+     * Determines if only the given types of change occurred.
+     * @param types the types of change
+     * @return {@code true} if no other type of change occurred
+     */
+    public boolean containsOnly(DatasetEventType... types) {
+        return Arrays.asList(types).containsAll(primitives.keySet());
+    }
+
+    /**
+     * Determines if there is no change.
+     * @return {@code true} if no primitive is changed
+     */
+    public boolean isEmpty() {
+        return primitives.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("DatasetChanges[");
+        for (Map.Entry<DatasetEventType, Set<OsmPrimitive>> e : primitives.entrySet()) {
+            if (sb.charAt(sb.length() - 1) != '[') {
+                sb.append(", ");
+            }
+            sb.append(e.getKey()).append('=').append(e.getValue().size());
+        }
+        return sb.append(']').toString();
+    }
+}
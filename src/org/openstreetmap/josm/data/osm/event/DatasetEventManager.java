@@ -1,12 +1,11 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.data.osm.event;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.SwingUtilities;
 
@@ -31,9 +30,12 @@ public class DatasetEventManager implements MapView.EditLayerChangeListener, Lis
     private final class EdtRunnable implements Runnable {
         @Override
         public void run() {
+            // events queued from now on need another run
+            edtRunScheduled.set(false);
             while (!eventsInEDT.isEmpty()) {
                 DataSet dataSet = null;
                 AbstractDatasetChangedEvent consolidatedEvent = null;
+                DatasetChanges changes = null;
                 AbstractDatasetChangedEvent event = null;
 
                 while ((event = eventsInEDT.poll()) != null) {
@@ -41,49 +43,32 @@ public class DatasetEventManager implements MapView.EditLayerChangeListener, Lis
 
                     // DataSet changed - fire consolidated event early
                     if (consolidatedEvent != null && dataSet != event.getDataset()) {
-                        fireConsolidatedEvents(inEDTListeners, consolidatedEvent);
+                        fireConsolidatedEvents(inEDTListeners, consolidatedEvent, changes);
                         consolidatedEvent = null;
+                        changes = null;
                     }
 
                     dataSet = event.getDataset();
 
                     // Build consolidated event
-                    if (event instanceof DataChangedEvent) {
-                        // DataChangeEvent can contains other events, so it gets special handling
-                        DataChangedEvent dataEvent = (DataChangedEvent) event;
-                        if (dataEvent.getEvents() == null) {
-                            consolidatedEvent = dataEvent; // Dataset was completely changed, we can ignore older events
-                        } else {
-                            if (consolidatedEvent == null) {
-                                consolidatedEvent = new DataChangedEvent(dataSet, dataEvent.getEvents());
-                            } else if (consolidatedEvent instanceof DataChangedEvent) {
-                                List<AbstractDatasetChangedEvent> evts = ((DataChangedEvent) consolidatedEvent).getEvents();
-                                if (evts != null) {
-                                    evts.addAll(dataEvent.getEvents());
-                                }
-                            } else {
-                                AbstractDatasetChangedEvent oldConsolidateEvent = consolidatedEvent;
-                                consolidatedEvent = new DataChangedEvent(dataSet, dataEvent.getEvents());
-                                ((DataChangedEvent) consolidatedEvent).getEvents().add(oldConsolidateEvent);
-                            }
-                        }
-                    } else {
-                        // Normal events
-                        if (consolidatedEvent == null) {
-                            consolidatedEvent = event;
-                        } else if (consolidatedEvent instanceof DataChangedEvent) {
-                            List<AbstractDatasetChangedEvent> evs = ((DataChangedEvent) consolidatedEvent).getEvents();
-                            if (evs != null) {
-                                evs.add(event);
-                            }
-                        } else {
-                            consolidatedEvent = new DataChangedEvent(dataSet, new ArrayList<>(Arrays.asList(consolidatedEvent)));
+                    if (isWholeDataChange(event)) {
+                        // Dataset was completely changed, we can ignore older events
+                        consolidatedEvent = event;
+                        changes = null;
+                    } else if (consolidatedEvent == null) {
+                        consolidatedEvent = event;
+                    } else if (!isWholeDataChange(consolidatedEvent)) {
+                        // Merge the changes, so that listeners can process them at once
+                        if (changes == null) {
+                            changes = new DatasetChanges();
+                            changes.add(consolidatedEvent);
                         }
+                        changes.add(event);
                     }
                 }
 
                 // Fire consolidated event
-                fireConsolidatedEvents(inEDTListeners, consolidatedEvent);
+                fireConsolidatedEvents(inEDTListeners, consolidatedEvent, changes);
             }
         }
     }
@@ -99,7 +84,7 @@ public class DatasetEventManager implements MapView.EditLayerChangeListener, Lis
         IN_EDT,
         /**
          * Fire in event dispatch thread. If more than one event arrived when event queue is checked, merged them to
-         * one event
+         * one {@link DataChangedEvent}, whose {@link DataChangedEvent#getChanges() changes} tell the changed primitives
          */
         IN_EDT_CONSOLIDATED}
 
@@ -136,6 +121,7 @@ public class DatasetEventManager implements MapView.EditLayerChangeListener, Lis
     private final CopyOnWriteArrayList<ListenerInfo> normalListeners = new CopyOnWriteArrayList<>();
     private final DataSetListener myListener = new DataSetListenerAdapter(this);
     private final Runnable edtRunnable = new EdtRunnable();
+    private final AtomicBoolean edtRunScheduled = new AtomicBoolean();
 
     /**
      * Constructs a new {@code DatasetEventManager}.
@@ -187,7 +173,16 @@ public class DatasetEventManager implements MapView.EditLayerChangeListener, Lis
         }
     }
 
-    private void fireConsolidatedEvents(List<ListenerInfo> listeners, AbstractDatasetChangedEvent event) {
+    private static boolean isWholeDataChange(AbstractDatasetChangedEvent event) {
+        return event instanceof DataChangedEvent && ((DataChangedEvent) event).getChanges() == null;
+    }
+
+    private void fireConsolidatedEvents(List<ListenerInfo> listeners, AbstractDatasetChangedEvent consolidatedEvent,
+            DatasetChanges changes) {
+        if (consolidatedEvent == null)
+            return;
+        AbstractDatasetChangedEvent event = changes == null
+                ? consolidatedEvent : new DataChangedEvent(consolidatedEvent.getDataset(), null, changes);
         for (ListenerInfo listener: listeners) {
             if (listener.consolidate) {
                 event.fire(listener.listener);
@@ -199,6 +194,9 @@ public class DatasetEventManager implements MapView.EditLayerChangeListener, Lis
     public void processDatasetEvent(AbstractDatasetChangedEvent event) {
         fireEvents(normalListeners, event);
         eventsInEDT.add(event);
-        SwingUtilities.invokeLater(edtRunnable);
+        // all the events queued until the event dispatch thread runs are consolidated in one run
+        if (edtRunScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(edtRunnable);
+        }
     }
 }
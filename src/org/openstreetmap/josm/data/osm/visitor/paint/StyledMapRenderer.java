@@ -339,6 +339,9 @@ public class StyledMapRenderer extends AbstractMapRenderer {
     private boolean leftHandTraffic;
     private Object antialiasing;
 
+    /** area of the view used to place labels and arrows, {@code null} for the clip of the graphics */
+    private Rectangle placementBounds;
+
     /**
      * Constructs a new {@code StyledMapRenderer}.
      *
@@ -1122,7 +1125,7 @@ public class StyledMapRenderer extends AbstractMapRenderer {
         FontMetrics fontMetrics = g.getFontMetrics(text.font);
         Rectangle2D rec = fontMetrics.getStringBounds(name, g);
 
-        Rectangle bounds = g.getClipBounds();
+        Rectangle bounds = getPlacementBounds();
 
         Polygon poly = new Polygon();
         Point lastPoint = null;
@@ -1303,7 +1306,7 @@ public class StyledMapRenderer extends AbstractMapRenderer {
         GeneralPath orientationArrows = showOrientation ? new GeneralPath() : null;
         GeneralPath onewayArrows = showOneway ? new GeneralPath() : null;
         GeneralPath onewayArrowsCasing = showOneway ? new GeneralPath() : null;
-        Rectangle bounds = g.getClipBounds();
+        Rectangle bounds = getPlacementBounds();
         if (bounds != null) {
             // avoid arrow heads at the border
             bounds.grow(100, 100);
@@ -1487,6 +1490,10 @@ public class StyledMapRenderer extends AbstractMapRenderer {
         return true;
     }
 
+    private Rectangle getPlacementBounds() {
+        return placementBounds != null ? new Rectangle(placementBounds) : g.getClipBounds();
+    }
+
     public boolean isInactiveMode() {
         return isInactiveMode;
     }
@@ -1674,6 +1681,30 @@ public class StyledMapRenderer extends AbstractMapRenderer {
         }
     }
 
+    /**
+     * Renders the primitives which may be visible in the current clip of the graphics only.
+     * <p>
+     * Labels and arrows are placed as for a rendering of the whole view, so that the clip can be rendered again
+     * over a previous rendering of the view, e.g. to update the area of a changed primitive.
+     * @param data The data set being rendered.
+     * @param renderVirtualNodes Whether virtual nodes can be dragged.
+     * @param margin maximal extent of the symbols and labels of a primitive out of its bounding box, in pixels
+     */
+    public void renderClipped(final DataSet data, boolean renderVirtualNodes, int margin) {
+        Rectangle view = new Rectangle(0, 0, nc.getWidth(), nc.getHeight());
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(view);
+        }
+        clip.grow(margin, margin);
+        placementBounds = view;
+        try {
+            render(data, renderVirtualNodes, nc.getLatLonBounds(clip));
+        } finally {
+            placementBounds = null;
+        }
+    }
+
     @Override
     public void render(final DataSet data, boolean renderVirtualNodes, Bounds bounds) {
         BBox bbox = bounds.toBBox();
@@ -18,6 +18,7 @@ import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.DatasetChanges;
 import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
 import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
 import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
@@ -263,6 +264,12 @@ public final class MultipolygonCache implements DataSetListener, LayerChangeList
 
     @Override
     public void dataChanged(DataChangedEvent event) {
+        DatasetChanges changes = event.getChanges();
+        if (changes != null) {
+            // Only the multipolygons referring to the changed primitives are removed from the cache
+            updateMultipolygonsReferringTo(event, changes.getPrimitives(), event.getDataset());
+            return;
+        }
         // Do not call updateMultipolygonsReferringTo as getPrimitives()
         // can return all the data set primitives for this event
         Collection<Map<Relation, Multipolygon>> maps = null;
@@ -3,7 +3,9 @@ package org.openstreetmap.josm.data.projection;
 
 import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.projection.datum.AbstractDatum;
 import org.openstreetmap.josm.data.projection.datum.Datum;
+import org.openstreetmap.josm.data.projection.proj.BatchProj;
 import org.openstreetmap.josm.data.projection.proj.Proj;
 
 /**
@@ -69,6 +71,45 @@ public abstract class AbstractProjection implements Projection {
         return new EastNorth(ellps.a * k0 * en[0] + x0, ellps.a * k0 * en[1] + y0);
     }
 
+    /**
+     * Convert from lat/lon to easting/northing for many points at once, in place. The datum and the projection
+     * convert all the points at once if they support it ({@link AbstractDatum}, {@link BatchProj}), otherwise
+     * the points are converted one by one.
+     *
+     * @param coords consecutive (lat, lon) pairs (in WGS84 lat/lon), replaced by the (east, north) pairs
+     * @param start index of the first point to convert (not of the first array element)
+     * @param end index after the last point to convert
+     * @see Projections#project(double[])
+     */
+    public void latlon2eastNorth(double[] coords, int start, int end) {
+        if (datum instanceof AbstractDatum) {
+            ((AbstractDatum) datum).fromWGS84(coords, start, end);
+        } else {
+            for (int i = 2 * start; i < 2 * end; i += 2) {
+                LatLon ll = datum.fromWGS84(new LatLon(coords[i], coords[i + 1]));
+                coords[i] = ll.lat();
+                coords[i + 1] = ll.lon();
+            }
+        }
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            coords[i] = Math.toRadians(coords[i]);
+            coords[i + 1] = Math.toRadians(coords[i + 1] - lon0);
+        }
+        if (proj instanceof BatchProj) {
+            ((BatchProj) proj).project(coords, start, end);
+        } else {
+            for (int i = 2 * start; i < 2 * end; i += 2) {
+                double[] en = proj.project(coords[i], coords[i + 1]);
+                coords[i] = en[0];
+                coords[i + 1] = en[1];
+            }
+        }
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            coords[i] = ellps.a * k0 * coords[i] + x0;
+            coords[i + 1] = ellps.a * k0 * coords[i + 1] + y0;
+        }
+    }
+
     @Override
     public LatLon eastNorth2latlon(EastNorth en) {
         double[] latlon_rad = proj.invproject((en.east() - x0) / ellps.a / k0, (en.north() - y0) / ellps.a / k0);
@@ -294,19 +294,36 @@ public final class Ellipsoid {
     }
 
     public LatLon cart2LatLon(double[] xyz, double epsilon) {
-        double norm = Math.sqrt(xyz[0] * xyz[0] + xyz[1] * xyz[1]);
-        double lg = 2.0 * Math.atan(xyz[1] / (xyz[0] + norm));
-        double lt = Math.atan(xyz[2] / (norm * (1.0 - (a * e2 / Math.sqrt(xyz[0] * xyz[0] + xyz[1] * xyz[1] + xyz[2] * xyz[2])))));
+        double[] latlon = new double[2];
+        cart2LatLon(xyz[0], xyz[1], xyz[2], epsilon, latlon, 0);
+        return new LatLon(latlon[0], latlon[1]);
+    }
+
+    /**
+     * convert cartesian coordinates to ellipsoidal coordinates, without allocating any object
+     *
+     * @param x the X coordinate in meters
+     * @param y the Y coordinate in meters
+     * @param z the Z coordinate in meters
+     * @param epsilon the precision of the latitude iteration
+     * @param latlon array receiving the latitude and longitude in degrees
+     * @param offset index of the latitude in {@code latlon}, the longitude is stored right after it
+     */
+    public void cart2LatLon(double x, double y, double z, double epsilon, double[] latlon, int offset) {
+        double norm = Math.sqrt(x * x + y * y);
+        double lg = 2.0 * Math.atan(y / (x + norm));
+        double lt = Math.atan(z / (norm * (1.0 - (a * e2 / Math.sqrt(x * x + y * y + z * z)))));
         double delta = 1.0;
         while (delta > epsilon) {
             double s2 = Math.sin(lt);
             s2 *= s2;
-            double l = Math.atan((xyz[2] / norm)
+            double l = Math.atan((z / norm)
                     / (1.0 - (a * e2 * Math.cos(lt) / (norm * Math.sqrt(1.0 - e2 * s2)))));
             delta = Math.abs(l - lt);
             lt = l;
         }
-        return new LatLon(Math.toDegrees(lt), Math.toDegrees(lg));
+        latlon[offset] = Math.toDegrees(lt);
+        latlon[offset + 1] = Math.toDegrees(lg);
     }
 
     /**
@@ -316,15 +333,25 @@ public final class Ellipsoid {
      * @return the corresponding (X, Y Z) cartesian coordinates in meters.
      */
     public double[] latLon2Cart(LatLon coord) {
-        double phi = Math.toRadians(coord.lat());
-        double lambda = Math.toRadians(coord.lon());
+        double[] xyz = new double[3];
+        latLon2Cart(coord.lat(), coord.lon(), xyz);
+        return xyz;
+    }
+
+    /**
+     * convert ellipsoidal coordinates to cartesian coordinates, without allocating any object
+     *
+     * @param lat The latitude in degrees
+     * @param lon The longitude in degrees
+     * @param xyz array receiving the (X, Y Z) cartesian coordinates in meters
+     */
+    public void latLon2Cart(double lat, double lon, double[] xyz) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
 
         double Rn = a / Math.sqrt(1 - e2 * Math.pow(Math.sin(phi), 2));
-        double[] xyz = new double[3];
         xyz[0] = Rn * Math.cos(phi) * Math.cos(lambda);
         xyz[1] = Rn * Math.cos(phi) * Math.sin(lambda);
         xyz[2] = Rn * (1 - e2) * Math.sin(phi);
-
-        return xyz;
     }
 }
@@ -15,6 +15,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -59,6 +62,63 @@ public final class Projections {
         return Main.getProjection().eastNorth2latlon(en);
     }
 
+    /** Minimal number of points converted by each task of {@link #project(double[])} */
+    private static final int PROJECT_CHUNK_SIZE = 8192;
+
+    private static final class ProjectThreadPool {
+        // lazily created on first bulk projection
+        static final Pair<Integer, ExecutorService> POOL = Utils.newThreadPool(
+                "projection.numberOfThreads", "projection-%d", Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * Converts many points from lat/lon to east/north with the current projection, in place.
+     * Large arrays are split into chunks which are converted in parallel. The points are converted one by one
+     * if the projection does not extend {@link AbstractProjection}.
+     * @param coords consecutive (lat, lon) pairs in degrees, replaced by (east, north) pairs
+     * @see AbstractProjection#latlon2eastNorth(double[], int, int)
+     */
+    public static void project(double[] coords) {
+        final int count = coords.length / 2;
+        if (!(Main.getProjection() instanceof AbstractProjection)) {
+            Projection proj = Main.getProjection();
+            for (int i = 0; i < 2 * count; i += 2) {
+                EastNorth en = proj.latlon2eastNorth(new LatLon(coords[i], coords[i + 1]));
+                coords[i] = en.east();
+                coords[i + 1] = en.north();
+            }
+            return;
+        }
+        final AbstractProjection proj = (AbstractProjection) Main.getProjection();
+        int tasks = count / PROJECT_CHUNK_SIZE;
+        if (tasks > 1) {
+            tasks = Math.min(tasks, ProjectThreadPool.POOL.a);
+        }
+        if (tasks <= 1) {
+            proj.latlon2eastNorth(coords, 0, count);
+            return;
+        }
+        final double[] c = coords;
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            final int start = (int) ((long) count * i / tasks);
+            final int end = (int) ((long) count * (i + 1) / tasks);
+            futures.add(ProjectThreadPool.POOL.b.submit(new Runnable() {
+                @Override
+                public void run() {
+                    proj.latlon2eastNorth(c, start, end);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
     /*********************************
      * Registry for custom projection
      *
@@ -1,6 +1,7 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.data.projection.datum;
 
+import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.projection.Ellipsoid;
 
 public abstract class AbstractDatum implements Datum {
@@ -35,4 +36,19 @@ public abstract class AbstractDatum implements Datum {
     public Ellipsoid getEllipsoid() {
         return ellps;
     }
+
+    /**
+     * Convert lat/lon from WGS84 to this datum for many points at once, in place.
+     * Subclasses should override it to convert the points without allocating objects.
+     * @param coords consecutive (lat, lon) pairs in degrees, replaced by the converted values
+     * @param start index of the first point to convert (not of the first array element)
+     * @param end index after the last point to convert
+     */
+    public void fromWGS84(double[] coords, int start, int end) {
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            LatLon ll = fromWGS84(new LatLon(coords[i], coords[i + 1]));
+            coords[i] = ll.lat();
+            coords[i + 1] = ll.lon();
+        }
+    }
 }
@@ -24,6 +24,15 @@ public class CentricDatum extends AbstractDatum {
         return this.ellps.cart2LatLon(Ellipsoid.WGS84.latLon2Cart(ll));
     }
 
+    @Override
+    public void fromWGS84(double[] coords, int start, int end) {
+        double[] xyz = new double[3];
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            Ellipsoid.WGS84.latLon2Cart(coords[i], coords[i + 1], xyz);
+            this.ellps.cart2LatLon(xyz[0], xyz[1], xyz[2], 1e-11, coords, i);
+        }
+    }
+
     @Override
     public String toString() {
         return "CentricDatum{ellipsoid="+ellps+'}';
@@ -29,4 +29,9 @@ public class NTV2Datum extends AbstractDatum {
         nadgrids.getShiftFile().gridShiftReverse(gs);
         return new LatLon(ll.lat() + gs.getLatShiftDegrees(), ll.lon() + gs.getLonShiftPositiveEastDegrees());
     }
+
+    @Override
+    public void fromWGS84(double[] coords, int start, int end) {
+        nadgrids.getShiftFile().gridShiftReverse(coords, start, end);
+    }
 }
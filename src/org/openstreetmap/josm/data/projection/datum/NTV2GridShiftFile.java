@@ -19,16 +19,21 @@
  */
 package org.openstreetmap.josm.data.projection.datum;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.tools.Utils;
 
 /**
  * Models the NTv2 format Grid Shift File and exposes methods to shift
@@ -42,15 +47,12 @@ import org.openstreetmap.josm.Main;
  * The older 'Australian' binary format is not supported, only the
  * official Canadian format, which is now also used for the national
  * Australian Grid.
- * <p>Grid Shift files can be read as InputStreams or RandomAccessFiles.
- * Loading an InputStream places all the required node information
- * (accuracy data is optional) into heap based Java arrays. This is the
- * highest perfomance option, and is useful for large volume transformations.
- * Non-file data sources (eg using an SQL Blob) are also supported through
- * InputStream. The RandonAccessFile option has a much smaller memory
- * footprint as only the Sub Grid headers are stored in memory, but
- * transformation is slower because the file must be read a number of
- * times for each transformation.
+ * <p>Grid Shift files can be memory-mapped or read as InputStreams.
+ * In both cases the node data is read in place from the file content,
+ * only the Sub Grid headers are stored in Java objects. A memory-mapped
+ * file does not use the Java heap and its pages are only loaded when used.
+ * Non-file data sources (eg resources in a jar file) are supported through
+ * InputStream, the whole file content is then stored in the Java heap.
  * <p>Coordinates may be shifted Forward (ie from and to the Datums specified
  * in the Grid Shift File header) or Reverse. The reverse transformation
  * uses an iterative approach to approximate the Grid Shift, as the
@@ -62,6 +64,7 @@ import org.openstreetmap.josm.Main;
  * @author Peter Yuill
  * Modifified for JOSM :
  * - removed the RandomAccessFile mode (Pieren)
+ * - read node data in place, from a memory-mapped file or a heap buffer
  */
 public class NTV2GridShiftFile implements Serializable {
 
@@ -82,17 +85,9 @@ public class NTV2GridShiftFile implements Serializable {
     private NTV2SubGrid[] topLevelSubGrid;
     private NTV2SubGrid lastSubGrid;
 
-    private static void readBytes(InputStream in, byte[] b) throws IOException {
-        if (in.read(b) < b.length) {
-            Main.error("Failed to read expected amount of bytes ("+ b.length +") from stream");
-        }
-    }
-
     /**
-     * Load a Grid Shift File from an InputStream. The Grid Shift node
-     * data is stored in Java arrays, which will occupy about the same memory
-     * as the original file with accuracy data included, and about half that
-     * with accuracy data excluded. The size of the Australian national file
+     * Load a Grid Shift File from an InputStream. The whole file content is
+     * stored in the Java heap. The size of the Australian national file
      * is 4.5MB, and the Canadian national file is 13.5MB
      * <p>The InputStream is closed by this method.
      *
@@ -101,63 +96,71 @@ public class NTV2GridShiftFile implements Serializable {
      * @throws IOException if any I/O error occurs
      */
     public void loadGridShiftFile(InputStream in, boolean loadAccuracy) throws IOException {
-        byte[] b8 = new byte[8];
-        boolean bigEndian = true;
+        byte[] content = Utils.readBytesFromStream(in);
+        if (content == null)
+            throw new IllegalArgumentException("Input file is not an NTv2 grid shift file");
+        loadGridShiftFile(ByteBuffer.wrap(content), loadAccuracy);
+    }
+
+    /**
+     * Load a Grid Shift File by mapping it into memory. The node data is
+     * not copied, it is read from the mapped file each time a coordinate is shifted.
+     *
+     * @param file Grid Shift File
+     * @param loadAccuracy is Accuracy data to be used as well as shift data?
+     * @throws IOException if any I/O error occurs
+     */
+    public void loadGridShiftFile(File file, boolean loadAccuracy) throws IOException {
+        try (FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            loadGridShiftFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), loadAccuracy);
+        }
+    }
+
+    /**
+     * Load a Grid Shift File from the content of a buffer, from its position to its limit.
+     * The node data is not copied, the buffer content must not be modified afterwards.
+     *
+     * @param buffer Grid Shift File content
+     * @param loadAccuracy is Accuracy data to be used as well as shift data?
+     */
+    public void loadGridShiftFile(ByteBuffer buffer, boolean loadAccuracy) {
+        ByteBuffer in = buffer.slice().order(ByteOrder.BIG_ENDIAN);
         fromEllipsoid = "";
         toEllipsoid = "";
         topLevelSubGrid = null;
-        readBytes(in, b8);
-        String overviewHeaderCountId = new String(b8, StandardCharsets.UTF_8);
-        if (!"NUM_OREC".equals(overviewHeaderCountId))
-            throw new IllegalArgumentException("Input file is not an NTv2 grid shift file");
-        readBytes(in, b8);
-        overviewHeaderCount = NTV2Util.getIntBE(b8, 0);
-        if (overviewHeaderCount == 11) {
-            bigEndian = true;
-        } else {
-            overviewHeaderCount = NTV2Util.getIntLE(b8, 0);
-            if (overviewHeaderCount == 11) {
-                bigEndian = false;
-            } else
+        try {
+            String overviewHeaderCountId = NTV2Util.getString(in);
+            if (!"NUM_OREC".equals(overviewHeaderCountId))
                 throw new IllegalArgumentException("Input file is not an NTv2 grid shift file");
-        }
-        readBytes(in, b8);
-        readBytes(in, b8);
-        subGridHeaderCount = NTV2Util.getInt(b8, bigEndian);
-        readBytes(in, b8);
-        readBytes(in, b8);
-        subGridCount = NTV2Util.getInt(b8, bigEndian);
-        NTV2SubGrid[] subGrid = new NTV2SubGrid[subGridCount];
-        readBytes(in, b8);
-        readBytes(in, b8);
-        shiftType = new String(b8, StandardCharsets.UTF_8);
-        readBytes(in, b8);
-        readBytes(in, b8);
-        version = new String(b8, StandardCharsets.UTF_8);
-        readBytes(in, b8);
-        readBytes(in, b8);
-        fromEllipsoid = new String(b8, StandardCharsets.UTF_8);
-        readBytes(in, b8);
-        readBytes(in, b8);
-        toEllipsoid = new String(b8, StandardCharsets.UTF_8);
-        readBytes(in, b8);
-        readBytes(in, b8);
-        fromSemiMajorAxis = NTV2Util.getDouble(b8, bigEndian);
-        readBytes(in, b8);
-        readBytes(in, b8);
-        fromSemiMinorAxis = NTV2Util.getDouble(b8, bigEndian);
-        readBytes(in, b8);
-        readBytes(in, b8);
-        toSemiMajorAxis = NTV2Util.getDouble(b8, bigEndian);
-        readBytes(in, b8);
-        readBytes(in, b8);
-        toSemiMinorAxis = NTV2Util.getDouble(b8, bigEndian);
+            overviewHeaderCount = in.getInt(in.position());
+            if (overviewHeaderCount != 11) {
+                in.order(ByteOrder.LITTLE_ENDIAN);
+                overviewHeaderCount = in.getInt(in.position());
+                if (overviewHeaderCount != 11)
+                    throw new IllegalArgumentException("Input file is not an NTv2 grid shift file");
+            }
+            in.position(in.position() + 8);
+            subGridHeaderCount = NTV2Util.getIntRecord(in);
+            subGridCount = NTV2Util.getIntRecord(in);
+            shiftType = NTV2Util.getStringRecord(in);
+            version = NTV2Util.getStringRecord(in);
+            fromEllipsoid = NTV2Util.getStringRecord(in);
+            toEllipsoid = NTV2Util.getStringRecord(in);
+            fromSemiMajorAxis = NTV2Util.getDoubleRecord(in);
+            fromSemiMinorAxis = NTV2Util.getDoubleRecord(in);
+            toSemiMajorAxis = NTV2Util.getDoubleRecord(in);
+            toSemiMinorAxis = NTV2Util.getDoubleRecord(in);
 
-        for (int i = 0; i < subGridCount; i++) {
-            subGrid[i] = new NTV2SubGrid(in, bigEndian, loadAccuracy);
+            NTV2SubGrid[] subGrid = new NTV2SubGrid[subGridCount];
+            for (int i = 0; i < subGridCount; i++) {
+                subGrid[i] = new NTV2SubGrid(in, loadAccuracy);
+            }
+            topLevelSubGrid = createSubGridTree(subGrid);
+            lastSubGrid = topLevelSubGrid[0];
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Input file is not an NTv2 grid shift file", e);
         }
-        topLevelSubGrid = createSubGridTree(subGrid);
-        lastSubGrid = topLevelSubGrid[0];
     }
 
     /**
@@ -203,11 +206,7 @@ public class NTV2GridShiftFile implements Serializable {
      * @return True if the coordinate is within a Sub Grid, false if not
      */
     public boolean gridShiftForward(NTV2GridShift gs) {
-        // Try the last sub grid first, big chance the coord is still within it
-        NTV2SubGrid subGrid = lastSubGrid.getSubGridForCoord(gs.getLonPositiveWestSeconds(), gs.getLatSeconds());
-        if (subGrid == null) {
-            subGrid = getSubGrid(gs.getLonPositiveWestSeconds(), gs.getLatSeconds());
-        }
+        NTV2SubGrid subGrid = getSubGrid(lastSubGrid, gs.getLonPositiveWestSeconds(), gs.getLatSeconds());
         if (subGrid == null)
             return false;
         else {
@@ -249,6 +248,61 @@ public class NTV2GridShiftFile implements Serializable {
         return true;
     }
 
+    /**
+     * Shift many coordinates in the Reverse direction of the Grid Shift File, in place.
+     * Coordinates outside the Sub Grids are not changed.
+     * <p>Contrary to {@link #gridShiftReverse(NTV2GridShift)}, this method does not
+     * share the last used Sub Grid with other threads.
+     *
+     * @param coords consecutive (lat, lon) pairs in decimal Degrees, using Positive East Longitude
+     * @param start index of the first coordinate to shift (not of the first array element)
+     * @param end index after the last coordinate to shift
+     */
+    public void gridShiftReverse(double[] coords, int start, int end) {
+        NTV2SubGrid last = lastSubGrid;
+        double[] shift = new double[2];
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            double lat = coords[i] * 3600.0;
+            double lon = -coords[i + 1] * 3600.0;
+            // same iteration as gridShiftReverse(NTV2GridShift)
+            double forwardLat = lat;
+            double forwardLon = lon;
+            boolean found = true;
+            for (int j = 0; j < 4 && found; j++) {
+                NTV2SubGrid subGrid = getSubGrid(last, forwardLon, forwardLat);
+                if (subGrid == null) {
+                    found = false;
+                } else {
+                    subGrid.interpolateShift(forwardLon, forwardLat, shift);
+                    last = subGrid;
+                    forwardLon = lon - shift[0];
+                    forwardLat = lat - shift[1];
+                }
+            }
+            if (found) {
+                coords[i] -= shift[1] / 3600.0;
+                coords[i + 1] += shift[0] / 3600.0;
+            }
+        }
+    }
+
+    /**
+     * Find the finest SubGrid containing the coordinate, trying the last used Sub Grid first.
+     *
+     * @param last last used Sub Grid or null
+     * @param lon Longitude in Positive West Seconds
+     * @param lat Latitude in Seconds
+     * @return The SubGrid found or null
+     */
+    private NTV2SubGrid getSubGrid(NTV2SubGrid last, double lon, double lat) {
+        // big chance the coord is still within the last sub grid
+        NTV2SubGrid subGrid = last == null ? null : last.getSubGridForCoord(lon, lat);
+        if (subGrid == null) {
+            subGrid = getSubGrid(lon, lat);
+        }
+        return subGrid;
+    }
+
     /**
      * Find the finest SubGrid containing the coordinate, specified
      * in Positive West Seconds
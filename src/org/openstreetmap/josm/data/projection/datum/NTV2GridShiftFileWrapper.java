@@ -1,6 +1,7 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.data.projection.datum;
 
+import java.io.File;
 import java.io.InputStream;
 
 import org.openstreetmap.josm.io.CachedFile;
@@ -9,6 +10,7 @@ import org.openstreetmap.josm.io.CachedFile;
  * Wrapper for {@link NTV2GridShiftFile}.
  *
  * Loads the shift file from disk, when it is first accessed.
+ * Grid files available as local files are memory-mapped.
  * @since 5226
  */
 public class NTV2GridShiftFileWrapper {
@@ -49,11 +51,21 @@ public class NTV2GridShiftFileWrapper {
      * The grid file is only loaded once, when first accessed.
      * @return The NTv2 grid file
      */
-    public NTV2GridShiftFile getShiftFile() {
+    public synchronized NTV2GridShiftFile getShiftFile() {
         if (instance == null) {
-            try (InputStream is = new CachedFile(gridFileName).getInputStream()) {
-                instance = new NTV2GridShiftFile();
-                instance.loadGridShiftFile(is, false);
+            try {
+                CachedFile cf = new CachedFile(gridFileName);
+                File file = cf.getFile();
+                NTV2GridShiftFile shiftFile = new NTV2GridShiftFile();
+                if (file != null) {
+                    shiftFile.loadGridShiftFile(file, false);
+                } else {
+                    // resources from the jar file cannot be mapped
+                    try (InputStream is = cf.getInputStream()) {
+                        shiftFile.loadGridShiftFile(is, false);
+                    }
+                }
+                instance = shiftFile;
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
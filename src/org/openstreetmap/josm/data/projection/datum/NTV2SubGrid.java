@@ -22,6 +22,7 @@ package org.openstreetmap.josm.data.projection.datum;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 
 import org.openstreetmap.josm.Main;
@@ -35,6 +36,7 @@ import org.openstreetmap.josm.tools.Utils;
  * - removed the RandomAccessFile mode (Pieren)
  * - read grid file by single bytes. Workaround for a bug in some VM not supporting
  *   file reading by group of 4 bytes from a jar file.
+ * - read node data in place from a (memory-mapped) buffer
  */
 public class NTV2SubGrid implements Cloneable, Serializable {
 
@@ -59,6 +61,18 @@ public class NTV2SubGrid implements Cloneable, Serializable {
     private float[] latAccuracy;
     private float[] lonAccuracy;
 
+    /** Size of the data of a node: lat shift, lon shift, lat accuracy and lon accuracy as floats */
+    private static final int NODE_SIZE = 16;
+    private static final int LAT_SHIFT = 0;
+    private static final int LON_SHIFT = 1;
+    private static final int LAT_ACCURACY = 2;
+    private static final int LON_ACCURACY = 3;
+
+    /** Node data read in place, {@code null} if the node data is stored in the arrays */
+    private transient ByteBuffer data;
+    private int dataOffset;
+    private boolean dataAccuracy;
+
     private NTV2SubGrid[] subGrid;
 
     /**
@@ -148,6 +162,39 @@ public class NTV2SubGrid implements Cloneable, Serializable {
         }
     }
 
+    /**
+     * Construct a Sub Grid from a buffer positioned at its header. The node data is not copied,
+     * it is read from the buffer each time a coordinate is shifted.
+     * The position of the buffer is moved after the node data of the Sub Grid.
+     *
+     * @param in GridShiftFile buffer, with the byte order of the file
+     * @param loadAccuracy is the node Accuracy data to be used?
+     */
+    public NTV2SubGrid(ByteBuffer in, boolean loadAccuracy) {
+        subGridName = NTV2Util.getStringRecord(in).trim();
+        parentSubGridName = NTV2Util.getStringRecord(in).trim();
+        created = NTV2Util.getStringRecord(in);
+        updated = NTV2Util.getStringRecord(in);
+        minLat = NTV2Util.getDoubleRecord(in);
+        maxLat = NTV2Util.getDoubleRecord(in);
+        minLon = NTV2Util.getDoubleRecord(in);
+        maxLon = NTV2Util.getDoubleRecord(in);
+        latInterval = NTV2Util.getDoubleRecord(in);
+        lonInterval = NTV2Util.getDoubleRecord(in);
+        lonColumnCount = 1 + (int) ((maxLon - minLon) / lonInterval);
+        latRowCount = 1 + (int) ((maxLat - minLat) / latInterval);
+        nodeCount = NTV2Util.getIntRecord(in);
+        if (nodeCount != lonColumnCount * latRowCount)
+            throw new IllegalStateException("SubGrid " + subGridName + " has inconsistent grid dimesions");
+        if (in.remaining() < (long) nodeCount * NODE_SIZE)
+            throw new IllegalStateException("SubGrid " + subGridName + " is truncated");
+        // duplicate() does not keep the byte order
+        data = in.duplicate().order(in.order());
+        dataOffset = in.position();
+        dataAccuracy = loadAccuracy;
+        in.position(dataOffset + nodeCount * NODE_SIZE);
+    }
+
     private static void readBytes(InputStream in, byte[] b) throws IOException {
         if (in.read(b) < b.length) {
             Main.error("Failed to read expected amount of bytes ("+ b.length +") from stream");
@@ -223,42 +270,71 @@ public class NTV2SubGrid implements Cloneable, Serializable {
      * @param gs GridShift object containing the coordinate to shift and the shift values
      */
     public void interpolateGridShift(NTV2GridShift gs) {
-        int lonIndex = (int) ((gs.getLonPositiveWestSeconds() - minLon) / lonInterval);
-        int latIndex = (int) ((gs.getLatSeconds() - minLat) / latInterval);
+        double lon = gs.getLonPositiveWestSeconds();
+        double lat = gs.getLatSeconds();
+        int lonIndex = (int) ((lon - minLon) / lonInterval);
+        int latIndex = (int) ((lat - minLat) / latInterval);
 
-        double x = (gs.getLonPositiveWestSeconds() - (minLon + (lonInterval * lonIndex))) / lonInterval;
-        double y = (gs.getLatSeconds() - (minLat + (latInterval * latIndex))) / latInterval;
-
-        // Find the nodes at the four corners of the cell
+        double x = (lon - (minLon + (lonInterval * lonIndex))) / lonInterval;
+        double y = (lat - (minLat + (latInterval * latIndex))) / latInterval;
 
+        // Find the node at the A corner of the cell
         int indexA = lonIndex + (latIndex * lonColumnCount);
-        int indexB = indexA + 1;
-        int indexC = indexA + lonColumnCount;
-        int indexD = indexC + 1;
 
-        gs.setLonShiftPositiveWestSeconds(interpolate(
-                lonShift[indexA], lonShift[indexB], lonShift[indexC], lonShift[indexD], x, y));
+        gs.setLonShiftPositiveWestSeconds(interpolate(LON_SHIFT, indexA, x, y));
+        gs.setLatShiftSeconds(interpolate(LAT_SHIFT, indexA, x, y));
 
-        gs.setLatShiftSeconds(interpolate(
-                latShift[indexA], latShift[indexB], latShift[indexC], latShift[indexD], x, y));
-
-        if (lonAccuracy == null) {
-            gs.setLonAccuracyAvailable(false);
-        } else {
-            gs.setLonAccuracyAvailable(true);
-            gs.setLonAccuracySeconds(interpolate(
-                    lonAccuracy[indexA], lonAccuracy[indexB], lonAccuracy[indexC], lonAccuracy[indexD], x, y));
+        boolean accuracy = data != null ? dataAccuracy : lonAccuracy != null;
+        gs.setLonAccuracyAvailable(accuracy);
+        gs.setLatAccuracyAvailable(accuracy);
+        if (accuracy) {
+            gs.setLonAccuracySeconds(interpolate(LON_ACCURACY, indexA, x, y));
+            gs.setLatAccuracySeconds(interpolate(LAT_ACCURACY, indexA, x, y));
         }
+    }
 
-        if (latAccuracy == null) {
-            gs.setLatAccuracyAvailable(false);
-        } else {
-            gs.setLatAccuracyAvailable(true);
-            gs.setLatAccuracySeconds(interpolate(
-                    latAccuracy[indexA], latAccuracy[indexB], latAccuracy[indexC], latAccuracy[indexD], x, y));
+    /**
+     * Interpolate the shift values for a coordinate in the 'from' datum of the GridShiftFile,
+     * like {@link #interpolateGridShift(NTV2GridShift)} but without accuracy.
+     * @param lon Longitude in Positive West Seconds
+     * @param lat Latitude in Seconds
+     * @param shift receives the longitude shift (Positive West Seconds) and the latitude shift (Seconds)
+     */
+    void interpolateShift(double lon, double lat, double[] shift) {
+        int lonIndex = (int) ((lon - minLon) / lonInterval);
+        int latIndex = (int) ((lat - minLat) / latInterval);
+
+        double x = (lon - (minLon + (lonInterval * lonIndex))) / lonInterval;
+        double y = (lat - (minLat + (latInterval * latIndex))) / latInterval;
+
+        // Find the node at the A corner of the cell
+        int indexA = lonIndex + (latIndex * lonColumnCount);
+        shift[0] = interpolate(LON_SHIFT, indexA, x, y);
+        shift[1] = interpolate(LAT_SHIFT, indexA, x, y);
+    }
+
+    private float getNodeValue(int field, int index) {
+        if (data != null)
+            return data.getFloat(dataOffset + index * NODE_SIZE + field * 4);
+        switch (field) {
+        case LAT_SHIFT: return latShift[index];
+        case LON_SHIFT: return lonShift[index];
+        case LAT_ACCURACY: return latAccuracy[index];
+        default: return lonAccuracy[index];
         }
     }
 
+    /**
+     * Interpolate a value of the four nodes at the corners of a cell.
+     */
+    private double interpolate(int field, int indexA, double x, double y) {
+        int indexB = indexA + 1;
+        int indexC = indexA + lonColumnCount;
+        int indexD = indexC + 1;
+        return interpolate(getNodeValue(field, indexA), getNodeValue(field, indexB),
+                getNodeValue(field, indexC), getNodeValue(field, indexD), x, y);
+    }
+
     public String getParentSubGridName() {
         return parentSubGridName;
     }
@@ -19,6 +19,9 @@
  */
 package org.openstreetmap.josm.data.projection.datum;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import org.openstreetmap.josm.Main;
 
 /**
@@ -104,6 +107,49 @@ public final class NTV2Util {
         return Double.longBitsToDouble(l);
     }
 
+    /**
+     * Get a string from the next 8 bytes of a buffer.
+     * @param b the buffer
+     * @return the string
+     */
+    public static String getString(ByteBuffer b) {
+        byte[] b8 = new byte[8];
+        b.get(b8);
+        return new String(b8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the string value of the next header record (8 bytes name and 8 bytes value) of a buffer.
+     * @param b the buffer, with the byte order of the file
+     * @return the string value
+     */
+    public static String getStringRecord(ByteBuffer b) {
+        b.position(b.position() + 8);
+        return getString(b);
+    }
+
+    /**
+     * Get the int value of the next header record (8 bytes name and 8 bytes value) of a buffer.
+     * @param b the buffer, with the byte order of the file
+     * @return the int value
+     */
+    public static int getIntRecord(ByteBuffer b) {
+        b.position(b.position() + 8);
+        int value = b.getInt();
+        b.position(b.position() + 4);
+        return value;
+    }
+
+    /**
+     * Get the double value of the next header record (8 bytes name and 8 bytes value) of a buffer.
+     * @param b the buffer, with the byte order of the file
+     * @return the double value
+     */
+    public static double getDoubleRecord(ByteBuffer b) {
+        b.position(b.position() + 8);
+        return b.getDouble();
+    }
+
     /**
      * Does the current VM support the New IO api
      * @return true or false
@@ -24,4 +24,9 @@ public class NullDatum extends AbstractDatum {
         return ll;
     }
 
+    @Override
+    public void fromWGS84(double[] coords, int start, int end) {
+        // nothing to do
+    }
+
 }
@@ -61,4 +61,16 @@ public class SevenParameterDatum extends AbstractDatum {
         double z = (1-s)*(-dz + xyz[2] + ((-dy+xyz[1])*(-rx) - (-dx+xyz[0])*(-ry)));
         return this.ellps.cart2LatLon(new double[] {x, y, z});
     }
+
+    @Override
+    public void fromWGS84(double[] coords, int start, int end) {
+        double[] xyz = new double[3];
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            Ellipsoid.WGS84.latLon2Cart(coords[i], coords[i + 1], xyz);
+            double x = (1-s)*(-dx + xyz[0] + ((-dz+xyz[2])*(-ry) - (-dy+xyz[1])*(-rz)));
+            double y = (1-s)*(-dy + xyz[1] + ((-dx+xyz[0])*(-rz) - (-dz+xyz[2])*(-rx)));
+            double z = (1-s)*(-dz + xyz[2] + ((-dy+xyz[1])*(-rx) - (-dx+xyz[0])*(-ry)));
+            this.ellps.cart2LatLon(x, y, z, 1e-11, coords, i);
+        }
+    }
 }
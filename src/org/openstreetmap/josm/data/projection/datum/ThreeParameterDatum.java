@@ -36,4 +36,13 @@ public class ThreeParameterDatum extends AbstractDatum {
         return this.ellps.cart2LatLon(xyz);
     }
 
+    @Override
+    public void fromWGS84(double[] coords, int start, int end) {
+        double[] xyz = new double[3];
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            Ellipsoid.WGS84.latLon2Cart(coords[i], coords[i + 1], xyz);
+            this.ellps.cart2LatLon(xyz[0] - dx, xyz[1] - dy, xyz[2] - dz, 1e-11, coords, i);
+        }
+    }
+
 }
@@ -0,0 +1,21 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.projection.proj;
+
+/**
+ * A {@link Proj} which can convert many points at once, without allocating an array for each point.
+ * <p>
+ * Implementing this interface is optional, the points of other projections are converted one by one
+ * with {@link Proj#project(double, double)}.
+ */
+public interface BatchProj extends Proj {
+
+    /**
+     * Convert lat/lon to east/north for many points at once, in place.
+     *
+     * @param coords consecutive (lat, lon) pairs in radians, replaced by (east, north) pairs
+     * in meters, divided by the semi major axis of the ellipsoid
+     * @param start index of the first point to convert (not of the first array element)
+     * @param end index after the last point to convert
+     */
+    void project(double[] coords, int start, int end);
+}
@@ -23,7 +23,7 @@ import org.openstreetmap.josm.data.projection.ProjectionConfigurationException;
  *
  * @author Pieren
  */
-public class LambertConformalConic implements Proj {
+public class LambertConformalConic implements BatchProj {
 
     protected Ellipsoid ellps;
     protected double e;
@@ -153,13 +153,21 @@ public class LambertConformalConic implements Proj {
 
     @Override
     public double[] project(double phi, double lambda) {
-        double sinphi = sin(phi);
-        double l = (0.5*log((1+sinphi)/(1-sinphi))) - e/2*log((1+e*sinphi)/(1-e*sinphi));
-        double r = f*exp(-n*l);
-        double gamma = n*lambda;
-        double x = r*sin(gamma);
-        double y = r0 - r*cos(gamma);
-        return new double[] {x, y};
+        double[] coords = {phi, lambda};
+        project(coords, 0, 1);
+        return coords;
+    }
+
+    @Override
+    public void project(double[] coords, int start, int end) {
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            double sinphi = sin(coords[i]);
+            double l = (0.5*log((1+sinphi)/(1-sinphi))) - e/2*log((1+e*sinphi)/(1-e*sinphi));
+            double r = f*exp(-n*l);
+            double gamma = n*coords[i + 1];
+            coords[i] = r*sin(gamma);
+            coords[i + 1] = r0 - r*cos(gamma);
+        }
     }
 
     @Override
@@ -8,7 +8,7 @@ import org.openstreetmap.josm.data.projection.ProjectionConfigurationException;
 /**
  * Simple Lat/Lon (pseudo-)projection.
  */
-public class LonLat implements Proj {
+public class LonLat implements BatchProj {
 
     private double a;
 
@@ -32,6 +32,15 @@ public class LonLat implements Proj {
         return new double[] {Math.toDegrees(lon_rad) / a, Math.toDegrees(lat_rad) / a};
     }
 
+    @Override
+    public void project(double[] coords, int start, int end) {
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            double lat_rad = coords[i];
+            coords[i] = Math.toDegrees(coords[i + 1]) / a;
+            coords[i + 1] = Math.toDegrees(lat_rad) / a;
+        }
+    }
+
     @Override
     public double[] invproject(double east, double north) {
         return new double[] {Math.toRadians(north * a), Math.toRadians(east * a)};
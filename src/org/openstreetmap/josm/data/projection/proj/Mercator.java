@@ -13,7 +13,7 @@ import org.openstreetmap.josm.data.projection.ProjectionConfigurationException;
 /**
  * Mercator Projection.
  */
-public class Mercator implements Proj {
+public class Mercator implements BatchProj {
 
     @Override
     public String getName() {
@@ -34,6 +34,15 @@ public class Mercator implements Proj {
         return new double[] {lon_rad, log(tan(PI/4 + lat_rad/2))};
     }
 
+    @Override
+    public void project(double[] coords, int start, int end) {
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            double lat_rad = coords[i];
+            coords[i] = coords[i + 1];
+            coords[i + 1] = log(tan(PI/4 + lat_rad/2));
+        }
+    }
+
     @Override
     public double[] invproject(double east, double north) {
         return new double[] {atan(sinh(north)), east};
@@ -32,7 +32,7 @@ import org.openstreetmap.josm.data.projection.ProjectionConfigurationException;
  * <a href="http://www.swisstopo.admin.ch/internet/swisstopo/en/home/topics/survey/sys/refsys/switzerland.parsysrelated1.37696.downloadList.97912.DownloadFile.tmp/swissprojectionen.pdf">
  * this formula (rigorous formulas)</a>.
  */
-public class SwissObliqueMercator implements Proj {
+public class SwissObliqueMercator implements BatchProj {
 
     // CHECKSTYLE.ON: LineLength
 
@@ -74,19 +74,31 @@ public class SwissObliqueMercator implements Proj {
 
     @Override
     public double[] project(double phi, double lambda) {
+        double[] coords = {phi, lambda};
+        project(coords, 0, 1);
+        return coords;
+    }
+
+    @Override
+    public void project(double[] coords, int start, int end) {
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            double phi = coords[i];
+            double lambda = coords[i + 1];
 
-        double S = alpha * log(tan(PI / 4 + phi / 2)) - alpha * ellps.e / 2
-            * log((1 + ellps.e * sin(phi)) / (1 - ellps.e * sin(phi))) + k;
-        double b = 2 * (atan(exp(S)) - PI / 4);
-        double l = alpha * lambda;
+            double S = alpha * log(tan(PI / 4 + phi / 2)) - alpha * ellps.e / 2
+                * log((1 + ellps.e * sin(phi)) / (1 - ellps.e * sin(phi))) + k;
+            double b = 2 * (atan(exp(S)) - PI / 4);
+            double l = alpha * lambda;
 
-        double lb = atan2(sin(l), sin(b0) * tan(b) + cos(b0) * cos(l));
-        double bb = asin(cos(b0) * sin(b) - sin(b0) * cos(b) * cos(l));
+            double lb = atan2(sin(l), sin(b0) * tan(b) + cos(b0) * cos(l));
+            double bb = asin(cos(b0) * sin(b) - sin(b0) * cos(b) * cos(l));
 
-        double y = kR * lb;
-        double x = kR / 2 * log((1 + sin(bb)) / (1 - sin(bb)));
+            double y = kR * lb;
+            double x = kR / 2 * log((1 + sin(bb)) / (1 - sin(bb)));
 
-        return new double[] {y, x};
+            coords[i] = y;
+            coords[i + 1] = x;
+        }
     }
 
     @Override
@@ -17,7 +17,7 @@ import org.openstreetmap.josm.data.projection.ProjectionConfigurationException;
  * code based on JavaScript from Chuck Taylor
  *
  */
-public class TransverseMercator implements Proj {
+public class TransverseMercator implements BatchProj {
 
     protected double a, b;
 
@@ -52,53 +52,63 @@ public class TransverseMercator implements Proj {
      */
     @Override
     public double[] project(double phi, double lambda) {
+        double[] coords = {phi, lambda};
+        project(coords, 0, 1);
+        return coords;
+    }
+
+    @Override
+    public void project(double[] coords, int start, int end) {
 
         /* Precalculate ep2 */
         double ep2 = (pow(a, 2.0) - pow(b, 2.0)) / pow(b, 2.0);
 
-        /* Precalculate nu2 */
-        double nu2 = ep2 * pow(cos(phi), 2.0);
+        for (int i = 2 * start; i < 2 * end; i += 2) {
+            double phi = coords[i];
 
-        /* Precalculate N / a */
-        double N_a = a / (b * sqrt(1 + nu2));
+            /* Precalculate nu2 */
+            double nu2 = ep2 * pow(cos(phi), 2.0);
 
-        /* Precalculate t */
-        double t = tan(phi);
-        double t2 = t * t;
+            /* Precalculate N / a */
+            double N_a = a / (b * sqrt(1 + nu2));
 
-        /* Precalculate l */
-        double l = lambda;
+            /* Precalculate t */
+            double t = tan(phi);
+            double t2 = t * t;
 
-        /* Precalculate coefficients for l**n in the equations below
-           so a normal human being can read the expressions for easting
-           and northing
-           -- l**1 and l**2 have coefficients of 1.0 */
-        double l3coef = 1.0 - t2 + nu2;
+            /* Precalculate l */
+            double l = coords[i + 1];
 
-        double l4coef = 5.0 - t2 + 9 * nu2 + 4.0 * (nu2 * nu2);
+            /* Precalculate coefficients for l**n in the equations below
+               so a normal human being can read the expressions for easting
+               and northing
+               -- l**1 and l**2 have coefficients of 1.0 */
+            double l3coef = 1.0 - t2 + nu2;
 
-        double l5coef = 5.0 - 18.0 * t2 + (t2 * t2) + 14.0 * nu2
-        - 58.0 * t2 * nu2;
+            double l4coef = 5.0 - t2 + 9 * nu2 + 4.0 * (nu2 * nu2);
 
-        double l6coef = 61.0 - 58.0 * t2 + (t2 * t2) + 270.0 * nu2
-        - 330.0 * t2 * nu2;
+            double l5coef = 5.0 - 18.0 * t2 + (t2 * t2) + 14.0 * nu2
+            - 58.0 * t2 * nu2;
 
-        double l7coef = 61.0 - 479.0 * t2 + 179.0 * (t2 * t2) - (t2 * t2 * t2);
+            double l6coef = 61.0 - 58.0 * t2 + (t2 * t2) + 270.0 * nu2
+            - 330.0 * t2 * nu2;
 
-        double l8coef = 1385.0 - 3111.0 * t2 + 543.0 * (t2 * t2) - (t2 * t2 * t2);
+            double l7coef = 61.0 - 479.0 * t2 + 179.0 * (t2 * t2) - (t2 * t2 * t2);
 
-        return new double[] {
-                /* Calculate easting (x) */
-                N_a * cos(phi) * l
-                + (N_a / 6.0 * pow(cos(phi), 3.0) * l3coef * pow(l, 3.0))
-                + (N_a / 120.0 * pow(cos(phi), 5.0) * l5coef * pow(l, 5.0))
-                + (N_a / 5040.0 * pow(cos(phi), 7.0) * l7coef * pow(l, 7.0)),
-                /* Calculate northing (y) */
-                ArcLengthOfMeridian(phi) / a
-                + (t / 2.0 * N_a * pow(cos(phi), 2.0) * pow(l, 2.0))
-                + (t / 24.0 * N_a * pow(cos(phi), 4.0) * l4coef * pow(l, 4.0))
-                + (t / 720.0 * N_a * pow(cos(phi), 6.0) * l6coef * pow(l, 6.0))
-                + (t / 40320.0 * N_a * pow(cos(phi), 8.0) * l8coef * pow(l, 8.0)) };
+            double l8coef = 1385.0 - 3111.0 * t2 + 543.0 * (t2 * t2) - (t2 * t2 * t2);
+
+            /* Calculate easting (x) */
+            coords[i] = N_a * cos(phi) * l
+                    + (N_a / 6.0 * pow(cos(phi), 3.0) * l3coef * pow(l, 3.0))
+                    + (N_a / 120.0 * pow(cos(phi), 5.0) * l5coef * pow(l, 5.0))
+                    + (N_a / 5040.0 * pow(cos(phi), 7.0) * l7coef * pow(l, 7.0));
+            /* Calculate northing (y) */
+            coords[i + 1] = ArcLengthOfMeridian(phi) / a
+                    + (t / 2.0 * N_a * pow(cos(phi), 2.0) * pow(l, 2.0))
+                    + (t / 24.0 * N_a * pow(cos(phi), 4.0) * l4coef * pow(l, 4.0))
+                    + (t / 720.0 * N_a * pow(cos(phi), 6.0) * l6coef * pow(l, 6.0))
+                    + (t / 40320.0 * N_a * pow(cos(phi), 8.0) * l8coef * pow(l, 8.0));
+        }
     }
 
     /**
@@ -3,7 +3,6 @@ package org.openstreetmap.josm.data.validation.tests;
 
 import static org.openstreetmap.josm.tools.I18n.tr;
 
-import java.awt.geom.Area;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -14,6 +13,7 @@ import java.util.List;
 import org.openstreetmap.josm.Main;
 import org.openstreetmap.josm.command.ChangeCommand;
 import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.DataSourceIndex;
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.Way;
@@ -37,7 +37,7 @@ public class Coastlines extends Test {
 
     private List<Way> coastlines;
 
-    private Area downloadedArea;
+    private DataSourceIndex downloadedArea;
 
     /**
      * Constructor
@@ -55,7 +55,7 @@ public class Coastlines extends Test {
         OsmDataLayer layer = Main.main.getEditLayer();
 
         if (layer != null) {
-            downloadedArea = layer.data.getDataSourceArea();
+            downloadedArea = layer.data.getDataSourceIndex();
         }
 
         coastlines = new LinkedList<>();
@@ -150,10 +150,10 @@ public class Coastlines extends Test {
             if (headWays == 0 || tailWays == 0) {
                 List<OsmPrimitive> highlight = new ArrayList<>();
 
-                if (headWays == 0 && head.getCoor().isIn(downloadedArea)) {
+                if (headWays == 0 && isInDownloadedArea(head)) {
                     highlight.add(head);
                 }
-                if (tailWays == 0 && tail.getCoor().isIn(downloadedArea)) {
+                if (tailWays == 0 && isInDownloadedArea(tail)) {
                     highlight.add(tail);
                 }
 
@@ -210,6 +210,10 @@ public class Coastlines extends Test {
         }
     }
 
+    private boolean isInDownloadedArea(Node n) {
+        return downloadedArea == null || downloadedArea.contains(n.getCoor());
+    }
+
     private static boolean isCoastline(OsmPrimitive osm) {
         return osm instanceof Way && "coastline".equals(osm.get("natural"));
     }
@@ -4,10 +4,10 @@ package org.openstreetmap.josm.data.validation.tests;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.io.StringReader;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -50,16 +50,17 @@ import org.openstreetmap.josm.gui.mappaint.mapcss.Instruction;
 import org.openstreetmap.josm.gui.mappaint.mapcss.MapCSSRule;
 import org.openstreetmap.josm.gui.mappaint.mapcss.MapCSSRule.Declaration;
 import org.openstreetmap.josm.gui.mappaint.mapcss.MapCSSStyleSource;
+import org.openstreetmap.josm.gui.mappaint.mapcss.MapCSSTokens;
 import org.openstreetmap.josm.gui.mappaint.mapcss.Selector;
 import org.openstreetmap.josm.gui.mappaint.mapcss.Selector.AbstractSelector;
 import org.openstreetmap.josm.gui.mappaint.mapcss.Selector.GeneralSelector;
-import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.MapCSSParser;
 import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.ParseException;
 import org.openstreetmap.josm.gui.preferences.SourceEntry;
 import org.openstreetmap.josm.gui.preferences.validator.ValidatorPreference;
 import org.openstreetmap.josm.gui.preferences.validator.ValidatorTagCheckerRulesPreference;
 import org.openstreetmap.josm.io.CachedFile;
 import org.openstreetmap.josm.io.IllegalDataException;
+import org.openstreetmap.josm.io.StartupCache;
 import org.openstreetmap.josm.io.UTFInputStreamReader;
 import org.openstreetmap.josm.tools.CheckParameterUtil;
 import org.openstreetmap.josm.tools.MultiMap;
@@ -347,11 +348,16 @@ public class MapCSSTagChecker extends Test.TagTest {
             CheckParameterUtil.ensureParameterNotNull(css, "css");
 
             final MapCSSStyleSource source = new MapCSSStyleSource("");
-            final MapCSSParser preprocessor = new MapCSSParser(css, MapCSSParser.LexicalState.PREPROCESSOR);
+            MapCSSStyleSource.parse(source, css, null);
+            return readMapCSS(source);
+        }
 
-            css = new StringReader(preprocessor.pp_root(source));
-            final MapCSSParser parser = new MapCSSParser(css, MapCSSParser.LexicalState.DEFAULT);
-            parser.sheet(source);
+        /**
+         * Reads the tag checks of a parsed MapCSS source.
+         * @param source the parsed MapCSS source
+         * @return the tag checks and parsing errors
+         */
+        static ParseResult readMapCSS(MapCSSStyleSource source) {
             Collection<Throwable> parseErrors = source.getErrors();
             assert parseErrors.isEmpty();
             // Ignore "meta" rule(s) from external rules of JOSM wiki
@@ -705,7 +711,24 @@ public class MapCSSTagChecker extends Test.TagTest {
         InputStream zip = cache.findZipEntryInputStream("validator.mapcss", "");
         ParseResult result;
         try (InputStream s = zip != null ? zip : cache.getInputStream()) {
-            result = TagCheck.readMapCSS(new BufferedReader(UTFInputStreamReader.create(s)));
+            byte[] content = Utils.readBytesFromStream(s);
+            if (content == null) {
+                content = new byte[0];
+            }
+            // the preprocessed tokens of unchanged rules are read from the startup cache
+            byte[] key = MapCSSTokens.getKey(content);
+            MapCSSTokens tokens = StartupCache.read("validator", url, key, MapCSSTokens.READER);
+            final MapCSSStyleSource source = new MapCSSStyleSource("");
+            if (tokens != null) {
+                tokens.newParser().sheet(source);
+            } else {
+                tokens = new MapCSSTokens();
+                MapCSSStyleSource.parse(source, new BufferedReader(UTFInputStreamReader.create(new ByteArrayInputStream(content))), tokens);
+                if (source.getErrors().isEmpty()) {
+                    StartupCache.write("validator", url, key, tokens);
+                }
+            }
+            result = TagCheck.readMapCSS(source);
             checks.remove(url);
             checks.putAll(url, result.parseChecks);
             // Check assertions, useful for development of local files
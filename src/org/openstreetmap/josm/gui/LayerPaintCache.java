@@ -0,0 +1,122 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.gui.layer.Layer;
+
+/**
+ * Image of a single layer, kept between two paints of the map view.
+ * <p>
+ * The image has an alpha channel, so that it can be drawn between the other layers. If the map has been moved
+ * at the same scale since the last paint, and the layer allows it (see {@link Layer#isPaintReusableWhenMoved()}),
+ * the painted pixels are moved and only the newly visible strips are painted. Likewise, if the layer tells which area
+ * changed (see {@link Layer#getChangedArea(MapView)}), only this area is painted again.
+ * <p>
+ * Must only be used in the event dispatch thread, like the painting of the layers.
+ */
+class LayerPaintCache {
+
+    /** Maximal distance to an integer pixel offset for moving the painted pixels, in pixels */
+    private static final double MAX_OFFSET_ERROR = 1e-3;
+
+    private final Layer layer;
+    private BufferedImage image;
+    /** view of the image, {@code center == null} if the image is not valid */
+    private EastNorth center;
+    private double scale;
+    private Projection projection;
+    private double opacity;
+    private boolean active;
+    /** area to paint again, in map view coordinates */
+    private Rectangle changedArea;
+
+    /**
+     * Constructs a new {@code LayerPaintCache}.
+     * @param layer the cached layer
+     */
+    LayerPaintCache(Layer layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * Marks an area of the image as changed, to be painted again at the next paint.
+     * @param area the changed area, in map view coordinates
+     */
+    void addChangedArea(Rectangle area) {
+        changedArea = changedArea == null ? new Rectangle(area) : changedArea.union(area);
+    }
+
+    /**
+     * Paints the layer, using the cached image if it is still valid for the current view.
+     * @param g the graphics to paint to
+     * @param mv the map view
+     */
+    void paint(Graphics2D g, MapView mv) {
+        int w = mv.getWidth();
+        int h = mv.getHeight();
+        if (image == null || image.getWidth() != w || image.getHeight() != h) {
+            image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+            center = null;
+        }
+        EastNorth newCenter = mv.getCenter();
+        double newScale = mv.getScale();
+        Projection newProjection = mv.getProjection();
+        boolean newActive = mv.getActiveLayer() == layer;
+        Graphics2D g2 = image.createGraphics();
+        try {
+            if (center == null || scale != newScale || projection != newProjection || opacity != layer.getOpacity()
+                    || active != newActive || (changedArea != null && !center.equals(newCenter))) {
+                paintArea(g2, mv, new Rectangle(0, 0, w, h));
+            } else if (changedArea != null) {
+                Rectangle area = changedArea.intersection(new Rectangle(0, 0, w, h));
+                if (!area.isEmpty()) {
+                    paintArea(g2, mv, area);
+                }
+            } else if (!center.equals(newCenter)) {
+                double dx = (center.east() - newCenter.east()) / scale;
+                double dy = (newCenter.north() - center.north()) / scale;
+                int x = (int) Math.round(dx);
+                int y = (int) Math.round(dy);
+                if (!layer.isPaintReusableWhenMoved() || Math.abs(dx - x) > MAX_OFFSET_ERROR || Math.abs(dy - y) > MAX_OFFSET_ERROR
+                        || Math.abs(x) >= w || Math.abs(y) >= h) {
+                    paintArea(g2, mv, new Rectangle(0, 0, w, h));
+                } else {
+                    // replace the pixels, transparent ones included
+                    g2.setComposite(AlphaComposite.Src);
+                    g2.copyArea(0, 0, w, h, x, y);
+                    if (x != 0) {
+                        paintArea(g2, mv, new Rectangle(x > 0 ? 0 : w + x, 0, Math.abs(x), h));
+                    }
+                    if (y != 0) {
+                        // the corner has already been painted with the vertical strip
+                        int left = x > 0 ? x : 0;
+                        paintArea(g2, mv, new Rectangle(left, y > 0 ? 0 : h + y, w - Math.abs(x), Math.abs(y)));
+                    }
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+        center = newCenter;
+        scale = newScale;
+        projection = newProjection;
+        opacity = layer.getOpacity();
+        active = newActive;
+        changedArea = null;
+        g.drawImage(image, 0, 0, null);
+    }
+
+    private void paintArea(Graphics2D g2, MapView mv, Rectangle area) {
+        g2.setClip(area);
+        g2.setComposite(AlphaComposite.Clear);
+        g2.fill(area);
+        g2.setPaintMode();
+        mv.paintLayer(layer, g2, mv.getLatLonBounds(area));
+    }
+}
@@ -26,9 +26,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -255,14 +257,11 @@ implements PropertyChangeListener, PreferenceChangedListener, OsmDataLayer.Layer
      */
     private final transient Set<MapViewPaintable> temporaryLayers = new LinkedHashSet<>();
 
-    private transient BufferedImage nonChangedLayersBuffer;
     private transient BufferedImage offscreenBuffer;
-    // Layers that wasn't changed since last paint
-    private final transient List<Layer> nonChangedLayers = new ArrayList<>();
+    // Images of the layers that weren't changed since last paint
+    private final transient Map<Layer, LayerPaintCache> layerCaches = new IdentityHashMap<>();
     private transient Layer changedLayer;
-    private int lastViewID;
     private boolean paintPreferencesChanged = true;
-    private Rectangle lastClipBounds = new Rectangle();
     private transient MapMover mapMover;
 
     /**
@@ -630,7 +629,7 @@ implements PropertyChangeListener, PreferenceChangedListener, OsmDataLayer.Layer
         }
     }
 
-    private void paintLayer(Layer layer, Graphics2D g, Bounds box) {
+    void paintLayer(Layer layer, Graphics2D g, Bounds box) {
         if (layer.getOpacity() < 1) {
             g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) layer.getOpacity()));
         }
@@ -649,77 +648,46 @@ implements PropertyChangeListener, PreferenceChangedListener, OsmDataLayer.Layer
 
         List<Layer> visibleLayers = getVisibleLayersInZOrder();
 
-        int nonChangedLayersCount = 0;
-        for (Layer l: visibleLayers) {
-            if (l.isChanged() || l == changedLayer) {
-                break;
-            } else {
-                nonChangedLayersCount++;
-            }
-        }
-
-        boolean canUseBuffer;
-
+        boolean cacheValid;
         synchronized (this) {
-            canUseBuffer = !paintPreferencesChanged;
+            cacheValid = !paintPreferencesChanged;
             paintPreferencesChanged = false;
         }
-        canUseBuffer = canUseBuffer && nonChangedLayers.size() <= nonChangedLayersCount &&
-        lastViewID == getViewID() && lastClipBounds.contains(g.getClipBounds());
-        if (canUseBuffer) {
-            for (int i = 0; i < nonChangedLayers.size(); i++) {
-                if (visibleLayers.get(i) != nonChangedLayers.get(i)) {
-                    canUseBuffer = false;
-                    break;
-                }
-            }
+        boolean useCache = Main.pref.getBoolean("mappaint.layer-cache", true);
+        if (!cacheValid || !useCache) {
+            layerCaches.clear();
         }
+        // release the images of removed and hidden layers
+        layerCaches.keySet().retainAll(visibleLayers);
 
         if (null == offscreenBuffer || offscreenBuffer.getWidth() != getWidth() || offscreenBuffer.getHeight() != getHeight()) {
-            offscreenBuffer = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+            offscreenBuffer = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
         }
 
         Graphics2D tempG = offscreenBuffer.createGraphics();
         tempG.setClip(g.getClip());
         Bounds box = getLatLonBounds(g.getClipBounds());
-
-        if (!canUseBuffer || nonChangedLayersBuffer == null) {
-            if (null == nonChangedLayersBuffer
-                    || nonChangedLayersBuffer.getWidth() != getWidth() || nonChangedLayersBuffer.getHeight() != getHeight()) {
-                nonChangedLayersBuffer = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_3BYTE_BGR);
-            }
-            Graphics2D g2 = nonChangedLayersBuffer.createGraphics();
-            g2.setClip(g.getClip());
-            g2.setColor(PaintColors.getBackgroundColor());
-            g2.fillRect(0, 0, getWidth(), getHeight());
-
-            for (int i = 0; i < nonChangedLayersCount; i++) {
-                paintLayer(visibleLayers.get(i), g2, box);
-            }
-        } else {
-            // Maybe there were more unchanged layers then last time - draw them to buffer
-            if (nonChangedLayers.size() != nonChangedLayersCount) {
-                Graphics2D g2 = nonChangedLayersBuffer.createGraphics();
-                g2.setClip(g.getClip());
-                for (int i = nonChangedLayers.size(); i < nonChangedLayersCount; i++) {
-                    paintLayer(visibleLayers.get(i), g2, box);
+        tempG.setColor(PaintColors.getBackgroundColor());
+        tempG.fillRect(0, 0, getWidth(), getHeight());
+
+        for (Layer l : visibleLayers) {
+            Rectangle changedArea = null;
+            if (useCache && l != changedLayer && (!l.isChanged() || (changedArea = l.getChangedArea(this)) != null)) {
+                LayerPaintCache cache = layerCaches.get(l);
+                if (cache == null) {
+                    cache = new LayerPaintCache(l);
+                    layerCaches.put(l, cache);
+                }
+                if (changedArea != null) {
+                    cache.addChangedArea(changedArea);
                 }
+                cache.paint(tempG, this);
+            } else {
+                layerCaches.remove(l);
+                paintLayer(l, tempG, box);
             }
         }
-
-        nonChangedLayers.clear();
         changedLayer = null;
-        for (int i = 0; i < nonChangedLayersCount; i++) {
-            nonChangedLayers.add(visibleLayers.get(i));
-        }
-        lastViewID = getViewID();
-        lastClipBounds = g.getClipBounds();
-
-        tempG.drawImage(nonChangedLayersBuffer, 0, 0, null);
-
-        for (int i = nonChangedLayersCount; i < visibleLayers.size(); i++) {
-            paintLayer(visibleLayers.get(i), tempG, box);
-        }
 
         synchronized (temporaryLayers) {
             for (MapViewPaintable mvp : temporaryLayers) {
@@ -1125,7 +1093,7 @@ implements PropertyChangeListener, PreferenceChangedListener, OsmDataLayer.Layer
             changedLayer = null;
             editLayer = null;
             layers.clear();
-            nonChangedLayers.clear();
+            layerCaches.clear();
         }
         synchronized (temporaryLayers) {
             temporaryLayers.clear();
@@ -14,10 +14,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.swing.AbstractAction;
@@ -49,6 +52,7 @@ import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.DatasetChanges;
 import org.openstreetmap.josm.data.osm.event.DatasetEventManager;
 import org.openstreetmap.josm.data.osm.event.DatasetEventManager.FireMode;
 import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
@@ -106,7 +110,12 @@ public class SelectionListDialog extends ToggleDialog  {
         lstPrimitives = new JList<>(model);
         lstPrimitives.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         lstPrimitives.setSelectionModel(selectionModel);
-        lstPrimitives.setCellRenderer(new OsmPrimitivRenderer());
+        lstPrimitives.setCellRenderer(new OsmPrimitivRenderer() {
+            @Override
+            protected String getComponentText(OsmPrimitive value) {
+                return model.getDisplayName(value);
+            }
+        });
         // Fix #6290. Drag & Drop is not supported anyway and Copy/Paste is better propagated to main window
         lstPrimitives.setTransferHandler(null);
 
@@ -149,6 +158,7 @@ public class SelectionListDialog extends ToggleDialog  {
 
         buildContentPanel();
         model.addListDataListener(new TitleUpdater());
+        model.addListDataListener(new CellSizeUpdater());
         model.addListDataListener(actZoomToJOSMSelection);
 
         popupMenu = new ListPopupMenu(lstPrimitives);
@@ -285,6 +295,42 @@ public class SelectionListDialog extends ToggleDialog  {
         }
     }
 
+    /**
+     * Fixes the size of the cells for large selections, so that only the visible cells are rendered, instead of
+     * rendering all the cells to measure them.
+     */
+    class CellSizeUpdater implements ListDataListener {
+        protected void updateCellSize() {
+            if (model.getSize() > Main.pref.getInteger("selection.fixed_cell_size_above", 1000)) {
+                if (lstPrimitives.getFixedCellHeight() < 0) {
+                    Component c = lstPrimitives.getCellRenderer().getListCellRendererComponent(
+                            lstPrimitives, model.getElementAt(0), 0, false, false);
+                    lstPrimitives.setFixedCellHeight(c.getPreferredSize().height);
+                    // the cells are as wide as the list, which then tracks the width of the viewport
+                    lstPrimitives.setFixedCellWidth(1);
+                }
+            } else if (lstPrimitives.getFixedCellHeight() >= 0) {
+                lstPrimitives.setFixedCellHeight(-1);
+                lstPrimitives.setFixedCellWidth(-1);
+            }
+        }
+
+        @Override
+        public void contentsChanged(ListDataEvent e) {
+            updateCellSize();
+        }
+
+        @Override
+        public void intervalAdded(ListDataEvent e) {
+            updateCellSize();
+        }
+
+        @Override
+        public void intervalRemoved(ListDataEvent e) {
+            updateCellSize();
+        }
+    }
+
     /**
      * Launches the search dialog
      */
@@ -479,6 +525,14 @@ public class SelectionListDialog extends ToggleDialog  {
         // Variable to store history from currentDataSet()
         private LinkedList<Collection<? extends OsmPrimitive>> history;
         private final transient List<OsmPrimitive> selection = new ArrayList<>();
+        /** the index of each primitive in {@link #selection}, built on demand */
+        private transient Map<OsmPrimitive, Integer> indexes;
+        /** the display names of the primitives, computed on demand */
+        private final transient Map<OsmPrimitive, String> displayNames = new IdentityHashMap<>();
+        /** the comparator {@link #selection} is sorted with, {@code null} if it has to be sorted again */
+        private transient Comparator<OsmPrimitive> comparator;
+        /** the summary of the selection, computed on demand */
+        private String summary;
         private DefaultListSelectionModel selectionModel;
 
         /**
@@ -496,6 +550,7 @@ public class SelectionListDialog extends ToggleDialog  {
          */
         public synchronized String getJOSMSelectionSummary() {
             if (selection.isEmpty()) return tr("Selection");
+            if (summary != null) return summary;
             int numNodes = 0;
             int numWays = 0;
             int numRelations = 0;
@@ -506,7 +561,8 @@ public class SelectionListDialog extends ToggleDialog  {
                 case RELATION: numRelations++; break;
                 }
             }
-            return tr("Sel.: Rel.:{0} / Ways:{1} / Nodes:{2}", numRelations, numWays, numNodes);
+            summary = tr("Sel.: Rel.:{0} / Ways:{1} / Nodes:{2}", numRelations, numWays, numNodes);
+            return summary;
         }
 
         /**
@@ -563,7 +619,8 @@ public class SelectionListDialog extends ToggleDialog  {
          */
         public synchronized Collection<OsmPrimitive> getSelected() {
             Set<OsmPrimitive> sel = new HashSet<>();
-            for (int i = 0; i < getSize(); i++) {
+            int max = Math.min(selectionModel.getMaxSelectionIndex(), getSize() - 1);
+            for (int i = Math.max(selectionModel.getMinSelectionIndex(), 0); i <= max; i++) {
                 if (selectionModel.isSelectedIndex(i)) {
                     sel.add(selection.get(i));
                 }
@@ -580,13 +637,40 @@ public class SelectionListDialog extends ToggleDialog  {
             selectionModel.clearSelection();
             if (sel == null) return;
             for (OsmPrimitive p: sel) {
-                int i = selection.indexOf(p);
+                int i = indexOf(p);
                 if (i >= 0) {
                     selectionModel.addSelectionInterval(i, i);
                 }
             }
         }
 
+        private int indexOf(OsmPrimitive p) {
+            if (indexes == null) {
+                indexes = new IdentityHashMap<>(selection.size());
+                for (int i = 0; i < selection.size(); i++) {
+                    indexes.put(selection.get(i), i);
+                }
+            }
+            Integer i = indexes.get(p);
+            return i == null ? -1 : i;
+        }
+
+        /**
+         * Replies the display name of a primitive. Names are only computed for the primitives which are displayed
+         * or sorted by name, and cached until the primitive changes.
+         *
+         * @param p the primitive
+         * @return the display name of {@code p}
+         */
+        public synchronized String getDisplayName(OsmPrimitive p) {
+            String name = displayNames.get(p);
+            if (name == null) {
+                name = p.getDisplayName(DefaultNameFormatter.getInstance());
+                displayNames.put(p, name);
+            }
+            return name;
+        }
+
         @Override
         protected void fireContentsChanged(Object source, int index0, int index1) {
             Collection<OsmPrimitive> sel = getSelected();
@@ -601,11 +685,14 @@ public class SelectionListDialog extends ToggleDialog  {
          */
         public void setJOSMSelection(final Collection<? extends OsmPrimitive> selection) {
             synchronized (this) {
-                this.selection.clear();
                 if (selection != null) {
-                    this.selection.addAll(selection);
-                    sort();
+                    merge(selection);
+                } else {
+                    this.selection.clear();
+                    displayNames.clear();
                 }
+                indexes = null;
+                summary = null;
             }
             GuiHelper.runInEDTAndWait(new Runnable() {
                 @Override public void run() {
@@ -644,21 +731,105 @@ public class SelectionListDialog extends ToggleDialog  {
             if (toUpdate.isEmpty()) return;
             Collection<OsmPrimitive> sel = getSelected();
             for (OsmPrimitive p: toUpdate) {
-                int i = selection.indexOf(p);
+                int i = indexOf(p);
                 if (i >= 0) {
+                    evictDisplayName(p);
                     super.fireContentsChanged(this, i, i);
                 }
             }
             setSelected(sel);
         }
 
+        /**
+         * Removes the cached display name of a displayed primitive, because it may have changed.
+         * If the list is sorted by name, its order may have changed too, so it is sorted again on the next update.
+         * @param p the primitive
+         */
+        private void evictDisplayName(OsmPrimitive p) {
+            if (displayNames.remove(p) != null && comparator instanceof SelectionComparator
+                    && !((SelectionComparator) comparator).quick) {
+                comparator = null;
+            }
+        }
+
         /**
          * Sorts the current elements in the selection
          */
         public synchronized void sort() {
-            if (this.selection.size() <= Main.pref.getInteger("selection.no_sort_above", 100000)) {
-                boolean quick = this.selection.size() > Main.pref.getInteger("selection.fast_sort_above", 10000);
-                Collections.sort(this.selection, new OsmPrimitiveComparator(quick, false));
+            comparator = getComparator(selection.size());
+            Collections.sort(selection, comparator);
+            indexes = null;
+        }
+
+        /**
+         * Returns the comparator to sort a selection. Small selections are sorted by display name, large ones by id.
+         * The same comparator is returned as long as the sort order does not change.
+         * @param size the size of the selection
+         * @return the comparator to sort the selection
+         */
+        private Comparator<OsmPrimitive> getComparator(int size) {
+            boolean quick = size > Main.pref.getInteger("selection.fast_sort_above", 10000);
+            if (comparator instanceof SelectionComparator && ((SelectionComparator) comparator).quick == quick)
+                return comparator;
+            return new SelectionComparator(quick);
+        }
+
+        /**
+         * Updates the list with a new selection. The primitives still selected keep their order, the new ones are
+         * sorted and merged into the list, so that small changes of large selections do not sort the whole list.
+         * @param newSelection the new selection
+         */
+        private void merge(Collection<? extends OsmPrimitive> newSelection) {
+            Set<OsmPrimitive> added = Collections.newSetFromMap(new IdentityHashMap<OsmPrimitive, Boolean>(newSelection.size()));
+            added.addAll(newSelection);
+            Comparator<OsmPrimitive> c = getComparator(added.size());
+            if (c != comparator || added.size() < selection.size() / 2) {
+                // sort order changed or most primitives are removed, sort everything again
+                displayNames.keySet().retainAll(added);
+                selection.clear();
+                selection.addAll(added);
+                sort();
+                return;
+            }
+            List<OsmPrimitive> kept = new ArrayList<>(added.size());
+            for (OsmPrimitive p : selection) {
+                if (added.remove(p)) {
+                    kept.add(p);
+                } else {
+                    displayNames.remove(p);
+                }
+            }
+            List<OsmPrimitive> sortedAdded = new ArrayList<>(added);
+            Collections.sort(sortedAdded, c);
+            selection.clear();
+            int i = 0;
+            int j = 0;
+            while (i < kept.size() && j < sortedAdded.size()) {
+                if (c.compare(sortedAdded.get(j), kept.get(i)) < 0) {
+                    selection.add(sortedAdded.get(j++));
+                } else {
+                    selection.add(kept.get(i++));
+                }
+            }
+            selection.addAll(kept.subList(i, kept.size()));
+            selection.addAll(sortedAdded.subList(j, sortedAdded.size()));
+        }
+
+        /**
+         * Comparator using the display names cached by the model
+         */
+        private class SelectionComparator extends OsmPrimitiveComparator {
+            private static final long serialVersionUID = 1L;
+            private final boolean quick;
+
+            SelectionComparator(boolean quick) {
+                super(quick, false);
+                this.quick = quick;
+            }
+
+            @Override
+            protected String cachedName(OsmPrimitive p) {
+                return getDisplayName(p);
             }
         }
 
@@ -667,6 +838,11 @@ public class SelectionListDialog extends ToggleDialog  {
         /* ------------------------------------------------------------------------ */
         @Override
         public void editLayerChanged(OsmDataLayer oldLayer, OsmDataLayer newLayer) {
+            synchronized (this) {
+                // the primitives may have changed since the last update
+                comparator = null;
+                displayNames.clear();
+            }
             if (newLayer == null) {
                 setJOSMSelection(null);
                 history = null;
@@ -689,6 +865,17 @@ public class SelectionListDialog extends ToggleDialog  {
         /* ------------------------------------------------------------------------ */
         @Override
         public void dataChanged(DataChangedEvent event) {
+            synchronized (this) {
+                DatasetChanges changes = event.getChanges();
+                if (changes == null) {
+                    comparator = null;
+                    displayNames.clear();
+                } else {
+                    for (OsmPrimitive p : changes.getPrimitives()) {
+                        evictDisplayName(p);
+                    }
+                }
+            }
             // refresh the whole list
             fireContentsChanged(this, 0, getSize());
         }
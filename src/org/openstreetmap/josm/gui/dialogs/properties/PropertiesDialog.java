@@ -21,7 +21,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -69,7 +68,10 @@ import org.openstreetmap.josm.data.osm.RelationMember;
 import org.openstreetmap.josm.data.osm.Tag;
 import org.openstreetmap.josm.data.osm.Way;
 import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent.DatasetEventType;
+import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataSetListenerAdapter;
+import org.openstreetmap.josm.data.osm.event.DatasetChanges;
 import org.openstreetmap.josm.data.osm.event.DatasetEventManager;
 import org.openstreetmap.josm.data.osm.event.DatasetEventManager.FireMode;
 import org.openstreetmap.josm.data.osm.event.SelectionEventManager;
@@ -158,6 +160,10 @@ implements SelectionChangedListener, MapView.EditLayerChangeListener, DataSetLis
     private final transient PopupMenuHandler blankSpaceMenuHandler = new PopupMenuHandler(blankSpaceMenu);
 
     private final transient Map<String, Map<String, Integer>> valueCount = new TreeMap<>();
+    /** The number of occurrences of the tags of the selected objects, updated incrementally */
+    private final transient TagStatistics tagStatistics = new TagStatistics();
+    /** {@code true} if the selection may differ from the objects counted by {@link #tagStatistics} */
+    private boolean selectionOutdated = true;
     /**
      * This sub-object is responsible for all adding and editing of tags
      */
@@ -531,6 +537,44 @@ implements SelectionChangedListener, MapView.EditLayerChangeListener, DataSetLis
         selectionChanged(null);
     }
 
+    /**
+     * Updates the tag statistics of the selected objects according to changes in the data set.
+     * @param event the data set event
+     * @return {@code true} if the relation memberships of the selected objects may have changed
+     */
+    private boolean updateTagStatistics(AbstractDatasetChangedEvent event) {
+        if (event instanceof DataChangedEvent) {
+            DatasetChanges changes = ((DataChangedEvent) event).getChanges();
+            if (changes == null) {
+                // the whole data set changed
+                tagStatistics.clear();
+                return true;
+            }
+            tagStatistics.update(changes.getPrimitives(DatasetEventType.TAGS_CHANGED));
+            tagStatistics.update(changes.getPrimitives(DatasetEventType.WAY_NODES_CHANGED));
+            // deleted objects are not displayed, even if they are still selected
+            if (changes.contains(DatasetEventType.PRIMITIVES_ADDED) || changes.contains(DatasetEventType.PRIMITIVES_REMOVED)) {
+                selectionOutdated = true;
+            }
+            return !changes.containsOnly(DatasetEventType.TAGS_CHANGED, DatasetEventType.NODE_MOVED)
+                    || containsRelation(changes.getPrimitives(DatasetEventType.TAGS_CHANGED));
+        } else if (event.getType() == DatasetEventType.TAGS_CHANGED || event.getType() == DatasetEventType.WAY_NODES_CHANGED) {
+            tagStatistics.update(event.getPrimitives());
+        } else if (event.getType() == DatasetEventType.PRIMITIVES_ADDED || event.getType() == DatasetEventType.PRIMITIVES_REMOVED) {
+            selectionOutdated = true;
+        }
+        return event.getType() != DatasetEventType.NODE_MOVED
+                && (event.getType() != DatasetEventType.TAGS_CHANGED || containsRelation(event.getPrimitives()));
+    }
+
+    private static boolean containsRelation(Collection<? extends OsmPrimitive> primitives) {
+        for (OsmPrimitive osm : primitives) {
+            if (osm instanceof Relation)
+                return true;
+        }
+        return false;
+    }
+
     @Override
     public void showNotify() {
         DatasetEventManager.getInstance().addDatasetListener(dataChangedAdapter, FireMode.IN_EDT_CONSOLIDATED);
@@ -545,6 +589,8 @@ implements SelectionChangedListener, MapView.EditLayerChangeListener, DataSetLis
     @Override
     public void hideNotify() {
         DatasetEventManager.getInstance().removeDatasetListener(dataChangedAdapter);
+        // changes are not tracked while hidden
+        tagStatistics.clear();
         SelectionEventManager.getInstance().removeSelectionListener(this);
         MapView.removeEditLayerChangeListener(this);
         for (JosmAction action : josmActions) {
@@ -575,6 +621,16 @@ implements SelectionChangedListener, MapView.EditLayerChangeListener, DataSetLis
 
     @Override
     public void selectionChanged(Collection<? extends OsmPrimitive> newSelection) {
+        selectionOutdated = true;
+        updateTables(true);
+    }
+
+    /**
+     * Updates the tables from the current selection.
+     * @param membershipsChanged {@code true} if the relation memberships must be updated even if the selection
+     * did not change
+     */
+    private void updateTables(boolean membershipsChanged) {
         if (!isVisible())
             return;
         if (tagTable == null)
@@ -602,74 +658,58 @@ implements SelectionChangedListener, MapView.EditLayerChangeListener, DataSetLis
         // re-load tag data
         tagData.setRowCount(0);
 
-        final boolean displayDiscardableKeys = Main.pref.getBoolean("display.discardable-keys", false);
-        final Map<String, Integer> keyCount = new HashMap<>();
-        final Map<String, String> tags = new HashMap<>();
-        valueCount.clear();
-        Set<TaggingPresetType> types = EnumSet.noneOf(TaggingPresetType.class);
-        for (OsmPrimitive osm : newSel) {
-            types.add(TaggingPresetType.forPrimitive(osm));
-            for (String key : osm.keySet()) {
-                if (displayDiscardableKeys || !OsmPrimitive.getDiscardableKeys().contains(key)) {
-                    String value = osm.get(key);
-                    keyCount.put(key, keyCount.containsKey(key) ? keyCount.get(key) + 1 : 1);
-                    if (valueCount.containsKey(key)) {
-                        Map<String, Integer> v = valueCount.get(key);
-                        v.put(value, v.containsKey(value) ? v.get(value) + 1 : 1);
-                    } else {
-                        Map<String, Integer> v = new TreeMap<>();
-                        v.put(value, 1);
-                        valueCount.put(key, v);
-                    }
-                }
-            }
+        tagStatistics.setDisplayDiscardableKeys(Main.pref.getBoolean("display.discardable-keys", false));
+        // the selection is only compared with the counted objects if it may have changed, or if they were cleared
+        boolean selectionChanged = false;
+        if (selectionOutdated || tagStatistics.size() == 0) {
+            selectionChanged = tagStatistics.setPrimitives(newSel);
+            selectionOutdated = false;
         }
+        valueCount.clear();
+        valueCount.putAll(tagStatistics.getValueCount());
+        final Map<String, String> tags = new HashMap<>();
         for (Entry<String, Map<String, Integer>> e : valueCount.entrySet()) {
-            int count = 0;
-            for (Entry<String, Integer> e1 : e.getValue().entrySet()) {
-                count += e1.getValue();
-            }
-            if (count < newSel.size()) {
-                e.getValue().put("", newSel.size() - count);
-            }
             tagData.addRow(new Object[]{e.getKey(), e.getValue()});
             tags.put(e.getKey(), e.getValue().size() == 1
                     ? e.getValue().keySet().iterator().next() : tr("<different>"));
         }
-
-        membershipData.setRowCount(0);
-
-        Map<Relation, MemberInfo> roles = new HashMap<>();
-        for (OsmPrimitive primitive: newSel) {
-            for (OsmPrimitive ref: primitive.getReferrers(true)) {
-                if (ref instanceof Relation && !ref.isIncomplete() && !ref.isDeleted()) {
-                    Relation r = (Relation) ref;
-                    MemberInfo mi = roles.get(r);
-                    if (mi == null) {
-                        mi = new MemberInfo(newSel);
-                    }
-                    roles.put(r, mi);
-                    int i = 1;
-                    for (RelationMember m : r.getMembers()) {
-                        if (m.getMember() == primitive) {
-                            mi.add(m, i);
+        Set<TaggingPresetType> types = tagStatistics.getTypes();
+
+        if (membershipsChanged || selectionChanged) {
+            membershipData.setRowCount(0);
+
+            Map<Relation, MemberInfo> roles = new HashMap<>();
+            for (OsmPrimitive primitive: newSel) {
+                for (OsmPrimitive ref: primitive.getReferrers(true)) {
+                    if (ref instanceof Relation && !ref.isIncomplete() && !ref.isDeleted()) {
+                        Relation r = (Relation) ref;
+                        MemberInfo mi = roles.get(r);
+                        if (mi == null) {
+                            mi = new MemberInfo(newSel);
+                        }
+                        roles.put(r, mi);
+                        int i = 1;
+                        for (RelationMember m : r.getMembers()) {
+                            if (m.getMember() == primitive) {
+                                mi.add(m, i);
+                            }
+                            ++i;
                         }
-                        ++i;
                     }
                 }
             }
-        }
 
-        List<Relation> sortedRelations = new ArrayList<>(roles.keySet());
-        Collections.sort(sortedRelations, new Comparator<Relation>() {
-            @Override public int compare(Relation o1, Relation o2) {
-                int comp = Boolean.valueOf(o1.isDisabledAndHidden()).compareTo(o2.isDisabledAndHidden());
-                return comp != 0 ? comp : DefaultNameFormatter.getInstance().getRelationComparator().compare(o1, o2);
-            }}
-                );
+            List<Relation> sortedRelations = new ArrayList<>(roles.keySet());
+            Collections.sort(sortedRelations, new Comparator<Relation>() {
+                @Override public int compare(Relation o1, Relation o2) {
+                    int comp = Boolean.valueOf(o1.isDisabledAndHidden()).compareTo(o2.isDisabledAndHidden());
+                    return comp != 0 ? comp : DefaultNameFormatter.getInstance().getRelationComparator().compare(o1, o2);
+                }}
+                    );
 
-        for (Relation r: sortedRelations) {
-            membershipData.addRow(new Object[]{r, roles.get(r)});
+            for (Relation r: sortedRelations) {
+                membershipData.addRow(new Object[]{r, roles.get(r)});
+            }
         }
 
         presets.updatePresets(types, tags, presetHandler);
@@ -677,7 +717,9 @@ implements SelectionChangedListener, MapView.EditLayerChangeListener, DataSetLis
         membershipTable.getTableHeader().setVisible(membershipData.getRowCount() > 0);
         membershipTable.setVisible(membershipData.getRowCount() > 0);
 
-        boolean hasSelection = !newSel.isEmpty();
+        // the selection may be a filtered view of the data set selection, whose size is computed on each call
+        int selectionSize = tagStatistics.size();
+        boolean hasSelection = selectionSize > 0;
         boolean hasTags = hasSelection && tagData.getRowCount() > 0;
         boolean hasMemberships = hasSelection && membershipData.getRowCount() > 0;
         addAction.setEnabled(hasSelection);
@@ -700,9 +742,9 @@ implements SelectionChangedListener, MapView.EditLayerChangeListener, DataSetLis
         }
 
         if (tagData.getRowCount() != 0 || membershipData.getRowCount() != 0) {
-            if (newSel.size() > 1) {
+            if (selectionSize > 1) {
                 setTitle(tr("Objects: {2} / Tags: {0} / Memberships: {1}",
-                    tagData.getRowCount(), membershipData.getRowCount(), newSel.size()));
+                    tagData.getRowCount(), membershipData.getRowCount(), selectionSize));
             } else {
                 setTitle(tr("Tags: {0} / Memberships: {1}",
                     tagData.getRowCount(), membershipData.getRowCount()));
@@ -721,6 +763,7 @@ implements SelectionChangedListener, MapView.EditLayerChangeListener, DataSetLis
         // it is time to save history of tags
         GuiHelper.runInEDT(new Runnable() {
             @Override public void run() {
+                tagStatistics.clear();
                 updateSelection();
             }
         });
@@ -728,7 +771,7 @@ implements SelectionChangedListener, MapView.EditLayerChangeListener, DataSetLis
 
     @Override
     public void processDatasetEvent(AbstractDatasetChangedEvent event) {
-        updateSelection();
+        updateTables(updateTagStatistics(event));
     }
 
     /**
@@ -0,0 +1,204 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.dialogs.properties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.gui.tagging.presets.TaggingPresetType;
+
+/**
+ * Number of occurrences of each tag in a set of primitives, as displayed by {@link PropertiesDialog}.
+ * <p>
+ * The counts are updated incrementally when the set of primitives changes, or when the tags of some of them
+ * change, so that a small change of a large selection costs in proportion to the change. The key/value array
+ * counted for each primitive is remembered, so that its tags can be uncounted even after the primitive changed:
+ * a change of the tags replaces the array of the primitive.
+ */
+class TagStatistics {
+
+    /** The type and the tags of a primitive when it was counted */
+    private static final class Counted {
+        private final TaggingPresetType type;
+        /** the key/value array of the primitive, see {@link OsmPrimitive#getKeysArray()} */
+        private final String[] keys;
+
+        Counted(TaggingPresetType type, String[] keys) {
+            this.type = type;
+            this.keys = keys;
+        }
+    }
+
+    /** the counted type and tags of each primitive of the set */
+    private final Map<OsmPrimitive, Counted> primitives = new IdentityHashMap<>();
+    /** the number of primitives having each tag, by key and value */
+    private final Map<String, Map<String, int[]>> counts = new HashMap<>();
+    /** the number of primitives of each preset type */
+    private final Map<TaggingPresetType, int[]> typeCounts = new EnumMap<>(TaggingPresetType.class);
+    private boolean displayDiscardableKeys;
+
+    /**
+     * Sets whether the discardable keys are counted. All the primitives are counted again if it changes.
+     * @param displayDiscardableKeys {@code true} to count the discardable keys
+     * @see OsmPrimitive#getDiscardableKeys()
+     */
+    void setDisplayDiscardableKeys(boolean displayDiscardableKeys) {
+        if (this.displayDiscardableKeys != displayDiscardableKeys) {
+            List<OsmPrimitive> counted = new ArrayList<>(primitives.keySet());
+            clear();
+            this.displayDiscardableKeys = displayDiscardableKeys;
+            for (OsmPrimitive osm : counted) {
+                primitives.put(osm, count(osm));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of primitives in the set.
+     * @return the number of primitives in the set
+     */
+    int size() {
+        return primitives.size();
+    }
+
+    /**
+     * Removes all primitives from the set.
+     */
+    void clear() {
+        primitives.clear();
+        counts.clear();
+        typeCounts.clear();
+    }
+
+    /**
+     * Sets the primitives to count. Only the primitives added to or removed from the set are counted or uncounted.
+     * @param selection the new set of primitives
+     * @return {@code true} if the set of primitives changed
+     */
+    boolean setPrimitives(Collection<? extends OsmPrimitive> selection) {
+        // primitives are compared by identity, as the id of new primitives changes when they are uploaded
+        Set<OsmPrimitive> next = Collections.newSetFromMap(new IdentityHashMap<OsmPrimitive, Boolean>(selection.size()));
+        next.addAll(selection);
+        boolean changed = false;
+        if (next.size() < primitives.size() / 2) {
+            // most primitives are removed, counting again is faster
+            clear();
+            changed = true;
+        } else {
+            for (Iterator<Entry<OsmPrimitive, Counted>> it = primitives.entrySet().iterator(); it.hasNext();) {
+                Entry<OsmPrimitive, Counted> e = it.next();
+                if (!next.contains(e.getKey())) {
+                    uncount(e.getValue());
+                    it.remove();
+                    changed = true;
+                }
+            }
+        }
+        for (OsmPrimitive osm : next) {
+            if (!primitives.containsKey(osm)) {
+                primitives.put(osm, count(osm));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Counts again the tags of changed primitives. Primitives which are not in the set are ignored.
+     * @param changed the changed primitives
+     */
+    void update(Collection<? extends OsmPrimitive> changed) {
+        for (OsmPrimitive osm : changed) {
+            Counted counted = primitives.get(osm);
+            if (counted != null) {
+                uncount(counted);
+                primitives.put(osm, count(osm));
+            }
+        }
+    }
+
+    private Counted count(OsmPrimitive osm) {
+        TaggingPresetType type = TaggingPresetType.forPrimitive(osm);
+        increment(typeCounts, type, 1);
+        String[] keys = osm.getKeysArray();
+        countTags(keys, 1);
+        return new Counted(type, keys);
+    }
+
+    private void uncount(Counted counted) {
+        increment(typeCounts, counted.type, -1);
+        countTags(counted.keys, -1);
+    }
+
+    private void countTags(String[] keys, int delta) {
+        if (keys == null)
+            return;
+        for (int i = 0; i < keys.length; i += 2) {
+            String key = keys[i];
+            if (!displayDiscardableKeys && OsmPrimitive.getDiscardableKeys().contains(key)) {
+                continue;
+            }
+            Map<String, int[]> values = counts.get(key);
+            if (values == null) {
+                values = new HashMap<>();
+                counts.put(key, values);
+            }
+            increment(values, keys[i + 1], delta);
+            if (values.isEmpty()) {
+                counts.remove(key);
+            }
+        }
+    }
+
+    private static <K> void increment(Map<K, int[]> map, K key, int delta) {
+        int[] count = map.get(key);
+        if (count == null) {
+            map.put(key, new int[] {delta});
+        } else if ((count[0] += delta) == 0) {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * Returns the number of primitives having each tag, sorted by key and value. The number of primitives without
+     * a key is counted with the empty value.
+     * @return the number of primitives by key and value
+     */
+    Map<String, Map<String, Integer>> getValueCount() {
+        Map<String, Map<String, Integer>> valueCount = new TreeMap<>();
+        for (Entry<String, Map<String, int[]>> e : counts.entrySet()) {
+            Map<String, Integer> values = new TreeMap<>();
+            int count = 0;
+            for (Entry<String, int[]> value : e.getValue().entrySet()) {
+                values.put(value.getKey(), value.getValue()[0]);
+                count += value.getValue()[0];
+            }
+            if (count < primitives.size()) {
+                values.put("", primitives.size() - count);
+            }
+            valueCount.put(e.getKey(), values);
+        }
+        return valueCount;
+    }
+
+    /**
+     * Returns the preset types of the primitives.
+     * @return the preset types of the primitives
+     */
+    Set<TaggingPresetType> getTypes() {
+        Set<TaggingPresetType> types = EnumSet.noneOf(TaggingPresetType.class);
+        types.addAll(typeCounts.keySet());
+        return types;
+    }
+}
@@ -51,6 +51,8 @@ implements TableModelListener, SelectionChangedListener, DataSetListener, OsmPri
      **/
     private transient List<RelationMember> members;
     private transient List<WayConnectionType> connectionType;
+    /** whether the ways of the members may have changed since the connection types were calculated */
+    private boolean waysChanged = true;
 
     private DefaultListSelectionModel listSelectionModel;
     private final CopyOnWriteArrayList<IMemberModelListener> listeners;
@@ -103,6 +105,7 @@ implements TableModelListener, SelectionChangedListener, DataSetListener, OsmPri
     @Override
     public void dataChanged(DataChangedEvent event) {
         // just trigger a repaint - the display name of the relation members may have changed
+        waysChanged = true;
         Collection<RelationMember> sel = getSelectedMembers();
         fireTableDataChanged();
         setSelectedMembers(sel);
@@ -110,7 +113,8 @@ implements TableModelListener, SelectionChangedListener, DataSetListener, OsmPri
 
     @Override
     public void nodeMoved(NodeMovedEvent event) {
-        // ignore
+        // the direction of a roundabout may have changed
+        waysChanged = true;
     }
 
     @Override
@@ -136,6 +140,7 @@ implements TableModelListener, SelectionChangedListener, DataSetListener, OsmPri
     public void tagsChanged(TagsChangedEvent event) {
         // just refresh the respective table cells
         //
+        waysChanged = true;
         Collection<RelationMember> sel = getSelectedMembers();
         for (int i = 0; i < members.size(); i++) {
             if (members.get(i).getMember() == event.getPrimitive()) {
@@ -147,7 +152,7 @@ implements TableModelListener, SelectionChangedListener, DataSetListener, OsmPri
 
     @Override
     public void wayNodesChanged(WayNodesChangedEvent event) {
-        // ignore
+        waysChanged = true;
     }
 
     @Override
@@ -179,6 +184,7 @@ implements TableModelListener, SelectionChangedListener, DataSetListener, OsmPri
             // make sure we work with clones of the relation members in the model.
             members.addAll(new Relation(relation).getMembers());
         }
+        waysChanged = true;
         fireTableDataChanged();
     }
 
@@ -546,12 +552,11 @@ implements TableModelListener, SelectionChangedListener, DataSetListener, OsmPri
 
         // lookup the indices for the respective members
         //
+        Set<RelationMember> selected = new HashSet<>(selectedMembers);
         Set<Integer> selectedIndices = new HashSet<>();
-        for (RelationMember member : selectedMembers) {
-            for (int idx = 0; idx < members.size(); ++idx) {
-                if (member.equals(members.get(idx))) {
-                    selectedIndices.add(idx);
-                }
+        for (int idx = 0; idx < members.size(); ++idx) {
+            if (selected.contains(members.get(idx))) {
+                selectedIndices.add(idx);
             }
         }
         setSelectedMembersIdx(selectedIndices);
@@ -685,11 +690,10 @@ implements TableModelListener, SelectionChangedListener, DataSetListener, OsmPri
             sortedMembers = newMembers;
         } else {
             sortedMembers = relationSorter.sortMembers(selectedMembers);
-            List<Integer> selectedIndices = getSelectedIndices();
             newMembers = new ArrayList<>();
             boolean inserted = false;
             for (int i = 0; i < members.size(); i++) {
-                if (selectedIndices.contains(i)) {
+                if (getSelectionModel().isSelectedIndex(i)) {
                     if (!inserted) {
                         newMembers.addAll(sortedMembers);
                         inserted = true;
@@ -722,7 +726,13 @@ implements TableModelListener, SelectionChangedListener, DataSetListener, OsmPri
 
     WayConnectionType getWayConnection(int i) {
         if (connectionType == null) {
-            connectionType = wayConnectionTypeCalculator.updateLinks(members);
+            if (waysChanged) {
+                connectionType = wayConnectionTypeCalculator.updateLinks(members);
+                waysChanged = false;
+            } else {
+                // only the list of members changed, the connection types of the first members can be kept
+                connectionType = wayConnectionTypeCalculator.updateLinksIncrementally(members);
+            }
         }
         return connectionType.get(i);
     }
@@ -4,11 +4,11 @@ package org.openstreetmap.josm.gui.dialogs.relation.sort;
 import static org.openstreetmap.josm.gui.dialogs.relation.sort.WayConnectionType.Direction.NONE;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
 import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.RelationMember;
@@ -25,36 +25,148 @@ import org.openstreetmap.josm.data.osm.Way;
  * Note that normal ways have 2 nodes (beginning and end) but roundabouts can have less or more
  * (that are shared by other members).
  *
+ * Ways are identified by their index in the member list, so the mapping from ways to nodes is an array,
+ * and the sets of ways or nodes are small sorted arrays, as each node is only shared by a few ways.
+ * This keeps sorting linear in the number of members, even for routes with thousands of members.
+ *
  * @author Christiaan Welvaart &lt;cjw@time4t.net&gt;
  *
  */
 public class RelationNodeMap {
 
-    private static class NodesWays{
-        public final Map<Node, Set<Integer>> nodes = new TreeMap<>();
-        public final Map<Integer, Set<Node>> ways = new TreeMap<>();
+    /**
+     * Sorted set of way indexes.
+     */
+    private static final class Indexes {
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int i) {
+            int pos = Arrays.binarySearch(values, 0, size, i);
+            if (pos >= 0)
+                return;
+            pos = -pos - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            values[pos] = i;
+            size++;
+        }
+
+        boolean remove(int i) {
+            int pos = Arrays.binarySearch(values, 0, size, i);
+            if (pos < 0)
+                return false;
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        int first() {
+            return values[0];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /**
+     * Set of nodes, sorted like a {@code TreeSet<Node>} so that the members are sorted in the same order.
+     */
+    private static final class Nodes {
+        private Node[] values = new Node[2];
+        private int size;
+
+        void add(Node n) {
+            int pos = 0;
+            while (pos < size && values[pos].compareTo(n) < 0) {
+                pos++;
+            }
+            if (pos < size && values[pos].compareTo(n) == 0)
+                return;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            values[pos] = n;
+            size++;
+        }
+
+        void addAll(Nodes other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        void remove(Node n) {
+            for (int pos = 0; pos < size; pos++) {
+                if (values[pos] == n) {
+                    System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+                    values[--size] = null;
+                    return;
+                }
+            }
+        }
+
+        Node get(int i) {
+            return values[i];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    private static class NodesWays {
+        public final Map<Node, Indexes> nodes = new HashMap<>();
+        /** the nodes of each way, null for the ways which are not in this map */
+        public final Nodes[] ways;
         public final boolean oneWay;
 
-        NodesWays(boolean oneWay) {
+        NodesWays(boolean oneWay, int size) {
             this.oneWay = oneWay;
+            this.ways = new Nodes[size];
+        }
+
+        void addNodeWay(Node n, int i) {
+            Indexes ts = nodes.get(n);
+            if (ts == null) {
+                ts = new Indexes();
+                nodes.put(n, ts);
+            }
+            ts.add(i);
+        }
+
+        void addWayNode(Node n, int i) {
+            if (ways[i] == null) {
+                ways[i] = new Nodes();
+            }
+            ways[i].add(n);
         }
     }
 
     /*
-     * the maps. (Need TreeMap for efficiency.)
+     * the maps.
      */
-    private final NodesWays map = new NodesWays(false);
+    private final NodesWays map;
     /*
      * Maps for oneways (forward/backward roles)
      */
 
-    private final NodesWays onewayMap = new NodesWays(true);
-    private final NodesWays onewayReverseMap = new NodesWays(true);
+    private final NodesWays onewayMap;
+    private final NodesWays onewayReverseMap;
     /*
      * Used to keep track of what members are done.
      */
-    private final Set<Integer> remaining = new TreeSet<>();
-    private final Map<Integer, Set<Node>> remainingOneway = new TreeMap<>();
+    private final BitSet remaining = new BitSet();
+    private final BitSet remainingOneway = new BitSet();
+    private final Nodes[] remainingOnewayNodes;
 
     /**
      * All members that are incomplete or not a way
@@ -78,6 +190,11 @@ public class RelationNodeMap {
     }
 
     RelationNodeMap(List<RelationMember> members) {
+        map = new NodesWays(false, members.size());
+        onewayMap = new NodesWays(true, members.size());
+        onewayReverseMap = new NodesWays(true, members.size());
+        remainingOnewayNodes = new Nodes[members.size()];
+
         for (int i = 0; i < members.size(); ++i) {
             RelationMember m = members.get(i);
             if (m.getMember().isIncomplete() || !m.isWay() || m.getWay().getNodesCount() < 2) {
@@ -90,81 +207,33 @@ public class RelationNodeMap {
                 for (Node nd : w.getNodes()) {
                     addPair(nd, i);
                 }
+                remaining.set(i);
             } else if (RelationSortUtils.isOneway(m)) {
-                addNodeWayMap(firstOnewayNode(m), i);
-                addWayNodeMap(lastOnewayNode(m), i);
-                addNodeWayMapReverse(lastOnewayNode(m), i);
-                addWayNodeMapReverse(firstOnewayNode(m), i);
+                onewayMap.addNodeWay(firstOnewayNode(m), i);
+                onewayMap.addWayNode(lastOnewayNode(m), i);
+                onewayReverseMap.addNodeWay(lastOnewayNode(m), i);
+                onewayReverseMap.addWayNode(firstOnewayNode(m), i);
                 addRemainingForward(firstOnewayNode(m), i);
                 addRemainingForward(lastOnewayNode(m), i);
             } else {
                 addPair(w.firstNode(), i);
                 addPair(w.lastNode(), i);
+                remaining.set(i);
             }
         }
-
-        remaining.addAll(map.ways.keySet());
     }
 
     private void addPair(Node n, int i) {
-        Set<Integer> ts = map.nodes.get(n);
-        if (ts == null) {
-            ts = new TreeSet<>();
-            map.nodes.put(n, ts);
-        }
-        ts.add(i);
-
-        Set<Node> ts2 = map.ways.get(i);
-        if (ts2 == null) {
-            ts2 = new TreeSet<>();
-            map.ways.put(i, ts2);
-        }
-        ts2.add(n);
-    }
-
-    private void addNodeWayMap(Node n, int i) {
-        Set<Integer> ts = onewayMap.nodes.get(n);
-        if (ts == null) {
-            ts = new TreeSet<>();
-            onewayMap.nodes.put(n, ts);
-        }
-        ts.add(i);
-    }
-
-    private void addWayNodeMap(Node n, int i) {
-        Set<Node> ts2 = onewayMap.ways.get(i);
-        if (ts2 == null) {
-            ts2 = new TreeSet<>();
-            onewayMap.ways.put(i, ts2);
-        }
-        ts2.add(n);
-    }
-
-    private void addNodeWayMapReverse(Node n, int i) {
-        Set<Integer> ts = onewayReverseMap.nodes.get(n);
-        if (ts == null) {
-            ts = new TreeSet<>();
-            onewayReverseMap.nodes.put(n, ts);
-        }
-        ts.add(i);
-    }
-
-    private void addWayNodeMapReverse(Node n, int i) {
-        Set<Node> ts2 = onewayReverseMap.ways.get(i);
-        if (ts2 == null) {
-            ts2 = new TreeSet<>();
-            onewayReverseMap.ways.put(i, ts2);
-        }
-        ts2.add(n);
+        map.addNodeWay(n, i);
+        map.addWayNode(n, i);
     }
 
     private void addRemainingForward(Node n, int i) {
-        Set<Node> ts2 = remainingOneway.get(i);
-        if (ts2 == null) {
-            ts2 = new TreeSet<>();
-            remainingOneway.put(i, ts2);
+        if (remainingOnewayNodes[i] == null) {
+            remainingOnewayNodes[i] = new Nodes();
+            remainingOneway.set(i);
         }
-        ts2.add(n);
+        remainingOnewayNodes[i].add(n);
     }
 
     private Integer firstOneway;
@@ -180,8 +249,10 @@ public class RelationNodeMap {
         if (lastOnewayNode != null) return popBackwardOnewayPart(way);
         if (firstOneway != null) return popForwardOnewayPart(way);
 
-        if (map.ways.containsKey(way)) {
-            for (Node n : map.ways.get(way)) {
+        Nodes nodes = map.ways[way];
+        if (nodes != null) {
+            for (int k = 0; k < nodes.size(); k++) {
+                Node n = nodes.get(k);
                 Integer i = deleteAndGetAdjacentNode(map, n);
                 if (i != null) return i;
 
@@ -198,8 +269,10 @@ public class RelationNodeMap {
     }
 
     private Integer popForwardOnewayPart(Integer way) {
-        if (onewayMap.ways.containsKey(way)) {
-            for (Node n : onewayMap.ways.get(way)) {
+        Nodes nodes = onewayMap.ways[way];
+        if (nodes != null) {
+            for (int k = 0; k < nodes.size(); k++) {
+                Node n = nodes.get(k);
                 Integer i = findAdjacentWay(onewayMap, n);
                 if (i == null) {
                     continue;
@@ -218,9 +291,11 @@ public class RelationNodeMap {
         return null;
     }
 
-    private Node processBackwardIfEndOfLoopReached(Integer way) { //find if we didn't reach end of the loop (and process backward part)
-        if (onewayReverseMap.ways.containsKey(way)) {
-            for (Node n : onewayReverseMap.ways.get(way)) {
+    private Node processBackwardIfEndOfLoopReached(int way) { //find if we didn't reach end of the loop (and process backward part)
+        Nodes nodes = onewayReverseMap.ways[way];
+        if (nodes != null) {
+            for (int k = 0; k < nodes.size(); k++) {
+                Node n = nodes.get(k);
                 if ((map.nodes.containsKey(n))
                         || (onewayMap.nodes.containsKey(n) && onewayMap.nodes.get(n).size() > 1))
                     return n;
@@ -233,24 +308,25 @@ public class RelationNodeMap {
 
     private Integer popBackwardOnewayPart(int way) {
         if (lastOnewayNode != null) {
-            Set<Node> nodes = new TreeSet<>();
-            if (onewayReverseMap.ways.containsKey(way)) {
-                nodes.addAll(onewayReverseMap.ways.get(way));
+            Nodes nodes = new Nodes();
+            if (onewayReverseMap.ways[way] != null) {
+                nodes.addAll(onewayReverseMap.ways[way]);
             }
-            if (map.ways.containsKey(way)) {
-                nodes.addAll(map.ways.get(way));
+            if (map.ways[way] != null) {
+                nodes.addAll(map.ways[way]);
             }
-            for (Node n : nodes) {
+            for (int k = 0; k < nodes.size(); k++) {
+                Node n = nodes.get(k);
                 if (n == lastOnewayNode) { //if oneway part ends
                     firstOneway = null;
                     lastOnewayNode = null;
                     Integer j = deleteAndGetAdjacentNode(map, n);
                     if (j != null) return j;
 
-                    Integer k = deleteAndGetAdjacentNode(onewayMap, n);
-                    if (k != null) {
-                        firstOneway = k;
-                        return k;
+                    Integer k2 = deleteAndGetAdjacentNode(onewayMap, n);
+                    if (k2 != null) {
+                        firstOneway = k2;
+                        return k2;
                     }
                 }
 
@@ -278,19 +354,19 @@ public class RelationNodeMap {
         return j;
     }
 
-    private Integer findAdjacentWay(NodesWays nw, Node n) {
-        Set<Integer> adj = nw.nodes.get(n);
+    private static Integer findAdjacentWay(NodesWays nw, Node n) {
+        Indexes adj = nw.nodes.get(n);
         if (adj == null || adj.isEmpty()) return null;
-        return adj.iterator().next();
+        return adj.first();
     }
 
-    private void deleteWayNode(NodesWays nw, Integer way, Node n) {
+    private void deleteWayNode(NodesWays nw, int way, Node n) {
         if (nw.oneWay) {
             doneOneway(way);
         } else {
             done(way);
         }
-        nw.ways.get(way).remove(n);
+        nw.ways[way].remove(n);
     }
 
     /**
@@ -299,14 +375,17 @@ public class RelationNodeMap {
      */
     public Integer pop() {
         if (!remaining.isEmpty()) {
-            Integer i = remaining.iterator().next();
+            int i = remaining.nextSetBit(0);
             done(i);
             return i;
         }
 
         if (remainingOneway.isEmpty()) return null;
-        for (Integer i :remainingOneway.keySet()) { //find oneway, which is connected to more than one way (is between two oneway loops)
-            for (Node n : onewayReverseMap.ways.get(i)) {
+        //find oneway, which is connected to more than one way (is between two oneway loops)
+        for (int i = remainingOneway.nextSetBit(0); i >= 0; i = remainingOneway.nextSetBit(i + 1)) {
+            Nodes nodes = onewayReverseMap.ways[i];
+            for (int k = 0; k < nodes.size(); k++) {
+                Node n = nodes.get(k);
                 if (onewayReverseMap.nodes.containsKey(n) && onewayReverseMap.nodes.get(n).size() > 1) {
                     doneOneway(i);
                     firstCircular = n;
@@ -315,7 +394,7 @@ public class RelationNodeMap {
             }
         }
 
-        Integer i = remainingOneway.keySet().iterator().next();
+        int i = remainingOneway.nextSetBit(0);
         doneOneway(i);
         return i;
     }
@@ -324,9 +403,10 @@ public class RelationNodeMap {
      * This relation member has been processed.
      * Remove references in the map.nodes.
      */
-    private void doneOneway(Integer i) {
-        Set<Node> nodesForward = remainingOneway.get(i);
-        for (Node n : nodesForward) {
+    private void doneOneway(int i) {
+        Nodes nodesForward = remainingOnewayNodes[i];
+        for (int k = 0; k < nodesForward.size(); k++) {
+            Node n = nodesForward.get(k);
             if (onewayMap.nodes.containsKey(n)) {
                 onewayMap.nodes.get(n).remove(i);
             }
@@ -334,14 +414,14 @@ public class RelationNodeMap {
                 onewayReverseMap.nodes.get(n).remove(i);
             }
         }
-        remainingOneway.remove(i);
+        remainingOneway.clear(i);
     }
 
-    private void done(Integer i) {
-        remaining.remove(i);
-        Set<Node> nodes = map.ways.get(i);
-        for (Node n : nodes) {
-            boolean result = map.nodes.get(n).remove(i);
+    private void done(int i) {
+        remaining.clear(i);
+        Nodes nodes = map.ways[i];
+        for (int k = 0; k < nodes.size(); k++) {
+            boolean result = map.nodes.get(nodes.get(k)).remove(i);
             if (!result) throw new AssertionError();
         }
     }
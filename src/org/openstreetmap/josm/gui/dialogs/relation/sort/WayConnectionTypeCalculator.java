@@ -6,6 +6,8 @@ import static org.openstreetmap.josm.gui.dialogs.relation.sort.WayConnectionType
 import static org.openstreetmap.josm.gui.dialogs.relation.sort.WayConnectionType.Direction.NONE;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.openstreetmap.josm.data.osm.Node;
@@ -17,33 +19,79 @@ public class WayConnectionTypeCalculator {
 
     private static final int UNCONNECTED = Integer.MIN_VALUE;
 
+    /** number of values of the state saved before each member */
+    private static final int STATE_SIZE = 5;
+
     private List<RelationMember> members;
 
+    /** the members and their connection types of the last calculation */
+    private List<RelationMember> lastMembers = Collections.emptyList();
+    private List<WayConnectionType> lastConnections = Collections.emptyList();
+    /** the state of the calculation before each member, so that it can be resumed at any member */
+    private int[] states = new int[0];
+
     /**
      * refresh the cache of member WayConnectionTypes
      */
     public List<WayConnectionType> updateLinks(List<RelationMember> members) {
-        this.members = members;
-        final List<WayConnectionType> con = new ArrayList<>();
+        return updateLinks(members, 0);
+    }
 
-        for (int i = 0; i < members.size(); ++i) {
-            con.add(null);
+    /**
+     * Refreshes the connection types after members have been inserted, removed or moved since the last call.
+     * The connection types of the members before the first changed member are kept, and only the following ones are
+     * calculated again. The ways of the members must not have changed since the last call, otherwise
+     * {@link #updateLinks(List)} has to be used. The connection types returned by the last call are reused, and may
+     * be modified.
+     * @param members the relation members
+     * @return the connection types of the members
+     */
+    public List<WayConnectionType> updateLinksIncrementally(List<RelationMember> members) {
+        int max = Math.min(members.size(), lastMembers.size());
+        int from = 0;
+        while (from < max && members.get(from) == lastMembers.get(from)) {
+            from++;
         }
+        // the connection type of a member depends on the next member
+        return updateLinks(members, Math.max(0, from - 1));
+    }
 
-        firstGroupIdx = 0;
+    private List<WayConnectionType> updateLinks(List<RelationMember> members, int from) {
+        this.members = members;
+        final List<WayConnectionType> con = new ArrayList<>(members.size());
+        if (states.length < members.size() * STATE_SIZE) {
+            states = Arrays.copyOf(states, members.size() * STATE_SIZE);
+        }
 
-        lastForwardWay = UNCONNECTED;
-        lastBackwardWay = UNCONNECTED;
-        onewayBeginning = false;
         WayConnectionType lastWct = null;
+        int lastWctIdx = -1;
+        if (from == 0) {
+            firstGroupIdx = 0;
+
+            lastForwardWay = UNCONNECTED;
+            lastBackwardWay = UNCONNECTED;
+            onewayBeginning = false;
+        } else {
+            con.addAll(lastConnections.subList(0, from));
+            lastWctIdx = restoreState(from);
+            // the loop of the current group and the link to the next member are determined again
+            for (int j = firstGroupIdx; j < from; ++j) {
+                con.get(j).isLoop = false;
+            }
+            if (lastWctIdx >= 0) {
+                lastWct = con.get(lastWctIdx);
+                lastWct.linkNext = false;
+            }
+        }
 
-        for (int i = 0; i < members.size(); ++i) {
+        for (int i = from; i < members.size(); ++i) {
+            saveState(i, lastWctIdx);
             final RelationMember m = members.get(i);
             if (!m.isWay() || m.getWay() == null || m.getWay().isIncomplete()) {
                 if (i > 0) {
                     makeLoopIfNeeded(con, i-1);
                 }
-                con.set(i, new WayConnectionType());
+                con.add(new WayConnectionType());
                 firstGroupIdx = i;
                 continue;
             }
@@ -90,8 +138,9 @@ public class WayConnectionTypeCalculator {
             if (lastWct != null) {
                 lastWct.linkNext = wct.linkPrev;
             }
-            con.set(i, wct);
+            con.add(wct);
             lastWct = wct;
+            lastWctIdx = i;
 
             if (!wct.linkPrev) {
                 if (i > 0) {
@@ -102,9 +151,29 @@ public class WayConnectionTypeCalculator {
         }
         makeLoopIfNeeded(con, members.size()-1);
 
+        lastMembers = new ArrayList<>(members);
+        lastConnections = con;
         return con;
     }
 
+    private void saveState(int i, int lastWctIdx) {
+        int pos = i * STATE_SIZE;
+        states[pos] = firstGroupIdx;
+        states[pos + 1] = lastForwardWay;
+        states[pos + 2] = lastBackwardWay;
+        states[pos + 3] = onewayBeginning ? 1 : 0;
+        states[pos + 4] = lastWctIdx;
+    }
+
+    private int restoreState(int i) {
+        int pos = i * STATE_SIZE;
+        firstGroupIdx = states[pos];
+        lastForwardWay = states[pos + 1];
+        lastBackwardWay = states[pos + 2];
+        onewayBeginning = states[pos + 3] != 0;
+        return states[pos + 4];
+    }
+
     private int firstGroupIdx;
     private void makeLoopIfNeeded(final List<WayConnectionType> con, final int i) {
         boolean loop;
@@ -261,14 +330,15 @@ public class WayConnectionTypeCalculator {
             break;
         }
 
+        final Direction roundaboutType = RelationSortUtils.roundaboutType(m);
         for (Node n : refNodes) {
             if (n == null) {
                 continue;
             }
-            if (RelationSortUtils.roundaboutType(members.get(k)) != NONE) {
+            if (roundaboutType != NONE) {
                 for (Node nn : way.getNodes()) {
                     if (n == nn)
-                        return RelationSortUtils.roundaboutType(members.get(k));
+                        return roundaboutType;
                 }
             } else if (RelationSortUtils.isOneway(m)) {
                 if (n == RelationNodeMap.firstOnewayNode(m) && !reversed) {
@@ -267,7 +267,11 @@ public class DownloadDialog extends JDialog  {
             // see max_request_area in https://github.com/openstreetmap/openstreetmap-website/blob/master/config/example.application.yml
             isAreaTooLarge = currentBounds.getArea() > Main.pref.getDouble("osm-server.max-request-area", 0.25);
         }
-        if (isAreaTooLarge) {
+        if (isAreaTooLarge && isDownloadOsmData() && !isDownloadGpxData() && !isDownloadNotes()
+                && Main.pref.getBoolean("download.osm.tiled", false)) {
+            sizeCheck.setText(tr("Download area large; will be downloaded in several parts"));
+            sizeCheck.setForeground(Color.darkGray);
+        } else if (isAreaTooLarge) {
             sizeCheck.setText(tr("Download area too large; will probably be rejected by server"));
             sizeCheck.setForeground(Color.red);
         } else {
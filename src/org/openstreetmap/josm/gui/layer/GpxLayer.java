@@ -243,11 +243,16 @@ public class GpxLayer extends Layer {
     @Override
     public boolean isChanged() {
         if (data.tracks.equals(lastTracks))
-            return sumUpdateCount() != lastUpdateCount;
+            return sumUpdateCount() != lastUpdateCount || drawHelper.isLevelOfDetailChanged();
         else
             return true;
     }
 
+    @Override
+    public boolean isPaintReusableWhenMoved() {
+        return drawHelper.isDrawingMovable(Main.isDisplayingMapView() && Main.map.mapView.getActiveLayer() == this);
+    }
+
     public void filterTracksByDate(Date fromDate, Date toDate, boolean showWithoutDate) {
         int i = 0;
         long from = fromDate.getTime();
@@ -270,13 +275,18 @@ public class GpxLayer extends Layer {
 
     @Override
     public void paint(Graphics2D g, MapView mv, Bounds box) {
-        lastUpdateCount = sumUpdateCount();
+        int updateCount = sumUpdateCount();
+        if (updateCount != lastUpdateCount) {
+            drawHelper.dataChanged();
+        }
+        lastUpdateCount = updateCount;
         lastTracks.clear();
         lastTracks.addAll(data.tracks);
 
-        List<WayPoint> visibleSegments = listVisibleSegments(box);
+        drawHelper.readPreferences(getName());
+        ensureTrackVisibilityLength();
+        List<WayPoint> visibleSegments = listVisibleSegments(drawHelper.getLinesIterable(mv, trackVisibility), box);
         if (!visibleSegments.isEmpty()) {
-            drawHelper.readPreferences(getName());
             drawHelper.drawAll(g, mv, visibleSegments);
             if (Main.map.mapView.getActiveLayer() == this) {
                 drawHelper.drawColorBar(g, mv);
@@ -284,12 +294,11 @@ public class GpxLayer extends Layer {
         }
     }
 
-    private List<WayPoint> listVisibleSegments(Bounds box) {
+    private static List<WayPoint> listVisibleSegments(Iterable<Collection<WayPoint>> lines, Bounds box) {
         WayPoint last = null;
         LinkedList<WayPoint> visibleSegments = new LinkedList<>();
 
-        ensureTrackVisibilityLength();
-        for (Collection<WayPoint> segment : data.getLinesIterable(trackVisibility)) {
+        for (Collection<WayPoint> segment : lines) {
 
             for (WayPoint pt : segment) {
                 Bounds b = new Bounds(pt.getCoor());
@@ -347,7 +356,8 @@ public class GpxLayer extends Layer {
     @Override
     public void projectionChanged(Projection oldValue, Projection newValue) {
         if (newValue == null) return;
-        data.resetEastNorthCache();
+        data.updateEastNorthCache();
+        drawHelper.dataChanged();
     }
 
     @Override
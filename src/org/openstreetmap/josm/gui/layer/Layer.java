@@ -6,6 +6,7 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
@@ -405,6 +406,32 @@ public abstract class Layer implements Destroyable, MapViewPaintable, Projection
         return true;
     }
 
+    /**
+     * Determines if the painting of this layer only depends on the map coordinates of its content, and not on
+     * the visible area. If so, the map view may move the pixels painted before when the map is moved,
+     * and only paint the newly visible area.
+     * <p>
+     * Layers drawing labels placed according to the visible area, or anything at a fixed position
+     * on the screen, must return {@code false}.
+     *
+     * @return {@code true} if the painted pixels can be moved with the map
+     */
+    public boolean isPaintReusableWhenMoved() {
+        return false;
+    }
+
+    /**
+     * Returns the area of the map view where the painting of this layer changed since the last paint.
+     * This is called before painting a {@link #isChanged() changed} layer. If an area is returned, the map view
+     * may paint the layer in this area only, over its previous painting.
+     *
+     * @param mv the map view
+     * @return the changed area, in map view coordinates, or {@code null} if unknown
+     */
+    public Rectangle getChangedArea(MapView mv) {
+        return null;
+    }
+
     /**
      * allows to check whether a projection is supported or not
      *
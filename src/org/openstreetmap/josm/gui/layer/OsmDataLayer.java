@@ -56,6 +56,7 @@ import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxLink;
 import org.openstreetmap.josm.data.gpx.ImmutableGpxTrack;
 import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.osm.BBox;
 import org.openstreetmap.josm.data.osm.DataIntegrityProblemException;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.DataSetMerger;
@@ -73,6 +74,7 @@ import org.openstreetmap.josm.data.osm.visitor.AbstractVisitor;
 import org.openstreetmap.josm.data.osm.visitor.BoundingXYVisitor;
 import org.openstreetmap.josm.data.osm.visitor.paint.MapRendererFactory;
 import org.openstreetmap.josm.data.osm.visitor.paint.Rendering;
+import org.openstreetmap.josm.data.osm.visitor.paint.StyledMapRenderer;
 import org.openstreetmap.josm.data.osm.visitor.paint.relations.MultipolygonCache;
 import org.openstreetmap.josm.data.projection.Projection;
 import org.openstreetmap.josm.data.validation.TestError;
@@ -115,6 +117,22 @@ public class OsmDataLayer extends AbstractModifiableLayer implements Listener, S
     private boolean isChanged = true;
     private int highlightUpdateCount;
 
+    /** Maximal number of changed primitives painted again in the changed area only */
+    private static final int MAX_CHANGED_PRIMITIVES = 1000;
+    /** Maximal number of bounding boxes kept from the previous paints */
+    private static final int MAX_PAINTED_BBOXES = 10000;
+
+    /** primitives whose painting changed since the last paint, see {@link #getChangedArea(MapView)} */
+    private final Set<OsmPrimitive> changedPrimitives = new HashSet<>();
+    /** bounding boxes of the primitives changed at the previous paints, as they were painted ({@code null} if not drawn) */
+    private final Map<OsmPrimitive, BBox> paintedBBoxes = new HashMap<>();
+    /** the whole layer must be painted again */
+    private boolean paintAll = true;
+    private boolean paintedInactive;
+    private boolean paintedVirtual;
+    /** selected primitives, to find the primitives whose selection changed */
+    private Set<OsmPrimitive> lastSelection;
+
     /**
      * List of validation errors in this layer.
      * @since 3669
@@ -288,6 +306,7 @@ public class OsmDataLayer extends AbstractModifiableLayer implements Listener, S
         conflicts = new ConflictCollection();
         data.addDataSetListener(new DataSetListenerAdapter(this));
         data.addDataSetListener(MultipolygonCache.getInstance());
+        lastSelection = new HashSet<>(data.getAllSelected());
         DataSet.addSelectionListener(this);
     }
 
@@ -319,8 +338,23 @@ public class OsmDataLayer extends AbstractModifiableLayer implements Listener, S
         highlightUpdateCount = data.getHighlightUpdateCount();
 
         boolean active = mv.getActiveLayer() == this;
-        boolean inactive = !active && Main.pref.getBoolean("draw.data.inactive_color", true);
+        boolean inactive = isInactive(mv);
         boolean virtual = !inactive && mv.isVirtualNodesEnabled();
+        synchronized (changedPrimitives) {
+            if (paintAll) {
+                paintedBBoxes.clear();
+            }
+            for (OsmPrimitive p : changedPrimitives) {
+                paintedBBoxes.put(p, getPaintedBBox(p));
+            }
+            if (paintedBBoxes.size() > MAX_PAINTED_BBOXES) {
+                paintedBBoxes.clear();
+            }
+            changedPrimitives.clear();
+            paintAll = false;
+            paintedInactive = inactive;
+            paintedVirtual = virtual;
+        }
 
         // draw the hatched area for non-downloaded region. only draw if we're the active
         // and bounds are defined; don't draw for inactive layers or loaded GPX files etc
@@ -340,7 +374,13 @@ public class OsmDataLayer extends AbstractModifiableLayer implements Listener, S
                 Point p1 = mv.getPoint(bounds.getMin());
                 Point p2 = mv.getPoint(bounds.getMax());
                 Rectangle r = new Rectangle(Math.min(p1.x, p2.x), Math.min(p1.y, p2.y), Math.abs(p2.x-p1.x), Math.abs(p2.y-p1.y));
-                a.subtract(new Area(r));
+                // sources outside of the view do not change the area
+                if (r.intersects(b)) {
+                    a.subtract(new Area(r));
+                    if (r.contains(b)) {
+                        break;
+                    }
+                }
             }
 
             // paint remainder
@@ -349,10 +389,98 @@ public class OsmDataLayer extends AbstractModifiableLayer implements Listener, S
         }
 
         Rendering painter = MapRendererFactory.getInstance().createActiveRenderer(g, mv, inactive);
-        painter.render(data, virtual, box);
+        Rectangle clip = g.getClipBounds();
+        if (painter instanceof StyledMapRenderer && clip != null && !clip.contains(new Rectangle(0, 0, mv.getWidth(), mv.getHeight()))) {
+            // only a part of the view is painted, e.g. the area of changed primitives
+            ((StyledMapRenderer) painter).renderClipped(data, virtual, getChangedAreaMargin());
+        } else {
+            painter.render(data, virtual, box);
+        }
         Main.map.conflictDialog.paintConflicts(g, mv);
     }
 
+    private boolean isInactive(MapView mv) {
+        return mv.getActiveLayer() != this && Main.pref.getBoolean("draw.data.inactive_color", true);
+    }
+
+    private static int getChangedAreaMargin() {
+        return Main.pref.getInteger("mappaint.partial-repaint.margin", 150);
+    }
+
+    /**
+     * Returns the bounding box of a primitive, if it is drawn.
+     */
+    private BBox getPaintedBBox(OsmPrimitive p) {
+        if (p.getDataSet() != data || !p.isDrawable() || (p instanceof Relation && ((Relation) p).getMembersCount() == 0))
+            return null;
+        return p.getBBox();
+    }
+
+    private static Rectangle addBBox(Rectangle area, MapView mv, BBox box) {
+        if (box == null)
+            return area;
+        Rectangle r = new Rectangle(mv.getPoint(box.getTopLeft()));
+        r.add(mv.getPoint(box.getBottomRight()));
+        r.add(mv.getPoint(new LatLon(box.getTopLeftLat(), box.getBottomRightLon())));
+        r.add(mv.getPoint(new LatLon(box.getBottomRightLat(), box.getTopLeftLon())));
+        if (area == null)
+            return r;
+        area.add(r);
+        return area;
+    }
+
+    @Override
+    public Rectangle getChangedArea(MapView mv) {
+        boolean inactive = isInactive(mv);
+        boolean virtual = !inactive && mv.isVirtualNodesEnabled();
+        Rectangle view = new Rectangle(0, 0, mv.getWidth(), mv.getHeight());
+        synchronized (changedPrimitives) {
+            if (paintAll || highlightUpdateCount != data.getHighlightUpdateCount() || inactive != paintedInactive
+                    || virtual != paintedVirtual || !Main.pref.getBoolean("mappaint.partial-repaint", true))
+                return view;
+            Rectangle area = null;
+            for (OsmPrimitive p : changedPrimitives) {
+                area = addBBox(area, mv, paintedBBoxes.get(p));
+                area = addBBox(area, mv, getPaintedBBox(p));
+            }
+            if (area == null)
+                return new Rectangle();
+            // the changed primitives may be drawn out of their bounding box (icons, labels, wide lines)
+            int margin = getChangedAreaMargin();
+            area.grow(margin, margin);
+            return area;
+        }
+    }
+
+    /**
+     * Records a primitive whose painting changed, as well as its referrers whose painting may depend on it.
+     * The whole layer must be painted again if the previous geometry of one of them is not known. If its geometry
+     * did not change, a primitive was painted within its current bounding box, if at all (e.g. before it was deleted).
+     * Must be called while synchronized on {@link #changedPrimitives}.
+     * @param p the changed primitive
+     * @param geometryChanged {@code true} if the geometry of the primitive changed
+     * @param depth number of referrers followed to reach the primitive
+     */
+    private void addChangedPrimitive(OsmPrimitive p, boolean geometryChanged, int depth) {
+        if (changedPrimitives.size() >= MAX_CHANGED_PRIMITIVES) {
+            paintAll = true;
+            return;
+        }
+        if (!paintedBBoxes.containsKey(p)) {
+            if (geometryChanged) {
+                paintAll = true;
+            } else if (!(p instanceof Relation && ((Relation) p).getMembersCount() == 0)) {
+                paintedBBoxes.put(p, p.getBBox());
+            }
+        }
+        boolean added = changedPrimitives.add(p);
+        if ((added || geometryChanged) && depth < 3 && p.getDataSet() != null) {
+            for (OsmPrimitive referrer : p.getReferrers()) {
+                addChangedPrimitive(referrer, geometryChanged, depth + 1);
+            }
+        }
+    }
+
     @Override public String getToolTipText() {
         int nodes = new FilteredCollection<>(data.getNodes(), OsmPrimitive.nonDeletedPredicate).size();
         int ways = new FilteredCollection<>(data.getWays(), OsmPrimitive.nonDeletedPredicate).size();
@@ -857,6 +985,24 @@ public class OsmDataLayer extends AbstractModifiableLayer implements Listener, S
 
     @Override
     public void processDatasetEvent(AbstractDatasetChangedEvent event) {
+        synchronized (changedPrimitives) {
+            switch (event.getType()) {
+            case DATA_CHANGED:
+                paintAll = true;
+                break;
+            case NODE_MOVED:
+            case WAY_NODES_CHANGED:
+            case RELATION_MEMBERS_CHANGED:
+                for (OsmPrimitive p : event.getPrimitives()) {
+                    addChangedPrimitive(p, true, 0);
+                }
+                break;
+            default:
+                for (OsmPrimitive p : event.getPrimitives()) {
+                    addChangedPrimitive(p, false, 0);
+                }
+            }
+        }
         isChanged = true;
         setRequiresSaveToFile(true);
         setRequiresUploadToServer(true);
@@ -864,6 +1010,20 @@ public class OsmDataLayer extends AbstractModifiableLayer implements Listener, S
 
     @Override
     public void selectionChanged(Collection<? extends OsmPrimitive> newSelection) {
+        Set<OsmPrimitive> selection = new HashSet<>(data.getAllSelected());
+        synchronized (changedPrimitives) {
+            for (OsmPrimitive p : selection) {
+                if (!lastSelection.contains(p)) {
+                    addChangedPrimitive(p, false, 0);
+                }
+            }
+            for (OsmPrimitive p : lastSelection) {
+                if (!selection.contains(p)) {
+                    addChangedPrimitive(p, false, 0);
+                }
+            }
+            lastSelection = selection;
+        }
         isChanged = true;
     }
 
@@ -63,6 +63,7 @@ import org.openstreetmap.josm.Main;
 import org.openstreetmap.josm.actions.DiskAccessAction;
 import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.data.gpx.GpxTimeIndex;
 import org.openstreetmap.josm.data.gpx.GpxTrack;
 import org.openstreetmap.josm.data.gpx.GpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.WayPoint;
@@ -211,6 +212,7 @@ public class CorrelateGpxWithImages extends AbstractAction {
         private String name;
         private GpxData data;
         private File file;
+        private GpxTimeIndex timeIndex;
 
         GpxDataWrapper(String name, GpxData data, File file) {
             this.name = name;
@@ -218,6 +220,17 @@ public class CorrelateGpxWithImages extends AbstractAction {
             this.file = file;
         }
 
+        /**
+         * Returns the time index of the GPX data, built on first use.
+         * @return the time index
+         */
+        GpxTimeIndex getTimeIndex() {
+            if (timeIndex == null) {
+                timeIndex = new GpxTimeIndex(data);
+            }
+            return timeIndex;
+        }
+
         @Override
         public String toString() {
             return name;
@@ -841,7 +854,7 @@ public class CorrelateGpxWithImages extends AbstractAction {
                 return tr("No gpx selected");
 
             final long offset_ms = ((long) (timezone * 3600) + delta) * 1000; // in milliseconds
-            lastNumMatched = matchGpxTrack(dateImgLst, selGpx.data, offset_ms);
+            lastNumMatched = matchGpxTrack(dateImgLst, selGpx.getTimeIndex(), offset_ms);
 
             return trn("<html>Matched <b>{0}</b> of <b>{1}</b> photo to GPX track.</html>",
                     "<html>Matched <b>{0}</b> of <b>{1}</b> photos to GPX track.</html>",
@@ -1142,170 +1155,30 @@ public class CorrelateGpxWithImages extends AbstractAction {
 
     /**
      * Match a list of photos to a gpx track with a given offset.
-     * All images need a exifTime attribute and the List must be sorted according to these times.
+     * All images need a exifTime attribute.
      */
-    private int matchGpxTrack(List<ImageEntry> images, GpxData selectedGpx, long offset) {
-        int ret = 0;
-
-        PrimaryDateParser dateParser = new PrimaryDateParser();
-
-        for (GpxTrack trk : selectedGpx.tracks) {
-            for (GpxTrackSegment segment : trk.getSegments()) {
-
-                long prevWpTime = 0;
-                WayPoint prevWp = null;
-
-                for (WayPoint curWp : segment.getWayPoints()) {
-
-                    String curWpTimeStr = curWp.getString(GpxConstants.PT_TIME);
-                    if (curWpTimeStr != null) {
-
-                        try {
-                            long curWpTime = dateParser.parse(curWpTimeStr).getTime() + offset;
-                            ret += matchPoints(images, prevWp, prevWpTime, curWp, curWpTime, offset);
-
-                            prevWp = curWp;
-                            prevWpTime = curWpTime;
-
-                        } catch (ParseException e) {
-                            Main.error("Error while parsing date \"" + curWpTimeStr + '"');
-                            Main.error(e);
-                            prevWp = null;
-                            prevWpTime = 0;
-                        }
-                    } else {
-                        prevWp = null;
-                        prevWpTime = 0;
-                    }
-                }
-            }
-        }
-        return ret;
-    }
-
-    private static Double getElevation(WayPoint wp) {
-        String value = wp.getString(GpxConstants.PT_ELE);
-        if (value != null) {
-            try {
-                return new Double(value);
-            } catch (NumberFormatException e) {
-                Main.warn(e);
-            }
-        }
-        return null;
-    }
-
-    private int matchPoints(List<ImageEntry> images, WayPoint prevWp, long prevWpTime,
-            WayPoint curWp, long curWpTime, long offset) {
-        // Time between the track point and the previous one, 5 sec if first point, i.e. photos take
-        // 5 sec before the first track point can be assumed to be take at the starting position
-        long interval = prevWpTime > 0 ? Math.abs(curWpTime - prevWpTime) : 5*1000;
+    private static int matchGpxTrack(List<ImageEntry> images, GpxTimeIndex index, long offset) {
         int ret = 0;
-
-        // i is the index of the timewise last photo that has the same or earlier EXIF time
-        int i = getLastIndexOfListBefore(images, curWpTime);
-
-        // no photos match
-        if (i < 0)
-            return 0;
-
-        Double speed = null;
-        Double prevElevation = null;
-
-        if (prevWp != null) {
-            double distance = prevWp.getCoor().greatCircleDistance(curWp.getCoor());
-            // This is in km/h, 3.6 * m/s
-            if (curWpTime > prevWpTime) {
-                speed = 3600 * distance / (curWpTime - prevWpTime);
-            }
-            prevElevation = getElevation(prevWp);
-        }
-
-        Double curElevation = getElevation(curWp);
-
-        // First trackpoint, then interval is set to five seconds, i.e. photos up to five seconds
-        // before the first point will be geotagged with the starting point
-        if (prevWpTime == 0 || curWpTime <= prevWpTime) {
-            while (i >= 0) {
-                final ImageEntry curImg = images.get(i);
-                long time = curImg.getExifTime().getTime();
-                if (time > curWpTime || time < curWpTime - interval) {
-                    break;
-                }
-                if (curImg.tmp.getPos() == null) {
-                    curImg.tmp.setPos(curWp.getCoor());
-                    curImg.tmp.setSpeed(speed);
-                    curImg.tmp.setElevation(curElevation);
-                    curImg.tmp.setGpsTime(new Date(curImg.getExifTime().getTime() - offset));
-                    curImg.flagNewGpsData();
-                    ret++;
-                }
-                i--;
+        for (ImageEntry curImg : images) {
+            if (curImg.tmp.getPos() != null) {
+                continue;
             }
-            return ret;
-        }
-
-        // This code gives a simple linear interpolation of the coordinates between current and
-        // previous track point assuming a constant speed in between
-        while (i >= 0) {
-            ImageEntry curImg = images.get(i);
             long imgTime = curImg.getExifTime().getTime();
-            if (imgTime < prevWpTime) {
-                break;
-            }
-
-            if (curImg.tmp.getPos() == null && prevWp != null) {
-                // The values of timeDiff are between 0 and 1, it is not seconds but a dimensionless variable
-                double timeDiff = (double) (imgTime - prevWpTime) / interval;
-                curImg.tmp.setPos(prevWp.getCoor().interpolate(curWp.getCoor(), timeDiff));
-                curImg.tmp.setSpeed(speed);
-                if (curElevation != null && prevElevation != null) {
-                    curImg.tmp.setElevation(prevElevation + (curElevation - prevElevation) * timeDiff);
+            GpxTimeIndex.Match match = index.find(imgTime - offset);
+            if (match != null) {
+                curImg.tmp.setPos(match.getCoor());
+                curImg.tmp.setSpeed(match.getSpeed());
+                if (match.getElevation() != null) {
+                    curImg.tmp.setElevation(match.getElevation());
                 }
-                curImg.tmp.setGpsTime(new Date(curImg.getExifTime().getTime() - offset));
+                curImg.tmp.setGpsTime(new Date(imgTime - offset));
                 curImg.flagNewGpsData();
-
                 ret++;
             }
-            i--;
         }
         return ret;
     }
 
-    private static int getLastIndexOfListBefore(List<ImageEntry> images, long searchedTime) {
-        int lstSize = images.size();
-
-        // No photos or the first photo taken is later than the search period
-        if (lstSize == 0 || searchedTime < images.get(0).getExifTime().getTime())
-            return -1;
-
-        // The search period is later than the last photo
-        if (searchedTime > images.get(lstSize - 1).getExifTime().getTime())
-            return lstSize-1;
-
-        // The searched index is somewhere in the middle, do a binary search from the beginning
-        int curIndex = 0;
-        int startIndex = 0;
-        int endIndex = lstSize-1;
-        while (endIndex - startIndex > 1) {
-            curIndex = (endIndex + startIndex) / 2;
-            if (searchedTime > images.get(curIndex).getExifTime().getTime()) {
-                startIndex = curIndex;
-            } else {
-                endIndex = curIndex;
-            }
-        }
-        if (searchedTime < images.get(endIndex).getExifTime().getTime())
-            return startIndex;
-
-        // This final loop is to check if photos with the exact same EXIF time follows
-        while ((endIndex < (lstSize-1)) && (images.get(endIndex).getExifTime().getTime()
-                == images.get(endIndex + 1).getExifTime().getTime())) {
-            endIndex++;
-        }
-        return endIndex;
-    }
-
     private static String formatTimezone(double timezone) {
         StringBuilder ret = new StringBuilder();
 
@@ -5,32 +5,67 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.MediaTracker;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import org.apache.commons.jcs.access.behavior.ICacheAccess;
 import org.openstreetmap.josm.Main;
 import org.openstreetmap.josm.data.cache.BufferedImageCacheEntry;
 import org.openstreetmap.josm.data.cache.JCSCacheManager;
+import org.openstreetmap.josm.data.coor.CachedLatLon;
+import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.tools.ExifReader;
+import org.openstreetmap.josm.tools.Pair;
+import org.openstreetmap.josm.tools.Utils;
 
+import com.drew.imaging.jpeg.JpegMetadataReader;
+import com.drew.imaging.jpeg.JpegSegmentMetadataReader;
+import com.drew.metadata.Metadata;
+import com.drew.metadata.exif.ExifThumbnailDirectory;
+
+/**
+ * Loads the thumbnails of a {@link GeoImageLayer}.
+ * <p>
+ * Thumbnails are created by a pool of worker threads. The embedded EXIF thumbnail is used when there is one,
+ * otherwise the image is decoded with subsampling. Images closest to the center of the map view are processed first.
+ */
 public class ThumbsLoader implements Runnable {
     public static final int maxSize = 120;
     public static final int minSize = 22;
+
+    private static final Pair<Integer, ExecutorService> THREAD_POOL =
+            Utils.newThreadPool("geoimage.thumbnail.numberOfThreads", "thumbnail-worker-%d", Thread.MIN_PRIORITY);
+
     public volatile boolean stop;
-    private List<ImageEntry> data;
-    private GeoImageLayer layer;
-    private MediaTracker tracker;
+    private final List<ImageEntry> data;
+    private final GeoImageLayer layer;
     private ICacheAccess<String, BufferedImageCacheEntry> cache;
     private boolean cacheOff = Main.pref.getBoolean("geoimage.noThumbnailCache", false);
+    private boolean useExifThumbnail = Main.pref.getBoolean("geoimage.thumbnail.useExif", true);
+    /** Images still waiting for their thumbnail, ordered by distance to the map center when {@link #queueSorted} is set */
+    private final LinkedList<ImageEntry> queue = new LinkedList<>();
+    private boolean queueSorted;
 
     public ThumbsLoader(GeoImageLayer layer) {
         this.layer = layer;
@@ -49,12 +84,94 @@ public class ThumbsLoader implements Runnable {
     @Override
     public void run() {
         Main.debug("Load Thumbnails");
-        tracker = new MediaTracker(Main.map.mapView);
-        for (ImageEntry entry : data) {
-            if (stop) return;
+        synchronized (queue) {
+            for (ImageEntry entry : data) {
+                // Do not load thumbnails that were loaded before.
+                if (entry.thumbnail == null) {
+                    queue.add(entry);
+                }
+            }
+            queueSorted = false;
+        }
+
+        // the preference may be set to 0 or less, at least one worker is needed
+        int threads = Math.max(1, THREAD_POOL.a);
+        List<Callable<Void>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker());
+        }
+        try {
+            if (THREAD_POOL.b == null) {
+                workers.get(0).call();
+            } else {
+                for (Future<Void> future : THREAD_POOL.b.invokeAll(workers)) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Main.warn(e);
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            Main.warn(e);
+            return;
+        } catch (Exception e) {
+            Main.error(e);
+            return;
+        }
+        if (stop) return;
+
+        layer.thumbsLoaded();
+        layer.updateOffscreenBuffer = true;
+        Main.map.mapView.repaint();
+    }
 
-            // Do not load thumbnails that were loaded before.
-            if (entry.thumbnail == null) {
+    /**
+     * Tells the loader that the map view has moved, so that pending images are reordered
+     * by their distance to the new map center before the next one is processed.
+     */
+    public void viewChanged() {
+        synchronized (queue) {
+            queueSorted = false;
+        }
+    }
+
+    private ImageEntry nextEntry() {
+        synchronized (queue) {
+            if (!queueSorted && queue.size() > 1 && Main.isDisplayingMapView()) {
+                final EastNorth center = Main.map.mapView.getCenter();
+                if (center != null) {
+                    List<ImageEntry> pending = new ArrayList<>(queue);
+                    Collections.sort(pending, new Comparator<ImageEntry>() {
+                        @Override
+                        public int compare(ImageEntry e1, ImageEntry e2) {
+                            return Double.compare(distanceSq(e1, center), distanceSq(e2, center));
+                        }
+                    });
+                    queue.clear();
+                    queue.addAll(pending);
+                }
+            }
+            queueSorted = true;
+            return queue.poll();
+        }
+    }
+
+    private static double distanceSq(ImageEntry entry, EastNorth center) {
+        CachedLatLon pos = entry.getPos();
+        EastNorth en = pos == null ? null : pos.getEastNorth();
+        // Images without position are not displayed on the map, process them last
+        return en == null ? Double.MAX_VALUE : en.distanceSq(center);
+    }
+
+    private class Worker implements Callable<Void> {
+        @Override
+        public Void call() {
+            ImageEntry entry;
+            while (!stop && (entry = nextEntry()) != null) {
+                if (entry.thumbnail != null) {
+                    continue;
+                }
                 entry.thumbnail = loadThumb(entry);
 
                 if (Main.isDisplayingMapView()) {
@@ -62,10 +179,8 @@ public class ThumbsLoader implements Runnable {
                     Main.map.mapView.repaint();
                 }
             }
+            return null;
         }
-        layer.thumbsLoaded();
-        layer.updateOffscreenBuffer = true;
-        Main.map.mapView.repaint();
     }
 
     private BufferedImage loadThumb(ImageEntry entry) {
@@ -83,15 +198,17 @@ public class ThumbsLoader implements Runnable {
             }
         }
 
-        Image img = Toolkit.getDefaultToolkit().createImage(entry.getFile().getPath());
-        tracker.addImage(img, 0);
-        try {
-            tracker.waitForID(0);
-        } catch (InterruptedException e) {
-            Main.error(" InterruptedException while loading thumb");
-            return null;
+        Image img = null;
+        if (useExifThumbnail) {
+            img = readExifThumbnail(entry.getFile());
+        }
+        if (img == null) {
+            img = readSubsampled(entry.getFile());
+        }
+        if (img == null) {
+            img = readWithToolkit(entry.getFile());
         }
-        if (tracker.isErrorID(1) || img.getWidth(null) <= 0 || img.getHeight(null) <= 0) {
+        if (img == null || img.getWidth(null) <= 0 || img.getHeight(null) <= 0) {
             Main.error(" Invalid image");
             return null;
         }
@@ -113,6 +230,7 @@ public class ThumbsLoader implements Runnable {
                 new Rectangle(0, 0, maxSize, maxSize));
         BufferedImage scaledBI = new BufferedImage(targetSize.width, targetSize.height, BufferedImage.TYPE_INT_RGB);
         Graphics2D g = scaledBI.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
         final AffineTransform scale = AffineTransform.getScaleInstance((double) targetSize.width / ww, (double) targetSize.height / hh);
         if (exifOrientation != null) {
@@ -120,15 +238,8 @@ public class ThumbsLoader implements Runnable {
             scale.concatenate(restoreOrientation);
         }
 
-        while (!g.drawImage(img, scale, null)) {
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException ie) {
-                Main.warn("InterruptedException while drawing thumb");
-            }
-        }
+        g.drawImage(img, scale, null);
         g.dispose();
-        tracker.removeImage(img);
 
         if (scaledBI.getWidth() <= 0 || scaledBI.getHeight() <= 0) {
             Main.error(" Invalid image");
@@ -147,4 +258,85 @@ public class ThumbsLoader implements Runnable {
 
         return scaledBI;
     }
+
+    /**
+     * Reads the thumbnail embedded in the EXIF data of the given file.
+     * Only the EXIF segment of the file is parsed.
+     * @param file JPEG file
+     * @return the EXIF thumbnail, or {@code null} if there is none or if it is too small
+     */
+    private static BufferedImage readExifThumbnail(File file) {
+        try {
+            Iterable<JpegSegmentMetadataReader> readers = Collections.<JpegSegmentMetadataReader>singletonList(
+                    new com.drew.metadata.exif.ExifReader());
+            Metadata metadata = JpegMetadataReader.readMetadata(file, readers);
+            ExifThumbnailDirectory dir = metadata.getFirstDirectoryOfType(ExifThumbnailDirectory.class);
+            if (dir == null || !dir.hasThumbnailData()) {
+                return null;
+            }
+            BufferedImage thumb = ImageIO.read(new ByteArrayInputStream(dir.getThumbnailData()));
+            if (thumb != null && Math.max(thumb.getWidth(), thumb.getHeight()) >= maxSize) {
+                return thumb;
+            }
+        } catch (Exception e) {
+            // Many cameras write broken or unusual EXIF thumbnails, just decode the image itself
+            Main.debug(file + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the given file with a subsampling factor which keeps the image larger than the thumbnail size.
+     * @param file image file
+     * @return the decoded image, or {@code null} if ImageIO cannot read it
+     */
+    private static BufferedImage readSubsampled(File file) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> it = ImageIO.getImageReaders(in);
+            if (!it.hasNext()) {
+                return null;
+            }
+            ImageReader reader = it.next();
+            try {
+                reader.setInput(in, true, true);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                int subsampling = Math.max(1, Math.max(w, h) / maxSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // e.g. CMYK JPEG files, handled by the toolkit fallback
+            Main.debug(file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Fallback decoder for images ImageIO cannot read.
+     * @param file image file
+     * @return the fully loaded image, or {@code null} in case of error
+     */
+    private static Image readWithToolkit(File file) {
+        Image img = Toolkit.getDefaultToolkit().createImage(file.getPath());
+        MediaTracker tracker = new MediaTracker(Main.map.mapView);
+        tracker.addImage(img, 0);
+        try {
+            tracker.waitForID(0);
+        } catch (InterruptedException e) {
+            Main.error(" InterruptedException while loading thumb");
+            return null;
+        }
+        if (tracker.isErrorID(0)) {
+            return null;
+        }
+        tracker.removeImage(img);
+        return img;
+    }
 }
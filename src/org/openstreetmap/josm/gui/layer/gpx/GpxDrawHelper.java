@@ -49,10 +49,24 @@ public class GpxDrawHelper {
 
     private int hdopfactor;
 
+    /** draw simplified tracks at low zoom levels **/
+    private boolean levelOfDetailEnabled;
+    /** maximal distance between simplified and original tracks, in pixels **/
+    private double levelOfDetailTolerance;
+    private final GpxLevelOfDetail levelOfDetail;
+    /** level of detail being drawn, {@code null} for the full data **/
+    private GpxLevelOfDetail.Level currentLevel;
+    private volatile boolean levelOfDetailChanged;
+
     private static final double PHI = Math.toRadians(15);
 
     //// Variables used only to check cache validity
     private boolean computeCacheInSync;
+    // incremented each time the color scales are computed, compared to the generation of the colors of each level
+    private int computeCacheGeneration;
+    private int computeCacheFullDetailGeneration = -1;
+    // duration of all tracks, for time coloring
+    private double trackDuration;
     private int computeCacheMaxLineLengthUsed;
     private Color computeCacheColorUsed;
     private boolean computeCacheColorDynamic;
@@ -112,6 +126,15 @@ public class GpxDrawHelper {
     public GpxDrawHelper(GpxData gpxData) {
         data = gpxData;
         setupColors();
+        levelOfDetail = new GpxLevelOfDetail(data, new Runnable() {
+            @Override
+            public void run() {
+                levelOfDetailChanged = true;
+                if (Main.isDisplayingMapView()) {
+                    Main.map.mapView.repaint();
+                }
+            }
+        });
     }
 
     private static String specName(String layerName) {
@@ -179,6 +202,8 @@ public class GpxDrawHelper {
         hdopfactor = Main.pref.getInteger("hdop.factor", 25);
         minTrackDurationForTimeColoring = Main.pref.getInteger("draw.rawgps.date-coloring-min-dt", 60);
         largePointAlpha = Main.pref.getInteger("draw.rawgps.large.alpha", -1) & 0xFF;
+        levelOfDetailEnabled = Main.pref.getBoolean("draw.rawgps.lod", spec, true);
+        levelOfDetailTolerance = Main.pref.getDouble("draw.rawgps.lod.tolerance", 1.0);
 
         neutralColor = getColor(layerName, true);
         velocityScale.setNoDataColor(neutralColor);
@@ -189,14 +214,57 @@ public class GpxDrawHelper {
         largesize += lineWidth;
     }
 
-    public void drawAll(Graphics2D g, MapView mv, List<WayPoint> visibleSegments) {
+    /**
+     * Returns the lines to draw at the scale of the given map view: simplified lines at low zoom levels,
+     * or all the lines of the GPX data. The lines returned by the last call are drawn by {@link #drawAll}.
+     * @param mv map view
+     * @param trackVisibility visibility of the tracks, or {@code null} to return all lines
+     * @return the lines to draw
+     */
+    public Iterable<Collection<WayPoint>> getLinesIterable(MapView mv, boolean[] trackVisibility) {
+        currentLevel = levelOfDetailEnabled ? levelOfDetail.getLevel(mv.getScale() * levelOfDetailTolerance) : null;
+        if (currentLevel != null) {
+            // the points of a level are chosen according to the colors of the full data
+            updateColors();
+            return currentLevel.getLinesIterable(trackVisibility);
+        }
+        else
+            return data.getLinesIterable(trackVisibility);
+    }
 
+    /**
+     * Determines if a new level of detail became available since the last drawing.
+     * @return {@code true} if the layer should be drawn again
+     */
+    public boolean isLevelOfDetailChanged() {
+        return levelOfDetailChanged;
+    }
+
+    /**
+     * Computes the colors of the full data if needed, and updates the points of the current level of detail.
+     */
+    private void updateColors() {
         checkCache();
 
         // STEP 2b - RE-COMPUTE CACHE DATA *********************
         if (!computeCacheInSync) { // don't compute if the cache is good
-            calculateColors();
+            calculateColorScales();
+        }
+        // colors are computed on the full data, the levels of detail share its way points
+        if (computeCacheFullDetailGeneration != computeCacheGeneration) {
+            calculateColors(data.getLinesIterable(null));
+            computeCacheFullDetailGeneration = computeCacheGeneration;
         }
+        if (currentLevel != null && currentLevel.cacheGeneration != computeCacheGeneration) {
+            currentLevel.update(data);
+            currentLevel.cacheGeneration = computeCacheGeneration;
+        }
+    }
+
+    public void drawAll(Graphics2D g, MapView mv, List<WayPoint> visibleSegments) {
+
+        updateColors();
+        levelOfDetailChanged = false;
 
         Stroke storedStroke = g.getStroke();
 
@@ -216,7 +284,16 @@ public class GpxDrawHelper {
         }
     }
 
+    /**
+     * Computes the color scales and the colors of all points.
+     */
     public void calculateColors() {
+        calculateColorScales();
+        calculateColors(data.getLinesIterable(null));
+        computeCacheFullDetailGeneration = computeCacheGeneration;
+    }
+
+    private void calculateColorScales() {
         double minval = +1e10;
         double maxval = -1e10;
         WayPoint oldWp = null;
@@ -287,11 +364,18 @@ public class GpxDrawHelper {
                 maxval = now;
             }
             dateScale.setRange(minval, maxval);
+            trackDuration = maxval - minval;
         }
+        computeCacheInSync = true;
+        computeCacheGeneration++;
+    }
 
+    private void calculateColors(Iterable<Collection<WayPoint>> lines) {
+        WayPoint oldWp = null;
+        double now = System.currentTimeMillis()/1000.0;
 
         // Now the colors for all the points will be assigned
-        for (Collection<WayPoint> segment : data.getLinesIterable(null)) {
+        for (Collection<WayPoint> segment : lines) {
             if (!forceLines) { // don't draw lines between segments, unless forced to
                 oldWp = null;
             }
@@ -327,7 +411,7 @@ public class GpxDrawHelper {
                     case TIME:
                         double t = trkPnt.time;
                         // skip bad timestamps and very short tracks
-                        if (t > 0 && t <= now && maxval - minval > minTrackDurationForTimeColoring) {
+                        if (t > 0 && t <= now && trackDuration > minTrackDurationForTimeColoring) {
                             color = dateScale.getColor(t);
                         } else {
                             color = dateScale.getNoDataColor();
@@ -350,8 +434,6 @@ public class GpxDrawHelper {
                 oldWp = trkPnt;
             }
         }
-
-        computeCacheInSync = true;
     }
 
     private void drawLines(Graphics2D g, MapView mv, List<WayPoint> visibleSegments) {
@@ -536,6 +618,18 @@ public class GpxDrawHelper {
 
     public void dataChanged() {
         computeCacheInSync = false;
+        levelOfDetail.invalidate();
+    }
+
+    /**
+     * Determines if the drawing only depends on the map coordinates of the points, and not on the visible area.
+     * Direction arrows are placed according to the first visible point, and the color bar is fixed on the screen.
+     * @param withColorBar {@code true} if the color bar is drawn too
+     * @return {@code true} if the drawn pixels can be moved with the map
+     */
+    public boolean isDrawingMovable(boolean withColorBar) {
+        return !(lines && direction)
+                && !(withColorBar && (colored == ColorMode.HDOP || colored == ColorMode.VELOCITY || colored == ColorMode.DIRECTION));
     }
 
     public void drawColorBar(Graphics2D g, MapView mv) {
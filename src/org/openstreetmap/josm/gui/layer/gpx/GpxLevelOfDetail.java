@@ -0,0 +1,365 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.data.gpx.GpxRoute;
+import org.openstreetmap.josm.data.gpx.GpxTrack;
+import org.openstreetmap.josm.data.gpx.GpxTrackSegment;
+import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Multi-resolution representation of the lines of a {@link GpxData}, used to draw large tracks at low zoom levels.
+ * <p>
+ * Each point of a line gets an importance: the largest tolerance for which the Douglas-Peucker algorithm still keeps it.
+ * A level of detail then contains the points whose importance is greater than its tolerance. Tolerances are powers
+ * of two in east/north units, so that a level can be chosen from the scale of the map view.
+ * <p>
+ * Importances and levels are computed in the background. Until a level is available, the nearest finer level
+ * (or the full data) is used. Levels share the way points of the full data, with the colours computed on the full data,
+ * so that the colours do not change with the zoom level. Only the indexes of the kept points are stored.
+ */
+public class GpxLevelOfDetail {
+
+    /** Levels keeping more than this ratio of the points are not worth it, the full data is used instead */
+    private static final double MAX_KEPT_RATIO = 0.5;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(
+            Utils.newThreadFactory("gpx-level-of-detail-%d", Thread.MIN_PRIORITY));
+
+    private final GpxData data;
+    private final Runnable levelListener;
+
+    // Fields below are guarded by this. Lines and importances are grouped by track (then routes), then by segment
+    private int generation;
+    private List<List<float[]>> importance;
+    private final TreeMap<Integer, Level> levels = new TreeMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    private int fullDetailLevel = Integer.MIN_VALUE;
+
+    /**
+     * A simplified version of the lines of the GPX data.
+     */
+    public static final class Level {
+        private final int trackCount;
+        /** index in the full line of each kept point, grouped like the lines */
+        private final List<List<int[]>> kept;
+        /** the way points to draw, shared with the full data */
+        private List<List<List<WayPoint>>> groups = Collections.emptyList();
+        /** colour cache generation, maintained by {@link GpxDrawHelper} */
+        int cacheGeneration = -1;
+
+        Level(int trackCount, List<List<float[]>> importance, double tolerance) {
+            this.trackCount = trackCount;
+            this.kept = new ArrayList<>(importance.size());
+            for (List<float[]> groupImportance : importance) {
+                List<int[]> groupKept = new ArrayList<>(groupImportance.size());
+                for (float[] imp : groupImportance) {
+                    int[] lineKept = new int[imp.length];
+                    int n = 0;
+                    for (int k = 0; k < imp.length; k++) {
+                        if (imp[k] > tolerance) {
+                            lineKept[n++] = k;
+                        }
+                    }
+                    groupKept.add(Arrays.copyOf(lineKept, n));
+                }
+                kept.add(groupKept);
+            }
+        }
+
+        /**
+         * Selects the way points to draw among the way points of the full data, whose colours have been computed.
+         * Besides the kept points, the points where the full line is interrupted are drawn too, so that a simplified
+         * line is only drawn where all the lines it replaces are drawn.
+         * @param data GPX data whose colours have been computed
+         */
+        void update(GpxData data) {
+            List<List<Collection<WayPoint>>> lines = getLines(data);
+            List<List<List<WayPoint>>> result = new ArrayList<>(kept.size());
+            for (int i = 0; i < kept.size() && i < lines.size(); i++) {
+                List<List<WayPoint>> group = new ArrayList<>(kept.get(i).size());
+                for (int j = 0; j < kept.get(i).size() && j < lines.get(i).size(); j++) {
+                    int[] lineKept = kept.get(i).get(j);
+                    List<WayPoint> line = new ArrayList<>(lineKept.length);
+                    int n = 0;
+                    int k = 0;
+                    for (WayPoint wp : lines.get(i).get(j)) {
+                        if (n < lineKept.length && k == lineKept[n]) {
+                            line.add(wp);
+                            n++;
+                        } else if (!wp.drawLine) {
+                            line.add(wp);
+                        }
+                        k++;
+                    }
+                    group.add(line);
+                }
+                result.add(group);
+            }
+            groups = result;
+        }
+
+        /**
+         * Returns the simplified lines, like {@link GpxData#getLinesIterable}.
+         * @param trackVisibility visibility of the tracks, or {@code null} to return all lines
+         * @return the simplified lines
+         */
+        public Iterable<Collection<WayPoint>> getLinesIterable(boolean[] trackVisibility) {
+            List<Collection<WayPoint>> result = new ArrayList<>();
+            for (int i = 0; i < groups.size(); i++) {
+                if (i < trackCount && trackVisibility != null && i < trackVisibility.length && !trackVisibility[i]) {
+                    continue;
+                }
+                result.addAll(groups.get(i));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Constructs a new {@code GpxLevelOfDetail}.
+     * @param data GPX data
+     * @param levelListener called (from a background thread) when a new level is available
+     */
+    public GpxLevelOfDetail(GpxData data, Runnable levelListener) {
+        this.data = data;
+        this.levelListener = levelListener;
+    }
+
+    /**
+     * Returns the level of detail for the given tolerance.
+     * If the level is not available yet, it is built in the background and the nearest finer level is returned.
+     * @param tolerance maximal distance between the simplified and the original lines, in east/north units
+     * @return the level of detail, or {@code null} if the full data should be used
+     */
+    public synchronized Level getLevel(double tolerance) {
+        if (!(tolerance > 0) || Double.isInfinite(tolerance))
+            return null;
+        int k = Math.getExponent(tolerance);
+        if (k <= fullDetailLevel)
+            return null;
+        Level level = levels.get(k);
+        if (level == null) {
+            schedule(k);
+            Map.Entry<Integer, Level> finer = levels.floorEntry(k);
+            level = finer == null ? null : finer.getValue();
+        }
+        return level;
+    }
+
+    /**
+     * Discards all levels, to be called when the data or the projection changed.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        importance = null;
+        levels.clear();
+        pending.clear();
+        fullDetailLevel = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Returns the lines of the GPX data, grouped by track (then routes), then by segment.
+     * @param data GPX data
+     * @return the lines of the data
+     */
+    private static List<List<Collection<WayPoint>>> getLines(GpxData data) {
+        List<List<Collection<WayPoint>>> lines = new ArrayList<>();
+        for (GpxTrack trk : data.tracks) {
+            List<Collection<WayPoint>> group = new ArrayList<>();
+            for (GpxTrackSegment segment : trk.getSegments()) {
+                group.add(segment.getWayPoints());
+            }
+            lines.add(group);
+        }
+        for (GpxRoute route : data.routes) {
+            lines.add(Collections.<Collection<WayPoint>>singletonList(route.routePoints));
+        }
+        return lines;
+    }
+
+    private void schedule(final int k) {
+        if (!pending.add(k))
+            return;
+        // the lines are not kept, so that the way points of packed segments can still be reclaimed
+        final int gen = generation;
+        final List<List<Collection<WayPoint>>> snapshot = getLines(data);
+        final int tracks = data.tracks.size();
+        EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    build(gen, snapshot, tracks, k);
+                } catch (RuntimeException e) {
+                    Main.error(e);
+                }
+            }
+        });
+    }
+
+    private void build(int gen, List<List<Collection<WayPoint>>> snapshot, int tracks, int k) {
+        List<List<float[]>> imp;
+        synchronized (this) {
+            if (gen != generation)
+                return;
+            imp = importance;
+        }
+        if (imp == null) {
+            imp = new ArrayList<>(snapshot.size());
+            for (List<Collection<WayPoint>> group : snapshot) {
+                List<float[]> groupImportance = new ArrayList<>(group.size());
+                for (Collection<WayPoint> line : group) {
+                    groupImportance.add(computeImportance(line));
+                }
+                imp.add(groupImportance);
+            }
+            synchronized (this) {
+                if (gen != generation)
+                    return;
+                importance = imp;
+            }
+        }
+
+        double tolerance = Math.scalb(1.0, k);
+        long total = 0;
+        long kept = 0;
+        for (List<float[]> group : imp) {
+            for (float[] lineImportance : group) {
+                total += lineImportance.length;
+                for (float f : lineImportance) {
+                    if (f > tolerance) {
+                        kept++;
+                    }
+                }
+            }
+        }
+        Level level = kept > MAX_KEPT_RATIO * total ? null : new Level(tracks, imp, tolerance);
+        synchronized (this) {
+            if (gen != generation)
+                return;
+            pending.remove(k);
+            if (level == null) {
+                fullDetailLevel = Math.max(fullDetailLevel, k);
+                return;
+            }
+            levels.put(k, level);
+        }
+        levelListener.run();
+    }
+
+    private static float[] computeImportance(Collection<WayPoint> line) {
+        int n = line.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        int i = 0;
+        for (WayPoint wp : line) {
+            LatLon c = wp.getCoor();
+            if (Double.isNaN(c.lat()) || Double.isNaN(c.lon())) {
+                x[i] = Double.NaN;
+                y[i] = Double.NaN;
+            } else {
+                EastNorth en = wp.getEastNorth();
+                x[i] = en.east();
+                y[i] = en.north();
+            }
+            i++;
+        }
+        return computeImportance(x, y);
+    }
+
+    /**
+     * Computes the importance of each point of a line, that is the largest tolerance for which
+     * the Douglas-Peucker algorithm keeps the point. Points with NaN coordinates split the line and are always kept.
+     * @param x east coordinates
+     * @param y north coordinates
+     * @return the importance of each point
+     */
+    static float[] computeImportance(double[] x, double[] y) {
+        int n = x.length;
+        float[] importance = new float[n];
+        int start = 0;
+        for (int i = 0; i <= n; i++) {
+            if (i == n || Double.isNaN(x[i]) || Double.isNaN(y[i])) {
+                if (i > start) {
+                    douglasPeucker(x, y, start, i - 1, importance);
+                }
+                if (i < n) {
+                    importance[i] = Float.POSITIVE_INFINITY;
+                }
+                start = i + 1;
+            }
+        }
+        return importance;
+    }
+
+    private static void douglasPeucker(double[] x, double[] y, int first, int last, float[] importance) {
+        importance[first] = Float.POSITIVE_INFINITY;
+        importance[last] = Float.POSITIVE_INFINITY;
+        // Ranges to split are disjoint except for their ends, so there are less of them than points
+        int size = last - first + 1;
+        int[] starts = new int[size];
+        int[] ends = new int[size];
+        double[] limits = new double[size];
+        int top = 0;
+        starts[top] = first;
+        ends[top] = last;
+        limits[top] = Double.POSITIVE_INFINITY;
+        top++;
+        while (top > 0) {
+            top--;
+            int a = starts[top];
+            int b = ends[top];
+            double limit = limits[top];
+            if (b - a < 2) {
+                continue;
+            }
+            int farthest = -1;
+            double max = -1;
+            for (int i = a + 1; i < b; i++) {
+                double d = distanceSq(x[i], y[i], x[a], y[a], x[b], y[b]);
+                if (d > max) {
+                    max = d;
+                    farthest = i;
+                }
+            }
+            // a point is kept only if all the ranges containing it are split
+            double value = Math.min(Math.sqrt(max), limit);
+            importance[farthest] = (float) value;
+            starts[top] = a;
+            ends[top] = farthest;
+            limits[top] = value;
+            top++;
+            starts[top] = farthest;
+            ends[top] = b;
+            limits[top] = value;
+            top++;
+        }
+    }
+
+    private static double distanceSq(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double len2 = dx * dx + dy * dy;
+        double t = len2 == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / len2;
+        t = Math.max(0, Math.min(1, t));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+}
@@ -8,6 +8,9 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
@@ -57,6 +60,7 @@ import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.ParseException;
 import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.TokenMgrError;
 import org.openstreetmap.josm.gui.preferences.SourceEntry;
 import org.openstreetmap.josm.io.CachedFile;
+import org.openstreetmap.josm.io.StartupCache;
 import org.openstreetmap.josm.tools.CheckParameterUtil;
 import org.openstreetmap.josm.tools.LanguageInfo;
 import org.openstreetmap.josm.tools.Utils;
@@ -397,14 +401,22 @@ public class MapCSSStyleSource extends StyleSource {
             canvasRules.clear();
             try (InputStream in = getSourceInputStream()) {
                 try {
-                    // evaluate @media { ... } blocks
-                    MapCSSParser preprocessor = new MapCSSParser(in, "UTF-8", MapCSSParser.LexicalState.PREPROCESSOR);
-                    String mapcss = preprocessor.pp_root(this);
-
-                    // do the actual mapcss parsing
-                    InputStream in2 = new ByteArrayInputStream(mapcss.getBytes(StandardCharsets.UTF_8));
-                    MapCSSParser parser = new MapCSSParser(in2, "UTF-8", MapCSSParser.LexicalState.DEFAULT);
-                    parser.sheet(this);
+                    byte[] content = Utils.readBytesFromStream(in);
+                    if (content == null) {
+                        content = new byte[0];
+                    }
+                    // the preprocessed tokens of unchanged styles are read from the startup cache
+                    byte[] key = url != null ? MapCSSTokens.getKey(content) : null;
+                    MapCSSTokens tokens = key != null ? StartupCache.read("mapcss", url, key, MapCSSTokens.READER) : null;
+                    if (tokens != null) {
+                        tokens.newParser().sheet(this);
+                    } else {
+                        tokens = key != null ? new MapCSSTokens() : null;
+                        parse(this, new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8), tokens);
+                        if (tokens != null && getErrors().isEmpty()) {
+                            StartupCache.write("mapcss", url, key, tokens);
+                        }
+                    }
 
                     loadMeta();
                     loadCanvas();
@@ -481,6 +493,24 @@ public class MapCSSStyleSource extends StyleSource {
         }
     }
 
+    /**
+     * Preprocesses and parses MapCSS.
+     * @param source the style source receiving the rules
+     * @param in the MapCSS
+     * @param tokens the tokens of the preprocessed MapCSS to record, or {@code null}
+     * @throws ParseException if the MapCSS cannot be parsed
+     */
+    public static void parse(MapCSSStyleSource source, Reader in, MapCSSTokens tokens) throws ParseException {
+        // evaluate @media { ... } blocks
+        MapCSSParser preprocessor = new MapCSSParser(in, MapCSSParser.LexicalState.PREPROCESSOR);
+        String mapcss = preprocessor.pp_root(source);
+
+        // do the actual mapcss parsing
+        Reader in2 = new StringReader(mapcss);
+        MapCSSParser parser = tokens != null ? tokens.newRecordingParser(in2) : new MapCSSParser(in2, MapCSSParser.LexicalState.DEFAULT);
+        parser.sheet(source);
+    }
+
     @Override
     public InputStream getSourceInputStream() throws IOException {
         if (css != null) {
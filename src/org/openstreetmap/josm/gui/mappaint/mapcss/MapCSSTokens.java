@@ -0,0 +1,163 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.mappaint.mapcss;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.MapCSSParser;
+import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.MapCSSParserConstants;
+import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.MapCSSParserTokenManager;
+import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.SimpleCharStream;
+import org.openstreetmap.josm.gui.mappaint.mapcss.parsergen.Token;
+import org.openstreetmap.josm.io.StartupCache;
+
+/**
+ * The tokens of a preprocessed MapCSS source, as read by the main parser.
+ * <p>
+ * The tokens are recorded while a source is parsed, see {@link #newRecordingParser}, and can be parsed again
+ * without preprocessing and tokenizing the source, see {@link #newParser}. They are stored in the
+ * {@link StartupCache}. The rules themselves are not stored, as the parser reads preferences while
+ * building them.
+ */
+public final class MapCSSTokens implements StartupCache.Snapshot {
+
+    /** the values stored for each token: kind, image, begin line and column, end line and column */
+    private static final int TOKEN_SIZE = 6;
+
+    /**
+     * The reader of the tokens stored in the {@link StartupCache}.
+     */
+    public static final StartupCache.SnapshotReader<MapCSSTokens> READER = new StartupCache.SnapshotReader<MapCSSTokens>() {
+        @Override
+        public MapCSSTokens read(DataInputStream in) throws IOException {
+            int stringCount = in.readInt();
+            List<String> strings = new ArrayList<>(stringCount);
+            for (int i = 0; i < stringCount; i++) {
+                strings.add(StartupCache.readString(in));
+            }
+            int[] tokens = new int[in.readInt()];
+            if (tokens.length % TOKEN_SIZE != 0)
+                throw new IOException("Invalid tokens");
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = in.readInt();
+            }
+            for (int i = 0; i < tokens.length; i += TOKEN_SIZE) {
+                if (tokens[i] < 0 || tokens[i] >= MapCSSParserConstants.tokenImage.length
+                        || tokens[i + 1] < 0 || tokens[i + 1] >= stringCount)
+                    throw new IOException("Invalid tokens");
+            }
+            return new MapCSSTokens(strings, tokens);
+        }
+    };
+
+    private final List<String> strings;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private int[] tokens;
+    private int size;
+
+    /**
+     * Constructs a new empty {@code MapCSSTokens}, to be recorded.
+     */
+    public MapCSSTokens() {
+        this.strings = new ArrayList<>();
+        this.tokens = new int[TOKEN_SIZE * 1024];
+    }
+
+    private MapCSSTokens(List<String> strings, int[] tokens) {
+        this.strings = strings;
+        this.tokens = tokens;
+        this.size = tokens.length;
+    }
+
+    /**
+     * Computes the key of the tokens of a MapCSS source in the {@link StartupCache}.
+     * @param content the content of the source
+     * @return the key of the tokens
+     */
+    public static byte[] getKey(byte[] content) {
+        // the kinds of the tokens are only valid for the same grammar
+        return StartupCache.getKey(content, Arrays.toString(MapCSSParserConstants.tokenImage));
+    }
+
+    private void add(Token t) {
+        if (size + TOKEN_SIZE > tokens.length) {
+            tokens = Arrays.copyOf(tokens, tokens.length * 2);
+        }
+        Integer image = indexes.get(t.image);
+        if (image == null) {
+            image = strings.size();
+            strings.add(t.image);
+            indexes.put(t.image, image);
+        }
+        tokens[size++] = t.kind;
+        tokens[size++] = image;
+        tokens[size++] = t.beginLine;
+        tokens[size++] = t.beginColumn;
+        tokens[size++] = t.endLine;
+        tokens[size++] = t.endColumn;
+    }
+
+    /**
+     * Returns a parser of preprocessed MapCSS, recording the tokens it reads in this object.
+     * @param in the preprocessed MapCSS
+     * @return the parser
+     */
+    public MapCSSParser newRecordingParser(Reader in) {
+        MapCSSParser parser = new MapCSSParser(in, MapCSSParser.LexicalState.DEFAULT);
+        final MapCSSParserTokenManager source = parser.token_source;
+        parser.ReInit(new MapCSSParserTokenManager(new SimpleCharStream(new StringReader(""))) {
+            @Override
+            public Token getNextToken() {
+                Token t = source.getNextToken();
+                add(t);
+                return t;
+            }
+        });
+        return parser;
+    }
+
+    /**
+     * Returns a parser reading the recorded tokens.
+     * @return the parser
+     */
+    public MapCSSParser newParser() {
+        return new MapCSSParser(new MapCSSParserTokenManager(new SimpleCharStream(new StringReader(""))) {
+            private int next;
+
+            @Override
+            public Token getNextToken() {
+                if (next >= size) {
+                    // the parser may look ahead beyond the end of the source
+                    return Token.newToken(MapCSSParserConstants.EOF, "");
+                }
+                Token t = Token.newToken(tokens[next], strings.get(tokens[next + 1]));
+                t.beginLine = tokens[next + 2];
+                t.beginColumn = tokens[next + 3];
+                t.endLine = tokens[next + 4];
+                t.endColumn = tokens[next + 5];
+                next += TOKEN_SIZE;
+                return t;
+            }
+        });
+    }
+
+    @Override
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            StartupCache.writeString(out, s);
+        }
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(tokens[i]);
+        }
+    }
+}
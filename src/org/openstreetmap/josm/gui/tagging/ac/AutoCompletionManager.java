@@ -19,8 +19,10 @@ import org.openstreetmap.josm.data.osm.OsmPrimitive;
 import org.openstreetmap.josm.data.osm.Relation;
 import org.openstreetmap.josm.data.osm.RelationMember;
 import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent.DatasetEventType;
 import org.openstreetmap.josm.data.osm.event.DataChangedEvent;
 import org.openstreetmap.josm.data.osm.event.DataSetListener;
+import org.openstreetmap.josm.data.osm.event.DatasetChanges;
 import org.openstreetmap.josm.data.osm.event.NodeMovedEvent;
 import org.openstreetmap.josm.data.osm.event.PrimitivesAddedEvent;
 import org.openstreetmap.josm.data.osm.event.PrimitivesRemovedEvent;
@@ -474,6 +476,15 @@ public class AutoCompletionManager implements DataSetListener {
 
     @Override
     public void dataChanged(DataChangedEvent event) {
-        dirty = true;
+        if (dirty)
+            return;
+        DatasetChanges changes = event.getChanges();
+        if (changes != null && changes.containsOnly(DatasetEventType.PRIMITIVES_ADDED, DatasetEventType.NODE_MOVED,
+                DatasetEventType.WAY_NODES_CHANGED, DatasetEventType.CHANGESET_ID_CHANGED)) {
+            // No tag or role can have disappeared, the cache can be updated with the added primitives
+            cachePrimitives(changes.getPrimitives(DatasetEventType.PRIMITIVES_ADDED));
+        } else {
+            dirty = true;
+        }
     }
 }
@@ -184,7 +184,7 @@ public class TaggingPreset extends AbstractAction implements MapView.LayerChange
         imgProv.setId("presets");
         imgProv.setArchive(arch);
         imgProv.setOptional(true);
-        imgProv.getInBackground(new ImageProvider.ImageResourceCallback() {
+        imgProv.getLaterInBackground(new ImageProvider.ImageResourceCallback() {
             @Override
             public void finished(final ImageResource result) {
                 if (result != null) {
@@ -4,6 +4,7 @@ package org.openstreetmap.josm.gui.tagging.presets;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -41,8 +42,10 @@ import org.openstreetmap.josm.gui.tagging.presets.items.Roles.Role;
 import org.openstreetmap.josm.gui.tagging.presets.items.Space;
 import org.openstreetmap.josm.gui.tagging.presets.items.Text;
 import org.openstreetmap.josm.io.CachedFile;
+import org.openstreetmap.josm.io.StartupCache;
 import org.openstreetmap.josm.io.UTFInputStreamReader;
 import org.openstreetmap.josm.tools.Predicates;
+import org.openstreetmap.josm.tools.SaxEvents;
 import org.openstreetmap.josm.tools.Utils;
 import org.openstreetmap.josm.tools.XmlObjectParser;
 import org.xml.sax.SAXException;
@@ -150,8 +153,28 @@ public final class TaggingPresetReader {
      * @throws SAXException if any XML error occurs
      */
     static Collection<TaggingPreset> readAll(Reader in, boolean validate, HashSetWithLast<TaggingPreset> all) throws SAXException {
+        return readAll(in, validate, all, null);
+    }
+
+    private static Collection<TaggingPreset> readAll(Reader in, boolean validate, HashSetWithLast<TaggingPreset> all,
+            SaxEvents events) throws SAXException {
         XmlObjectParser parser = buildParser();
+        if (validate) {
+            parser.startWithValidation(in, Main.getXMLBase()+"/tagging-preset-1.0", "resource://data/tagging-preset.xsd", events);
+        } else {
+            parser.start(in, events);
+        }
+        return readAll(parser, all);
+    }
 
+    /**
+     * Reads all tagging presets from a started parser.
+     * @param parser the parser, started or replaying recorded events
+     * @param all the accumulator for parsed tagging presets
+     * @return the accumulator
+     * @throws SAXException if any XML error occurs
+     */
+    private static Collection<TaggingPreset> readAll(XmlObjectParser parser, HashSetWithLast<TaggingPreset> all) throws SAXException {
         /** to detect end of {@code <group>} */
         TaggingPresetMenu lastmenu = null;
         /** to detect end of reused {@code <group>} */
@@ -164,11 +187,6 @@ public final class TaggingPresetReader {
         /** lastIdIterators contains non empty iterators of items to be handled before obtaining the next item from the XML parser */
         final Deque<Iterator<Object>> lastIdIterators = new ArrayDeque<>();
 
-        if (validate) {
-            parser.startWithValidation(in, Main.getXMLBase()+"/tagging-preset-1.0", "resource://data/tagging-preset.xsd");
-        } else {
-            parser.start(in);
-        }
         while (parser.hasNext() || !lastIdIterators.isEmpty()) {
             final Object o;
             if (!lastIdIterators.isEmpty()) {
@@ -312,6 +330,9 @@ public final class TaggingPresetReader {
 
     /**
      * Reads all tagging presets from the given source.
+     * <p>
+     * The XML events of the source are stored in the {@link StartupCache}, so that the source is not parsed
+     * and validated again while its content does not change.
      * @param source a given filename, URL or internal resource
      * @param validate if {@code true}, XML validation will be performed
      * @param all the accumulator for parsed tagging presets
@@ -330,9 +351,22 @@ public final class TaggingPresetReader {
             if (zip != null) {
                 zipIcons = cf.getFile();
             }
-            try (InputStreamReader r = UTFInputStreamReader.create(zip == null ? cf.getInputStream() : zip)) {
-                tp = readAll(new BufferedReader(r), validate, all);
+            byte[] content = Utils.readBytesFromStream(zip == null ? cf.getInputStream() : zip);
+            if (content == null) {
+                content = new byte[0];
+            }
+            byte[] key = StartupCache.getKey(content, Boolean.toString(validate));
+            SaxEvents events = StartupCache.read("presets", source, key, SaxEvents.READER);
+            if (events != null) {
+                XmlObjectParser parser = buildParser();
+                parser.replay(events);
+                return readAll(parser, all);
+            }
+            events = new SaxEvents();
+            try (InputStreamReader r = UTFInputStreamReader.create(new ByteArrayInputStream(content))) {
+                tp = readAll(new BufferedReader(r), validate, all, events);
             }
+            StartupCache.write("presets", source, key, events);
         }
         return tp;
     }
@@ -4,6 +4,7 @@ package org.openstreetmap.josm.io;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import java.util.Collection;
 import java.util.Collections;
@@ -76,13 +77,29 @@ public class DiffResultProcessor  {
      *
      */
     public  void parse(String diffUploadResponse, ProgressMonitor progressMonitor) throws XmlParsingException {
+        CheckParameterUtil.ensureParameterNotNull(diffUploadResponse, "diffUploadResponse");
+        parse(new InputSource(new StringReader(diffUploadResponse)), progressMonitor);
+    }
+
+    /**
+     * Parse the response from a diff upload to the OSM API, while it is received.
+     *
+     * @param diffUploadResponse the response. Must not be null.
+     * @param progressMonitor a progress monitor. Defaults to {@link NullProgressMonitor#INSTANCE} if null
+     * @throws IllegalArgumentException if diffUploadRequest is null
+     * @throws XmlParsingException if the diffUploadRequest can't be parsed successfully
+     */
+    public void parse(InputStream diffUploadResponse, ProgressMonitor progressMonitor) throws XmlParsingException {
+        CheckParameterUtil.ensureParameterNotNull(diffUploadResponse, "diffUploadResponse");
+        parse(new InputSource(diffUploadResponse), progressMonitor);
+    }
+
+    private void parse(InputSource inputSource, ProgressMonitor progressMonitor) throws XmlParsingException {
         if (progressMonitor == null) {
             progressMonitor = NullProgressMonitor.INSTANCE;
         }
-        CheckParameterUtil.ensureParameterNotNull(diffUploadResponse, "diffUploadResponse");
         try {
             progressMonitor.beginTask(tr("Parsing response from server..."));
-            InputSource inputSource = new InputSource(new StringReader(diffUploadResponse));
             Utils.parseSafeSAX(inputSource, new Parser());
         } catch (XmlParsingException e) {
             throw e;
@@ -24,7 +24,9 @@ import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxLink;
 import org.openstreetmap.josm.data.gpx.GpxRoute;
+import org.openstreetmap.josm.data.gpx.GpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.ImmutableGpxTrack;
+import org.openstreetmap.josm.data.gpx.PackedGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.WayPoint;
 import org.openstreetmap.josm.tools.Utils;
 import org.xml.sax.Attributes;
@@ -56,8 +58,19 @@ public class GpxReader implements GpxConstants {
         private Collection<Collection<WayPoint>> currentTrack;
         private Map<String, Object> currentTrackAttr;
         private Collection<WayPoint> currentTrackSeg;
+        /** Store track points in primitive arrays, see {@link PackedGpxTrackSegment} */
+        private final boolean packedStorage = Main.pref.getBoolean("gpx.packed-storage", false);
+        private List<GpxTrackSegment> currentPackedTrack;
+        private PackedGpxTrackSegment.Builder currentPackedTrackSeg;
+        /** The coordinates of the current track point, if it is packed without creating its way point */
+        private double currentPackedLat;
+        private double currentPackedLon;
+        /** The attributes of the current packed track point, reused from one point to the next */
+        private final Map<String, Object> currentPackedAttr = new HashMap<>();
         private GpxRoute currentRoute;
         private WayPoint currentWayPoint;
+        /** The attributes of {@link #currentWayPoint}, or of the current packed track point */
+        private Map<String, Object> currentPointAttr;
 
         private State currentState = State.init;
 
@@ -91,6 +104,11 @@ public class GpxReader implements GpxConstants {
                     parseCoord(atts.getValue("lon")));
         }
 
+        private void newWayPoint(Attributes atts) {
+            currentWayPoint = new WayPoint(parseLatLon(atts));
+            currentPointAttr = currentWayPoint.attr;
+        }
+
         @Override
         public void startElement(String namespaceURI, String localName, String qName, Attributes atts) throws SAXException {
             elements.push(localName);
@@ -116,7 +134,7 @@ public class GpxReader implements GpxConstants {
                 case "wpt":
                     states.push(currentState);
                     currentState = State.wpt;
-                    currentWayPoint = new WayPoint(parseLatLon(atts));
+                    newWayPoint(atts);
                     break;
                 case "rte":
                     states.push(currentState);
@@ -127,6 +145,7 @@ public class GpxReader implements GpxConstants {
                     states.push(currentState);
                     currentState = State.trk;
                     currentTrack = new ArrayList<>();
+                    currentPackedTrack = new ArrayList<>();
                     currentTrackAttr = new HashMap<>();
                     break;
                 case "extensions":
@@ -186,6 +205,7 @@ public class GpxReader implements GpxConstants {
                     states.push(currentState);
                     currentState = State.trkseg;
                     currentTrackSeg = new ArrayList<>();
+                    currentPackedTrackSeg = new PackedGpxTrackSegment.Builder();
                     break;
                 case "link":
                     states.push(currentState);
@@ -202,7 +222,16 @@ public class GpxReader implements GpxConstants {
                 if ("trkpt".equals(localName)) {
                     states.push(currentState);
                     currentState = State.wpt;
-                    currentWayPoint = new WayPoint(parseLatLon(atts));
+                    if (packedStorage) {
+                        // the point is stored in the packed arrays of the segment, no way point is created
+                        currentWayPoint = null;
+                        currentPackedLat = parseCoord(atts.getValue("lat"));
+                        currentPackedLon = parseCoord(atts.getValue("lon"));
+                        currentPackedAttr.clear();
+                        currentPointAttr = currentPackedAttr;
+                    } else {
+                        newWayPoint(atts);
+                    }
                 }
                 break;
             case wpt:
@@ -229,7 +258,7 @@ public class GpxReader implements GpxConstants {
                 case "rtept":
                     states.push(currentState);
                     currentState = State.wpt;
-                    currentWayPoint = new WayPoint(parseLatLon(atts));
+                    newWayPoint(atts);
                     break;
                 case "extensions":
                     states.push(currentState);
@@ -265,7 +294,7 @@ public class GpxReader implements GpxConstants {
             switch (currentState) {
             case rte: return currentRoute.attr;
             case metadata: return data.attr;
-            case wpt: return currentWayPoint.attr;
+            case wpt: return currentPointAttr;
             case trk: return currentTrackAttr;
             default: return null;
             }
@@ -389,22 +418,24 @@ public class GpxReader implements GpxConstants {
                 case "sym":
                 case "url":
                 case "urlname":
-                    currentWayPoint.put(localName, accumulator.toString());
+                    currentPointAttr.put(localName, accumulator.toString());
                     break;
                 case "hdop":
                 case "vdop":
                 case "pdop":
                     try {
-                        currentWayPoint.put(localName, Float.valueOf(accumulator.toString()));
+                        currentPointAttr.put(localName, Float.valueOf(accumulator.toString()));
                     } catch (Exception e) {
-                        currentWayPoint.put(localName, new Float(0));
+                        currentPointAttr.put(localName, new Float(0));
                     }
                     break;
                 case "time":
                 case "cmt":
                 case "desc":
-                    currentWayPoint.put(localName, accumulator.toString());
-                    currentWayPoint.setTime();
+                    currentPointAttr.put(localName, accumulator.toString());
+                    if (currentWayPoint != null) {
+                        currentWayPoint.setTime();
+                    }
                     break;
                 case "rtept":
                     currentState = states.pop();
@@ -413,8 +444,12 @@ public class GpxReader implements GpxConstants {
                     break;
                 case "trkpt":
                     currentState = states.pop();
-                    convertUrlToLink(currentWayPoint.attr);
-                    currentTrackSeg.add(currentWayPoint);
+                    convertUrlToLink(currentPointAttr);
+                    if (packedStorage) {
+                        currentPackedTrackSeg.add(currentPackedLat, currentPackedLon, currentPackedAttr);
+                    } else {
+                        currentTrackSeg.add(currentWayPoint);
+                    }
                     break;
                 case "wpt":
                     currentState = states.pop();
@@ -429,7 +464,13 @@ public class GpxReader implements GpxConstants {
             case trkseg:
                 if ("trkseg".equals(localName)) {
                     currentState = states.pop();
-                    currentTrack.add(currentTrackSeg);
+                    if (packedStorage) {
+                        if (!currentPackedTrackSeg.isEmpty()) {
+                            currentPackedTrack.add(currentPackedTrackSeg.build());
+                        }
+                    } else {
+                        currentTrack.add(currentTrackSeg);
+                    }
                 }
                 break;
             case trk:
@@ -437,7 +478,11 @@ public class GpxReader implements GpxConstants {
                 case "trk":
                     currentState = states.pop();
                     convertUrlToLink(currentTrackAttr);
-                    data.tracks.add(new ImmutableGpxTrack(currentTrack, currentTrackAttr));
+                    if (packedStorage) {
+                        data.tracks.add(new ImmutableGpxTrack(currentPackedTrack, currentTrackAttr));
+                    } else {
+                        data.tracks.add(new ImmutableGpxTrack(currentTrack, currentTrackAttr));
+                    }
                     break;
                 case "name":
                 case "cmt":
@@ -9,18 +9,23 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.openstreetmap.josm.Main;
 import org.openstreetmap.josm.data.osm.DataSet;
@@ -56,6 +61,12 @@ import org.openstreetmap.josm.tools.Utils;
  * </pre>
  */
 public class MultiFetchServerObjectReader extends OsmServerReader{
+    /**
+     * the order in which the requests of the different primitive types are sent. Ways come first, as
+     * the nodes of incomplete ways are fetched too.
+     */
+    private static final OsmPrimitiveType[] FETCH_ORDER = {OsmPrimitiveType.WAY, OsmPrimitiveType.RELATION, OsmPrimitiveType.NODE};
+
     /**
      * the max. number of primitives retrieved in one step. Assuming IDs with 7 digits,
      * this leads to a max. request URL of ~ 1600 Bytes ((7 digits +  1 Separator) * 200),
@@ -64,11 +75,47 @@ public class MultiFetchServerObjectReader extends OsmServerReader{
      */
     private static final int MAX_IDS_PER_REQUEST = 200;
 
+    /**
+     * the max. length of the list of ids of a request, in characters, so that requests for
+     * ids with more digits stay within the URL length of {@link #MAX_IDS_PER_REQUEST} ids with 7 digits.
+     */
+    private static final int MAX_IDS_LENGTH = MAX_IDS_PER_REQUEST * 8;
+
+    /**
+     * the min. number of primitives retrieved in one step, unless less primitives remain to be fetched.
+     */
+    private static final int MIN_IDS_PER_REQUEST = 10;
+
+    /**
+     * the duration of a request the number of ids per request is adapted to, in milliseconds.
+     */
+    private static final int TARGET_REQUEST_MILLIS = 5000;
+
+    /**
+     * the observed download time per primitive of each type, in milliseconds, shared by all readers.
+     */
+    private static final ConcurrentMap<OsmPrimitiveType, Double> MILLIS_PER_ID = new ConcurrentHashMap<>();
+
+    /**
+     * the requests currently running or waiting for a thread, by server URL and request string.
+     * Readers needing the same request share it instead of sending it again.
+     */
+    private static final ConcurrentMap<String, FetchRequest> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    /**
+     * the executor shared by all readers, bounding the number of concurrent requests to the server.
+     */
+    private static ThreadPoolExecutor executor;
+
     private Set<Long> nodes;
     private Set<Long> ways;
     private Set<Long> relations;
     private Set<PrimitiveId> missingPrimitives;
     private DataSet outputDataSet;
+    /** the ids remembered but not requested yet, by primitive type */
+    private final Map<OsmPrimitiveType, Set<Long>> unrequested = new EnumMap<>(OsmPrimitiveType.class);
+    /** the index in {@link #FETCH_ORDER} of the type of the next request */
+    private int nextType;
 
     /**
      * Constructs a {@code MultiFetchServerObjectReader}.
@@ -79,6 +126,9 @@ public class MultiFetchServerObjectReader extends OsmServerReader{
         relations = new LinkedHashSet<>();
         this.outputDataSet = new DataSet();
         this.missingPrimitives = new LinkedHashSet<>();
+        for (OsmPrimitiveType type : FETCH_ORDER) {
+            unrequested.put(type, new LinkedHashSet<Long>());
+        }
     }
 
     /**
@@ -215,22 +265,91 @@ public class MultiFetchServerObjectReader extends OsmServerReader{
      * @return the subset of ids
      */
     protected Set<Long> extractIdPackage(Set<Long> ids) {
-        Set<Long> pkg = new HashSet<>();
-        if (ids.isEmpty())
-            return pkg;
-        if (ids.size() > MAX_IDS_PER_REQUEST) {
-            Iterator<Long> it = ids.iterator();
-            for (int i = 0; i < MAX_IDS_PER_REQUEST; i++) {
-                pkg.add(it.next());
+        return extractIdPackage(ids, MAX_IDS_PER_REQUEST);
+    }
+
+    /**
+     * extracts a subset of max <code>maxIds</code> ids from <code>ids</code> and replies the subset.
+     * The subset is smaller if the request string would be too long.
+     * The extracted subset is removed from <code>ids</code>.
+     *
+     * @param ids a set of ids
+     * @param maxIds the max. number of ids to extract
+     * @return the subset of ids, in the iteration order of <code>ids</code>
+     */
+    protected static Set<Long> extractIdPackage(Set<Long> ids, int maxIds) {
+        Set<Long> pkg = new LinkedHashSet<>();
+        int length = 0;
+        for (Iterator<Long> it = ids.iterator(); it.hasNext() && pkg.size() < maxIds;) {
+            Long id = it.next();
+            length += Long.toString(id).length() + 1;
+            if (!pkg.isEmpty() && length > MAX_IDS_LENGTH) {
+                break;
             }
-            ids.removeAll(pkg);
-        } else {
-            pkg.addAll(ids);
-            ids.clear();
+            pkg.add(id);
+            it.remove();
         }
         return pkg;
     }
 
+    /**
+     * replies the number of ids to request in one step for a given {@link OsmPrimitiveType}.
+     * It is adapted to the observed download time of the primitives, and the ids waiting to be fetched
+     * are split between the available threads.
+     *
+     * @param type The primitive type
+     * @param remaining the number of ids waiting to be fetched
+     * @param threads the number of threads available for new requests
+     * @return the number of ids to request
+     */
+    protected static int getIdsPerRequest(OsmPrimitiveType type, int remaining, int threads) {
+        Double millisPerId = MILLIS_PER_ID.get(type);
+        int size = MAX_IDS_PER_REQUEST;
+        if (millisPerId != null && millisPerId > 0) {
+            size = (int) Math.min(MAX_IDS_PER_REQUEST, TARGET_REQUEST_MILLIS / millisPerId);
+        }
+        size = Math.min(size, (remaining + threads - 1) / threads);
+        return Math.max(Math.min(MIN_IDS_PER_REQUEST, remaining), size);
+    }
+
+    /**
+     * records the download time of a request, to adapt the number of ids of the next requests.
+     *
+     * @param type The primitive type
+     * @param ids the number of ids of the request
+     * @param millis the download time, in milliseconds
+     */
+    protected static void recordDownloadTime(OsmPrimitiveType type, int ids, long millis) {
+        if (ids > 0) {
+            double observed = (double) millis / ids;
+            Double previous = MILLIS_PER_ID.get(type);
+            MILLIS_PER_ID.put(type, previous == null ? observed : 0.7 * previous + 0.3 * observed);
+        }
+    }
+
+    /**
+     * replies the executor shared by all readers. Its number of threads is given by the preference
+     * {@code osm.download.threads}, up to {@link OsmApi#MAX_DOWNLOAD_THREADS}. Idle threads are stopped.
+     *
+     * @return the shared executor
+     */
+    protected static synchronized ThreadPoolExecutor getExecutor() {
+        int threads = Main.pref.getInteger("osm.download.threads", OsmApi.MAX_DOWNLOAD_THREADS);
+        threads = Math.min(Math.max(threads, 1), OsmApi.MAX_DOWNLOAD_THREADS);
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    Utils.newThreadFactory(MultiFetchServerObjectReader.class.getSimpleName() + "-%d", Thread.NORM_PRIORITY));
+            executor.allowCoreThreadTimeOut(true);
+        } else if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else if (threads < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        return executor;
+    }
+
     /**
      * builds the Multi Get request string for a set of ids and a given {@link OsmPrimitiveType}.
      *
@@ -274,8 +393,8 @@ public class MultiFetchServerObjectReader extends OsmServerReader{
         for (Way w: from.getWays()) {
             if (w.hasIncompleteNodes()) {
                 for (Node n: w.getNodes()) {
-                    if (n.isIncomplete()) {
-                        nodes.add(n.getId());
+                    if (n.isIncomplete() && nodes.add(n.getId())) {
+                        unrequested.get(OsmPrimitiveType.NODE).add(n.getId());
                     }
                 }
             }
@@ -293,55 +412,106 @@ public class MultiFetchServerObjectReader extends OsmServerReader{
     }
 
     /**
-     * fetches a set of ids of a given {@link OsmPrimitiveType} from the server
+     * fetches all remembered ids from the server.
      *
-     * @param ids the set of ids
-     * @param type The primitive type. Must be one of {@link OsmPrimitiveType#NODE NODE}, {@link OsmPrimitiveType#WAY WAY},
-     * {@link OsmPrimitiveType#RELATION RELATION}
+     * Ways, relations and nodes are fetched concurrently by the shared executor, with at most one request
+     * per thread at once for this reader, so that the number of ids of each request can be adapted to the
+     * download time of the previous ones. The nodes of the fetched ways are fetched as soon as the ways are
+     * received, unless they are already requested. A request already sent by another reader is not sent again,
+     * its result is shared.
+     *
+     * @param progressMonitor the progress monitor
      * @throws OsmTransferException if an error occurs while communicating with the API server
      */
-    protected void fetchPrimitives(Set<Long> ids, OsmPrimitiveType type, ProgressMonitor progressMonitor) throws OsmTransferException {
-        String msg = "";
-        String baseUrl = OsmApi.getOsmApi().getBaseUrl();
-        switch (type) {
-            case NODE:     msg = tr("Fetching a package of nodes from ''{0}''",     baseUrl); break;
-            case WAY:      msg = tr("Fetching a package of ways from ''{0}''",      baseUrl); break;
-            case RELATION: msg = tr("Fetching a package of relations from ''{0}''", baseUrl); break;
-        }
-        progressMonitor.setTicksCount(ids.size());
+    protected void fetchPrimitives(ProgressMonitor progressMonitor) throws OsmTransferException {
+        unrequested.get(OsmPrimitiveType.WAY).addAll(ways);
+        unrequested.get(OsmPrimitiveType.RELATION).addAll(relations);
+        unrequested.get(OsmPrimitiveType.NODE).addAll(nodes);
+        progressMonitor.setTicksCount(nodes.size() + ways.size() + relations.size());
         progressMonitor.setTicks(0);
-        // The complete set containing all primitives to fetch
-        Set<Long> toFetch = new HashSet<>(ids);
-        // Build a list of fetchers that will  download smaller sets containing only MAX_IDS_PER_REQUEST (200) primitives each.
-        // we will run up to MAX_DOWNLOAD_THREADS concurrent fetchers.
-        int threadsNumber = Main.pref.getInteger("osm.download.threads", OsmApi.MAX_DOWNLOAD_THREADS);
-        threadsNumber = Math.min(Math.max(threadsNumber, 1), OsmApi.MAX_DOWNLOAD_THREADS);
-        Executor exec = Executors.newFixedThreadPool(threadsNumber, Utils.newThreadFactory(getClass() + "-%d", Thread.NORM_PRIORITY));
-        CompletionService<FetchResult> ecs = new ExecutorCompletionService<>(exec);
-        List<Future<FetchResult>> jobs = new ArrayList<>();
-        while (!toFetch.isEmpty()) {
-            jobs.add(ecs.submit(new Fetcher(type, extractIdPackage(toFetch), progressMonitor)));
-        }
-        // Run the fetchers
-        for (int i = 0; i < jobs.size() && !isCanceled(); i++) {
-            progressMonitor.subTask(msg + "... " + progressMonitor.getTicks() + '/' + progressMonitor.getTicksCount());
-            try {
-                FetchResult result = ecs.take().get();
-                if (result.missingPrimitives != null) {
-                    missingPrimitives.addAll(result.missingPrimitives);
+        String msg = tr("Fetching packages of objects from ''{0}''", OsmApi.getOsmApi().getBaseUrl());
+
+        BlockingQueue<FetchRequest> completed = new LinkedBlockingQueue<>();
+        Set<FetchRequest> pending = new HashSet<>();
+        try {
+            submitRequests(pending, completed, progressMonitor);
+            while (!pending.isEmpty() && !isCanceled()) {
+                progressMonitor.subTask(msg + "... " + progressMonitor.getTicks() + '/' + progressMonitor.getTicksCount());
+                FetchRequest request = completed.take();
+                pending.remove(request);
+                try {
+                    FetchResult result = request.get();
+                    if (request.owner != this) {
+                        progressMonitor.worked(request.pkg.size());
+                    }
+                    if (result != null) {
+                        if (result.missingPrimitives != null) {
+                            missingPrimitives.addAll(result.missingPrimitives);
+                        }
+                        if (result.dataSet != null && !isCanceled()) {
+                            int ticks = nodes.size();
+                            rememberNodesOfIncompleteWaysToLoad(result.dataSet);
+                            progressMonitor.setTicksCount(progressMonitor.getTicksCount() + nodes.size() - ticks);
+                            merge(result.dataSet);
+                        }
+                    }
+                } catch (CancellationException e) {
+                    // the request was shared with another reader which has been canceled
+                    if (!isCanceled()) {
+                        unrequested.get(request.type).addAll(request.pkg);
+                    }
+                } catch (ExecutionException e) {
+                    Main.error(e);
                 }
-                if (result.dataSet != null && !isCanceled()) {
-                    rememberNodesOfIncompleteWaysToLoad(result.dataSet);
-                    merge(result.dataSet);
+                submitRequests(pending, completed, progressMonitor);
+            }
+        } catch (InterruptedException e) {
+            Main.error(e);
+        } finally {
+            // Cancel requests if the user choosed to
+            if (isCanceled()) {
+                for (FetchRequest request : pending) {
+                    if (request.owner == this) {
+                        request.cancel(true);
+                    }
                 }
-            } catch (InterruptedException | ExecutionException e) {
-                Main.error(e);
             }
         }
-        // Cancel requests if the user choosed to
-        if (isCanceled()) {
-            for (Future<FetchResult> job : jobs) {
-                job.cancel(true);
+    }
+
+    /**
+     * submits requests for the remembered ids, until this reader has one pending request per thread
+     * of the shared executor.
+     * @param pending the pending requests of this reader
+     * @param completed the queue of completed requests of this reader
+     * @param progressMonitor the progress monitor
+     */
+    private void submitRequests(Set<FetchRequest> pending, BlockingQueue<FetchRequest> completed, ProgressMonitor progressMonitor) {
+        ThreadPoolExecutor exec = getExecutor();
+        int threads = exec.getMaximumPoolSize();
+        // number of types without remaining ids, in a row
+        int done = 0;
+        while (done < FETCH_ORDER.length && pending.size() < threads) {
+            // take the types in turn, so that all types are fetched concurrently
+            OsmPrimitiveType type = FETCH_ORDER[nextType];
+            nextType = (nextType + 1) % FETCH_ORDER.length;
+            Set<Long> ids = unrequested.get(type);
+            if (ids.isEmpty()) {
+                done++;
+            } else {
+                done = 0;
+                Set<Long> pkg = extractIdPackage(ids, getIdsPerRequest(type, ids.size(), threads - pending.size()));
+                // not the base URL, which changes once the protocol version is negotiated
+                String key = OsmApi.getOsmApi().getServerUrl() + '/' + buildRequestString(type, pkg);
+                FetchRequest request = new FetchRequest(this, key, type, pkg, new Fetcher(type, pkg, progressMonitor));
+                FetchRequest running = IN_FLIGHT.putIfAbsent(key, request);
+                if (running == null) {
+                    exec.execute(request);
+                } else {
+                    request = running;
+                }
+                request.addListener(completed);
+                pending.add(request);
             }
         }
     }
@@ -369,11 +539,8 @@ public class MultiFetchServerObjectReader extends OsmServerReader{
         try {
             missingPrimitives = new HashSet<>();
             if (isCanceled()) return null;
-            fetchPrimitives(ways, OsmPrimitiveType.WAY, progressMonitor);
+            fetchPrimitives(progressMonitor);
             if (isCanceled()) return null;
-            fetchPrimitives(nodes, OsmPrimitiveType.NODE, progressMonitor);
-            if (isCanceled()) return null;
-            fetchPrimitives(relations, OsmPrimitiveType.RELATION, progressMonitor);
             if (outputDataSet != null) {
                 outputDataSet.deleteInvisible();
             }
@@ -421,6 +588,45 @@ public class MultiFetchServerObjectReader extends OsmServerReader{
         }
     }
 
+    /**
+     * A request of a {@link Fetcher}, which can be shared by several readers.
+     * The readers waiting for it are notified through their queue of completed requests.
+     */
+    private static final class FetchRequest extends FutureTask<FetchResult> {
+        private final MultiFetchServerObjectReader owner;
+        private final String key;
+        private final OsmPrimitiveType type;
+        private final Set<Long> pkg;
+        private final List<BlockingQueue<FetchRequest>> listeners = new ArrayList<>();
+
+        FetchRequest(MultiFetchServerObjectReader owner, String key, OsmPrimitiveType type, Set<Long> pkg, Fetcher fetcher) {
+            super(fetcher);
+            this.owner = owner;
+            this.key = key;
+            this.type = type;
+            this.pkg = pkg;
+        }
+
+        synchronized void addListener(BlockingQueue<FetchRequest> completed) {
+            if (isDone()) {
+                completed.add(this);
+            } else {
+                listeners.add(completed);
+            }
+        }
+
+        @Override
+        protected void done() {
+            IN_FLIGHT.remove(key, this);
+            synchronized (this) {
+                for (BlockingQueue<FetchRequest> completed : listeners) {
+                    completed.add(this);
+                }
+                listeners.clear();
+            }
+        }
+    }
+
     /**
      * The class that actually download data from OSM API.
      * Several instances of this class are used by {@link MultiFetchServerObjectReader} (one per set of primitives to fetch).
@@ -466,7 +672,10 @@ public class MultiFetchServerObjectReader extends OsmServerReader{
          */
         protected FetchResult fetch(ProgressMonitor progressMonitor) throws OsmTransferException {
             try {
-                return multiGetIdPackage(type, pkg, progressMonitor);
+                long start = System.currentTimeMillis();
+                FetchResult result = multiGetIdPackage(type, pkg, progressMonitor);
+                recordDownloadTime(type, pkg.size(), System.currentTimeMillis() - start);
+                return result;
             } catch (OsmApiException e) {
                 if (e.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
                     Main.info(tr("Server replied with response code 404, retrying with an individual request for each object."));
@@ -6,6 +6,7 @@ import static org.openstreetmap.josm.tools.I18n.trn;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -14,6 +15,7 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.net.ConnectException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
@@ -127,6 +129,9 @@ public class OsmApi extends OsmConnection {
     /** true if successfully initialized */
     private boolean initialized;
 
+    /** true if the connection of the last request was kept alive, and may be reused by the next one */
+    private boolean connectionKeptAlive;
+
     /**
      * Constructs a new {@code OsmApi} for a specific server URL.
      *
@@ -146,6 +151,14 @@ public class OsmApi extends OsmConnection {
         return version;
     }
 
+    /**
+     * Replies the server URL, without the protocol version.
+     * @return the server URL
+     */
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
     /**
      * Replies the host name of the server URL.
      * @return the host name of the server URL, or null if the server URL is malformed.
@@ -513,7 +526,7 @@ public class OsmApi extends OsmConnection {
      * @return list of processed primitives
      * @throws OsmTransferException if something is wrong
      */
-    public Collection<OsmPrimitive> uploadDiff(Collection<? extends OsmPrimitive> list, ProgressMonitor monitor)
+    public Collection<OsmPrimitive> uploadDiff(final Collection<? extends OsmPrimitive> list, final ProgressMonitor monitor)
             throws OsmTransferException {
         try {
             monitor.beginTask("", list.size() * 2);
@@ -522,33 +535,45 @@ public class OsmApi extends OsmConnection {
 
             initialize(monitor);
 
-            // prepare upload request
+            // prepare upload request, written directly to the connection
             //
-            OsmChangeBuilder changeBuilder = new OsmChangeBuilder(changeset);
-            monitor.subTask(tr("Preparing upload request..."));
-            changeBuilder.start();
-            changeBuilder.append(list);
-            changeBuilder.finish();
-            String diffUploadRequest = changeBuilder.getDocument();
-
-            // Upload to the server
+            final Changeset uploadChangeset = changeset;
+            RequestBody diffUploadRequest = new RequestBody() {
+                @Override
+                public void writeTo(Writer out) throws IOException {
+                    PrintWriter writer = new PrintWriter(out);
+                    OsmChangeBuilder changeBuilder = new OsmChangeBuilder(uploadChangeset, null, writer);
+                    changeBuilder.start();
+                    changeBuilder.append(list);
+                    changeBuilder.finish();
+                    if (writer.checkError())
+                        throw new IOException(tr("Failed to write the upload request."));
+                }
+            };
+
+            // Upload to the server and process its response while it is received
             //
             monitor.indeterminateSubTask(
                     trn("Uploading {0} object...", "Uploading {0} objects...", list.size(), list.size()));
-            String diffUploadResponse = sendRequest("POST", "changeset/" + changeset.getId() + "/upload", diffUploadRequest, monitor);
+            DiffResultProcessor reader = sendRequest("POST", "changeset/" + changeset.getId() + "/upload", diffUploadRequest,
+                    new ResponseHandler<DiffResultProcessor>() {
+                @Override
+                public DiffResultProcessor handle(InputStream in) throws OsmTransferException {
+                    // a new processor for each try, as a failed try may have processed a part of its response
+                    DiffResultProcessor reader = new DiffResultProcessor(list);
+                    try {
+                        reader.parse(in, monitor.createSubTaskMonitor(ProgressMonitor.ALL_TICKS, false));
+                    } catch (XmlParsingException e) {
+                        throw new OsmTransferException(e);
+                    }
+                    return reader;
+                }
+            }, monitor, true, false);
 
-            // Process the response from the server
-            //
-            DiffResultProcessor reader = new DiffResultProcessor(list);
-            reader.parse(diffUploadResponse, monitor.createSubTaskMonitor(ProgressMonitor.ALL_TICKS, false));
             return reader.postProcess(
                     getChangeset(),
                     monitor.createSubTaskMonitor(ProgressMonitor.ALL_TICKS, false)
             );
-        } catch (OsmTransferException e) {
-            throw e;
-        } catch (XmlParsingException e) {
-            throw new OsmTransferException(e);
         } finally {
             monitor.finishTask();
         }
@@ -595,6 +620,33 @@ public class OsmApi extends OsmConnection {
         return sendRequest(requestMethod, urlSuffix, requestBody, monitor, true, false);
     }
 
+    /**
+     * Body of a request, written once in UTF-8 before the first try of the request.
+     */
+    protected interface RequestBody {
+        /**
+         * Writes the body of the request.
+         * @param out the writer, which must not be closed
+         * @throws IOException if an I/O error occurs
+         */
+        void writeTo(Writer out) throws IOException;
+    }
+
+    /**
+     * Handler of the body of a "200 OK" response, read directly from the connection.
+     * @param <T> the type of the result
+     */
+    protected interface ResponseHandler<T> {
+        /**
+         * Reads the body of the response.
+         * @param in the body of the response
+         * @return the result of the request
+         * @throws IOException if an I/O error occurs
+         * @throws OsmTransferException if the response is invalid
+         */
+        T handle(InputStream in) throws IOException, OsmTransferException;
+    }
+
     /**
      * Generic method for sending requests to the OSM API.
      *
@@ -614,18 +666,71 @@ public class OsmApi extends OsmConnection {
      * @throws OsmTransferException if the HTTP return code was not 200 (and retries have
      *    been exhausted), or rewrapping a Java exception.
      */
-    protected final String sendRequest(String requestMethod, String urlSuffix, String requestBody, ProgressMonitor monitor,
+    protected final String sendRequest(String requestMethod, String urlSuffix, final String requestBody, ProgressMonitor monitor,
             boolean doAuthenticate, boolean fastFail) throws OsmTransferException {
-        StringBuilder responseBody = new StringBuilder();
+        Main.debug(requestBody);
+        RequestBody body = requestBody == null ? null : new RequestBody() {
+            @Override
+            public void writeTo(Writer out) throws IOException {
+                out.write(requestBody);
+            }
+        };
+        return sendRequest(requestMethod, urlSuffix, body, new ResponseHandler<String>() {
+            @Override
+            public String handle(InputStream in) throws IOException {
+                return readResponse(in);
+            }
+        }, monitor, doAuthenticate, fastFail);
+    }
+
+    /**
+     * Generic method for sending requests to the OSM API, streaming the request and the response.
+     *
+     * The request body is encoded once, as the API requires a Content-length header, and the same bytes are
+     * sent by each try. Unless the preference {@code osm-server.keep-alive} is false, connections
+     * are kept alive and reused by the next requests to the same server, up to the number of connections
+     * allowed by the {@code http.maxConnections} system property.
+     *
+     * This method will automatically re-try any requests that are answered with a 5xx
+     * error code, or that resulted in a timeout exception from the TCP layer. A request failing on a connection
+     * kept alive by the previous request, before any response, is tried once again: the server may have closed
+     * the idle connection.
+     *
+     * @param <T> the type of the result
+     * @param requestMethod The http method used when talking with the server.
+     * @param urlSuffix The suffix to add at the server url, not including the version number,
+     *    but including any object ids (e.g. "/way/1234/history").
+     * @param requestBody the body of the HTTP request, if any.
+     * @param responseHandler the handler of the body of the HTTP response, if the response code is "200 OK".
+     * @param monitor the progress monitor
+     * @param doAuthenticate  set to true, if the request sent to the server shall include authentication
+     * credentials;
+     * @param fastFail true to request a short timeout
+     *
+     * @return the result of the response handler
+     * @throws OsmTransferException if the HTTP return code was not 200 (and retries have
+     *    been exhausted), or rewrapping a Java exception.
+     */
+    protected final <T> T sendRequest(String requestMethod, String urlSuffix, RequestBody requestBody,
+            ResponseHandler<T> responseHandler, ProgressMonitor monitor, boolean doAuthenticate, boolean fastFail)
+            throws OsmTransferException {
         int retries = fastFail ? 0 : getMaxRetries();
+        boolean keepAlive = Main.pref.getBoolean("osm-server.keep-alive", true);
+        byte[] body;
+        try {
+            body = requestBody == null ? null : getBytes(requestBody);
+        } catch (IOException e) {
+            throw new OsmTransferException(e);
+        }
+        boolean retriedClosedConnection = false;
 
         while (true) { // the retry loop
+            boolean reused = keepAlive && connectionKeptAlive;
+            boolean responseReceived = false;
             try {
                 url = new URL(new URL(getBaseUrl()), urlSuffix);
                 Main.info(requestMethod + ' ' + url + "... ");
-                Main.debug(requestBody);
-                // fix #5369, see http://www.tikalk.com/java/forums/httpurlconnection-disable-keep-alive
-                activeConnection = Utils.openHttpConnection(url, false);
+                activeConnection = Utils.openHttpConnection(url, keepAlive);
                 activeConnection.setConnectTimeout(fastFail ? 1000 : Main.pref.getInteger("socket.timeout.connect", 15)*1000);
                 if (fastFail) {
                     activeConnection.setReadTimeout(1000);
@@ -638,18 +743,15 @@ public class OsmApi extends OsmConnection {
                 if ("PUT".equals(requestMethod) || "POST".equals(requestMethod) || "DELETE".equals(requestMethod)) {
                     activeConnection.setDoOutput(true);
                     activeConnection.setRequestProperty("Content-type", "text/xml");
+                    // It seems that certain bits of the Ruby API are very unhappy upon
+                    // receipt of a PUT/POST message without a Content-length header,
+                    // even if the request has no payload.
+                    // The fixed length streaming mode sends it, and prevents Java from
+                    // silently sending the request again on a stale kept-alive connection (see #5369).
+                    activeConnection.setFixedLengthStreamingMode(body == null ? 0 : body.length);
                     try (OutputStream out = activeConnection.getOutputStream()) {
-                        // It seems that certain bits of the Ruby API are very unhappy upon
-                        // receipt of a PUT/POST message without a Content-length header,
-                        // even if the request has no payload.
-                        // Since Java will not generate a Content-length header unless
-                        // we use the output stream, we create an output stream for PUT/POST
-                        // even if there is no payload.
-                        if (requestBody != null) {
-                            try (BufferedWriter bwr = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
-                                bwr.write(requestBody);
-                                bwr.flush();
-                            }
+                        if (body != null) {
+                            out.write(body);
                         }
                     }
                 }
@@ -657,9 +759,12 @@ public class OsmApi extends OsmConnection {
                 activeConnection.connect();
                 Main.info(activeConnection.getResponseMessage());
                 int retCode = activeConnection.getResponseCode();
+                responseReceived = true;
 
                 if (retCode >= 500) {
                     if (retries-- > 0) {
+                        activeConnection.disconnect();
+                        connectionKeptAlive = false;
                         sleepAndListen(retries, monitor);
                         Main.info(tr("Starting retry {0} of {1}.", getMaxRetries() - retries, getMaxRetries()));
                         continue;
@@ -667,19 +772,19 @@ public class OsmApi extends OsmConnection {
                 }
 
                 // populate return fields.
-                responseBody.setLength(0);
-
-                // If the API returned an error code like 403 forbidden, getInputStream will fail with an IOException.
-                InputStream i = getConnectionStream();
-                if (i != null) {
-                    // the input stream can be null if both the input and the error stream
-                    // are null. Seems to be the case if the OSM server replies a 401 Unauthorized, see #3887.
-                    String s;
-                    try (BufferedReader in = new BufferedReader(new InputStreamReader(i, StandardCharsets.UTF_8))) {
-                        while ((s = in.readLine()) != null) {
-                            responseBody.append(s);
-                            responseBody.append('\n');
-                        }
+                T result = null;
+                String responseBody = "";
+                if (retCode == HttpURLConnection.HTTP_OK) {
+                    try (InputStream in = activeConnection.getInputStream()) {
+                        result = responseHandler.handle(in);
+                    }
+                } else {
+                    // If the API returned an error code like 403 forbidden, getInputStream will fail with an IOException.
+                    InputStream i = getConnectionStream();
+                    if (i != null) {
+                        // the input stream can be null if both the input and the error stream
+                        // are null. Seems to be the case if the OSM server replies a 401 Unauthorized, see #3887.
+                        responseBody = readResponse(i);
                     }
                 }
                 String errorHeader = null;
@@ -687,20 +792,23 @@ public class OsmApi extends OsmConnection {
                 if (activeConnection.getHeaderField("Error") != null) {
                     errorHeader = activeConnection.getHeaderField("Error");
                     Main.error("Error header: " + errorHeader);
-                } else if (retCode != HttpURLConnection.HTTP_OK && responseBody.length() > 0) {
+                } else if (retCode != HttpURLConnection.HTTP_OK && !responseBody.isEmpty()) {
                     Main.error("Error body: " + responseBody);
                 }
-                activeConnection.disconnect();
+                if (!keepAlive) {
+                    activeConnection.disconnect();
+                }
+                connectionKeptAlive = keepAlive && !"close".equalsIgnoreCase(activeConnection.getHeaderField("Connection"));
 
                 if (Main.isDebugEnabled()) {
                     Main.debug("RESPONSE: "+ activeConnection.getHeaderFields());
                 }
 
                 errorHeader = errorHeader == null ? null : errorHeader.trim();
-                String errorBody = responseBody.length() == 0 ? null : responseBody.toString().trim();
+                String errorBody = responseBody.isEmpty() ? null : responseBody.trim();
                 switch(retCode) {
                 case HttpURLConnection.HTTP_OK:
-                    return responseBody.toString();
+                    return result;
                 case HttpURLConnection.HTTP_GONE:
                     throw new OsmApiPrimitiveGoneException(errorHeader, errorBody);
                 case HttpURLConnection.HTTP_CONFLICT:
@@ -716,11 +824,18 @@ public class OsmApi extends OsmConnection {
                     throw new OsmApiException(retCode, errorHeader, errorBody);
                 }
             } catch (SocketTimeoutException | ConnectException e) {
+                connectionKeptAlive = false;
                 if (retries-- > 0) {
                     continue;
                 }
                 throw new OsmTransferException(e);
             } catch (IOException e) {
+                connectionKeptAlive = false;
+                if (reused && !responseReceived && !retriedClosedConnection) {
+                    Main.info(tr("Connection closed by the server ({0}), trying again with a new connection.", e.getMessage()));
+                    retriedClosedConnection = true;
+                    continue;
+                }
                 throw new OsmTransferException(e);
             } catch (OsmTransferException e) {
                 throw e;
@@ -728,6 +843,26 @@ public class OsmApi extends OsmConnection {
         }
     }
 
+    private static byte[] getBytes(RequestBody requestBody) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        requestBody.writeTo(writer);
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private static String readResponse(InputStream i) throws IOException {
+        StringBuilder responseBody = new StringBuilder();
+        String s;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(i, StandardCharsets.UTF_8))) {
+            while ((s = in.readLine()) != null) {
+                responseBody.append(s);
+                responseBody.append('\n');
+            }
+        }
+        return responseBody.toString();
+    }
+
     private InputStream getConnectionStream() {
         try {
             return activeConnection.getInputStream();
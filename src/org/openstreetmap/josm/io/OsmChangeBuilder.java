@@ -5,6 +5,7 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Collection;
 
 import org.openstreetmap.josm.data.osm.Changeset;
@@ -31,8 +32,20 @@ public class OsmChangeBuilder {
     }
 
     public OsmChangeBuilder(Changeset changeset, String apiVersion) {
+        this(changeset, apiVersion, new StringWriter());
+    }
+
+    /**
+     * Constructs a new {@code OsmChangeBuilder} writing the document to the given writer, e.g. directly
+     * to a connection, instead of keeping it in memory.
+     * @param changeset the changeset
+     * @param apiVersion the API version, or {@code null} for the default one
+     * @param out the writer. It is not flushed nor closed by this builder
+     */
+    public OsmChangeBuilder(Changeset changeset, String apiVersion, Writer out) {
         this.apiVersion = apiVersion == null ? DEFAULT_API_VERSION : apiVersion;
-        writer = new PrintWriter(swriter = new StringWriter());
+        swriter = out instanceof StringWriter ? (StringWriter) out : null;
+        writer = out instanceof PrintWriter ? (PrintWriter) out : new PrintWriter(out);
         osmwriter = OsmWriterFactory.createOsmWriter(writer, false, apiVersion);
         osmwriter.setChangeset(changeset);
         osmwriter.setIsOsmChange(true);
@@ -128,7 +141,11 @@ public class OsmChangeBuilder {
         writer.println("</osmChange>");
     }
 
+    /**
+     * Returns the OsmChange document.
+     * @return the document, or {@code null} if it has been written to another writer than a {@link StringWriter}
+     */
     public String getDocument() {
-        return swriter.toString();
+        return swriter == null ? null : swriter.toString();
     }
 }
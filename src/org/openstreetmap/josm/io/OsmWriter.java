@@ -43,6 +43,8 @@ public class OsmWriter extends XmlWriter implements PrimitiveVisitor {
     private boolean isOsmChange;
     private String version;
     private Changeset changeset;
+    /** reused to format the timestamps of all primitives */
+    private final char[] dateBuffer = new char[DateUtils.XML_DATE_MAX_LENGTH];
 
     /**
      * Do not call this directly. Use OsmWriterFactory instead.
@@ -275,6 +277,15 @@ public class OsmWriter extends XmlWriter implements PrimitiveVisitor {
         }
     }
 
+    private void printTimestamp(int timestamp) {
+        int length = DateUtils.formatXmlDate(timestamp * 1000L, dateBuffer, 0);
+        if (length >= 0) {
+            out.write(dateBuffer, 0, length);
+        } else {
+            out.print(DateUtils.fromTimestamp(timestamp));
+        }
+    }
+
     /**
      * Add the common part as the form of the tag as well as the XML attributes
      * id, action, user, and visible.
@@ -298,7 +309,9 @@ public class OsmWriter extends XmlWriter implements PrimitiveVisitor {
                 }
             }
             if (!osm.isTimestampEmpty()) {
-                out.print(" timestamp='"+DateUtils.fromTimestamp(osm.getRawTimestamp())+'\'');
+                out.print(" timestamp='");
+                printTimestamp(osm.getRawTimestamp());
+                out.print('\'');
             }
             // user and visible added with 0.4 API
             if (osm.getUser() != null) {
@@ -0,0 +1,180 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.Version;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Cache of snapshots of the sources parsed at startup, such as presets, map styles and validator rules.
+ * <p>
+ * A snapshot holds what is read from a source up to the point where it can be stored, e.g. the XML events or the
+ * tokens of the source, so that an unchanged source is not read and tokenized again at the next start. Each source
+ * has one snapshot file in the {@code startup} directory of the cache directory. A snapshot is only used if it was
+ * written by the same JOSM version, in the same format, from a source with the same content hash.
+ */
+public final class StartupCache {
+
+    /** the version of the format of the snapshot files, to increment when it changes */
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x4a534e50; // "JSNP"
+
+    /**
+     * Data that can be stored as a snapshot.
+     */
+    public interface Snapshot {
+        /**
+         * Writes this snapshot.
+         * @param out the output, which must not be closed
+         * @throws IOException if an I/O error occurs
+         */
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Reader of the snapshots of a type.
+     * @param <T> the type of the snapshots
+     */
+    public interface SnapshotReader<T extends Snapshot> {
+        /**
+         * Reads a snapshot.
+         * @param in the input, which must not be closed
+         * @return the snapshot
+         * @throws IOException if an I/O error occurs, or if the snapshot is invalid
+         */
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private StartupCache() {
+        // Hide default constructor for utils classes
+    }
+
+    /**
+     * Computes the key of the snapshot of a source content.
+     * @param content the content of the source
+     * @param parameters other parameters on which the snapshot depends, e.g. the options of the parser
+     * @return the key of the snapshot
+     */
+    public static byte[] getKey(byte[] content, String... parameters) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            for (String parameter : parameters) {
+                md.update(parameter.getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+            }
+            return md.digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes a string of any length, unlike {@link DataOutputStream#writeUTF}.
+     * @param out the output
+     * @param s the string
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeInt(s.length());
+        out.writeChars(s);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     * @param in the input
+     * @return the string
+     * @throws IOException if an I/O error occurs
+     */
+    public static String readString(DataInputStream in) throws IOException {
+        char[] chars = new char[in.readInt()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = in.readChar();
+        }
+        return new String(chars);
+    }
+
+    private static File getFile(String kind, String source) {
+        return new File(new File(Main.pref.getCacheDirectory(), "startup"), kind + '-' + Utils.md5Hex(source) + ".snapshot");
+    }
+
+    /**
+     * Reads the snapshot of a source.
+     * @param <T> the type of the snapshot
+     * @param kind the kind of source, e.g. {@code "presets"}
+     * @param source the URL of the source
+     * @param key the key of the snapshot, see {@link #getKey}
+     * @param reader the reader of the snapshot
+     * @return the snapshot, or {@code null} if there is no valid snapshot of this content of the source
+     */
+    public static <T extends Snapshot> T read(String kind, String source, byte[] key, SnapshotReader<T> reader) {
+        File file = getFile(kind, source);
+        if (!file.isFile())
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readInt() != Version.getInstance().getVersion())
+                return null;
+            byte[] fileKey = new byte[in.readUnsignedByte()];
+            in.readFully(fileKey);
+            if (!Arrays.equals(key, fileKey))
+                return null;
+            return reader.read(in);
+        } catch (IOException | RuntimeException e) {
+            Main.warn(tr("Failed to read the startup cache of ''{0}'': {1}", source, e.toString()));
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot of a source, replacing any previous one.
+     * @param kind the kind of source, e.g. {@code "presets"}
+     * @param source the URL of the source
+     * @param key the key of the snapshot, see {@link #getKey}
+     * @param snapshot the snapshot
+     */
+    public static void write(String kind, String source, byte[] key, Snapshot snapshot) {
+        File file = getFile(kind, source);
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Main.warn(tr("Failed to create missing cache directory: {0}", dir.getAbsolutePath()));
+            return;
+        }
+        try {
+            // written to a temporary file first, so that a snapshot being read is always complete
+            File tmp = File.createTempFile(file.getName(), null, dir);
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeInt(Version.getInstance().getVersion());
+                    out.writeByte(key.length);
+                    out.write(key);
+                    snapshot.writeTo(out);
+                }
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                if (tmp.exists() && !tmp.delete()) {
+                    Main.warn(tr("Unable to delete temporary file {0}", tmp.getAbsolutePath()));
+                }
+            }
+        } catch (IOException e) {
+            Main.warn(tr("Failed to write the startup cache of ''{0}'': {1}", source, e.toString()));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.gui.progress.ProgressMonitor;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Read content from OSM server for a bounding box which may be larger than the area accepted by the server.
+ * <p>
+ * The bounding box is split into a quadtree of tiles no larger than the preference {@code osm-server.max-request-area}.
+ * A tile rejected by the server because it is too large or contains too many nodes is split again into four tiles,
+ * up to {@code osm-server.max-request-splits} times.
+ * The tiles are downloaded in parallel, up to {@code osm.download.threads} at once, and merged into the
+ * resulting data set as they arrive.
+ */
+public class TiledBoundingBoxDownloader extends BoundingBoxDownloader {
+
+    /** The min. width and height of a tile, in degrees. Smaller tiles are not split again */
+    private static final double MIN_TILE_SIZE = 0.001;
+
+    /** The readers of the tiles being downloaded */
+    private final Set<TileReader> activeReaders = Collections.synchronizedSet(new HashSet<TileReader>());
+
+    /**
+     * Constructs a new {@code TiledBoundingBoxDownloader}.
+     * @param downloadArea The area to download
+     */
+    public TiledBoundingBoxDownloader(Bounds downloadArea) {
+        super(downloadArea);
+    }
+
+    /**
+     * Splits a bounding box into its four quadrants.
+     * @param b the bounding box
+     * @return the four quadrants of {@code b}
+     */
+    protected static List<Bounds> split(Bounds b) {
+        double midLat = (b.getMinLat() + b.getMaxLat()) / 2;
+        double midLon = (b.getMinLon() + b.getMaxLon()) / 2;
+        return Arrays.asList(
+                new Bounds(b.getMinLat(), b.getMinLon(), midLat, midLon),
+                new Bounds(b.getMinLat(), midLon, midLat, b.getMaxLon()),
+                new Bounds(midLat, b.getMinLon(), b.getMaxLat(), midLon),
+                new Bounds(midLat, midLon, b.getMaxLat(), b.getMaxLon()));
+    }
+
+    /**
+     * Determines if a tile can be split again.
+     * @param b the tile
+     * @return {@code true} if the quadrants of {@code b} are not smaller than the min. tile size
+     */
+    protected static boolean canSplit(Bounds b) {
+        return b.getMaxLat() - b.getMinLat() >= 2 * MIN_TILE_SIZE && b.getMaxLon() - b.getMinLon() >= 2 * MIN_TILE_SIZE;
+    }
+
+    /**
+     * Returns the tiles to download, no larger than a given area.
+     * @param maxArea the max. area of a tile, in square degrees
+     * @return the tiles to download
+     */
+    protected List<Bounds> getTiles(double maxArea) {
+        LinkedList<Bounds> areas = new LinkedList<>();
+        if (crosses180th) {
+            // API 0.6 does not support requests crossing the 180th meridian
+            areas.add(new Bounds(lat1, lon1, lat2, 180.0));
+            areas.add(new Bounds(lat1, -180.0, lat2, lon2));
+        } else {
+            areas.add(new Bounds(lat1, lon1, lat2, lon2));
+        }
+        List<Bounds> tiles = new ArrayList<>();
+        while (!areas.isEmpty()) {
+            Bounds b = areas.removeFirst();
+            if (b.getArea() > maxArea && canSplit(b)) {
+                areas.addAll(split(b));
+            } else {
+                tiles.add(b);
+            }
+        }
+        return tiles;
+    }
+
+    private static boolean isLimitMessage(String message) {
+        return message != null && (message.trim().startsWith("The maximum bbox") || message.trim().startsWith("You requested too many nodes"));
+    }
+
+    /**
+     * Determines if the server rejected a request because the area is too large or contains too many nodes.
+     * Other errors, including other "400 Bad Request" replies, are not solved by splitting the area.
+     * @param t the error of the request
+     * @return {@code true} if the area of the request has to be split
+     */
+    protected static boolean isRejectedAsTooLarge(Throwable t) {
+        if (!(t instanceof OsmApiException))
+            return false;
+        OsmApiException e = (OsmApiException) t;
+        return e.getResponseCode() == HttpURLConnection.HTTP_BAD_REQUEST
+                && (isLimitMessage(e.getErrorHeader()) || isLimitMessage(e.getErrorBody()));
+    }
+
+    private void submit(CompletionService<DataSet> ecs, Map<Future<DataSet>, TileReader> pending, Bounds tile, int splits) {
+        TileReader reader = new TileReader(tile, splits);
+        activeReaders.add(reader);
+        pending.put(ecs.submit(reader), reader);
+    }
+
+    @Override
+    public DataSet parseOsm(ProgressMonitor progressMonitor) throws OsmTransferException {
+        List<Bounds> tiles = getTiles(Main.pref.getDouble("osm-server.max-request-area", 0.25));
+        progressMonitor.beginTask(getTaskName(), tiles.size());
+        int maxSplits = Main.pref.getInteger("osm-server.max-request-splits", 5);
+        int threads = Main.pref.getInteger("osm.download.threads", OsmApi.MAX_DOWNLOAD_THREADS);
+        threads = Math.min(Math.max(threads, 1), OsmApi.MAX_DOWNLOAD_THREADS);
+        ExecutorService exec = Executors.newFixedThreadPool(threads,
+                Utils.newThreadFactory(getClass().getSimpleName() + "-%d", Thread.NORM_PRIORITY));
+        CompletionService<DataSet> ecs = new ExecutorCompletionService<>(exec);
+        Map<Future<DataSet>, TileReader> pending = new HashMap<>();
+        try {
+            for (Bounds tile : tiles) {
+                submit(ecs, pending, tile, 0);
+            }
+            DataSet ds = new DataSet();
+            int done = 0;
+            while (!pending.isEmpty() && !cancel) {
+                progressMonitor.subTask(tr("Downloading area {0} of {1}...", done + 1, progressMonitor.getTicksCount()));
+                Future<DataSet> future = ecs.take();
+                TileReader reader = pending.remove(future);
+                try {
+                    DataSet tileData = future.get();
+                    if (tileData == null)
+                        return null; // user canceled download
+                    ds.mergeFrom(tileData);
+                    progressMonitor.worked(1);
+                    done++;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cancel) {
+                        return null;
+                    } else if (isRejectedAsTooLarge(cause) && reader.splits < maxSplits && canSplit(reader.tile)) {
+                        Main.info(tr("Server rejected area {0}, splitting it into four areas.", reader.tile));
+                        progressMonitor.setTicksCount(progressMonitor.getTicksCount() + 3);
+                        for (Bounds part : split(reader.tile)) {
+                            submit(ecs, pending, part, reader.splits + 1);
+                        }
+                    } else if (cause instanceof OsmTransferException) {
+                        throw (OsmTransferException) cause;
+                    } else {
+                        throw new OsmTransferException(cause);
+                    }
+                }
+            }
+            return cancel ? null : ds;
+        } catch (InterruptedException e) {
+            throw new OsmTransferException(e);
+        } finally {
+            for (TileReader reader : pending.values()) {
+                reader.cancel();
+            }
+            exec.shutdownNow();
+            progressMonitor.finishTask();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        super.cancel();
+        synchronized (activeReaders) {
+            for (TileReader reader : activeReaders) {
+                reader.cancel();
+            }
+        }
+    }
+
+    /**
+     * Reader of a single tile, with its own connection to the server so that it can be canceled.
+     */
+    private class TileReader extends OsmServerReader implements Callable<DataSet> {
+        private final Bounds tile;
+        /** The number of times the initial tile has been split to get this one */
+        private final int splits;
+
+        TileReader(Bounds tile, int splits) {
+            this.tile = tile;
+            this.splits = splits;
+        }
+
+        @Override
+        public DataSet call() throws Exception {
+            return parseOsm(NullProgressMonitor.INSTANCE);
+        }
+
+        @Override
+        public DataSet parseOsm(ProgressMonitor progressMonitor) throws OsmTransferException {
+            try (InputStream in = getInputStream(getRequestForBbox(tile.getMinLon(), tile.getMinLat(), tile.getMaxLon(), tile.getMaxLat()),
+                    progressMonitor)) {
+                if (in == null)
+                    return null;
+                return TiledBoundingBoxDownloader.this.parseDataSet(in, progressMonitor);
+            } catch (IOException | IllegalDataException e) {
+                throw new OsmTransferException(e);
+            } finally {
+                activeReaders.remove(this);
+                activeConnection = null;
+            }
+        }
+    }
+}
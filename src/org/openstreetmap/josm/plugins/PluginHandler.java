@@ -14,6 +14,8 @@ import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.security.AccessController;
@@ -23,6 +25,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -34,9 +37,17 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
 import javax.swing.AbstractAction;
 import javax.swing.BorderFactory;
@@ -193,9 +204,18 @@ public final class PluginHandler {
      * ClassLoader that makes the addURL method of URLClassLoader public.
      *
      * Like URLClassLoader, but allows to add more URLs after construction.
+     * <p>
+     * The packages of the added jar files are indexed, so that classes and resources which are in none
+     * of them (e.g. the icons of JOSM itself, searched in all {@link PluginHandler#getResourceClassLoaders()})
+     * are not searched in every jar. If an URL cannot be indexed, all URLs are searched.
      */
     public static class DynamicURLClassLoader extends URLClassLoader {
 
+        /** packages of the added jars, i.e. the directories of their entries, {@code ""} for the root directory */
+        private final Set<String> packages = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        /** {@code true} if an URL could not be indexed */
+        private volatile boolean unindexed;
+
         /**
          * Constructs a new {@code DynamicURLClassLoader}.
          * @param urls the URLs from which to load classes and resources
@@ -203,12 +223,103 @@ public final class PluginHandler {
          */
         public DynamicURLClassLoader(URL[] urls, ClassLoader parent) {
             super(urls, parent);
+            unindexed = urls.length > 0;
         }
 
         @Override
         public void addURL(URL url) {
+            addURL(url, getPackages(url));
+        }
+
+        /**
+         * Adds an URL whose packages have already been computed by {@link #getPackages(URL)}.
+         * @param url the URL to add
+         * @param urlPackages the packages of the URL, or {@code null} if unknown
+         */
+        public void addURL(URL url, Set<String> urlPackages) {
+            if (urlPackages == null) {
+                unindexed = true;
+            } else {
+                packages.addAll(urlPackages);
+            }
             super.addURL(url);
         }
+
+        /**
+         * Returns the packages of a jar file, including the jars of its {@code Class-Path} manifest attribute.
+         * @param url the URL of the jar file
+         * @return the packages, i.e. the directories of the entries, {@code ""} for the root directory,
+         * or {@code null} if the URL is not a local jar file
+         */
+        public static Set<String> getPackages(URL url) {
+            Set<String> result = new HashSet<>();
+            return addPackages(url, result, new HashSet<String>()) ? result : null;
+        }
+
+        private static boolean addPackages(URL url, Set<String> result, Set<String> visited) {
+            if (!visited.add(url.toString())) {
+                return true;
+            }
+            File file;
+            try {
+                file = "file".equals(url.getProtocol()) ? new File(url.toURI()) : null;
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                file = null;
+            }
+            if (file == null || file.isDirectory()) {
+                return false;
+            } else if (!file.exists()) {
+                // ignored by the class loader
+                return true;
+            }
+            try (JarFile jar = new JarFile(file)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    int i = name.lastIndexOf('/');
+                    result.add(i < 0 ? "" : name.substring(0, i));
+                }
+                Manifest manifest = jar.getManifest();
+                String classPath = manifest == null ? null : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+                if (classPath != null) {
+                    for (String entry : classPath.trim().split("\\s+")) {
+                        if (!entry.isEmpty() && !addPackages(new URL(url, entry), result, visited)) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                Main.warn(tr("Failed to index jar file ''{0}'': {1}", file, e.toString()));
+                return false;
+            }
+        }
+
+        private boolean mayContain(String name) {
+            if (unindexed) {
+                return true;
+            }
+            int i = name.lastIndexOf('/');
+            return packages.contains(i < 0 ? "" : name.substring(0, i));
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (!mayContain(name.replace('.', '/') + ".class")) {
+                throw new ClassNotFoundException(name);
+            }
+            return super.findClass(name);
+        }
+
+        @Override
+        public URL findResource(String name) {
+            return mayContain(name) ? super.findResource(name) : null;
+        }
+
+        @Override
+        public Enumeration<URL> findResources(String name) throws IOException {
+            return mayContain(name) ? super.findResources(name) : Collections.<URL>emptyEnumeration();
+        }
     }
 
     /**
@@ -247,11 +358,15 @@ public final class PluginHandler {
     /**
      * Add here all ClassLoader whose resource should be searched.
      */
-    private static final List<ClassLoader> sources = new LinkedList<>();
+    private static final List<ClassLoader> sources = new CopyOnWriteArrayList<>();
     static {
         try {
             sources.add(ClassLoader.getSystemClassLoader());
-            sources.add(org.openstreetmap.josm.gui.MainApplication.class.getClassLoader());
+            // usually the same class loader, which would then be searched twice
+            ClassLoader mainClassLoader = org.openstreetmap.josm.gui.MainApplication.class.getClassLoader();
+            if (!sources.contains(mainClassLoader)) {
+                sources.add(mainClassLoader);
+            }
         } catch (SecurityException ex) {
             sources.add(ImageProvider.class.getClassLoader());
         }
@@ -677,17 +792,42 @@ public final class PluginHandler {
         File pluginDir = Main.pref.getPluginsDirectory();
         DynamicURLClassLoader cl = getPluginClassLoader();
 
+        List<URL> urls = new ArrayList<>();
         for (PluginInformation info : plugins) {
             if (info.libraries == null) {
                 continue;
             }
-            for (URL libUrl : info.libraries) {
-                cl.addURL(libUrl);
-            }
+            urls.addAll(info.libraries);
             File pluginJar = new File(pluginDir, info.name + ".jar");
             I18n.addTexts(pluginJar);
-            URL pluginJarUrl = Utils.fileToURL(pluginJar);
-            cl.addURL(pluginJarUrl);
+            urls.add(Utils.fileToURL(pluginJar));
+        }
+
+        // index the jar files in parallel, then add them in the plugin order
+        List<Future<Set<String>>> packages = new ArrayList<>(urls.size());
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(urls.size(), Runtime.getRuntime().availableProcessors())),
+                Utils.newThreadFactory("plugin-indexer-%d", Thread.NORM_PRIORITY));
+        try {
+            for (final URL url : urls) {
+                packages.add(pool.submit(new Callable<Set<String>>() {
+                    @Override
+                    public Set<String> call() {
+                        return DynamicURLClassLoader.getPackages(url);
+                    }
+                }));
+            }
+            for (int i = 0; i < urls.size(); i++) {
+                Set<String> urlPackages;
+                try {
+                    urlPackages = packages.get(i).get();
+                } catch (InterruptedException | ExecutionException e) {
+                    Main.error(e);
+                    urlPackages = null;
+                }
+                cl.addURL(urls.get(i), urlPackages);
+            }
+        } finally {
+            pool.shutdown();
         }
     }
 
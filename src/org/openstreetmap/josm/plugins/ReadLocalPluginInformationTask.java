@@ -12,11 +12,17 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.openstreetmap.josm.Main;
 import org.openstreetmap.josm.gui.PleaseWaitRunnable;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.io.OsmTransferException;
+import org.openstreetmap.josm.tools.Utils;
 import org.xml.sax.SAXException;
 
 /**
@@ -35,6 +41,8 @@ import org.xml.sax.SAXException;
  */
 public class ReadLocalPluginInformationTask extends PleaseWaitRunnable {
     private Map<String, PluginInformation> availablePlugins;
+    /** plugin information read in advance from the plugin files, see {@link #scanPluginFiles} */
+    private final Map<File, PluginInformation> readPluginFiles = new HashMap<>();
     private boolean canceled;
 
     /**
@@ -59,10 +67,14 @@ public class ReadLocalPluginInformationTask extends PleaseWaitRunnable {
     protected void finish() {}
 
     protected void processJarFile(File f, String pluginName) throws PluginException {
-        PluginInformation info = new PluginInformation(
+        PluginInformation info = readPluginFiles.remove(f);
+        processJarFile(info != null ? info : new PluginInformation(
                 f,
                 pluginName
-        );
+        ));
+    }
+
+    private void processJarFile(PluginInformation info) {
         if (!availablePlugins.containsKey(info.getName())) {
             info.updateLocalInfo(info);
             availablePlugins.put(info.getName(), info);
@@ -72,6 +84,10 @@ public class ReadLocalPluginInformationTask extends PleaseWaitRunnable {
         }
     }
 
+    private static String getPluginName(String fname) {
+        return fname.substring(0, fname.length() - (fname.endsWith(".jar.new") ? 8 : 4));
+    }
+
     private File[] listFiles(File pluginsDirectory, final String regex) {
         return pluginsDirectory.listFiles(
                 new FilenameFilter() {
@@ -115,22 +131,44 @@ public class ReadLocalPluginInformationTask extends PleaseWaitRunnable {
             return;
         monitor.subTask(tr("Processing plugin files..."));
         monitor.setTicksCount(pluginFiles.length);
-        for (File f: pluginFiles) {
-            String fname = f.getName();
-            monitor.setCustomText(tr("Processing file ''{0}''", fname));
-            try {
-                if (fname.endsWith(".jar")) {
-                    String pluginName = fname.substring(0, fname.length() - 4);
-                    processJarFile(f, pluginName);
-                } else if (fname.endsWith(".jar.new")) {
-                    String pluginName = fname.substring(0, fname.length() - 8);
-                    processJarFile(f, pluginName);
+        // read the manifests in parallel, then process them in the order of the files
+        List<Future<PluginInformation>> infos = new ArrayList<>(pluginFiles.length);
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(pluginFiles.length, Runtime.getRuntime().availableProcessors())),
+                Utils.newThreadFactory("plugin-manifest-reader-%d", Thread.NORM_PRIORITY));
+        try {
+            for (final File f: pluginFiles) {
+                infos.add(pool.submit(new Callable<PluginInformation>() {
+                    @Override
+                    public PluginInformation call() throws PluginException {
+                        return new PluginInformation(f, getPluginName(f.getName()));
+                    }
+                }));
+            }
+            for (int i = 0; i < pluginFiles.length; i++) {
+                File f = pluginFiles[i];
+                String fname = f.getName();
+                monitor.setCustomText(tr("Processing file ''{0}''", fname));
+                try {
+                    readPluginFiles.put(f, infos.get(i).get());
+                    processJarFile(f, getPluginName(fname));
+                } catch (ExecutionException e) {
+                    Main.warn("PluginException: "+e.getCause().getMessage());
+                    Main.warn(tr("Failed to scan file ''{0}'' for plugin information. Skipping.", fname));
+                } catch (PluginException e) {
+                    Main.warn("PluginException: "+e.getMessage());
+                    Main.warn(tr("Failed to scan file ''{0}'' for plugin information. Skipping.", fname));
+                } catch (InterruptedException e) {
+                    Main.warn(tr("Interrupted while scanning file ''{0}'' for plugin information.", fname));
+                    Thread.currentThread().interrupt();
+                    canceled = true;
+                    return;
                 }
-            } catch (PluginException e) {
-                Main.warn("PluginException: "+e.getMessage());
-                Main.warn(tr("Failed to scan file ''{0}'' for plugin information. Skipping.", fname));
+                monitor.worked(1);
             }
-            monitor.worked(1);
+        } finally {
+            pool.shutdownNow();
+            readPluginFiles.clear();
         }
     }
 
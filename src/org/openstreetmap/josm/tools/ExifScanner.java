@@ -0,0 +1,620 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.gui.progress.ProgressMonitor;
+import org.openstreetmap.josm.tools.date.PrimaryDateParser;
+
+/**
+ * Fast EXIF reader for bulk photo import.
+ * <p>
+ * Unlike {@link ExifReader}, this class does not build the complete metadata tree of the image.
+ * It only reads the JPEG marker headers and the APP1 (EXIF) segment with positioned reads, then parses
+ * the few tags used by JOSM: date/time, orientation and the GPS position, direction, speed, altitude and time.
+ * Several files are scanned in parallel.
+ */
+public final class ExifScanner {
+
+    private static final Pair<Integer, ExecutorService> THREAD_POOL =
+            Utils.newThreadPool("geoimage.exif.numberOfThreads", "exif-scanner-%d", Thread.NORM_PRIORITY);
+
+    private static final int MARKER_SOI = 0xD8;
+    private static final int MARKER_SOS = 0xDA;
+    private static final int MARKER_EOI = 0xD9;
+    private static final int MARKER_APP1 = 0xE1;
+
+    private static final int TAG_ORIENTATION = 0x0112;
+    private static final int TAG_DATETIME = 0x0132;
+    private static final int TAG_EXIF_SUB_IFD_OFFSET = 0x8769;
+    private static final int TAG_GPS_INFO_OFFSET = 0x8825;
+    private static final int TAG_DATETIME_ORIGINAL = 0x9003;
+    private static final int TAG_DATETIME_DIGITIZED = 0x9004;
+
+    private static final int TAG_GPS_LATITUDE_REF = 0x01;
+    private static final int TAG_GPS_LATITUDE = 0x02;
+    private static final int TAG_GPS_LONGITUDE_REF = 0x03;
+    private static final int TAG_GPS_LONGITUDE = 0x04;
+    private static final int TAG_GPS_ALTITUDE_REF = 0x05;
+    private static final int TAG_GPS_ALTITUDE = 0x06;
+    private static final int TAG_GPS_TIME_STAMP = 0x07;
+    private static final int TAG_GPS_SPEED_REF = 0x0C;
+    private static final int TAG_GPS_SPEED = 0x0D;
+    private static final int TAG_GPS_IMG_DIRECTION = 0x11;
+    private static final int TAG_GPS_DATE_STAMP = 0x1D;
+
+    private static final int[] TYPE_SIZES = {0, 1, 1, 2, 4, 8, 1, 1, 2, 4, 8, 4, 8};
+
+    /**
+     * EXIF information of a single image, as extracted by {@link ExifScanner}.
+     */
+    public static final class ExifInfo {
+        private final File file;
+        private Date time;
+        private Integer orientation;
+        private LatLon latLon;
+        private Double direction;
+        private Double speed;
+        private Double elevation;
+        private Date gpsTime;
+
+        ExifInfo(File file) {
+            this.file = file;
+        }
+
+        /**
+         * Returns the scanned file.
+         * @return the scanned file
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Returns the date/time of the image, see {@link ExifReader#readTime(File)}.
+         * @return the date/time of the image, or {@code null}
+         */
+        public Date getTime() {
+            return time;
+        }
+
+        /**
+         * Returns the image orientation, see {@link ExifReader#readOrientation(File)}.
+         * @return the image orientation, or {@code null}
+         */
+        public Integer getOrientation() {
+            return orientation;
+        }
+
+        /**
+         * Returns the GPS position, see {@link ExifReader#readLatLon(File)}.
+         * @return the GPS position, or {@code null}
+         */
+        public LatLon getLatLon() {
+            return latLon;
+        }
+
+        /**
+         * Returns the GPS image direction, see {@link ExifReader#readDirection(File)}.
+         * @return the direction in degrees, or {@code null}
+         */
+        public Double getDirection() {
+            return direction;
+        }
+
+        /**
+         * Returns the GPS speed.
+         * @return the speed in km/h, or {@code null}
+         */
+        public Double getSpeed() {
+            return speed;
+        }
+
+        /**
+         * Returns the GPS altitude.
+         * @return the elevation in meters, or {@code null}
+         */
+        public Double getElevation() {
+            return elevation;
+        }
+
+        /**
+         * Returns the GPS time. If the GPS date stamp is missing, the date is taken from {@link #getTime()}.
+         * @return the GPS time, or {@code null}
+         */
+        public Date getGpsTime() {
+            return gpsTime;
+        }
+    }
+
+    private ExifScanner() {
+        // Hide default constructor for utils classes
+    }
+
+    /**
+     * Scans the given files in parallel.
+     * @param files JPEG files
+     * @param monitor progress monitor, advanced by one tick per file. Can be {@code null}
+     * @return the EXIF information, in the same order as {@code files}. Files that cannot be read
+     * get an {@link ExifInfo} without any information. The list is truncated if the monitor is canceled
+     */
+    public static List<ExifInfo> scan(Collection<File> files, ProgressMonitor monitor) {
+        if (monitor == null) {
+            monitor = NullProgressMonitor.INSTANCE;
+        }
+        List<ExifInfo> result = new ArrayList<>(files.size());
+        if (THREAD_POOL.b == null) {
+            PrimaryDateParser dateParser = new PrimaryDateParser();
+            for (File f : files) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
+                result.add(scan(f, dateParser));
+                monitor.worked(1);
+            }
+            return result;
+        }
+
+        // Chunks of consecutive files, so that each task reuses one date parser
+        List<File> fileList = new ArrayList<>(files);
+        int chunkSize = Math.max(1, Math.min(64, fileList.size() / THREAD_POOL.a / 4));
+        List<Future<List<ExifInfo>>> futures = new ArrayList<>();
+        for (int i = 0; i < fileList.size(); i += chunkSize) {
+            final List<File> chunk = fileList.subList(i, Math.min(fileList.size(), i + chunkSize));
+            futures.add(THREAD_POOL.b.submit(new Callable<List<ExifInfo>>() {
+                @Override
+                public List<ExifInfo> call() {
+                    PrimaryDateParser dateParser = new PrimaryDateParser();
+                    List<ExifInfo> infos = new ArrayList<>(chunk.size());
+                    for (File f : chunk) {
+                        infos.add(scan(f, dateParser));
+                    }
+                    return infos;
+                }
+            }));
+        }
+        try {
+            for (Future<List<ExifInfo>> future : futures) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
+                List<ExifInfo> infos = future.get();
+                result.addAll(infos);
+                monitor.worked(infos.size());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            Main.error(e);
+        } finally {
+            for (Future<List<ExifInfo>> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scans a single file.
+     * @param file JPEG file
+     * @return the EXIF information. Empty if the file cannot be read
+     */
+    public static ExifInfo scan(File file) {
+        return scan(file, new PrimaryDateParser());
+    }
+
+    private static ExifInfo scan(File file, PrimaryDateParser dateParser) {
+        ExifInfo info = new ExifInfo(file);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer exif = readExifSegment(channel);
+            if (exif != null) {
+                new TiffParser(exif, info, dateParser).parse();
+            }
+        } catch (IOException | RuntimeException e) {
+            Main.warn("Error reading EXIF from file " + file + ": " + e);
+        }
+        return info;
+    }
+
+    /**
+     * Walks the JPEG marker headers until the EXIF APP1 segment is found.
+     * @param channel file channel
+     * @return the TIFF structure of the APP1 segment (without the {@code Exif\0\0} preamble), or {@code null}
+     * @throws IOException if an I/O error occurs
+     */
+    private static ByteBuffer readExifSegment(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        long pos = 0;
+        if (!readFully(channel, header, pos, 2) || (header.get(0) & 0xFF) != 0xFF || (header.get(1) & 0xFF) != MARKER_SOI) {
+            return null;
+        }
+        pos += 2;
+        while (readFully(channel, header, pos, 4)) {
+            if ((header.get(0) & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = header.get(1) & 0xFF;
+            if (marker == 0xFF) {
+                // fill byte
+                pos++;
+                continue;
+            }
+            if (marker == MARKER_SOS || marker == MARKER_EOI) {
+                return null;
+            }
+            int length = header.getShort(2) & 0xFFFF;
+            if (length < 2) {
+                return null;
+            }
+            if (marker == MARKER_APP1 && length > 8) {
+                ByteBuffer segment = ByteBuffer.allocate(length - 2);
+                if (!readFully(channel, segment, pos + 4, length - 2)) {
+                    return null;
+                }
+                if (segment.get(0) == 'E' && segment.get(1) == 'x' && segment.get(2) == 'i' && segment.get(3) == 'f'
+                        && segment.get(4) == 0 && segment.get(5) == 0) {
+                    segment.position(6);
+                    return segment.slice();
+                }
+            }
+            pos += 2 + length;
+        }
+        return null;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position, int length) throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Minimal TIFF/EXIF parser extracting only the tags needed by JOSM.
+     */
+    private static final class TiffParser {
+        private final ByteBuffer buf;
+        private final ExifInfo info;
+        private final PrimaryDateParser dateParser;
+
+        private String dateTime;
+        private String dateTimeOriginal;
+        private String dateTimeDigitized;
+        private String latRef;
+        private double[] lat;
+        private String lonRef;
+        private double[] lon;
+        private int altitudeRef;
+        private double[] altitude;
+        private double[] timeStamp;
+        private String speedRef;
+        private double[] speed;
+        private double[] direction;
+        private String dateStamp;
+
+        TiffParser(ByteBuffer buf, ExifInfo info, PrimaryDateParser dateParser) {
+            this.buf = buf;
+            this.info = info;
+            this.dateParser = dateParser;
+        }
+
+        void parse() {
+            if (buf.limit() < 8) {
+                return;
+            }
+            if (buf.get(0) == 'I' && buf.get(1) == 'I') {
+                buf.order(ByteOrder.LITTLE_ENDIAN);
+            } else if (buf.get(0) == 'M' && buf.get(1) == 'M') {
+                buf.order(ByteOrder.BIG_ENDIAN);
+            } else {
+                return;
+            }
+            int ifd0 = buf.getInt(4);
+            int[] subIfds = readIfd0(ifd0);
+            if (subIfds[0] > 0) {
+                readExifIfd(subIfds[0]);
+            }
+            if (subIfds[1] > 0) {
+                readGpsIfd(subIfds[1]);
+            }
+            computeResults();
+        }
+
+        private int[] readIfd0(int offset) {
+            int[] subIfds = new int[2];
+            int count = entryCount(offset);
+            for (int i = 0; i < count; i++) {
+                int entry = offset + 2 + 12 * i;
+                switch (buf.getShort(entry) & 0xFFFF) {
+                case TAG_ORIENTATION:
+                    info.orientation = (int) readLong(entry);
+                    break;
+                case TAG_DATETIME:
+                    dateTime = readString(entry);
+                    break;
+                case TAG_EXIF_SUB_IFD_OFFSET:
+                    subIfds[0] = (int) readLong(entry);
+                    break;
+                case TAG_GPS_INFO_OFFSET:
+                    subIfds[1] = (int) readLong(entry);
+                    break;
+                default:
+                    // not needed
+                }
+            }
+            return subIfds;
+        }
+
+        private void readExifIfd(int offset) {
+            int count = entryCount(offset);
+            for (int i = 0; i < count; i++) {
+                int entry = offset + 2 + 12 * i;
+                switch (buf.getShort(entry) & 0xFFFF) {
+                case TAG_DATETIME_ORIGINAL:
+                    dateTimeOriginal = readString(entry);
+                    break;
+                case TAG_DATETIME_DIGITIZED:
+                    dateTimeDigitized = readString(entry);
+                    break;
+                default:
+                    // not needed
+                }
+            }
+        }
+
+        private void readGpsIfd(int offset) {
+            int count = entryCount(offset);
+            for (int i = 0; i < count; i++) {
+                int entry = offset + 2 + 12 * i;
+                switch (buf.getShort(entry) & 0xFFFF) {
+                case TAG_GPS_LATITUDE_REF:
+                    latRef = readString(entry);
+                    break;
+                case TAG_GPS_LATITUDE:
+                    lat = readNumbers(entry);
+                    break;
+                case TAG_GPS_LONGITUDE_REF:
+                    lonRef = readString(entry);
+                    break;
+                case TAG_GPS_LONGITUDE:
+                    lon = readNumbers(entry);
+                    break;
+                case TAG_GPS_ALTITUDE_REF:
+                    altitudeRef = (int) readLong(entry);
+                    break;
+                case TAG_GPS_ALTITUDE:
+                    altitude = readNumbers(entry);
+                    break;
+                case TAG_GPS_TIME_STAMP:
+                    timeStamp = readNumbers(entry);
+                    break;
+                case TAG_GPS_SPEED_REF:
+                    speedRef = readString(entry);
+                    break;
+                case TAG_GPS_SPEED:
+                    speed = readNumbers(entry);
+                    break;
+                case TAG_GPS_IMG_DIRECTION:
+                    direction = readNumbers(entry);
+                    break;
+                case TAG_GPS_DATE_STAMP:
+                    dateStamp = readString(entry);
+                    break;
+                default:
+                    // not needed
+                }
+            }
+        }
+
+        private int entryCount(int offset) {
+            if (offset < 0 || offset + 2 > buf.limit()) {
+                return 0;
+            }
+            int count = buf.getShort(offset) & 0xFFFF;
+            // ignore truncated directories
+            return Math.max(0, Math.min(count, (buf.limit() - offset - 2) / 12));
+        }
+
+        private int type(int entry) {
+            int type = buf.getShort(entry + 2) & 0xFFFF;
+            return type < TYPE_SIZES.length ? type : 0;
+        }
+
+        private int valueOffset(int entry, int type, int count) {
+            long size = (long) TYPE_SIZES[type] * count;
+            if (size <= 4) {
+                return entry + 8;
+            }
+            int offset = buf.getInt(entry + 8);
+            return offset >= 0 && offset + size <= buf.limit() ? offset : -1;
+        }
+
+        private long readLong(int entry) {
+            int type = type(entry);
+            switch (type) {
+            case 1: case 6: case 7:
+                return buf.get(entry + 8) & 0xFF;
+            case 3: case 8:
+                return buf.getShort(entry + 8) & 0xFFFF;
+            case 4: case 9:
+                return buf.getInt(entry + 8) & 0xFFFFFFFFL;
+            default:
+                return 0;
+            }
+        }
+
+        private String readString(int entry) {
+            int type = type(entry);
+            int count = buf.getInt(entry + 4);
+            if ((type != 2 && type != 7) || count <= 0) {
+                return null;
+            }
+            int offset = valueOffset(entry, type, count);
+            if (offset < 0) {
+                return null;
+            }
+            int len = 0;
+            while (len < count && buf.get(offset + len) != 0) {
+                len++;
+            }
+            byte[] bytes = new byte[len];
+            for (int i = 0; i < len; i++) {
+                bytes[i] = buf.get(offset + i);
+            }
+            return new String(bytes, StandardCharsets.ISO_8859_1).trim();
+        }
+
+        private double[] readNumbers(int entry) {
+            int type = type(entry);
+            int count = buf.getInt(entry + 4);
+            if (type == 0 || count <= 0 || count > 16) {
+                return null;
+            }
+            int offset = valueOffset(entry, type, count);
+            if (offset < 0) {
+                return null;
+            }
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                int p = offset + i * TYPE_SIZES[type];
+                switch (type) {
+                case 1: case 7:
+                    values[i] = buf.get(p) & 0xFF;
+                    break;
+                case 3:
+                    values[i] = buf.getShort(p) & 0xFFFF;
+                    break;
+                case 4:
+                    values[i] = buf.getInt(p) & 0xFFFFFFFFL;
+                    break;
+                case 5:
+                    values[i] = (double) (buf.getInt(p) & 0xFFFFFFFFL) / (buf.getInt(p + 4) & 0xFFFFFFFFL);
+                    break;
+                case 9:
+                    values[i] = buf.getInt(p);
+                    break;
+                case 10:
+                    values[i] = (double) buf.getInt(p) / buf.getInt(p + 4);
+                    break;
+                case 11:
+                    values[i] = buf.getFloat(p);
+                    break;
+                case 12:
+                    values[i] = buf.getDouble(p);
+                    break;
+                default:
+                    return null;
+                }
+            }
+            return values;
+        }
+
+        private void computeResults() {
+            info.time = parseTime();
+
+            if (lat != null && lon != null) {
+                try {
+                    info.latLon = new LatLon(readAxis(lat, latRef, 'S'), readAxis(lon, lonRef, 'W'));
+                } catch (IllegalArgumentException e) {
+                    Main.error("Error reading EXIF from file: "+e);
+                }
+            }
+            if (direction != null) {
+                info.direction = direction[0];
+            }
+            if (speed != null) {
+                double s = speed[0];
+                if ("M".equalsIgnoreCase(speedRef)) {
+                    // miles per hour
+                    s *= 1.609344;
+                } else if ("N".equalsIgnoreCase(speedRef)) {
+                    // knots == nautical miles per hour
+                    s *= 1.852;
+                }
+                // default is K (km/h)
+                info.speed = s;
+            }
+            if (altitude != null) {
+                info.elevation = altitudeRef == 1 ? -altitude[0] : altitude[0];
+            }
+            if (timeStamp != null && timeStamp.length >= 3) {
+                Calendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+                if (dateStamp != null && dateStamp.matches("^\\d+:\\d+:\\d+$")) {
+                    String[] dateStampComps = dateStamp.split(":");
+                    cal.set(Calendar.YEAR, Integer.parseInt(dateStampComps[0]));
+                    cal.set(Calendar.MONTH, Integer.parseInt(dateStampComps[1]) - 1);
+                    cal.set(Calendar.DAY_OF_MONTH, Integer.parseInt(dateStampComps[2]));
+                } else if (info.time != null) {
+                    // No GPS date stamp in EXIF data. Copy it from EXIF time.
+                    cal.setTime(info.time);
+                }
+                cal.set(Calendar.HOUR_OF_DAY, (int) timeStamp[0]);
+                cal.set(Calendar.MINUTE, (int) timeStamp[1]);
+                cal.set(Calendar.SECOND, (int) timeStamp[2]);
+                info.gpsTime = cal.getTime();
+            }
+        }
+
+        private Date parseTime() {
+            // DateTimeOriginal is preferred, then DateTimeDigitized, then DateTime (same order as ExifReader#readTime)
+            String dateStr = isValidTime(dateTimeOriginal) ? dateTimeOriginal
+                    : dateTimeDigitized != null ? dateTimeDigitized : dateTime;
+            if (dateStr != null) {
+                try {
+                    return dateParser.parse(dateStr.replace('/', ':')); // workaround for HTC Sensation bug, see #7228
+                } catch (ParseException e) {
+                    Main.debug(e.getMessage());
+                }
+            }
+            return null;
+        }
+
+        private static boolean isValidTime(String s) {
+            return s != null && !s.isEmpty() && Character.isDigit(s.charAt(0));
+        }
+
+        private static double readAxis(double[] components, String ref, char cRef) {
+            double value;
+            if (components.length >= 3) {
+                double deg = components[0];
+                double min = components[1];
+                double sec = components[2];
+
+                if (Double.isNaN(deg) && Double.isNaN(min) && Double.isNaN(sec))
+                    throw new IllegalArgumentException("deg, min and sec are NaN");
+
+                value = (Double.isNaN(deg) ? 0 : deg + (Double.isNaN(min) ? 0 : (min / 60)) + (Double.isNaN(sec) ? 0 : (sec / 3600)));
+            } else {
+                // Nonstandard, created by some cameras -> #5220
+                value = components[0];
+            }
+            if (ref != null && !ref.isEmpty() && ref.charAt(0) == cRef) {
+                value = -value;
+            }
+            return value;
+        }
+    }
+}
@@ -61,8 +61,7 @@ public final class Geometry {
     public static Set<Node> addIntersections(List<Way> ways, boolean test, List<Command> cmds) {
 
         int n = ways.size();
-        @SuppressWarnings("unchecked")
-        List<Node>[] newNodes = new ArrayList[n];
+        SplitWay[] splitWays = new SplitWay[n];
         BBox[] wayBounds = new BBox[n];
         boolean[] changedWays = new boolean[n];
 
@@ -70,8 +69,8 @@ public final class Geometry {
 
         //copy node arrays for local usage.
         for (int pos = 0; pos < n; pos++) {
-            newNodes[pos] = new ArrayList<>(ways.get(pos).getNodes());
-            wayBounds[pos] = getNodesBounds(newNodes[pos]);
+            splitWays[pos] = new SplitWay(ways.get(pos).getNodes());
+            wayBounds[pos] = getNodesBounds(splitWays[pos].nodes);
             changedWays[pos] = false;
         }
 
@@ -85,105 +84,126 @@ public final class Geometry {
                     continue;
                 }
 
-                List<Node> way1Nodes = newNodes[seg1Way];
-                List<Node> way2Nodes = newNodes[seg2Way];
+                SplitWay way1 = splitWays[seg1Way];
+                SplitWay way2 = splitWays[seg2Way];
+                List<Node> way1Nodes = way1.nodes;
+                List<Node> way2Nodes = way2.nodes;
+                boolean sameWay = seg1Way == seg2Way;
 
                 //iterate over primary segmemt
+                int seg1Orig = 0;
                 for (int seg1Pos = 0; seg1Pos + 1 < way1Nodes.size(); seg1Pos++) {
+                    while (way1.getStart(seg1Orig + 1) <= seg1Pos) {
+                        seg1Orig++;
+                    }
+                    int seg1Splits = 0;
 
-                    //iterate over secondary segment
-                    int seg2Start = seg1Way != seg2Way ? 0 : seg1Pos + 2; //skip the adjacent segment
-
-                    for (int seg2Pos = seg2Start; seg2Pos + 1 < way2Nodes.size(); seg2Pos++) {
-
-                        //need to get them again every time, because other segments may be changed
-                        Node seg1Node1 = way1Nodes.get(seg1Pos);
-                        Node seg1Node2 = way1Nodes.get(seg1Pos + 1);
-                        Node seg2Node1 = way2Nodes.get(seg2Pos);
-                        Node seg2Node2 = way2Nodes.get(seg2Pos + 1);
-
-                        int commonCount = 0;
-                        //test if we have common nodes to add.
-                        if (seg1Node1 == seg2Node1 || seg1Node1 == seg2Node2) {
-                            commonCount++;
-
-                            if (seg1Way == seg2Way &&
-                                    seg1Pos == 0 &&
-                                    seg2Pos == way2Nodes.size() -2) {
-                                //do not add - this is first and last segment of the same way.
-                            } else {
-                                intersectionNodes.add(seg1Node1);
-                            }
+                    //iterate over secondary segments whose bounding box intersects the primary segment,
+                    //the others can neither share a node nor intersect
+                    for (int seg2Orig : way2.getCandidates(way1Nodes.get(seg1Pos), way1Nodes.get(seg1Pos + 1))) {
+                        if (sameWay && seg2Orig < seg1Orig) {
+                            continue;
                         }
+                        //skip the adjacent segment, taking into account the nodes already added to the primary one
+                        int seg2Offset = sameWay ? Math.max(0, seg1Pos + 2 + seg1Splits - way2.getStart(seg2Orig)) : 0;
+
+                        //iterate over the parts of the original secondary segment
+                        for (; way2.getStart(seg2Orig) + seg2Offset < way2.getStart(seg2Orig + 1); seg2Offset++) {
+                            int seg2Pos = way2.getStart(seg2Orig) + seg2Offset;
+
+                            //need to get them again every time, because other segments may be changed
+                            Node seg1Node1 = way1Nodes.get(seg1Pos);
+                            Node seg1Node2 = way1Nodes.get(seg1Pos + 1);
+                            Node seg2Node1 = way2Nodes.get(seg2Pos);
+                            Node seg2Node2 = way2Nodes.get(seg2Pos + 1);
+
+                            int commonCount = 0;
+                            //test if we have common nodes to add.
+                            if (seg1Node1 == seg2Node1 || seg1Node1 == seg2Node2) {
+                                commonCount++;
+
+                                if (sameWay &&
+                                        seg1Pos == 0 &&
+                                        seg2Pos == way2Nodes.size() -2) {
+                                    //do not add - this is first and last segment of the same way.
+                                } else {
+                                    intersectionNodes.add(seg1Node1);
+                                }
+                            }
 
-                        if (seg1Node2 == seg2Node1 || seg1Node2 == seg2Node2) {
-                            commonCount++;
+                            if (seg1Node2 == seg2Node1 || seg1Node2 == seg2Node2) {
+                                commonCount++;
 
-                            intersectionNodes.add(seg1Node2);
-                        }
+                                intersectionNodes.add(seg1Node2);
+                            }
 
-                        //no common nodes - find intersection
-                        if (commonCount == 0) {
-                            EastNorth intersection = getSegmentSegmentIntersection(
-                                    seg1Node1.getEastNorth(), seg1Node2.getEastNorth(),
-                                    seg2Node1.getEastNorth(), seg2Node2.getEastNorth());
+                            //no common nodes - find intersection
+                            if (commonCount == 0) {
+                                EastNorth intersection = getSegmentSegmentIntersection(
+                                        seg1Node1.getEastNorth(), seg1Node2.getEastNorth(),
+                                        seg2Node1.getEastNorth(), seg2Node2.getEastNorth());
 
-                            if (intersection != null) {
-                                if (test) {
-                                    intersectionNodes.add(seg2Node1);
-                                    return intersectionNodes;
-                                }
-
-                                Node newNode = new Node(Main.getProjection().eastNorth2latlon(intersection));
-                                Node intNode = newNode;
-                                boolean insertInSeg1 = false;
-                                boolean insertInSeg2 = false;
-                                //find if the intersection point is at end point of one of the segments, if so use that point
-
-                                //segment 1
-                                if (coordsComparator.compare(newNode, seg1Node1) == 0) {
-                                    intNode = seg1Node1;
-                                } else if (coordsComparator.compare(newNode, seg1Node2) == 0) {
-                                    intNode = seg1Node2;
-                                } else {
-                                    insertInSeg1 = true;
-                                }
+                                if (intersection != null) {
+                                    if (test) {
+                                        intersectionNodes.add(seg2Node1);
+                                        return intersectionNodes;
+                                    }
 
-                                //segment 2
-                                if (coordsComparator.compare(newNode, seg2Node1) == 0) {
-                                    intNode = seg2Node1;
-                                } else if (coordsComparator.compare(newNode, seg2Node2) == 0) {
-                                    intNode = seg2Node2;
-                                } else {
-                                    insertInSeg2 = true;
-                                }
+                                    Node newNode = new Node(Main.getProjection().eastNorth2latlon(intersection));
+                                    Node intNode = newNode;
+                                    boolean insertInSeg1 = false;
+                                    boolean insertInSeg2 = false;
+                                    //find if the intersection point is at end point of one of the segments, if so use that point
+
+                                    //segment 1
+                                    if (coordsComparator.compare(newNode, seg1Node1) == 0) {
+                                        intNode = seg1Node1;
+                                    } else if (coordsComparator.compare(newNode, seg1Node2) == 0) {
+                                        intNode = seg1Node2;
+                                    } else {
+                                        insertInSeg1 = true;
+                                    }
 
-                                if (insertInSeg1) {
-                                    way1Nodes.add(seg1Pos +1, intNode);
-                                    changedWays[seg1Way] = true;
+                                    //segment 2
+                                    if (coordsComparator.compare(newNode, seg2Node1) == 0) {
+                                        intNode = seg2Node1;
+                                    } else if (coordsComparator.compare(newNode, seg2Node2) == 0) {
+                                        intNode = seg2Node2;
+                                    } else {
+                                        insertInSeg2 = true;
+                                    }
 
-                                    //fix seg2 position, as indexes have changed, seg2Pos is always bigger than seg1Pos on the same segment.
-                                    if (seg2Way == seg1Way) {
-                                        seg2Pos++;
+                                    if (insertInSeg1) {
+                                        way1.insert(seg1Pos + 1, seg1Orig, intNode);
+                                        changedWays[seg1Way] = true;
+
+                                        //fix seg2 position, as indexes have changed, seg2Pos is always bigger than seg1Pos on the same segment.
+                                        //the start of later original segments is already moved.
+                                        if (sameWay) {
+                                            seg1Splits++;
+                                            if (seg2Orig == seg1Orig) {
+                                                seg2Offset++;
+                                            }
+                                        }
                                     }
-                                }
 
-                                if (insertInSeg2) {
-                                    way2Nodes.add(seg2Pos +1, intNode);
-                                    changedWays[seg2Way] = true;
+                                    if (insertInSeg2) {
+                                        way2.insert(way2.getStart(seg2Orig) + seg2Offset + 1, seg2Orig, intNode);
+                                        changedWays[seg2Way] = true;
 
-                                    //Do not need to compare again to already split segment
-                                    seg2Pos++;
-                                }
+                                        //Do not need to compare again to already split segment
+                                        seg2Offset++;
+                                    }
 
-                                intersectionNodes.add(intNode);
+                                    intersectionNodes.add(intNode);
 
-                                if (intNode == newNode) {
-                                    cmds.add(new AddCommand(intNode));
+                                    if (intNode == newNode) {
+                                        cmds.add(new AddCommand(intNode));
+                                    }
                                 }
-                            }
-                        } else if (test && !intersectionNodes.isEmpty())
-                            return intersectionNodes;
+                            } else if (test && !intersectionNodes.isEmpty())
+                                return intersectionNodes;
+                        }
                     }
                 }
             }
@@ -197,7 +217,7 @@ public final class Geometry {
 
             Way way = ways.get(pos);
             Way newWay = new Way(way);
-            newWay.setNodes(newNodes[pos]);
+            newWay.setNodes(splitWays[pos].nodes);
 
             cmds.add(new ChangeCommand(way, newWay));
         }
@@ -205,6 +225,64 @@ public final class Geometry {
         return intersectionNodes;
     }
 
+    /**
+     * The nodes of a way, to which intersection nodes are added. Parts of the original segments are found
+     * through a {@link SegmentIndex} of the original segments.
+     */
+    private static final class SplitWay {
+        private final List<Node> nodes;
+        private final int originalSegments;
+        /** Fenwick tree of the number of nodes added to each original segment */
+        private final int[] added;
+        private SegmentIndex index;
+
+        SplitWay(List<Node> nodes) {
+            this.nodes = new ArrayList<>(nodes);
+            this.originalSegments = Math.max(0, nodes.size() - 1);
+            this.added = new int[originalSegments + 1];
+        }
+
+        /**
+         * Returns the position of the first node of the given original segment, or the position of the last node
+         * for {@code originalSegments}.
+         */
+        int getStart(int segment) {
+            int start = segment;
+            for (int i = segment; i > 0; i -= i & -i) {
+                start += added[i];
+            }
+            return start;
+        }
+
+        void insert(int pos, int segment, Node node) {
+            nodes.add(pos, node);
+            for (int i = segment + 1; i <= originalSegments; i += i & -i) {
+                added[i]++;
+            }
+        }
+
+        /**
+         * Returns the original segments whose bounding box intersects the one of the segment between the given nodes.
+         */
+        int[] getCandidates(Node n1, Node n2) {
+            if (index == null) {
+                double[] x = new double[originalSegments + 1];
+                double[] y = new double[originalSegments + 1];
+                for (int i = 0; i <= originalSegments; i++) {
+                    EastNorth en = nodes.get(getStart(i)).getEastNorth();
+                    x[i] = en == null ? Double.NaN : en.east();
+                    y[i] = en == null ? Double.NaN : en.north();
+                }
+                index = new SegmentIndex(x, y);
+            }
+            EastNorth en1 = n1.getEastNorth();
+            EastNorth en2 = n2.getEastNorth();
+            if (en1 == null || en2 == null)
+                return index.query(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+            return index.query(en1.east(), en1.north(), en2.east(), en2.north());
+        }
+    }
+
     private static BBox getNodesBounds(List<Node> nodes) {
 
         BBox bounds = new BBox(nodes.get(0));
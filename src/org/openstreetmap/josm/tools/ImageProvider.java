@@ -623,6 +623,25 @@ public class ImageProvider {
         }
     }
 
+    /**
+     * Load the image in a background thread, even if it is a local file.
+     *
+     * Unlike {@link #getInBackground(ImageResourceCallback)}, the callback is never called
+     * before this method returns. This is meant for loading many icons without delaying
+     * the caller, e.g. the icons of the tagging presets at startup.
+     *
+     * @param callback a callback. It is called in the background thread, when the image is ready.
+     * If no image is available, a null value is returned to callback (just like {@link #get}).
+     */
+    public void getLaterInBackground(final ImageResourceCallback callback) {
+        IMAGE_FETCHER.submit(new Runnable() {
+            @Override
+            public void run() {
+                callback.finished(getResource());
+            }
+        });
+    }
+
     /**
      * Load an image with a given file name.
      *
@@ -0,0 +1,227 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.io.StartupCache;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * The elements, attributes and characters of a XML document, as received by a content handler.
+ * <p>
+ * The events are recorded while a document is parsed, see {@link #newRecorder}, and can be sent again to another
+ * content handler without parsing the document, see {@link #replay}. Only the qualified names and the values of
+ * the attributes are kept. The strings are stored once in a string table, so that the events can be stored in the
+ * {@link StartupCache}.
+ */
+public final class SaxEvents implements StartupCache.Snapshot {
+
+    private static final int START_ELEMENT = 0;
+    private static final int END_ELEMENT = 1;
+    private static final int CHARACTERS = 2;
+
+    /**
+     * The reader of the events stored in the {@link StartupCache}.
+     */
+    public static final StartupCache.SnapshotReader<SaxEvents> READER = new StartupCache.SnapshotReader<SaxEvents>() {
+        @Override
+        public SaxEvents read(DataInputStream in) throws IOException {
+            int stringCount = in.readInt();
+            List<String> strings = new ArrayList<>(stringCount);
+            for (int i = 0; i < stringCount; i++) {
+                strings.add(StartupCache.readString(in));
+            }
+            int[] events = new int[in.readInt()];
+            for (int i = 0; i < events.length; i++) {
+                events[i] = in.readInt();
+            }
+            SaxEvents result = new SaxEvents(strings, events);
+            if (!result.isValid())
+                throw new IOException("Invalid events");
+            return result;
+        }
+    };
+
+    private final List<String> strings;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    /**
+     * The events: the kind of event followed by the indexes of its strings, i.e. the qualified name, the number
+     * of attributes, and their names and values for the start of an element, the qualified name for the end
+     * of an element, and the characters.
+     */
+    private int[] events;
+    private int size;
+
+    /**
+     * Constructs a new empty {@code SaxEvents}, to be recorded.
+     */
+    public SaxEvents() {
+        this(new ArrayList<String>(), new int[1024]);
+        size = 0;
+    }
+
+    private SaxEvents(List<String> strings, int[] events) {
+        this.strings = strings;
+        this.events = events;
+        this.size = events.length;
+    }
+
+    private void add(int value) {
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size * 2);
+        }
+        events[size++] = value;
+    }
+
+    private void addString(String s) {
+        Integer index = indexes.get(s);
+        if (index == null) {
+            index = strings.size();
+            strings.add(s);
+            indexes.put(s, index);
+        }
+        add(index);
+    }
+
+    /**
+     * Returns a content handler that records the events it receives in this object, and forwards them to the
+     * given handler.
+     * @param handler the content handler receiving the events
+     * @return the recording content handler
+     */
+    public ContentHandler newRecorder(ContentHandler handler) {
+        XMLFilterImpl recorder = new XMLFilterImpl() {
+            private final StringBuilder characters = new StringBuilder();
+
+            private void flushCharacters() {
+                if (characters.length() > 0) {
+                    add(CHARACTERS);
+                    addString(characters.toString());
+                    characters.setLength(0);
+                }
+            }
+
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+                flushCharacters();
+                add(START_ELEMENT);
+                addString(qName);
+                add(atts.getLength());
+                for (int i = 0; i < atts.getLength(); i++) {
+                    addString(atts.getQName(i));
+                    addString(atts.getValue(i));
+                }
+                super.startElement(uri, localName, qName, atts);
+            }
+
+            @Override
+            public void endElement(String uri, String localName, String qName) throws SAXException {
+                flushCharacters();
+                add(END_ELEMENT);
+                addString(qName);
+                super.endElement(uri, localName, qName);
+            }
+
+            @Override
+            public void characters(char[] ch, int start, int length) throws SAXException {
+                characters.append(ch, start, length);
+                super.characters(ch, start, length);
+            }
+
+            @Override
+            public void endDocument() throws SAXException {
+                flushCharacters();
+                super.endDocument();
+            }
+        };
+        recorder.setContentHandler(handler);
+        return recorder;
+    }
+
+    private boolean isString(int index) {
+        return index >= 0 && index < strings.size();
+    }
+
+    /**
+     * Checks that the events read from the cache reference existing strings.
+     * @return {@code true} if the events can be replayed
+     */
+    private boolean isValid() {
+        int i = 0;
+        while (i < size) {
+            int kind = events[i++];
+            if (kind == START_ELEMENT) {
+                if (i + 2 > size || !isString(events[i++]))
+                    return false;
+                int count = events[i++];
+                if (count < 0 || i + 2 * count > size)
+                    return false;
+                for (int j = 0; j < 2 * count; j++) {
+                    if (!isString(events[i++]))
+                        return false;
+                }
+            } else if (kind == END_ELEMENT || kind == CHARACTERS) {
+                if (i >= size || !isString(events[i++]))
+                    return false;
+            } else
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sends the recorded events to a content handler.
+     * @param handler the content handler
+     * @throws SAXException if the handler fails
+     */
+    public void replay(ContentHandler handler) throws SAXException {
+        AttributesImpl atts = new AttributesImpl();
+        handler.startDocument();
+        int i = 0;
+        while (i < size) {
+            switch (events[i++]) {
+            case START_ELEMENT:
+                String qName = strings.get(events[i++]);
+                int count = events[i++];
+                atts.clear();
+                for (int j = 0; j < count; j++) {
+                    String name = strings.get(events[i++]);
+                    atts.addAttribute("", name, name, "CDATA", strings.get(events[i++]));
+                }
+                handler.startElement("", qName, qName, atts);
+                break;
+            case END_ELEMENT:
+                qName = strings.get(events[i++]);
+                handler.endElement("", qName, qName);
+                break;
+            default:
+                char[] ch = strings.get(events[i++]).toCharArray();
+                handler.characters(ch, 0, ch.length);
+            }
+        }
+        handler.endDocument();
+    }
+
+    @Override
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            StartupCache.writeString(out, s);
+        }
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(events[i]);
+        }
+    }
+}
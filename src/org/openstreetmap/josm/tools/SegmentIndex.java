@@ -0,0 +1,211 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import java.util.Arrays;
+
+/**
+ * Spatial hash of the segments of a polyline, to find the segments which may intersect a given box
+ * without testing all of them.
+ * <p>
+ * The bounding boxes of the segments are stored in packed arrays and registered in the cells of a uniform grid.
+ * Segments covering many cells, as well as segments with undefined coordinates, are tested for each query instead.
+ * Bounding boxes are enlarged by a small relative tolerance, so that points computed on a segment (subject to
+ * rounding errors) are still considered inside.
+ * <p>
+ * Queries are not thread safe.
+ */
+public class SegmentIndex {
+
+    /** Segments covering more cells are not registered in the grid */
+    private static final int MAX_CELLS_PER_SEGMENT = 16;
+
+    private final int size;
+    private final double[] minX;
+    private final double[] minY;
+    private final double[] maxX;
+    private final double[] maxY;
+
+    private final double gridMinX;
+    private final double gridMinY;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int columns;
+    private final int rows;
+    /** segments of cell {@code c} are {@code cellSegments[cellStart[c]]} to {@code cellSegments[cellStart[c + 1] - 1]} */
+    private final int[] cellStart;
+    private final int[] cellSegments;
+    /** segments which are not registered in the grid */
+    private final int[] unindexed;
+
+    /** query number of the last query returning each segment, to avoid duplicates */
+    private final int[] marks;
+    private int query;
+
+    /**
+     * Constructs a new {@code SegmentIndex} for the segments between consecutive points.
+     * @param x x coordinates of the points
+     * @param y y coordinates of the points
+     */
+    public SegmentIndex(double[] x, double[] y) {
+        size = Math.max(0, x.length - 1);
+        minX = new double[size];
+        minY = new double[size];
+        maxX = new double[size];
+        maxY = new double[size];
+        marks = new int[size];
+
+        double padding = 0;
+        for (int i = 0; i < x.length; i++) {
+            if (isValid(x[i], y[i])) {
+                padding = Math.max(padding, Math.max(Math.abs(x[i]), Math.abs(y[i])));
+            }
+        }
+        padding *= 1e-9;
+
+        double bMinX = Double.POSITIVE_INFINITY;
+        double bMinY = Double.POSITIVE_INFINITY;
+        double bMaxX = Double.NEGATIVE_INFINITY;
+        double bMaxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            if (isValid(x[i], y[i]) && isValid(x[i + 1], y[i + 1])) {
+                minX[i] = Math.min(x[i], x[i + 1]) - padding;
+                minY[i] = Math.min(y[i], y[i + 1]) - padding;
+                maxX[i] = Math.max(x[i], x[i + 1]) + padding;
+                maxY[i] = Math.max(y[i], y[i + 1]) + padding;
+                bMinX = Math.min(bMinX, minX[i]);
+                bMinY = Math.min(bMinY, minY[i]);
+                bMaxX = Math.max(bMaxX, maxX[i]);
+                bMaxY = Math.max(bMaxY, maxY[i]);
+            } else {
+                minX[i] = Double.NEGATIVE_INFINITY;
+                minY[i] = Double.NEGATIVE_INFINITY;
+                maxX[i] = Double.POSITIVE_INFINITY;
+                maxY[i] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        // about one segment per cell
+        int n = Math.max(1, (int) Math.ceil(Math.sqrt(size)));
+        columns = n;
+        rows = n;
+        gridMinX = bMinX;
+        gridMinY = bMinY;
+        cellWidth = bMaxX > bMinX ? (bMaxX - bMinX) / columns : 1;
+        cellHeight = bMaxY > bMinY ? (bMaxY - bMinY) / rows : 1;
+
+        // count, then fill the segments of each cell
+        int[] count = new int[columns * rows + 1];
+        int unindexedCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (isIndexed(i)) {
+                for (int r = row(minY[i]); r <= row(maxY[i]); r++) {
+                    for (int c = column(minX[i]); c <= column(maxX[i]); c++) {
+                        count[r * columns + c + 1]++;
+                    }
+                }
+            } else {
+                unindexedCount++;
+            }
+        }
+        cellStart = new int[columns * rows + 1];
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] = cellStart[c] + count[c + 1];
+        }
+        cellSegments = new int[cellStart[columns * rows]];
+        unindexed = new int[unindexedCount];
+        int[] fill = Arrays.copyOf(cellStart, columns * rows);
+        unindexedCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (isIndexed(i)) {
+                for (int r = row(minY[i]); r <= row(maxY[i]); r++) {
+                    for (int c = column(minX[i]); c <= column(maxX[i]); c++) {
+                        cellSegments[fill[r * columns + c]++] = i;
+                    }
+                }
+            } else {
+                unindexed[unindexedCount++] = i;
+            }
+        }
+    }
+
+    private static boolean isValid(double x, double y) {
+        return !Double.isNaN(x) && !Double.isNaN(y) && !Double.isInfinite(x) && !Double.isInfinite(y);
+    }
+
+    private boolean isIndexed(int i) {
+        return !Double.isInfinite(minX[i])
+                && (long) (column(maxX[i]) - column(minX[i]) + 1) * (row(maxY[i]) - row(minY[i]) + 1) <= MAX_CELLS_PER_SEGMENT;
+    }
+
+    private int column(double value) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((value - gridMinX) / cellWidth)));
+    }
+
+    private int row(double value) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((value - gridMinY) / cellHeight)));
+    }
+
+    /**
+     * Returns the number of segments.
+     * @return the number of segments
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the segments whose bounding box intersects the bounding box of the given segment.
+     * If a coordinate is undefined (NaN), all segments are returned.
+     * @param x1 x coordinate of the first point
+     * @param y1 y coordinate of the first point
+     * @param x2 x coordinate of the second point
+     * @param y2 y coordinate of the second point
+     * @return the indexes of the segments, in ascending order. Segment {@code i} joins points {@code i} and {@code i + 1}
+     */
+    public int[] query(double x1, double y1, double x2, double y2) {
+        if (!isValid(x1, y1) || !isValid(x2, y2)) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        double qMinX = Math.min(x1, x2);
+        double qMinY = Math.min(y1, y2);
+        double qMaxX = Math.max(x1, x2);
+        double qMaxY = Math.max(y1, y2);
+        query++;
+        int[] result = new int[16];
+        int count = 0;
+        for (int r = row(qMinY); r <= row(qMaxY); r++) {
+            for (int c = column(qMinX); c <= column(qMaxX); c++) {
+                int cell = r * columns + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellSegments[k];
+                    if (marks[i] != query && intersects(i, qMinX, qMinY, qMaxX, qMaxY)) {
+                        marks[i] = query;
+                        if (count == result.length) {
+                            result = Arrays.copyOf(result, 2 * count);
+                        }
+                        result[count++] = i;
+                    }
+                }
+            }
+        }
+        for (int i : unindexed) {
+            if (intersects(i, qMinX, qMinY, qMaxX, qMaxY)) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, 2 * count);
+                }
+                result[count++] = i;
+            }
+        }
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private boolean intersects(int i, double qMinX, double qMinY, double qMaxX, double qMaxY) {
+        return minX[i] <= qMaxX && maxX[i] >= qMinX && minY[i] <= qMaxY && maxY[i] >= qMinY;
+    }
+}
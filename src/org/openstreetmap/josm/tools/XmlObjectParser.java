@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
@@ -16,6 +17,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
@@ -79,20 +82,20 @@ public class XmlObjectParser implements Iterable<Object> {
 
         @Override
         public void startElement(String ns, String lname, String qname, Attributes a) throws SAXException {
-            if (mapping.containsKey(qname)) {
-                Class<?> klass = mapping.get(qname).klass;
+            Entry entry = mapping.get(qname);
+            if (entry != null) {
                 try {
-                    current.push(klass.newInstance());
+                    current.push(entry.klass.newInstance());
                 } catch (Exception e) {
                     throwException(e);
                 }
                 for (int i = 0; i < a.getLength(); ++i) {
-                    setValue(mapping.get(qname), a.getQName(i), a.getValue(i));
+                    setValue(entry, a.getQName(i), a.getValue(i));
                 }
-                if (mapping.get(qname).onStart) {
+                if (entry.onStart) {
                     report();
                 }
-                if (mapping.get(qname).both) {
+                if (entry.both) {
                     queue.add(current.peek());
                 }
             }
@@ -100,10 +103,11 @@ public class XmlObjectParser implements Iterable<Object> {
 
         @Override
         public void endElement(String ns, String lname, String qname) throws SAXException {
-            if (mapping.containsKey(qname) && !mapping.get(qname).onStart) {
+            Entry entry = mapping.get(qname);
+            if (entry != null && !entry.onStart) {
                 report();
-            } else if (mapping.containsKey(qname) && characters != null && !current.isEmpty()) {
-                setValue(mapping.get(qname), qname, characters.toString().trim());
+            } else if (entry != null && characters != null && !current.isEmpty()) {
+                setValue(entry, qname, characters.toString().trim());
                 characters  = new StringBuilder(64);
             }
         }
@@ -118,57 +122,16 @@ public class XmlObjectParser implements Iterable<Object> {
             characters  = new StringBuilder(64);
         }
 
-        private Object getValueForClass(Class<?> klass, String value) {
-            if (klass == Boolean.TYPE)
-                return parseBoolean(value);
-            else if (klass == Integer.TYPE || klass == Long.TYPE)
-                return Long.valueOf(value);
-            else if (klass == Float.TYPE || klass == Double.TYPE)
-                return Double.valueOf(value);
-            return value;
-        }
-
         private void setValue(Entry entry, String fieldName, String value) throws SAXException {
             CheckParameterUtil.ensureParameterNotNull(entry, "entry");
-            if ("class".equals(fieldName) || "default".equals(fieldName) || "throw".equals(fieldName) ||
-                    "new".equals(fieldName) || "null".equals(fieldName)) {
-                fieldName += '_';
-            }
             try {
-                Object c = current.peek();
-                Field f = entry.getField(fieldName);
-                if (f == null && fieldName.startsWith(lang)) {
-                    f = entry.getField("locale_" + fieldName.substring(lang.length()));
-                }
-                if (f != null && Modifier.isPublic(f.getModifiers()) && (
-                        String.class.equals(f.getType()) || boolean.class.equals(f.getType()))) {
-                    f.set(c, getValueForClass(f.getType(), value));
-                } else {
-                    if (fieldName.startsWith(lang)) {
-                        int l = lang.length();
-                        fieldName = "set" + fieldName.substring(l, l + 1).toUpperCase(Locale.ENGLISH) + fieldName.substring(l + 1);
-                    } else {
-                        fieldName = "set" + fieldName.substring(0, 1).toUpperCase(Locale.ENGLISH) + fieldName.substring(1);
-                    }
-                    Method m = entry.getMethod(fieldName);
-                    if (m != null) {
-                        m.invoke(c, new Object[]{getValueForClass(m.getParameterTypes()[0], value)});
-                    }
-                }
+                entry.getSetter(fieldName).set(current.peek(), value);
             } catch (Exception e) {
                 Main.error(e); // SAXException does not dump inner exceptions.
                 throwException(e);
             }
         }
 
-        private boolean parseBoolean(String s) {
-            return s != null
-                    && !"0".equals(s)
-                    && !s.startsWith("off")
-                    && !s.startsWith("false")
-                    && !s.startsWith("no");
-        }
-
         @Override
         public void error(SAXParseException e) throws SAXException {
             throwException(e);
@@ -180,45 +143,125 @@ public class XmlObjectParser implements Iterable<Object> {
         }
     }
 
+    /**
+     * Sets the value of an attribute to an object, through a public field or a setter method.
+     */
+    private static final class Setter {
+        /** setter of unknown attributes, doing nothing */
+        private static final Setter NONE = new Setter(null, null);
+
+        private final Field field;
+        private final Method method;
+        private final Class<?> type;
+
+        Setter(Field field, Method method) {
+            this.field = field;
+            this.method = method;
+            if (field != null) {
+                type = field.getType();
+            } else if (method != null) {
+                type = method.getParameterTypes()[0];
+            } else {
+                type = null;
+            }
+        }
+
+        void set(Object o, String value) throws IllegalAccessException, InvocationTargetException {
+            if (field != null) {
+                field.set(o, getValueForClass(type, value));
+            } else if (method != null) {
+                method.invoke(o, getValueForClass(type, value));
+            }
+        }
+
+        private static Object getValueForClass(Class<?> klass, String value) {
+            if (klass == Boolean.TYPE)
+                return parseBoolean(value);
+            else if (klass == Integer.TYPE || klass == Long.TYPE)
+                return Long.valueOf(value);
+            else if (klass == Float.TYPE || klass == Double.TYPE)
+                return Double.valueOf(value);
+            return value;
+        }
+
+        private static boolean parseBoolean(String s) {
+            return s != null
+                    && !"0".equals(s)
+                    && !s.startsWith("off")
+                    && !s.startsWith("false")
+                    && !s.startsWith("no");
+        }
+    }
+
+    /**
+     * Setters of the mapped classes, by attribute name. They are resolved once for all parsers,
+     * as the same classes are used for all preset and style files.
+     */
+    private static final ConcurrentMap<Class<?>, Map<String, Setter>> SETTERS = new ConcurrentHashMap<>();
+
     private static class Entry {
-        private Class<?> klass;
-        private boolean onStart;
-        private boolean both;
-        private final Map<String, Field> fields = new HashMap<>();
-        private final Map<String, Method> methods = new HashMap<>();
+        private final Class<?> klass;
+        private final boolean onStart;
+        private final boolean both;
+        private final Map<String, Setter> setters;
 
         Entry(Class<?> klass, boolean onStart, boolean both) {
             this.klass = klass;
             this.onStart = onStart;
             this.both = both;
+            Map<String, Setter> map = SETTERS.get(klass);
+            if (map == null) {
+                map = new ConcurrentHashMap<>();
+                Map<String, Setter> previous = SETTERS.putIfAbsent(klass, map);
+                if (previous != null) {
+                    map = previous;
+                }
+            }
+            this.setters = map;
         }
 
-        Field getField(String s) {
-            if (fields.containsKey(s)) {
-                return fields.get(s);
-            } else {
-                try {
-                    Field f = klass.getField(s);
-                    fields.put(s, f);
-                    return f;
-                } catch (NoSuchFieldException ex) {
-                    fields.put(s, null);
-                    return null;
-                }
+        Setter getSetter(String attribute) {
+            Setter setter = setters.get(attribute);
+            if (setter == null) {
+                setter = resolveSetter(attribute);
+                setters.put(attribute, setter);
             }
+            return setter;
         }
 
-        Method getMethod(String s) {
-            if (methods.containsKey(s)) {
-                return methods.get(s);
+        private Setter resolveSetter(String attribute) {
+            String fieldName = attribute;
+            if ("class".equals(fieldName) || "default".equals(fieldName) || "throw".equals(fieldName) ||
+                    "new".equals(fieldName) || "null".equals(fieldName)) {
+                fieldName += '_';
+            }
+            Field f = getField(fieldName);
+            if (f == null && fieldName.startsWith(lang)) {
+                f = getField("locale_" + fieldName.substring(lang.length()));
+            }
+            if (f != null && Modifier.isPublic(f.getModifiers()) && (
+                    String.class.equals(f.getType()) || boolean.class.equals(f.getType()))) {
+                return new Setter(f, null);
+            }
+            String methodName;
+            if (fieldName.startsWith(lang)) {
+                int l = lang.length();
+                methodName = "set" + fieldName.substring(l, l + 1).toUpperCase(Locale.ENGLISH) + fieldName.substring(l + 1);
             } else {
-                for (Method m : klass.getMethods()) {
-                    if (m.getName().equals(s) && m.getParameterTypes().length == 1) {
-                        methods.put(s, m);
-                        return m;
-                    }
+                methodName = "set" + fieldName.substring(0, 1).toUpperCase(Locale.ENGLISH) + fieldName.substring(1);
+            }
+            for (Method m : klass.getMethods()) {
+                if (m.getName().equals(methodName) && m.getParameterTypes().length == 1) {
+                    return new Setter(null, m);
                 }
-                methods.put(s, null);
+            }
+            return Setter.NONE;
+        }
+
+        private Field getField(String s) {
+            try {
+                return klass.getField(s);
+            } catch (NoSuchFieldException ex) {
                 return null;
             }
         }
@@ -271,8 +314,20 @@ public class XmlObjectParser implements Iterable<Object> {
      * @throws SAXException if any XML or I/O error occurs
      */
     public Iterable<Object> start(final Reader in) throws SAXException {
+        return start(in, (SaxEvents) null);
+    }
+
+    /**
+     * Starts parsing from the given input reader, without validation, and records the XML events.
+     * @param in The input reader
+     * @param events the recorded events, or {@code null}
+     * @return iterable collection of objects
+     * @throws SAXException if any XML or I/O error occurs
+     * @see #replay
+     */
+    public Iterable<Object> start(final Reader in, SaxEvents events) throws SAXException {
         try {
-            return start(in, parser);
+            return start(in, events == null ? parser : events.newRecorder(parser));
         } catch (IOException e) {
             throw new SAXException(e);
         }
@@ -287,11 +342,26 @@ public class XmlObjectParser implements Iterable<Object> {
      * @throws SAXException if any XML or I/O error occurs
      */
     public Iterable<Object> startWithValidation(final Reader in, String namespace, String schemaSource) throws SAXException {
+        return startWithValidation(in, namespace, schemaSource, null);
+    }
+
+    /**
+     * Starts parsing from the given input reader, with XSD validation, and records the validated XML events.
+     * @param in The input reader
+     * @param namespace default namespace
+     * @param schemaSource XSD schema
+     * @param events the recorded events, or {@code null}
+     * @return iterable collection of objects
+     * @throws SAXException if any XML or I/O error occurs
+     * @see #replay
+     */
+    public Iterable<Object> startWithValidation(final Reader in, String namespace, String schemaSource, SaxEvents events)
+            throws SAXException {
         SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
         try (InputStream mis = new CachedFile(schemaSource).getInputStream()) {
             Schema schema = factory.newSchema(new StreamSource(mis));
             ValidatorHandler validator = schema.newValidatorHandler();
-            validator.setContentHandler(parser);
+            validator.setContentHandler(events == null ? parser : events.newRecorder(parser));
             validator.setErrorHandler(parser);
 
             AddNamespaceFilter filter = new AddNamespaceFilter(namespace);
@@ -302,6 +372,18 @@ public class XmlObjectParser implements Iterable<Object> {
         }
     }
 
+    /**
+     * Reads the objects from XML events recorded by a previous parsing, without parsing the document again.
+     * @param events the recorded events
+     * @return iterable collection of objects
+     * @throws SAXException if any error occurs while creating the objects
+     */
+    public Iterable<Object> replay(SaxEvents events) throws SAXException {
+        events.replay(parser);
+        queueIterator = queue.iterator();
+        return this;
+    }
+
     public void map(String tagName, Class<?> klass) {
         mapping.put(tagName, new Entry(klass, false, false));
     }
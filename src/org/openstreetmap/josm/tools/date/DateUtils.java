@@ -38,18 +38,9 @@ public final class DateUtils {
      */
     public static final BooleanProperty PROP_ISO_DATES = new BooleanProperty("iso.dates", false);
 
-    /**
-     * A shared instance used for conversion between individual date fields
-     * and long millis time. It is guarded against conflict by the class lock.
-     * The shared instance is used because the construction, together
-     * with the timezone lookup, is very expensive.
-     */
-    private static GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
     private static final DatatypeFactory XML_DATE;
 
     static {
-        calendar.setTimeInMillis(0);
-
         DatatypeFactory fact = null;
         try {
             fact = DatatypeFactory.newInstance();
@@ -59,59 +50,72 @@ public final class DateUtils {
         XML_DATE = fact;
     }
 
+    /**
+     * Maximal length of a date formatted by {@link #formatXmlDate(long, char[], int)}.
+     */
+    public static final int XML_DATE_MAX_LENGTH = 24;
+
+    private static final long MILLIS_PER_DAY = 24 * 3600 * 1000L;
+    /** Days from 0000-03-01 to 1970-01-01 */
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_PER_400_YEARS = 146097;
+
     /**
      * Parses XML date quickly, regardless of current locale.
      * @param str The XML date as string
      * @return The date
      */
-    public static synchronized Date fromString(String str) {
+    public static Date fromString(String str) {
         return new Date(tsFromString(str));
     }
 
     /**
      * Parses XML date quickly, regardless of current locale.
+     * <p>
+     * This method is thread-safe and lock-free. The usual fixed layouts are parsed without allocating any object.
      * @param str The XML date as string
      * @return The date in milliseconds since epoch
      */
-    public static synchronized long tsFromString(String str) {
+    public static long tsFromString(String str) {
         // "2007-07-25T09:26:24{Z|{+|-}01:00}"
         if (checkLayout(str, "xxxx-xx-xxTxx:xx:xxZ") ||
                 checkLayout(str, "xxxx-xx-xxTxx:xx:xx") ||
                 checkLayout(str, "xxxx-xx-xx xx:xx:xx UTC") ||
                 checkLayout(str, "xxxx-xx-xxTxx:xx:xx+xx:00") ||
                 checkLayout(str, "xxxx-xx-xxTxx:xx:xx-xx:00")) {
-            calendar.set(
+            long millis = toEpochMillis(
                 parsePart4(str, 0),
-                parsePart2(str, 5)-1,
+                parsePart2(str, 5),
                 parsePart2(str, 8),
                 parsePart2(str, 11),
                 parsePart2(str, 14),
-                parsePart2(str, 17));
+                parsePart2(str, 17),
+                0);
 
             if (str.length() == 25) {
                 int plusHr = parsePart2(str, 20);
                 int mul = str.charAt(19) == '+' ? -3600000 : 3600000;
-                return calendar.getTimeInMillis()+plusHr*mul;
+                return millis+plusHr*mul;
             }
 
-            return calendar.getTimeInMillis();
+            return millis;
         } else if (checkLayout(str, "xxxx-xx-xxTxx:xx:xx.xxxZ") ||
                 checkLayout(str, "xxxx-xx-xxTxx:xx:xx.xxx") ||
                 checkLayout(str, "xxxx-xx-xxTxx:xx:xx.xxx+xx:00") ||
                 checkLayout(str, "xxxx-xx-xxTxx:xx:xx.xxx-xx:00")) {
-            calendar.set(
+            long millis = toEpochMillis(
                 parsePart4(str, 0),
-                parsePart2(str, 5)-1,
+                parsePart2(str, 5),
                 parsePart2(str, 8),
                 parsePart2(str, 11),
                 parsePart2(str, 14),
-                parsePart2(str, 17));
-            long millis = parsePart3(str, 20);
+                parsePart2(str, 17),
+                parsePart3(str, 20));
             if (str.length() == 29) {
                 millis += parsePart2(str, 24) * (str.charAt(23) == '+' ? -3600000 : 3600000);
             }
 
-            return calendar.getTimeInMillis() + millis;
+            return millis;
         } else {
             // example date format "18-AUG-08 13:33:03"
             SimpleDateFormat f = new SimpleDateFormat("dd-MMM-yy HH:mm:ss");
@@ -127,7 +131,105 @@ public final class DateUtils {
         }
     }
 
-    private static String toXmlFormat(GregorianCalendar cal) {
+    /**
+     * Converts UTC date fields to milliseconds since epoch, with arithmetic only.
+     * Like a lenient calendar, fields out of their usual range are carried over (e.g. hour 24 is midnight of the next day).
+     * Dates are computed in the proleptic Gregorian calendar.
+     * @param year year
+     * @param month month, from 1 to 12
+     * @param day day of month, from 1 to 31
+     * @param hour hour of day, from 0 to 23
+     * @param minute minute, from 0 to 59
+     * @param second second, from 0 to 59
+     * @param millis millisecond, from 0 to 999
+     * @return The date in milliseconds since epoch
+     */
+    static long toEpochMillis(int year, int month, int day, int hour, int minute, int second, int millis) {
+        // carry over months, see http://howardhinnant.github.io/date_algorithms.html for the days computation
+        int m = month - 1;
+        int y = year + floorDiv(m, 12);
+        m = m - floorDiv(m, 12) * 12 + 1;
+        if (m <= 2) {
+            y--;
+        }
+        int era = floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long days = (long) era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+        return (((days * 24 + hour) * 60 + minute) * 60 + second) * 1000 + millis;
+    }
+
+    private static int floorDiv(int x, int y) {
+        int q = x / y;
+        return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+    }
+
+    /**
+     * Formats a date to the XML UTC format regardless of current locale, into the given buffer.
+     * <p>
+     * This method is thread-safe, lock-free and does not allocate any object.
+     * Milliseconds are only written if they are not zero, like {@link #fromDate(Date)}.
+     * @param millis The date in milliseconds since epoch
+     * @param buffer The buffer, with at least {@link #XML_DATE_MAX_LENGTH} characters available from {@code offset}
+     * @param offset The offset of the first character to write
+     * @return The number of characters written, or -1 if the year is not between 0 and 9999
+     */
+    public static int formatXmlDate(long millis, char[] buffer, int offset) {
+        long days = millis / MILLIS_PER_DAY;
+        int millisOfDay = (int) (millis - days * MILLIS_PER_DAY);
+        if (millisOfDay < 0) {
+            days--;
+            millisOfDay += MILLIS_PER_DAY;
+        }
+        days += DAYS_0000_TO_1970;
+        long era = (days >= 0 ? days : days - DAYS_PER_400_YEARS + 1) / DAYS_PER_400_YEARS;
+        int dayOfEra = (int) (days - era * DAYS_PER_400_YEARS);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        long year = era * 400 + yearOfEra + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999)
+            return -1;
+
+        int i = offset;
+        i = writeDigits(buffer, i, (int) year, 4);
+        buffer[i++] = '-';
+        i = writeDigits(buffer, i, month, 2);
+        buffer[i++] = '-';
+        i = writeDigits(buffer, i, day, 2);
+        buffer[i++] = 'T';
+        i = writeDigits(buffer, i, millisOfDay / 3600000, 2);
+        buffer[i++] = ':';
+        i = writeDigits(buffer, i, millisOfDay / 60000 % 60, 2);
+        buffer[i++] = ':';
+        i = writeDigits(buffer, i, millisOfDay / 1000 % 60, 2);
+        if (millisOfDay % 1000 != 0) {
+            buffer[i++] = '.';
+            i = writeDigits(buffer, i, millisOfDay % 1000, 3);
+        }
+        buffer[i++] = 'Z';
+        return i - offset;
+    }
+
+    private static int writeDigits(char[] buffer, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    private static String toXmlFormat(long millis) {
+        char[] buffer = new char[XML_DATE_MAX_LENGTH];
+        int length = formatXmlDate(millis, buffer, 0);
+        if (length >= 0)
+            return new String(buffer, 0, length);
+        // years not supported by the fixed layout
+        GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        cal.setTimeInMillis(millis);
         XMLGregorianCalendar xgc = XML_DATE.newXMLGregorianCalendar(cal);
         if (cal.get(Calendar.MILLISECOND) == 0) {
             xgc.setFractionalSecond(null);
@@ -140,9 +242,8 @@ public final class DateUtils {
      * @param timestamp number of seconds since the epoch
      * @return The formatted date
      */
-    public static synchronized String fromTimestamp(int timestamp) {
-        calendar.setTimeInMillis(timestamp * 1000L);
-        return toXmlFormat(calendar);
+    public static String fromTimestamp(int timestamp) {
+        return toXmlFormat(timestamp * 1000L);
     }
 
     /**
@@ -150,12 +251,11 @@ public final class DateUtils {
      * @param date The date to format
      * @return The formatted date
      */
-    public static synchronized String fromDate(Date date) {
-        calendar.setTime(date);
-        return toXmlFormat(calendar);
+    public static String fromDate(Date date) {
+        return toXmlFormat(date.getTime());
     }
 
-    private static boolean checkLayout(String text, String pattern) {
+    static boolean checkLayout(String text, String pattern) {
         if (text.length() != pattern.length()) return false;
         for (int i = 0; i < pattern.length(); i++) {
             char pc = pattern.charAt(i);
@@ -170,15 +270,15 @@ public final class DateUtils {
         return c - '0';
     }
 
-    private static int parsePart2(String str, int off) {
+    static int parsePart2(String str, int off) {
         return 10 * num(str.charAt(off)) + num(str.charAt(off + 1));
     }
 
-    private static int parsePart3(String str, int off) {
+    static int parsePart3(String str, int off) {
         return 100 * num(str.charAt(off)) + 10 * num(str.charAt(off + 1)) + num(str.charAt(off + 2));
     }
 
-    private static int parsePart4(String str, int off) {
+    static int parsePart4(String str, int off) {
         return 1000 * num(str.charAt(off)) + 100 * num(str.charAt(off + 1)) + 10 * num(str.charAt(off + 2)) + num(str.charAt(off + 3));
     }
 
@@ -2,10 +2,7 @@
 package org.openstreetmap.josm.tools.date;
 
 import java.text.ParseException;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.TimeZone;
 
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
@@ -20,7 +17,6 @@ import javax.xml.datatype.DatatypeFactory;
 public class PrimaryDateParser {
     private DatatypeFactory datatypeFactory;
     private FallbackDateParser fallbackDateParser;
-    private Calendar calendar;
 
     /**
      * Creates a new instance.
@@ -35,190 +31,28 @@ public class PrimaryDateParser {
         }
 
         fallbackDateParser = new FallbackDateParser();
-
-        calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
-    }
-
-    private static boolean isDateInShortStandardFormat(String date) {
-        char[] dateChars;
-        // We can only parse the date if it is in a very specific format.
-        // eg. 2007-09-23T08:25:43Z
-
-        if (date.length() != 20) {
-            return false;
-        }
-
-        dateChars = date.toCharArray();
-
-        // Make sure any fixed characters are in the correct place.
-        if (dateChars[4] != '-') {
-            return false;
-        }
-        if (dateChars[7] != '-') {
-            return false;
-        }
-        if (dateChars[10] != 'T') {
-            return false;
-        }
-        if (dateChars[13] != ':') {
-            return false;
-        }
-        if (dateChars[16] != ':') {
-            return false;
-        }
-        if (dateChars[19] != 'Z') {
-            return false;
-        }
-
-        // Ensure all remaining characters are numbers.
-        for (int i = 0; i < 4; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 5; i < 7; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 8; i < 10; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 11; i < 13; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 14; i < 16; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 17; i < 19; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-
-        // No problems found so it is in the special case format.
-        return true;
-    }
-
-    private static boolean isDateInLongStandardFormat(String date) {
-        char[] dateChars;
-        // We can only parse the date if it is in a very specific format.
-        // eg. 2007-09-23T08:25:43.000Z
-
-        if (date.length() != 24) {
-            return false;
-        }
-
-        dateChars = date.toCharArray();
-
-        // Make sure any fixed characters are in the correct place.
-        if (dateChars[4] != '-') {
-            return false;
-        }
-        if (dateChars[7] != '-') {
-            return false;
-        }
-        if (dateChars[10] != 'T') {
-            return false;
-        }
-        if (dateChars[13] != ':') {
-            return false;
-        }
-        if (dateChars[16] != ':') {
-            return false;
-        }
-        if (dateChars[19] != '.') {
-            return false;
-        }
-        if (dateChars[23] != 'Z') {
-            return false;
-        }
-
-        // Ensure all remaining characters are numbers.
-        for (int i = 0; i < 4; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 5; i < 7; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 8; i < 10; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 11; i < 13; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 14; i < 16; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 17; i < 19; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-        for (int i = 20; i < 23; i++) {
-            if (dateChars[i] < '0' || dateChars[i] > '9') {
-                return false;
-            }
-        }
-
-        // No problems found so it is in the special case format.
-        return true;
     }
 
-    private Date parseShortStandardDate(String date) {
-        int year = Integer.parseInt(date.substring(0, 4));
-        int month = Integer.parseInt(date.substring(5, 7));
-        int day = Integer.parseInt(date.substring(8, 10));
-        int hour = Integer.parseInt(date.substring(11, 13));
-        int minute = Integer.parseInt(date.substring(14, 16));
-        int second = Integer.parseInt(date.substring(17, 19));
-
-        calendar.clear();
-        calendar.set(Calendar.YEAR, year);
-        calendar.set(Calendar.MONTH, month - 1);
-        calendar.set(Calendar.DAY_OF_MONTH, day);
-        calendar.set(Calendar.HOUR_OF_DAY, hour);
-        calendar.set(Calendar.MINUTE, minute);
-        calendar.set(Calendar.SECOND, second);
-
-        return calendar.getTime();
+    private static Date parseShortStandardDate(String date) {
+        return new Date(DateUtils.toEpochMillis(
+                DateUtils.parsePart4(date, 0),
+                DateUtils.parsePart2(date, 5),
+                DateUtils.parsePart2(date, 8),
+                DateUtils.parsePart2(date, 11),
+                DateUtils.parsePart2(date, 14),
+                DateUtils.parsePart2(date, 17),
+                0));
     }
 
-    private Date parseLongStandardDate(String date) {
-        int year = Integer.parseInt(date.substring(0, 4));
-        int month = Integer.parseInt(date.substring(5, 7));
-        int day = Integer.parseInt(date.substring(8, 10));
-        int hour = Integer.parseInt(date.substring(11, 13));
-        int minute = Integer.parseInt(date.substring(14, 16));
-        int second = Integer.parseInt(date.substring(17, 19));
-        int millisecond = Integer.parseInt(date.substring(20, 23));
-
-        calendar.clear();
-        calendar.set(Calendar.YEAR, year);
-        calendar.set(Calendar.MONTH, month - 1);
-        calendar.set(Calendar.DAY_OF_MONTH, day);
-        calendar.set(Calendar.HOUR_OF_DAY, hour);
-        calendar.set(Calendar.MINUTE, minute);
-        calendar.set(Calendar.SECOND, second);
-        calendar.set(Calendar.MILLISECOND, millisecond);
-
-        return calendar.getTime();
+    private static Date parseLongStandardDate(String date) {
+        return new Date(DateUtils.toEpochMillis(
+                DateUtils.parsePart4(date, 0),
+                DateUtils.parsePart2(date, 5),
+                DateUtils.parsePart2(date, 8),
+                DateUtils.parsePart2(date, 11),
+                DateUtils.parsePart2(date, 14),
+                DateUtils.parsePart2(date, 17),
+                DateUtils.parsePart3(date, 20)));
     }
 
     /**
@@ -233,9 +67,10 @@ public class PrimaryDateParser {
      */
     public Date parse(String date) throws ParseException {
         try {
-            if (isDateInShortStandardFormat(date)) {
+            // eg. 2007-09-23T08:25:43Z and 2007-09-23T08:25:43.000Z
+            if (DateUtils.checkLayout(date, "xxxx-xx-xxTxx:xx:xxZ")) {
                 return parseShortStandardDate(date);
-            } else if (isDateInLongStandardFormat(date)) {
+            } else if (DateUtils.checkLayout(date, "xxxx-xx-xxTxx:xx:xx.xxxZ")) {
                 return parseLongStandardDate(date);
             } else {
                 return datatypeFactory.newXMLGregorianCalendar(date).toGregorianCalendar().getTime();
@@ -0,0 +1,56 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm;
+
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.PerformanceTestUtils.PerformanceTestTimer;
+import org.openstreetmap.josm.data.validation.tests.MapCSSTagChecker;
+import org.openstreetmap.josm.gui.mappaint.MapPaintStyles;
+import org.openstreetmap.josm.gui.tagging.presets.TaggingPresetReader;
+import org.openstreetmap.josm.io.StartupCache;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Timing tests of the loading of the presets, map styles and validator rules, as done by {@link Main} at startup.
+ * The first run is a cold start without the snapshots of the {@link StartupCache}, the next ones are warm starts using them.
+ */
+public class StartupPerformanceTest {
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createPerformanceTestFixture().init();
+        Utils.deleteDirectory(new File(Main.pref.getCacheDirectory(), "startup"));
+    }
+
+    /**
+     * Loads the sources of the default preferences several times.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testLoadSources() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            String run = i == 0 ? "cold" : "warm " + i;
+
+            PerformanceTestTimer timer = PerformanceTestUtils.startTimer("load presets, " + run);
+            assertFalse(TaggingPresetReader.readFromPreferences(false, false).isEmpty());
+            timer.done();
+
+            timer = PerformanceTestUtils.startTimer("load map styles, " + run);
+            MapPaintStyles.readFromPreferences();
+            timer.done();
+            assertFalse(MapPaintStyles.getStyles().getStyleSources().isEmpty());
+
+            timer = PerformanceTestUtils.startTimer("load validator rules, " + run);
+            MapCSSTagChecker checker = new MapCSSTagChecker();
+            checker.initialize();
+            timer.done();
+        }
+    }
+}
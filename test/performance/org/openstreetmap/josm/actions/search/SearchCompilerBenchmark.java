@@ -0,0 +1,107 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.actions.search;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openstreetmap.josm.actions.search.SearchAction.SearchSetting;
+import org.openstreetmap.josm.actions.search.SearchCompiler.Match;
+import org.openstreetmap.josm.actions.search.SearchCompiler.ParseError;
+import org.openstreetmap.josm.benchmark.JOSMFixtureState;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmDataGenerator;
+import org.openstreetmap.josm.data.osm.OsmDataGenerator.KeyValueDataGenerator;
+
+/**
+ * Benchmarks of the compilation and matching of {@link SearchCompiler} expressions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchCompilerBenchmark {
+
+    private Node[] nodes;
+    private String complexExpression;
+    private Match keyValue;
+    private Match text;
+    private Match regexp;
+    private Match complex;
+    private int index;
+
+    /**
+     * Generates the data and compiles the expressions, with keys and values of the data.
+     * @param fixture the JOSM fixture, initialized before
+     * @throws ParseError if an expression cannot be compiled
+     */
+    @Setup
+    public void setUp(JOSMFixtureState fixture) throws ParseError {
+        KeyValueDataGenerator data = OsmDataGenerator.getKeyValue();
+        nodes = data.generateDataSet().getNodes().toArray(new Node[0]);
+        keyValue = SearchCompiler.compile(data.randomKey() + '=' + data.randomValue());
+        text = SearchCompiler.compile(data.randomValue().substring(4));
+        SearchSetting setting = new SearchSetting();
+        setting.regexSearch = true;
+        setting.text = data.randomKey() + ':' + data.randomValue().substring(0, 4) + ".*";
+        regexp = SearchCompiler.compile(setting);
+        complexExpression = "type:node (" + data.randomKey() + '=' + data.randomValue() + " OR "
+                + data.randomKey() + "=*) -" + data.randomKey() + "=*";
+        complex = SearchCompiler.compile(complexExpression);
+    }
+
+    private boolean match(Match m) {
+        index = (index + 1) % nodes.length;
+        return m.match(nodes[index]);
+    }
+
+    /**
+     * Matches a node with a {@code key=value} expression.
+     * @return the match result
+     */
+    @Benchmark
+    public boolean keyValue() {
+        return match(keyValue);
+    }
+
+    /**
+     * Matches a node with a text searched in all its tags.
+     * @return the match result
+     */
+    @Benchmark
+    public boolean text() {
+        return match(text);
+    }
+
+    /**
+     * Matches a node with a {@code key:regexp} expression.
+     * @return the match result
+     */
+    @Benchmark
+    public boolean regexp() {
+        return match(regexp);
+    }
+
+    /**
+     * Matches a node with an expression combining a type, key and value conditions.
+     * @return the match result
+     */
+    @Benchmark
+    public boolean complex() {
+        return match(complex);
+    }
+
+    /**
+     * Compiles an expression combining a type, key and value conditions.
+     * @return the compiled expression
+     * @throws ParseError if the expression cannot be compiled
+     */
+    @Benchmark
+    public Match compile() throws ParseError {
+        return SearchCompiler.compile(complexExpression);
+    }
+}
@@ -0,0 +1,26 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openstreetmap.josm.JOSMFixture;
+
+/**
+ * The JOSM fixture of the JMH benchmarks of {@code test/performance}, initialized once in each fork of the benchmarks.
+ * <p>
+ * The benchmark states receive it as parameter of their {@link Setup} method, so that the fixture is initialized
+ * before their data is prepared.
+ */
+@State(Scope.Benchmark)
+public class JOSMFixtureState {
+
+    /**
+     * Initializes the performance test fixture.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        JOSMFixture.createPerformanceTestFixture().init(true);
+    }
+}
@@ -0,0 +1,92 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openstreetmap.josm.benchmark.JOSMFixtureState;
+import org.openstreetmap.josm.data.coor.LatLon;
+
+/**
+ * Benchmarks of {@link QuadBuckets}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuadBucketsBenchmark {
+
+    private static final int NODE_COUNT = 100000;
+    private static final int BBOX_COUNT = 1000;
+
+    private final QuadBuckets<Node> nodes = new QuadBuckets<>();
+    private final List<Node> nodeList = new ArrayList<>(NODE_COUNT);
+    private final BBox[] smallBBoxes = new BBox[BBOX_COUNT];
+    private final BBox[] largeBBoxes = new BBox[BBOX_COUNT];
+    private int index;
+
+    /**
+     * Fills the buckets with nodes spread over one square degree, and creates the searched bounding boxes.
+     * @param fixture the JOSM fixture, initialized before
+     */
+    @Setup
+    public void setUp(JOSMFixtureState fixture) {
+        Random random = new Random(1234);
+        for (int i = 0; i < NODE_COUNT; i++) {
+            nodeList.add(new Node(new LatLon(50 + random.nextDouble(), 10 + random.nextDouble())));
+        }
+        nodes.addAll(nodeList);
+        for (int i = 0; i < BBOX_COUNT; i++) {
+            smallBBoxes[i] = randomBBox(random, 0.01);
+            largeBBoxes[i] = randomBBox(random, 0.1);
+        }
+    }
+
+    private static BBox randomBBox(Random random, double size) {
+        double lat = 50 + random.nextDouble() * (1 - size);
+        double lon = 10 + random.nextDouble() * (1 - size);
+        return new BBox(lon, lat, lon + size, lat + size);
+    }
+
+    private int next() {
+        index = (index + 1) % BBOX_COUNT;
+        return index;
+    }
+
+    /**
+     * Searches the nodes of a bounding box of 0.01 degree, about 10 nodes.
+     * @return the found nodes
+     */
+    @Benchmark
+    public List<Node> searchSmall() {
+        return nodes.search(smallBBoxes[next()]);
+    }
+
+    /**
+     * Searches the nodes of a bounding box of 0.1 degree, about 1000 nodes.
+     * @return the found nodes
+     */
+    @Benchmark
+    public List<Node> searchLarge() {
+        return nodes.search(largeBBoxes[next()]);
+    }
+
+    /**
+     * Removes a node and adds it again.
+     * @return {@code true}
+     */
+    @Benchmark
+    public boolean removeAndAdd() {
+        Node n = nodeList.get(next() * (NODE_COUNT / BBOX_COUNT));
+        nodes.remove(n);
+        return nodes.add(n);
+    }
+}
@@ -0,0 +1,100 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.visitor.paint;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openstreetmap.josm.benchmark.JOSMFixtureState;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.gui.NavigatableComponent;
+import org.openstreetmap.josm.gui.mappaint.ElemStyles;
+import org.openstreetmap.josm.gui.mappaint.MapPaintStyles;
+import org.openstreetmap.josm.gui.mappaint.Range;
+import org.openstreetmap.josm.gui.mappaint.StyleCache.StyleList;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.io.Compression;
+import org.openstreetmap.josm.io.IllegalDataException;
+import org.openstreetmap.josm.io.OsmReader;
+import org.openstreetmap.josm.tools.Pair;
+
+/**
+ * Benchmarks of the style computation and painting of {@link StyledMapRenderer}, with the default map style.
+ * <p>
+ * The styles are computed from the real tags of a city, as the rules of the default style would not match
+ * generated tags.
+ * @see StyledMapRendererPerformanceTest
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StyledMapRendererBenchmark {
+
+    private static final int IMG_WIDTH = 1400;
+    private static final int IMG_HEIGHT = 1050;
+    private static final Bounds CITY_PART = new Bounds(53.56, 13.25, 53.57, 13.26);
+
+    private DataSet dsCity;
+    private List<OsmPrimitive> primitives;
+    private ElemStyles styles;
+    private NavigatableComponent nc;
+    private Graphics2D g;
+    private double scale;
+    private int index;
+
+    /**
+     * Loads the map style and the data of the city.
+     * @param fixture the JOSM fixture, initialized before
+     * @throws IOException if the data cannot be read
+     * @throws IllegalDataException if the data cannot be parsed
+     */
+    @Setup
+    public void setUp(JOSMFixtureState fixture) throws IOException, IllegalDataException {
+        MapPaintStyles.readFromPreferences();
+        styles = MapPaintStyles.getStyles();
+        try (InputStream in = Compression.getUncompressedFileInputStream(new File("data_nodist/neubrandenburg.osm.bz2"))) {
+            dsCity = OsmReader.parseDataSet(in, NullProgressMonitor.INSTANCE);
+        }
+        primitives = new ArrayList<>(dsCity.allPrimitives());
+        BufferedImage img = new BufferedImage(IMG_WIDTH, IMG_HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+        g = (Graphics2D) img.getGraphics();
+        nc = new NavigatableComponent();
+        nc.setBounds(0, 0, IMG_WIDTH, IMG_HEIGHT);
+        nc.zoomTo(CITY_PART);
+        scale = nc.getDist100Pixel();
+    }
+
+    /**
+     * Computes the styles of a primitive of the city, at the scale of a part of the city.
+     * @return the styles and the scale range where they are valid
+     */
+    @Benchmark
+    public Pair<StyleList, Range> generateStyles() {
+        index = (index + 1) % primitives.size();
+        return styles.generateStyles(primitives.get(index), scale, false);
+    }
+
+    /**
+     * Paints a part of the city. The styles are cached after the first call.
+     * @return the data set
+     */
+    @Benchmark
+    public DataSet renderCityPart() {
+        new StyledMapRenderer(g, nc, false).render(dsCity, true, CITY_PART);
+        return dsCity;
+    }
+}
@@ -0,0 +1,105 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.projection;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openstreetmap.josm.benchmark.JOSMFixtureState;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.LatLon;
+
+/**
+ * Benchmarks of the coordinate transforms of some usual {@link Projection}s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProjectionBenchmark {
+
+    private static final int POINT_COUNT = 1000;
+
+    private Projection mercator;
+    private Projection utm;
+    private Projection lambert93;
+    private Projection swissGrid;
+    private LatLon[] mercatorPoints;
+    private LatLon[] utmPoints;
+    private LatLon[] lambert93Points;
+    private LatLon[] swissGridPoints;
+    private int index;
+
+    /**
+     * Creates the projections and the random points of their world bounds.
+     * @param fixture the JOSM fixture, initialized before
+     */
+    @Setup
+    public void setUp(JOSMFixtureState fixture) {
+        mercator = Projections.getProjectionByCode("EPSG:3857");
+        utm = Projections.getProjectionByCode("EPSG:32632");
+        lambert93 = Projections.getProjectionByCode("EPSG:2154");
+        swissGrid = Projections.getProjectionByCode("EPSG:21781");
+        mercatorPoints = randomPoints(mercator);
+        utmPoints = randomPoints(utm);
+        lambert93Points = randomPoints(lambert93);
+        swissGridPoints = randomPoints(swissGrid);
+    }
+
+    private static LatLon[] randomPoints(Projection projection) {
+        Random random = new Random(1234);
+        Bounds b = projection.getWorldBoundsLatLon();
+        LatLon[] points = new LatLon[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            points[i] = new LatLon(b.getMinLat() + random.nextDouble() * (b.getMaxLat() - b.getMinLat()),
+                    b.getMinLon() + random.nextDouble() * (b.getMaxLon() - b.getMinLon()));
+        }
+        return points;
+    }
+
+    private LatLon roundTrip(Projection projection, LatLon[] points) {
+        index = (index + 1) % POINT_COUNT;
+        return projection.eastNorth2latlon(projection.latlon2eastNorth(points[index]));
+    }
+
+    /**
+     * Projects a point with Web Mercator (EPSG:3857), and back.
+     * @return the point after the round trip
+     */
+    @Benchmark
+    public LatLon mercator() {
+        return roundTrip(mercator, mercatorPoints);
+    }
+
+    /**
+     * Projects a point with UTM zone 32N (EPSG:32632), a transverse Mercator projection, and back.
+     * @return the point after the round trip
+     */
+    @Benchmark
+    public LatLon utm() {
+        return roundTrip(utm, utmPoints);
+    }
+
+    /**
+     * Projects a point with Lambert 93 (EPSG:2154), a Lambert conformal conic projection, and back.
+     * @return the point after the round trip
+     */
+    @Benchmark
+    public LatLon lambert93() {
+        return roundTrip(lambert93, lambert93Points);
+    }
+
+    /**
+     * Projects a point with the Swiss grid (EPSG:21781), an oblique Mercator projection with a datum shift, and back.
+     * @return the point after the round trip
+     */
+    @Benchmark
+    public LatLon swissGrid() {
+        return roundTrip(swissGrid, swissGridPoints);
+    }
+}
@@ -0,0 +1,89 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.validation;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openstreetmap.josm.benchmark.JOSMFixtureState;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.validation.tests.CrossingWays;
+import org.openstreetmap.josm.data.validation.tests.DuplicateNode;
+import org.openstreetmap.josm.data.validation.tests.MapCSSTagChecker;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.io.Compression;
+import org.openstreetmap.josm.io.OsmReader;
+
+/**
+ * Benchmarks of some validator {@link Test}s.
+ * <p>
+ * The tests check the real data of a city, as the rules of the tag checker would not match generated tags.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidatorBenchmark {
+
+    private List<OsmPrimitive> primitives;
+    private MapCSSTagChecker tagChecker;
+    private int index;
+
+    /**
+     * Loads the data of the city and the default rules of the tag checker.
+     * @param fixture the JOSM fixture, initialized before
+     * @throws Exception if the data or the rules cannot be loaded
+     */
+    @Setup
+    public void setUp(JOSMFixtureState fixture) throws Exception {
+        try (InputStream in = Compression.getUncompressedFileInputStream(new File("data_nodist/neubrandenburg.osm.bz2"))) {
+            primitives = new ArrayList<>(OsmReader.parseDataSet(in, NullProgressMonitor.INSTANCE).allPrimitives());
+        }
+        tagChecker = new MapCSSTagChecker();
+        tagChecker.initialize();
+    }
+
+    private List<TestError> run(Test test) {
+        test.startTest(null);
+        test.visit(primitives);
+        test.endTest();
+        return test.getErrors();
+    }
+
+    /**
+     * Checks the tags of a primitive with the default rules of the tag checker.
+     * @return the errors
+     */
+    @Benchmark
+    public Collection<TestError> tagChecker() {
+        index = (index + 1) % primitives.size();
+        return tagChecker.getErrorsForPrimitive(primitives.get(index), true);
+    }
+
+    /**
+     * Finds the duplicate nodes of the city.
+     * @return the errors
+     */
+    @Benchmark
+    public List<TestError> duplicateNode() {
+        return run(new DuplicateNode());
+    }
+
+    /**
+     * Finds the crossing ways of the city.
+     * @return the errors
+     */
+    @Benchmark
+    public List<TestError> crossingWays() {
+        return run(new CrossingWays.Ways());
+    }
+}
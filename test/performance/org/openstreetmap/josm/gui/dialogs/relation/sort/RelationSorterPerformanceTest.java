@@ -0,0 +1,143 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.dialogs.relation.sort;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.PerformanceTestUtils;
+import org.openstreetmap.josm.PerformanceTestUtils.PerformanceTestTimer;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.RelationMember;
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * This test measures the performance of {@link RelationSorter} and {@link WayConnectionTypeCalculator} on long
+ * routes, like national cycle routes.
+ */
+public class RelationSorterPerformanceTest {
+    private static final int MEMBERS = 10000;
+    private static final int RUNS = 20;
+
+    private static List<RelationMember> route;
+
+    /**
+     * Prepare the test.
+     */
+    @BeforeClass
+    public static void createJOSMFixture() {
+        JOSMFixture.createPerformanceTestFixture().init(true);
+        route = createRoute(MEMBERS);
+    }
+
+    /**
+     * Creates a sorted route made of consecutive ways, with a dual carriageway every 100 members and a roundabout
+     * every 500 members.
+     * @param size the approximate number of members
+     * @return the members of the route
+     */
+    private static List<RelationMember> createRoute(int size) {
+        DataSet ds = new DataSet();
+        List<RelationMember> members = new ArrayList<>(size);
+        Node last = createNode(ds, 0, 0);
+        for (int i = 1; members.size() < size; i++) {
+            Node next = createNode(ds, i, 0);
+            if (i % 500 == 0) {
+                Way roundabout = createWay(ds, last, createNode(ds, i - 0.5, 0.5), next, createNode(ds, i - 0.5, -0.5), last);
+                roundabout.put("junction", "roundabout");
+                members.add(new RelationMember("", roundabout));
+            } else if (i % 100 == 0) {
+                members.add(new RelationMember("forward", createWay(ds, last, createNode(ds, i - 0.5, 0.1), next)));
+                members.add(new RelationMember("forward", createWay(ds, next, createNode(ds, i - 0.5, -0.1), last)));
+            } else {
+                members.add(new RelationMember("", createWay(ds, last, createNode(ds, i - 0.5, 0), next)));
+            }
+            last = next;
+        }
+        return members;
+    }
+
+    private static Node createNode(DataSet ds, double lon, double lat) {
+        Node n = new Node(new LatLon(lat / 1000, lon / 1000));
+        ds.addPrimitive(n);
+        return n;
+    }
+
+    private static Way createWay(DataSet ds, Node... nodes) {
+        Way w = new Way();
+        w.setNodes(Arrays.asList(nodes));
+        ds.addPrimitive(w);
+        return w;
+    }
+
+    /**
+     * Measures the sorting of a shuffled route.
+     */
+    @Test
+    public void testSortMembers() {
+        List<RelationMember> shuffled = new ArrayList<>(route);
+        Collections.shuffle(shuffled, new Random(42));
+        RelationSorter sorter = new RelationSorter();
+        for (int i = 0; i < RUNS; i++) {
+            // warm up
+            sorter.sortMembers(shuffled);
+        }
+
+        PerformanceTestTimer timer = PerformanceTestUtils.startTimer("RelationSorter.sortMembers, " + RUNS + " runs");
+        for (int i = 0; i < RUNS; i++) {
+            assertEquals(route.size(), sorter.sortMembers(shuffled).size());
+        }
+        timer.done();
+    }
+
+    /**
+     * Measures the calculation of the connection types of a route.
+     */
+    @Test
+    public void testUpdateLinks() {
+        WayConnectionTypeCalculator calculator = new WayConnectionTypeCalculator();
+        for (int i = 0; i < RUNS; i++) {
+            // warm up
+            calculator.updateLinks(route);
+        }
+
+        PerformanceTestTimer timer = PerformanceTestUtils.startTimer("WayConnectionTypeCalculator.updateLinks, " + RUNS + " runs");
+        for (int i = 0; i < RUNS; i++) {
+            assertEquals(route.size(), calculator.updateLinks(route).size());
+        }
+        timer.done();
+    }
+
+    /**
+     * Measures the calculation of the connection types after moving members of a route, like in the relation editor.
+     */
+    @Test
+    public void testUpdateLinksIncrementally() {
+        WayConnectionTypeCalculator calculator = new WayConnectionTypeCalculator();
+        List<RelationMember> members = new ArrayList<>(route);
+        Random random = new Random(42);
+        for (int i = 0; i < RUNS; i++) {
+            // warm up
+            calculator.updateLinks(members);
+            calculator.updateLinksIncrementally(members);
+        }
+
+        PerformanceTestTimer timer = PerformanceTestUtils.startTimer(
+                "WayConnectionTypeCalculator.updateLinksIncrementally, " + RUNS + " moves");
+        for (int i = 0; i < RUNS; i++) {
+            int index = 1 + random.nextInt(members.size() - 1);
+            Collections.swap(members, index, index - 1);
+            assertEquals(route.size(), calculator.updateLinksIncrementally(members).size());
+        }
+        timer.done();
+    }
+}
@@ -0,0 +1,99 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.mappaint.mapcss;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openstreetmap.josm.benchmark.JOSMFixtureState;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmDataGenerator;
+import org.openstreetmap.josm.data.osm.OsmDataGenerator.KeyValueDataGenerator;
+import org.openstreetmap.josm.gui.mappaint.MultiCascade;
+
+/**
+ * Benchmarks of the rule matching of {@link MapCSSStyleSource}.
+ * @see MapCSSStyleSourceFilterTest
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapCSSStyleSourceBenchmark {
+
+    private static final int RULE_COUNT = 10000;
+
+    private Node[] nodes;
+    private MapCSSStyleSource keyValueRules;
+    private MapCSSStyleSource hasKeyRules;
+    private MapCSSStyleSource regexpRules;
+    private int index;
+
+    /**
+     * Generates the data and loads the style sources.
+     * @param fixture the JOSM fixture, initialized before
+     */
+    @Setup
+    public void setUp(JOSMFixtureState fixture) {
+        KeyValueDataGenerator data = OsmDataGenerator.getKeyValue();
+        nodes = data.generateDataSet().getNodes().toArray(new Node[0]);
+        StringBuilder keyValue = new StringBuilder();
+        StringBuilder hasKey = new StringBuilder();
+        StringBuilder regexp = new StringBuilder();
+        for (int i = 0; i < RULE_COUNT; i++) {
+            String key = data.randomKey();
+            String value = data.randomValue();
+            keyValue.append("node[\"").append(key).append("\"=\"").append(value).append("\"] {}\n");
+            hasKey.append("node[\"").append(key).append("\"] {}\n");
+            regexp.append("node[\"").append(key).append("\"=~/.*").append(value.substring(i % value.length()))
+                  .append(".*/] {}\n");
+        }
+        keyValueRules = load(keyValue.toString());
+        hasKeyRules = load(hasKey.toString());
+        regexpRules = load(regexp.toString());
+    }
+
+    private static MapCSSStyleSource load(String css) {
+        MapCSSStyleSource source = new MapCSSStyleSource(css);
+        source.loadStyleSource();
+        return source;
+    }
+
+    private MultiCascade apply(MapCSSStyleSource source) {
+        index = (index + 1) % nodes.length;
+        MultiCascade mc = new MultiCascade();
+        source.apply(mc, nodes[index], 1, false);
+        return mc;
+    }
+
+    /**
+     * Applies 10000 {@code [key=value]} rules to a node.
+     * @return the computed styles
+     */
+    @Benchmark
+    public MultiCascade keyValueRules() {
+        return apply(keyValueRules);
+    }
+
+    /**
+     * Applies 10000 {@code [key]} rules to a node.
+     * @return the computed styles
+     */
+    @Benchmark
+    public MultiCascade hasKeyRules() {
+        return apply(hasKeyRules);
+    }
+
+    /**
+     * Applies 10000 {@code [key=~/regexp/]} rules to a node.
+     * @return the computed styles
+     */
+    @Benchmark
+    public MultiCascade regexpRules() {
+        return apply(regexpRules);
+    }
+}
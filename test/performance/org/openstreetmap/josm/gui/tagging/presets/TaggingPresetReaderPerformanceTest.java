@@ -0,0 +1,42 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.tagging.presets;
+
+import static org.junit.Assert.assertFalse;
+
+import java.util.Collection;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.PerformanceTestUtils;
+import org.openstreetmap.josm.PerformanceTestUtils.PerformanceTestTimer;
+
+/**
+ * Timing tests of the parsing of tagging presets, as done at startup.
+ */
+public class TaggingPresetReaderPerformanceTest {
+
+    private static final String DEFAULT_PRESETS = "resource://data/defaultpresets.xml";
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createPerformanceTestFixture().init();
+    }
+
+    /**
+     * Parses the default presets several times, the first parse including the warm-up of the XML parser.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testDefaultPresets() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            PerformanceTestTimer timer = PerformanceTestUtils.startTimer("read default presets, run " + i);
+            Collection<TaggingPreset> presets = TaggingPresetReader.readAll(DEFAULT_PRESETS, false);
+            timer.done();
+            assertFalse(presets.isEmpty());
+        }
+    }
+}
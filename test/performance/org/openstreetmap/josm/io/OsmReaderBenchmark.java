@@ -0,0 +1,61 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openstreetmap.josm.benchmark.JOSMFixtureState;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmDataGenerator;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+
+/**
+ * Benchmarks of {@link OsmReader}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OsmReaderBenchmark {
+
+    private byte[] data;
+
+    /**
+     * Writes the data set to parse.
+     * @param fixture the JOSM fixture, initialized before
+     * @throws IOException if the data set cannot be written
+     */
+    @Setup
+    public void setUp(JOSMFixtureState fixture) throws IOException {
+        DataSet ds = OsmDataGenerator.getKeyValue().generateDataSet();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+             OsmWriter w = OsmWriterFactory.createOsmWriter(writer, true, OsmWriter.DEFAULT_API_VERSION)) {
+            w.header();
+            w.writeContent(ds);
+            w.footer();
+        }
+        data = out.toByteArray();
+    }
+
+    /**
+     * Parses a data set of 1000 nodes with 3 tags per node on average.
+     * @return the parsed data set
+     * @throws IllegalDataException if the data cannot be parsed
+     */
+    @Benchmark
+    public DataSet parseNodes() throws IllegalDataException {
+        return OsmReader.parseDataSet(new ByteArrayInputStream(data), NullProgressMonitor.INSTANCE);
+    }
+}
@@ -0,0 +1,89 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.PerformanceTestUtils;
+import org.openstreetmap.josm.PerformanceTestUtils.PerformanceTestTimer;
+import org.openstreetmap.josm.command.Command;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+
+/**
+ * Timing tests of {@link Geometry#addIntersections} on ways with thousands of segments.
+ */
+public class GeometryPerformanceTest {
+
+    private static final int NODE_COUNT = 20000;
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createPerformanceTestFixture().init();
+    }
+
+    /**
+     * Creates a wavy coastline-like way going north, with {@code crossings} oscillations around longitude {@code lon}.
+     */
+    private static Way wavyWay(double lon, double amplitude, int crossings) {
+        List<Node> nodes = new ArrayList<>(NODE_COUNT);
+        for (int i = 0; i < NODE_COUNT; i++) {
+            double t = (double) i / NODE_COUNT;
+            nodes.add(new Node(new LatLon(47 + t * 0.2, lon + amplitude * Math.sin(t * crossings * Math.PI))));
+        }
+        Way w = new Way();
+        w.setNodes(nodes);
+        return w;
+    }
+
+    /**
+     * Two long ways crossing each other many times.
+     */
+    @Test
+    public void testCrossingWays() {
+        List<Way> ways = Arrays.asList(wavyWay(8, 0.001, 100), wavyWay(8, -0.001, 101));
+        PerformanceTestTimer timer = PerformanceTestUtils.startTimer("addIntersections of two ways with " + NODE_COUNT + " nodes");
+        List<Command> cmds = new ArrayList<>();
+        int intersections = Geometry.addIntersections(ways, false, cmds).size();
+        timer.done();
+        assertEquals(101, intersections);
+    }
+
+    /**
+     * Many small ways, like a landuse import.
+     */
+    @Test
+    public void testManySmallWays() {
+        List<Way> ways = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < 50; j++) {
+                // overlapping squares of 8 segments
+                double lat = 47 + i * 0.001;
+                double lon = 8 + j * 0.001;
+                List<Node> nodes = new ArrayList<>();
+                for (int k = 0; k < 8; k++) {
+                    double a = k * Math.PI / 4;
+                    nodes.add(new Node(new LatLon(lat + 0.0007 * Math.sin(a), lon + 0.0007 * Math.cos(a))));
+                }
+                nodes.add(nodes.get(0));
+                Way w = new Way();
+                w.setNodes(nodes);
+                ways.add(w);
+            }
+        }
+        PerformanceTestTimer timer = PerformanceTestUtils.startTimer("addIntersections of " + ways.size() + " small ways");
+        List<Command> cmds = new ArrayList<>();
+        Geometry.addIntersections(ways, false, cmds);
+        timer.done();
+    }
+}
@@ -0,0 +1,126 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools.date;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.PerformanceTestUtils;
+import org.openstreetmap.josm.PerformanceTestUtils.PerformanceTestTimer;
+
+/**
+ * Checks that parsing and formatting of OSM timestamps is fast, also from several threads.
+ */
+public class DateUtilsPerformanceTest {
+
+    private static final int TIMESTAMP_COUNT = 2000000;
+    private static final int THREADS = 4;
+
+    private static String[] timestamps;
+
+    /**
+     * Prepares the timestamps.
+     */
+    @BeforeClass
+    public static void createTimestamps() {
+        timestamps = new String[TIMESTAMP_COUNT];
+        for (int i = 0; i < TIMESTAMP_COUNT; i++) {
+            timestamps[i] = DateUtils.fromTimestamp(1200000000 + i * 97);
+        }
+    }
+
+    private static final GregorianCalendar CALENDAR = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+
+    /**
+     * The former implementation, sharing a calendar guarded by a lock.
+     */
+    private static synchronized long oldTsFromString(String str) {
+        CALENDAR.set(
+                DateUtils.parsePart4(str, 0),
+                DateUtils.parsePart2(str, 5) - 1,
+                DateUtils.parsePart2(str, 8),
+                DateUtils.parsePart2(str, 11),
+                DateUtils.parsePart2(str, 14),
+                DateUtils.parsePart2(str, 17));
+        return CALENDAR.getTimeInMillis();
+    }
+
+    private static long parseAll(boolean old, int from, int step) {
+        long sum = 0;
+        for (int i = from; i < TIMESTAMP_COUNT; i += step) {
+            sum += old ? oldTsFromString(timestamps[i]) / 1000 : DateUtils.tsFromString(timestamps[i]) / 1000;
+        }
+        return sum;
+    }
+
+    private static long parseInParallel(final boolean old) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int from = t;
+                results.add(pool.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() {
+                        return parseAll(old, from, THREADS);
+                    }
+                }));
+            }
+            long sum = 0;
+            for (Future<Long> result : results) {
+                sum += result.get();
+            }
+            return sum;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parses millions of timestamps with the former and the current implementation, from one and several threads.
+     * @throws Exception if a parsing thread fails
+     */
+    @Test
+    public void testParse() throws Exception {
+        // warm up
+        assertEquals(parseAll(true, 0, 1), parseAll(false, 0, 1));
+
+        PerformanceTestTimer timer = PerformanceTestUtils.startTimer("parse " + TIMESTAMP_COUNT + " timestamps, calendar");
+        long expected = parseAll(true, 0, 1);
+        timer.done();
+        timer = PerformanceTestUtils.startTimer("parse " + TIMESTAMP_COUNT + " timestamps, arithmetic");
+        assertEquals(expected, parseAll(false, 0, 1));
+        timer.done();
+
+        timer = PerformanceTestUtils.startTimer("parse " + TIMESTAMP_COUNT + " timestamps, calendar, " + THREADS + " threads");
+        assertEquals(expected, parseInParallel(true));
+        timer.done();
+        timer = PerformanceTestUtils.startTimer("parse " + TIMESTAMP_COUNT + " timestamps, arithmetic, " + THREADS + " threads");
+        assertEquals(expected, parseInParallel(false));
+        timer.done();
+    }
+
+    /**
+     * Formats millions of timestamps into a reused buffer.
+     */
+    @Test
+    public void testFormat() {
+        char[] buffer = new char[DateUtils.XML_DATE_MAX_LENGTH];
+        PerformanceTestTimer timer = PerformanceTestUtils.startTimer("format " + TIMESTAMP_COUNT + " timestamps");
+        int length = 0;
+        for (int i = 0; i < TIMESTAMP_COUNT; i++) {
+            length += DateUtils.formatXmlDate((1200000000L + i * 97) * 1000, buffer, 0);
+        }
+        timer.done();
+        assertEquals(20L * TIMESTAMP_COUNT, length);
+    }
+}
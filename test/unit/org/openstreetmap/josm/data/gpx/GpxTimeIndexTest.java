@@ -0,0 +1,102 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.tools.date.DateUtils;
+
+/**
+ * Unit tests of {@link GpxTimeIndex} class.
+ */
+public class GpxTimeIndexTest {
+
+    private static final long T0 = DateUtils.fromString("2015-10-10T10:00:00Z").getTime();
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    private static WayPoint wpt(double lat, double lon, long seconds, String ele) {
+        WayPoint wp = new WayPoint(new LatLon(lat, lon));
+        wp.attr.put(GpxConstants.PT_TIME, DateUtils.fromDate(new Date(T0 + seconds * 1000)));
+        if (ele != null) {
+            wp.attr.put(GpxConstants.PT_ELE, ele);
+        }
+        wp.setTime();
+        return wp;
+    }
+
+    @SafeVarargs
+    private static GpxData gpx(Collection<WayPoint>... segments) {
+        GpxData data = new GpxData();
+        Collection<Collection<WayPoint>> segs = new ArrayList<>();
+        for (Collection<WayPoint> segment : segments) {
+            segs.add(segment);
+        }
+        data.tracks.add(new ImmutableGpxTrack(segs, Collections.<String, Object>emptyMap()));
+        return data;
+    }
+
+    /**
+     * Test interpolation between two track points.
+     */
+    @Test
+    public void testInterpolation() {
+        GpxTimeIndex index = new GpxTimeIndex(gpx(Arrays.asList(
+                wpt(0, 0, 0, "100"), wpt(0, 1, 10, "200"), wpt(0, 3, 20, null))));
+        assertEquals(3, index.size());
+
+        GpxTimeIndex.Match m = index.find(T0 + 5000);
+        assertEquals(0.5, m.getCoor().lon(), 1e-9);
+        assertEquals(150, m.getElevation(), 1e-9);
+        assertEquals(3600 * new LatLon(0, 0).greatCircleDistance(new LatLon(0, 1)) / 10000, m.getSpeed(), 1e-9);
+
+        m = index.find(T0 + 15000);
+        assertEquals(2, m.getCoor().lon(), 1e-9);
+        assertNull(m.getElevation());
+
+        assertEquals(3, index.find(T0 + 20000).getCoor().lon(), 1e-9);
+        assertNull(index.find(T0 + 20001));
+    }
+
+    /**
+     * Test the interval before the first point of a segment.
+     */
+    @Test
+    public void testFirstPoint() {
+        GpxTimeIndex index = new GpxTimeIndex(gpx(Arrays.asList(wpt(1, 1, 0, null), wpt(1, 2, 10, null))));
+        GpxTimeIndex.Match m = index.find(T0 - 5000);
+        assertEquals(1, m.getCoor().lon(), 1e-9);
+        assertNull(m.getSpeed());
+        assertNull(index.find(T0 - 5001));
+    }
+
+    /**
+     * Test that the first segment wins for overlapping segments.
+     */
+    @Test
+    public void testOverlappingSegments() {
+        GpxTimeIndex index = new GpxTimeIndex(gpx(
+                Arrays.asList(wpt(0, 0, 0, null), wpt(0, 10, 100, null)),
+                Arrays.asList(wpt(5, 0, 40, null), wpt(5, 10, 60, null), wpt(5, 20, 200, null))));
+        assertEquals(0, index.find(T0 + 50000).getCoor().lat(), 1e-9);
+        assertEquals(0, index.find(T0 + 100000).getCoor().lat(), 1e-9);
+        assertEquals(5, index.find(T0 + 100001).getCoor().lat(), 1e-9);
+        assertEquals(15, index.find(T0 + 130000).getCoor().lon(), 1e-9);
+    }
+}
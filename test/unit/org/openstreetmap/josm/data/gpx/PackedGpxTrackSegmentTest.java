@@ -0,0 +1,151 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.projection.Projections;
+import org.openstreetmap.josm.io.GpxReader;
+import org.openstreetmap.josm.tools.date.DateUtils;
+
+/**
+ * Unit tests of {@link PackedGpxTrackSegment} class.
+ */
+public class PackedGpxTrackSegmentTest {
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    /**
+     * Checks that way points are restored from the packed arrays.
+     */
+    @Test
+    public void testRoundTrip() {
+        long t0 = DateUtils.fromString("2015-10-10T10:00:00Z").getTime();
+        List<WayPoint> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            WayPoint wp = new WayPoint(new LatLon(47.1234567 + i * 1e-5, 8.7654321 - i * 1e-5));
+            if (i % 2 == 0) {
+                wp.attr.put(GpxConstants.PT_TIME, DateUtils.fromDate(new Date(t0 + i * 1000)));
+                wp.setTime();
+            }
+            if (i > 50) {
+                wp.attr.put(GpxConstants.PT_ELE, "412.5");
+            }
+            if (i == 42) {
+                wp.attr.put(GpxConstants.GPX_NAME, "foo");
+            }
+            points.add(wp);
+        }
+        ImmutableGpxTrackSegment reference = new ImmutableGpxTrackSegment(points);
+        PackedGpxTrackSegment packed = PackedGpxTrackSegment.create(points);
+
+        assertEquals(100, packed.size());
+        assertEquals(reference.getBounds(), packed.getBounds());
+        assertEquals(reference.length(), packed.length(), 1e-3);
+        assertEquals(t0 + 2000, packed.getTime(2));
+        assertEquals(Long.MIN_VALUE, packed.getTime(3));
+
+        List<WayPoint> restored = new ArrayList<>(packed.getWayPoints());
+        assertEquals(100, restored.size());
+        for (int i = 0; i < 100; i++) {
+            WayPoint expected = points.get(i);
+            WayPoint actual = restored.get(i);
+            assertEquals(expected.getCoor().lat(), actual.getCoor().lat(), 1e-7);
+            assertEquals(expected.getCoor().lon(), actual.getCoor().lon(), 1e-7);
+            assertEquals(expected.time, actual.time, 1e-9);
+            for (String key : Arrays.asList(GpxConstants.PT_TIME, GpxConstants.PT_ELE, GpxConstants.GPX_NAME)) {
+                assertEquals(expected.get(key), actual.get(key));
+            }
+        }
+        assertNull(restored.get(0).get(GpxConstants.PT_ELE));
+        assertEquals(0, packed.getUpdateCount());
+    }
+
+    /**
+     * Checks that the elevations are written back as they were read.
+     */
+    @Test
+    public void testElevation() {
+        List<WayPoint> points = new ArrayList<>();
+        for (String ele : Arrays.asList("12", "12.0", "-3.25", "0412", "high")) {
+            WayPoint wp = new WayPoint(new LatLon(1, 2));
+            wp.attr.put(GpxConstants.PT_ELE, ele);
+            points.add(wp);
+        }
+        List<WayPoint> restored = new ArrayList<>(PackedGpxTrackSegment.create(points).getWayPoints());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(points.get(i).get(GpxConstants.PT_ELE), restored.get(i).get(GpxConstants.PT_ELE));
+        }
+    }
+
+    /**
+     * Checks that {@link GpxReader} fills the packed segments.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testReader() throws Exception {
+        String gpx = "<?xml version='1.0' encoding='UTF-8'?>" +
+                "<gpx version='1.1' creator='test' xmlns='http://www.topografix.com/GPX/1/1'><trk><name>t</name><trkseg>" +
+                "<trkpt lat='47.1' lon='8.1'><ele>12.0</ele><time>2015-10-10T10:00:00Z</time><name>a</name></trkpt>" +
+                "<trkpt lat='47.2' lon='8.2'><ele>13</ele><link href='http://example.com'/></trkpt>" +
+                "</trkseg></trk></gpx>";
+        Main.pref.put("gpx.packed-storage", true);
+        try {
+            GpxReader reader = new GpxReader(new ByteArrayInputStream(gpx.getBytes(StandardCharsets.UTF_8)));
+            assertTrue(reader.parse(false));
+            GpxTrackSegment seg = reader.getGpxData().tracks.iterator().next().getSegments().iterator().next();
+            assertTrue(seg instanceof PackedGpxTrackSegment);
+            List<WayPoint> points = new ArrayList<>(seg.getWayPoints());
+            assertEquals(2, points.size());
+            assertEquals(47.1, points.get(0).getCoor().lat(), 1e-7);
+            assertEquals("12.0", points.get(0).get(GpxConstants.PT_ELE));
+            assertEquals("2015-10-10T10:00:00Z", points.get(0).get(GpxConstants.PT_TIME));
+            assertEquals(DateUtils.fromString("2015-10-10T10:00:00Z").getTime() / 1000., points.get(0).time, 1e-9);
+            assertEquals("a", points.get(0).get(GpxConstants.GPX_NAME));
+            assertEquals("13", points.get(1).get(GpxConstants.PT_ELE));
+            assertEquals(1, points.get(1).<GpxLink>getCollection(GpxConstants.META_LINKS).size());
+        } finally {
+            Main.pref.put("gpx.packed-storage", null);
+        }
+    }
+
+    /**
+     * Checks that the way points of packed segments are not created to update their east/north coordinates.
+     */
+    @Test
+    public void testUpdateEastNorthCache() {
+        WayPoint wp = new WayPoint(new LatLon(47, 8));
+        PackedGpxTrackSegment packed = PackedGpxTrackSegment.create(Arrays.asList(wp));
+        GpxData data = new GpxData();
+        data.tracks.add(new ImmutableGpxTrack(Collections.<GpxTrackSegment>singletonList(packed),
+                Collections.<String, Object>emptyMap()));
+        data.updateEastNorthCache();
+        data.resetEastNorthCache();
+        assertTrue(packed.getExistingWayPoints().isEmpty());
+
+        WayPoint restored = packed.getWayPoints().iterator().next();
+        data.updateEastNorthCache();
+        assertTrue(Projections.project(new LatLon(47, 8)).equalsEpsilon(restored.getEastNorth(), 1e-6));
+        assertEquals(0, packed.getUpdateCount());
+    }
+}
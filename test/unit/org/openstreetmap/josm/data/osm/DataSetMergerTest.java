@@ -992,4 +992,39 @@ public class DataSetMergerTest {
         assertEquals(1, w.getNode(0).getId());
         assertEquals(2, w.getNode(1).getId());
     }
+
+    /**
+     * Moving the nodes of a way is reflected in the spatial index of the way and of its parent relation
+     * once the merge is done.
+     */
+    @Test
+    public void testMovedNodesReindexWay() {
+        Node n1 = new Node(new LatLon(0, 0));
+        n1.setOsmId(1, 1);
+        Node n2 = new Node(new LatLon(0, 0.1));
+        n2.setOsmId(2, 1);
+        Way w = new Way(3, 1);
+        my.addPrimitive(n1);
+        my.addPrimitive(n2);
+        w.setNodes(Arrays.asList(n1, n2));
+        my.addPrimitive(w);
+        Relation r = new Relation(4, 1);
+        r.addMember(new RelationMember("", w));
+        my.addPrimitive(r);
+
+        for (int id = 1; id <= 2; id++) {
+            Node n = new Node(new LatLon(10, 10 + id / 10.0));
+            n.setOsmId(id, 2);
+            their.addPrimitive(n);
+        }
+
+        DataSetMerger visitor = new DataSetMerger(my, their);
+        visitor.merge();
+
+        assertEquals(0, visitor.getConflicts().size());
+        BBox moved = new BBox(9.9, 9.9, 10.3, 10.3);
+        assertEquals(Arrays.asList(w), my.searchWays(moved));
+        assertTrue(my.searchWays(new BBox(-0.1, -0.1, 0.2, 0.2)).isEmpty());
+        assertTrue(r.getBBox().bounds(new BBox(10.1, 10, 10.2, 10)));
+    }
 }
@@ -0,0 +1,119 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Area;
+
+import java.util.Random;
+import java.util.concurrent.Future;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.DataSource;
+import org.openstreetmap.josm.data.DataSourceIndex;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.data.projection.Projections;
+
+/**
+ * Unit tests of {@link DataSet} class.
+ */
+public class DataSetTest {
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    private static DataSet createDataSet(int count) {
+        Random rand = new Random(42);
+        DataSet ds = new DataSet();
+        for (int i = 0; i < count; i++) {
+            ds.addPrimitive(new Node(new LatLon(49 + rand.nextDouble() * 5, 14 + rand.nextDouble() * 10)));
+        }
+        return ds;
+    }
+
+    private static void assertProjected(DataSet ds) {
+        for (Node n : ds.getNodes()) {
+            EastNorth expected = Projections.project(n.getCoor());
+            EastNorth actual = n.getEastNorth();
+            assertEquals(expected.east(), actual.east(), 1e-6);
+            assertEquals(expected.north(), actual.north(), 1e-6);
+        }
+    }
+
+    /**
+     * Checks that the background reprojection computes the coordinates of the current projection.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testReproject() throws Exception {
+        Projection old = Main.getProjection();
+        try {
+            DataSet ds = createDataSet(100000);
+            Main.setProjection(Projections.getProjectionByCode("EPSG:2180"));
+            ds.reproject().get();
+            assertProjected(ds);
+
+            // a projection change during the reprojection must not leave coordinates of the previous projection
+            Main.setProjection(Projections.getProjectionByCode("EPSG:3857"));
+            Future<?> task = ds.reproject();
+            Main.setProjection(Projections.getProjectionByCode("EPSG:32633"));
+            task.get();
+            assertProjected(ds);
+        } finally {
+            Main.setProjection(old);
+        }
+    }
+
+    /**
+     * Checks that the cached download area and its index follow the changes of the data sources,
+     * and that the index gives the same results as the area.
+     */
+    @Test
+    public void testDataSourceArea() {
+        DataSet ds = new DataSet();
+        assertNull(ds.getDataSourceArea());
+        assertNull(ds.getDataSourceIndex());
+
+        Random rand = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            double lat = 49 + rand.nextDouble();
+            double lon = 14 + rand.nextDouble();
+            double size = i % 50 == 0 ? 0.5 : rand.nextDouble() * 0.05;
+            ds.dataSources.add(new DataSource(new Bounds(lat, lon, lat + size, lon + size), "test"));
+        }
+        Area area = ds.getDataSourceArea();
+        assertTrue(area.equals(ds.getDataSourceArea()));
+        assertNotSame(area, ds.getDataSourceArea());
+        DataSourceIndex index = ds.getDataSourceIndex();
+        for (int i = 0; i < 10000; i++) {
+            LatLon ll = new LatLon(48.9 + rand.nextDouble() * 1.7, 13.9 + rand.nextDouble() * 1.7);
+            assertEquals(ll.toString(), area.contains(ll.lon(), ll.lat()), index.contains(ll));
+        }
+
+        Node n = new Node(1, 1);
+        n.setCoor(new LatLon(60, 20));
+        ds.addPrimitive(n);
+        assertTrue(n.isOutsideDownloadArea());
+        ds.dataSources.add(new DataSource(new Bounds(59, 19, 61, 21), "test"));
+        assertFalse(n.isOutsideDownloadArea());
+        assertTrue(ds.getDataSourceArea().contains(20, 60));
+        ds.dataSources.clear();
+        assertNull(ds.getDataSourceArea());
+        assertFalse(n.isOutsideDownloadArea());
+    }
+}
@@ -1,6 +1,7 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.data.osm;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -53,6 +54,20 @@ public class OsmPrimitiveKeyHandlingTest {
         assertTrue(n.keySet().contains("akey"));
     }
 
+    /**
+     * Changes the value of a tag, and checks that the previous key/value array is not modified.
+     */
+    @Test
+    public void putReplacesKeysArray() {
+        Node n = new Node();
+        assertNull(n.getKeysArray());
+        n.put("akey", "avalue");
+        String[] keys = n.getKeysArray();
+        n.put("akey", "anothervalue");
+        assertArrayEquals(new String[] {"akey", "avalue"}, keys);
+        assertArrayEquals(new String[] {"akey", "anothervalue"}, n.getKeysArray());
+    }
+
     /**
      * Adds two tags to an empty node and test the query and get methods.
      */
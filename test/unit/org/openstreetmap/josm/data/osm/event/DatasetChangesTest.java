@@ -0,0 +1,108 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent.DatasetEventType;
+
+/**
+ * Unit tests of {@link DatasetChanges} class.
+ */
+public class DatasetChangesTest {
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    /**
+     * Checks that changes are merged by type.
+     */
+    @Test
+    public void testAdd() {
+        DataSet ds = new DataSet();
+        Node n1 = new Node(new LatLon(0, 0));
+        Node n2 = new Node(new LatLon(1, 1));
+        DatasetChanges changes = new DatasetChanges();
+        assertTrue(changes.isEmpty());
+        changes.add(new PrimitivesAddedEvent(ds, Arrays.asList(n1, n2), false));
+        changes.add(new NodeMovedEvent(ds, n1));
+        changes.add(new NodeMovedEvent(ds, n1));
+
+        DatasetChanges other = new DatasetChanges();
+        other.add(new TagsChangedEvent(ds, n2, Collections.<String, String>emptyMap()));
+        changes.add(new DataChangedEvent(ds, null, other));
+
+        assertFalse(changes.isEmpty());
+        assertEquals(Arrays.asList(n1, n2), new ArrayList<>(changes.getPrimitives(DatasetEventType.PRIMITIVES_ADDED)));
+        assertEquals(Collections.singleton(n1), changes.getPrimitives(DatasetEventType.NODE_MOVED));
+        assertEquals(Collections.singleton(n2), changes.getPrimitives(DatasetEventType.TAGS_CHANGED));
+        assertTrue(changes.getPrimitives(DatasetEventType.PRIMITIVES_REMOVED).isEmpty());
+        assertEquals(2, changes.getPrimitives().size());
+        assertTrue(changes.containsOnly(DatasetEventType.PRIMITIVES_ADDED, DatasetEventType.NODE_MOVED,
+                DatasetEventType.TAGS_CHANGED, DatasetEventType.WAY_NODES_CHANGED));
+        assertFalse(changes.containsOnly(DatasetEventType.PRIMITIVES_ADDED, DatasetEventType.NODE_MOVED));
+    }
+
+    /**
+     * Checks that an event telling that the whole data set changed has no changes.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddWholeDataChange() {
+        DataChangedEvent event = new DataChangedEvent(new DataSet());
+        assertNull(event.getChanges());
+        new DatasetChanges().add(event);
+    }
+
+    /**
+     * Checks that a large update of a data set is reported with its changes.
+     */
+    @Test
+    public void testDataSetUpdate() {
+        DataSet ds = new DataSet();
+        final List<AbstractDatasetChangedEvent> events = new ArrayList<>();
+        ds.addDataSetListener(new DataSetListenerAdapter(new DataSetListenerAdapter.Listener() {
+            @Override
+            public void processDatasetEvent(AbstractDatasetChangedEvent event) {
+                events.add(event);
+            }
+        }));
+        List<OsmPrimitive> nodes = new ArrayList<>();
+        ds.beginUpdate();
+        try {
+            for (int i = 0; i < 3000; i++) {
+                Node n = new Node(new LatLon(0, i / 1000.0));
+                ds.addPrimitive(n);
+                n.put("name", Integer.toString(i));
+                nodes.add(n);
+            }
+        } finally {
+            ds.endUpdate();
+        }
+        assertEquals(1, events.size());
+        DatasetChanges changes = ((DataChangedEvent) events.get(0)).getChanges();
+        assertNotNull(changes);
+        assertEquals(nodes, new ArrayList<>(changes.getPrimitives(DatasetEventType.PRIMITIVES_ADDED)));
+        assertEquals(nodes, new ArrayList<>(changes.getPrimitives(DatasetEventType.TAGS_CHANGED)));
+        assertTrue(changes.containsOnly(DatasetEventType.PRIMITIVES_ADDED, DatasetEventType.TAGS_CHANGED));
+    }
+}
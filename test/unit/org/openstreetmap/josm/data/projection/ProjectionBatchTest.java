@@ -0,0 +1,220 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.projection;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.projection.datum.Datum;
+import org.openstreetmap.josm.data.projection.proj.Proj;
+import org.openstreetmap.josm.data.projection.proj.ProjParameters;
+
+/**
+ * Unit tests of the batch coordinate transformation of {@link AbstractProjection} and {@link Projections}.
+ */
+public class ProjectionBatchTest {
+
+    private static final String[] CODES = {
+        "EPSG:4326", "EPSG:3857", "EPSG:27561", "EPSG:27564", "EPSG:2176", "EPSG:2180", "EPSG:21781",
+        "EPSG:32601", "EPSG:32632", "EPSG:32733", "EPSG:3942", "EPSG:3950", "EPSG:3301", "EPSG:31370"
+    };
+
+    /** A projection which does not extend {@link AbstractProjection}, like the ones of plugins */
+    private static final class DelegatingProjection implements Projection {
+        private final Projection delegate;
+
+        DelegatingProjection(Projection delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public double getDefaultZoomInPPD() {
+            return delegate.getDefaultZoomInPPD();
+        }
+
+        @Override
+        public EastNorth latlon2eastNorth(LatLon ll) {
+            return delegate.latlon2eastNorth(ll);
+        }
+
+        @Override
+        public LatLon eastNorth2latlon(EastNorth en) {
+            return delegate.eastNorth2latlon(en);
+        }
+
+        @Override
+        public String toCode() {
+            return delegate.toCode();
+        }
+
+        @Override
+        public String getCacheDirectoryName() {
+            return delegate.getCacheDirectoryName();
+        }
+
+        @Override
+        public Bounds getWorldBoundsLatLon() {
+            return delegate.getWorldBoundsLatLon();
+        }
+
+        @Override
+        public double getMetersPerUnit() {
+            return delegate.getMetersPerUnit();
+        }
+
+        @Override
+        public boolean switchXY() {
+            return delegate.switchXY();
+        }
+    }
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    private static double[] randomCoords(Projection p, int count, Random rand) {
+        Bounds b = p.getWorldBoundsLatLon();
+        double[] coords = new double[2 * count];
+        for (int i = 0; i < count; i++) {
+            coords[2 * i] = rand.nextDouble() * (b.getMax().lat() - b.getMin().lat()) + b.getMin().lat();
+            coords[2 * i + 1] = rand.nextDouble() * (b.getMax().lon() - b.getMin().lon()) + b.getMin().lon();
+        }
+        return coords;
+    }
+
+    private static void assertProjected(Projection p, double[] latlon, double[] projected, int start, int end) {
+        for (int i = start; i < end; i++) {
+            EastNorth en = p.latlon2eastNorth(new LatLon(latlon[2 * i], latlon[2 * i + 1]));
+            assertEquals(p.toCode(), en.east(), projected[2 * i], 1e-6);
+            assertEquals(p.toCode(), en.north(), projected[2 * i + 1], 1e-6);
+        }
+    }
+
+    /**
+     * Checks that a range of points is converted like single points, leaving other points unchanged.
+     */
+    @Test
+    public void testRange() {
+        Random rand = new Random(42);
+        for (String code : CODES) {
+            Projection p = Projections.getProjectionByCode(code);
+            double[] latlon = randomCoords(p, 100, rand);
+            double[] coords = latlon.clone();
+            ((AbstractProjection) p).latlon2eastNorth(coords, 10, 90);
+            assertProjected(p, latlon, coords, 10, 90);
+            assertEquals(code, 0, Double.compare(latlon[19], coords[19]));
+            assertEquals(code, 0, Double.compare(latlon[180], coords[180]));
+        }
+    }
+
+    /**
+     * Checks the parallel conversion of many points with the current projection.
+     */
+    @Test
+    public void testProjectParallel() {
+        Projection old = Main.getProjection();
+        try {
+            Random rand = new Random(42);
+            for (String code : new String[] {"EPSG:3857", "EPSG:2180", "EPSG:31370"}) {
+                Projection p = Projections.getProjectionByCode(code);
+                Main.setProjection(p);
+                double[] latlon = randomCoords(p, 100000, rand);
+                double[] coords = Arrays.copyOf(latlon, latlon.length);
+                Projections.project(coords);
+                assertProjected(p, latlon, coords, 0, 100000);
+            }
+        } finally {
+            Main.setProjection(old);
+        }
+    }
+
+    /**
+     * Checks that the points are converted one by one with projections and datums which do not support batch
+     * conversion, like the ones of plugins.
+     */
+    @Test
+    public void testNonBatchProjAndDatum() {
+        Projection old = Main.getProjection();
+        try {
+            final CustomProjection batch = (CustomProjection) Projections.getProjectionByCode("EPSG:21781");
+            CustomProjection p = new CustomProjection("+proj=somerc +lat_0=46d57'8.66\" +lon_0=7d26'22.5\" +x_0=600000 "
+                    + "+y_0=200000 +ellps=bessel +towgs84=674.374,15.056,405.346 +units=m +bounds=5.7,45.7,10.6,47.9");
+            p.proj = new Proj() {
+                @Override
+                public String getName() {
+                    return batch.getProj().getName();
+                }
+
+                @Override
+                public String getProj4Id() {
+                    return batch.getProj().getProj4Id();
+                }
+
+                @Override
+                public void initialize(ProjParameters params) throws ProjectionConfigurationException {
+                    batch.getProj().initialize(params);
+                }
+
+                @Override
+                public double[] project(double latRad, double lonRad) {
+                    return batch.getProj().project(latRad, lonRad);
+                }
+
+                @Override
+                public double[] invproject(double east, double north) {
+                    return batch.getProj().invproject(east, north);
+                }
+            };
+            p.datum = new Datum() {
+                @Override
+                public String getName() {
+                    return batch.getDatum().getName();
+                }
+
+                @Override
+                public String getProj4Id() {
+                    return batch.getDatum().getProj4Id();
+                }
+
+                @Override
+                public Ellipsoid getEllipsoid() {
+                    return batch.getDatum().getEllipsoid();
+                }
+
+                @Override
+                public LatLon toWGS84(LatLon ll) {
+                    return batch.getDatum().toWGS84(ll);
+                }
+
+                @Override
+                public LatLon fromWGS84(LatLon ll) {
+                    return batch.getDatum().fromWGS84(ll);
+                }
+            };
+            double[] latlon = randomCoords(batch, 100, new Random(42));
+            double[] coords = latlon.clone();
+            p.latlon2eastNorth(coords, 0, 100);
+            assertProjected(batch, latlon, coords, 0, 100);
+
+            // projections which do not extend AbstractProjection convert the points one by one
+            Main.setProjection(new DelegatingProjection(batch));
+            coords = latlon.clone();
+            Projections.project(coords);
+            assertProjected(batch, latlon, coords, 0, 100);
+        } finally {
+            Main.setProjection(old);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.projection.datum;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+
+/**
+ * Unit tests of {@link NTV2GridShiftFile} class.
+ */
+public class NTV2GridShiftFileTest {
+
+    private static final File NTF_RGF93 = new File("data/projection/ntf_r93_b.gsb");
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    /**
+     * Checks that memory-mapped and stream loaded grids give the same shifts.
+     * @throws IOException if any I/O error occurs
+     */
+    @Test
+    public void testMappedFile() throws IOException {
+        NTV2GridShiftFile mapped = new NTV2GridShiftFile();
+        mapped.loadGridShiftFile(NTF_RGF93, true);
+        NTV2GridShiftFile stream = new NTV2GridShiftFile();
+        stream.loadGridShiftFile(new FileInputStream(NTF_RGF93), true);
+        assertEquals(stream.toString(), mapped.toString());
+
+        Random rand = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            double lat = 41.5 + rand.nextDouble() * 9.5;
+            double lon = -5 + rand.nextDouble() * 14;
+            NTV2GridShift gs1 = new NTV2GridShift();
+            gs1.setLatDegrees(lat);
+            gs1.setLonPositiveEastDegrees(lon);
+            NTV2GridShift gs2 = new NTV2GridShift();
+            gs2.setLatDegrees(lat);
+            gs2.setLonPositiveEastDegrees(lon);
+            assertTrue(mapped.gridShiftForward(gs1));
+            assertTrue(stream.gridShiftForward(gs2));
+            assertEquals(gs2.getLatShiftSeconds(), gs1.getLatShiftSeconds(), 0);
+            assertEquals(gs2.getLonShiftPositiveWestSeconds(), gs1.getLonShiftPositiveWestSeconds(), 0);
+            assertTrue(gs1.isLatAccuracyAvailable());
+            assertEquals(gs2.getLatAccuracySeconds(), gs1.getLatAccuracySeconds(), 0);
+            assertEquals(gs2.getLonAccuracySeconds(), gs1.getLonAccuracySeconds(), 0);
+        }
+        NTV2GridShift outside = new NTV2GridShift();
+        outside.setLatDegrees(0);
+        outside.setLonPositiveEastDegrees(0);
+        assertFalse(mapped.gridShiftForward(outside));
+    }
+
+    /**
+     * Checks that the batch reverse shift gives the same results as the single coordinate one.
+     * @throws IOException if any I/O error occurs
+     */
+    @Test
+    public void testBatchReverse() throws IOException {
+        NTV2GridShiftFile grid = new NTV2GridShiftFile();
+        grid.loadGridShiftFile(NTF_RGF93, false);
+        Random rand = new Random(42);
+        double[] coords = new double[2 * 1000];
+        for (int i = 0; i < coords.length; i += 2) {
+            coords[i] = 41.5 + rand.nextDouble() * 9.5;
+            coords[i + 1] = -5 + rand.nextDouble() * 14;
+        }
+        coords[0] = 0;
+        coords[1] = 0;
+        double[] shifted = coords.clone();
+        grid.gridShiftReverse(shifted, 0, 1000);
+        for (int i = 0; i < coords.length; i += 2) {
+            NTV2GridShift gs = new NTV2GridShift();
+            gs.setLatDegrees(coords[i]);
+            gs.setLonPositiveEastDegrees(coords[i + 1]);
+            grid.gridShiftReverse(gs);
+            assertEquals(coords[i] + gs.getLatShiftDegrees(), shifted[i], 1e-12);
+            assertEquals(coords[i + 1] + gs.getLonShiftPositiveEastDegrees(), shifted[i + 1], 1e-12);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.Action;
+import javax.swing.Icon;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.data.osm.visitor.BoundingXYVisitor;
+import org.openstreetmap.josm.gui.layer.Layer;
+import org.openstreetmap.josm.gui.layer.OsmDataLayer;
+import org.openstreetmap.josm.gui.mappaint.MapPaintStyles;
+
+/**
+ * Unit tests of {@link LayerPaintCache} class.
+ */
+public class LayerPaintCacheTest {
+
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 200;
+
+    /**
+     * Layer painting a grid of squares, recording the painted areas.
+     */
+    private static class GridLayer extends Layer {
+        private final boolean movable;
+        private final List<Rectangle> paintedAreas = new ArrayList<>();
+
+        GridLayer(boolean movable) {
+            super("grid");
+            this.movable = movable;
+        }
+
+        @Override
+        public void paint(Graphics2D g, MapView mv, Bounds box) {
+            paintedAreas.add(g.getClipBounds());
+            g.setColor(Color.RED);
+            for (int i = -50; i < 50; i++) {
+                for (int j = -50; j < 50; j++) {
+                    Point p = mv.getPoint(new EastNorth(1000 + i * 13, 2000 + j * 7));
+                    g.fillRect(p.x, p.y, 5, 3);
+                }
+            }
+        }
+
+        @Override
+        public boolean isPaintReusableWhenMoved() {
+            return movable;
+        }
+
+        @Override
+        public boolean isChanged() {
+            return false;
+        }
+
+        @Override
+        public Icon getIcon() {
+            return null;
+        }
+
+        @Override
+        public String getToolTipText() {
+            return null;
+        }
+
+        @Override
+        public void mergeFrom(Layer from) {
+        }
+
+        @Override
+        public boolean isMergable(Layer other) {
+            return false;
+        }
+
+        @Override
+        public void visitBoundingBox(BoundingXYVisitor v) {
+        }
+
+        @Override
+        public Object getInfoComponent() {
+            return null;
+        }
+
+        @Override
+        public Action[] getMenuEntries() {
+            return new Action[0];
+        }
+    }
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createUnitTestFixture().init(true);
+        MapPaintStyles.readFromPreferences();
+        Main.map.mapView.setBounds(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static BufferedImage paint(LayerPaintCache cache) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        cache.paint(g, Main.map.mapView);
+        g.dispose();
+        return image;
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual) {
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                assertEquals(x + "," + y, expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    /**
+     * Checks that moving the map only paints the newly visible strips, with the same result as a full paint.
+     */
+    @Test
+    public void testMove() {
+        MapView mv = Main.map.mapView;
+        mv.zoomTo(new EastNorth(1000, 2000), 1);
+        GridLayer layer = new GridLayer(true);
+        LayerPaintCache cache = new LayerPaintCache(layer);
+        paint(cache);
+        assertEquals(1, layer.paintedAreas.size());
+        assertEquals(new Rectangle(0, 0, WIDTH, HEIGHT), layer.paintedAreas.get(0));
+
+        // same view: nothing painted
+        paint(cache);
+        assertEquals(1, layer.paintedAreas.size());
+
+        // move the view by 20 pixels to the east and 10 pixels to the south
+        mv.zoomTo(new EastNorth(1020, 1990), 1);
+        BufferedImage moved = paint(cache);
+        assertEquals(3, layer.paintedAreas.size());
+        assertEquals(new Rectangle(WIDTH - 20, 0, 20, HEIGHT), layer.paintedAreas.get(1));
+        assertEquals(new Rectangle(0, HEIGHT - 10, WIDTH - 20, 10), layer.paintedAreas.get(2));
+        assertSameImage(paint(new LayerPaintCache(layer)), moved);
+
+        // other scale: everything painted
+        layer.paintedAreas.clear();
+        mv.zoomTo(new EastNorth(1020, 1990), 2);
+        paint(cache);
+        assertEquals(1, layer.paintedAreas.size());
+        assertEquals(new Rectangle(0, 0, WIDTH, HEIGHT), layer.paintedAreas.get(0));
+    }
+
+    /**
+     * Checks that layers depending on the visible area are painted again when the map is moved.
+     */
+    @Test
+    public void testMoveNotReusable() {
+        MapView mv = Main.map.mapView;
+        mv.zoomTo(new EastNorth(1000, 2000), 1);
+        GridLayer layer = new GridLayer(false);
+        LayerPaintCache cache = new LayerPaintCache(layer);
+        paint(cache);
+        mv.zoomTo(new EastNorth(1020, 1990), 1);
+        BufferedImage moved = paint(cache);
+        assertEquals(2, layer.paintedAreas.size());
+        assertEquals(new Rectangle(0, 0, WIDTH, HEIGHT), layer.paintedAreas.get(1));
+        assertSameImage(paint(new LayerPaintCache(layer)), moved);
+    }
+
+    /**
+     * Checks that the area of moved nodes is painted again with the same result as a full paint.
+     */
+    @Test
+    public void testOsmDataChangedArea() {
+        MapView mv = Main.map.mapView;
+        mv.zoomTo(new EastNorth(1000, 2000), 1);
+        DataSet ds = new DataSet();
+        Node moved = null;
+        for (int i = 0; i < 10; i++) {
+            Way w = new Way();
+            for (int j = 0; j < 10; j++) {
+                Node n = new Node(new EastNorth(850 + i * 30 + j * 3, 1950 + j * 10));
+                ds.addPrimitive(n);
+                w.addNode(n);
+                if (i == 5 && j == 5) {
+                    moved = n;
+                }
+            }
+            w.put("highway", "residential");
+            w.put("name", "Street " + i);
+            ds.addPrimitive(w);
+        }
+        OsmDataLayer layer = new OsmDataLayer(ds, "test", null);
+        // labels and symbols of the test data are small
+        Main.pref.putInteger("mappaint.partial-repaint.margin", 30);
+        LayerPaintCache cache = new LayerPaintCache(layer);
+        paint(cache);
+        assertTrue(layer.getChangedArea(mv).isEmpty());
+
+        // the previous position of the node is not known yet
+        moved.setEastNorth(new EastNorth(1005, 2000));
+        assertEquals(new Rectangle(0, 0, WIDTH, HEIGHT), layer.getChangedArea(mv));
+        cache.addChangedArea(layer.getChangedArea(mv));
+        paint(cache);
+
+        moved.setEastNorth(new EastNorth(1010, 2002));
+        Rectangle area = layer.getChangedArea(mv);
+        assertTrue(area.toString(), !area.contains(new Rectangle(0, 0, WIDTH, HEIGHT)));
+        cache.addChangedArea(area);
+        BufferedImage changed = paint(cache);
+        assertSameImage(paint(new LayerPaintCache(layer)), changed);
+
+        // tags changes
+        moved.getReferrers().get(0).put("highway", "primary");
+        area = layer.getChangedArea(mv);
+        cache.addChangedArea(area);
+        changed = paint(cache);
+        assertSameImage(paint(new LayerPaintCache(layer)), changed);
+        Main.pref.put("mappaint.partial-repaint.margin", null);
+    }
+
+    /**
+     * Checks that the area of deleted and removed primitives is painted again, with the same result as a full paint.
+     */
+    @Test
+    public void testOsmDataDeletedArea() {
+        MapView mv = Main.map.mapView;
+        mv.zoomTo(new EastNorth(1000, 2000), 1);
+        DataSet ds = new DataSet();
+        Node bench = new Node(new EastNorth(1000, 2000));
+        bench.put("amenity", "bench");
+        ds.addPrimitive(bench);
+        Node shelter = new Node(new EastNorth(1040, 1980));
+        shelter.put("amenity", "shelter");
+        ds.addPrimitive(shelter);
+        OsmDataLayer layer = new OsmDataLayer(ds, "test", null);
+        Main.pref.putInteger("mappaint.partial-repaint.margin", 30);
+        try {
+            LayerPaintCache cache = new LayerPaintCache(layer);
+            BufferedImage full = paint(cache);
+
+            bench.setDeleted(true);
+            Rectangle area = layer.getChangedArea(mv);
+            assertFalse(area.toString(), area.isEmpty());
+            cache.addChangedArea(area);
+            BufferedImage changed = paint(cache);
+            assertSameImage(paint(new LayerPaintCache(layer)), changed);
+            assertDifferentImage(full, changed);
+
+            ds.removePrimitive(shelter);
+            area = layer.getChangedArea(mv);
+            assertFalse(area.toString(), area.isEmpty());
+            cache.addChangedArea(area);
+            changed = paint(cache);
+            assertSameImage(paint(new LayerPaintCache(layer)), changed);
+        } finally {
+            Main.pref.put("mappaint.partial-repaint.margin", null);
+        }
+    }
+
+    private static void assertDifferentImage(BufferedImage expected, BufferedImage actual) {
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                if (expected.getRGB(x, y) != actual.getRGB(x, y))
+                    return;
+            }
+        }
+        fail("The images are the same");
+    }
+}
@@ -0,0 +1,100 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.dialogs;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.DefaultListSelectionModel;
+import javax.swing.ListModel;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+
+/**
+ * Unit tests of {@link SelectionListDialog} class.
+ */
+public class SelectionListDialogTest {
+
+    private ListModel<?> model;
+    private Method merge;
+    private Method update;
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    /**
+     * Creates the list model of the dialog.
+     * @throws ReflectiveOperationException if the model cannot be created
+     */
+    @Before
+    public void setUp() throws ReflectiveOperationException {
+        Class<?> modelClass = Class.forName(SelectionListDialog.class.getName() + "$SelectionListModel");
+        Constructor<?> c = modelClass.getDeclaredConstructor(DefaultListSelectionModel.class);
+        c.setAccessible(true);
+        model = (ListModel<?>) c.newInstance(new DefaultListSelectionModel());
+        merge = modelClass.getDeclaredMethod("merge", Collection.class);
+        merge.setAccessible(true);
+        update = modelClass.getDeclaredMethod("update", Collection.class);
+        update.setAccessible(true);
+    }
+
+    private static Node node(String name) {
+        Node n = new Node(LatLon.ZERO);
+        n.put("name", name);
+        return n;
+    }
+
+    private List<Object> getElements() {
+        List<Object> elements = new ArrayList<>();
+        for (int i = 0; i < model.getSize(); i++) {
+            elements.add(model.getElementAt(i));
+        }
+        return elements;
+    }
+
+    /**
+     * Checks that the new primitives are merged at their place, and that the list is sorted again after a rename.
+     * @throws ReflectiveOperationException if the model cannot be accessed
+     */
+    @Test
+    public void testMerge() throws ReflectiveOperationException {
+        Node a = node("a");
+        Node b = node("b");
+        Node c = node("c");
+        Node e = node("e");
+
+        merge.invoke(model, Arrays.asList(c, a));
+        assertEquals(Arrays.<Object>asList(a, c), getElements());
+
+        merge.invoke(model, Arrays.asList(a, b, c));
+        assertEquals(Arrays.<Object>asList(a, b, c), getElements());
+
+        // removed primitives
+        merge.invoke(model, Arrays.asList(a, c));
+        assertEquals(Arrays.<Object>asList(a, c), getElements());
+        merge.invoke(model, Arrays.asList(a, b, c));
+
+        // a renamed primitive is sorted at its new place
+        a.put("name", "d");
+        update.invoke(model, Collections.<OsmPrimitive>singleton(a));
+        merge.invoke(model, Arrays.asList(a, b, c, e));
+        assertEquals(Arrays.<Object>asList(b, c, a, e), getElements());
+    }
+}
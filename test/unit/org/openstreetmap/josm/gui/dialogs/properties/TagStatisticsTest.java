@@ -0,0 +1,117 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.dialogs.properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmUtils;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.tagging.presets.TaggingPresetType;
+
+/**
+ * Unit tests of {@link TagStatistics} class.
+ */
+public class TagStatisticsTest {
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    private static Map<String, Integer> counts(Object... valuesAndCounts) {
+        Map<String, Integer> map = new TreeMap<>();
+        for (int i = 0; i < valuesAndCounts.length; i += 2) {
+            map.put((String) valuesAndCounts[i], (Integer) valuesAndCounts[i + 1]);
+        }
+        return map;
+    }
+
+    /**
+     * Checks the counts after changes of the set of primitives and of their tags.
+     */
+    @Test
+    public void testCounts() {
+        Node n1 = (Node) OsmUtils.createPrimitive("node highway=crossing name=A");
+        Node n2 = (Node) OsmUtils.createPrimitive("node highway=stop");
+        Way w = (Way) OsmUtils.createPrimitive("way highway=residential name=A");
+        TagStatistics stats = new TagStatistics();
+
+        assertTrue(stats.setPrimitives(Arrays.asList(n1, n2)));
+        assertFalse(stats.setPrimitives(Arrays.asList(n2, n1)));
+        Map<String, Map<String, Integer>> valueCount = stats.getValueCount();
+        assertEquals(counts("crossing", 1, "stop", 1), valueCount.get("highway"));
+        assertEquals(counts("", 1, "A", 1), valueCount.get("name"));
+        assertEquals(EnumSet.of(TaggingPresetType.NODE), stats.getTypes());
+
+        assertTrue(stats.setPrimitives(Arrays.asList(n1, w)));
+        valueCount = stats.getValueCount();
+        assertEquals(counts("crossing", 1, "residential", 1), valueCount.get("highway"));
+        assertEquals(counts("A", 2), valueCount.get("name"));
+        assertEquals(EnumSet.of(TaggingPresetType.NODE, TaggingPresetType.WAY), stats.getTypes());
+
+        // the tags counted before the change are uncounted
+        n1.remove("name");
+        n1.put("ref", "1");
+        stats.update(Collections.singleton(n1));
+        // primitives not in the set are ignored
+        n2.put("name", "B");
+        stats.update(Collections.singleton(n2));
+        valueCount = stats.getValueCount();
+        assertEquals(counts("", 1, "A", 1), valueCount.get("name"));
+        assertEquals(counts("", 1, "1", 1), valueCount.get("ref"));
+        // a value changed in place
+        w.put("highway", "service");
+        stats.update(Collections.singleton(w));
+        assertEquals(counts("crossing", 1, "service", 1), stats.getValueCount().get("highway"));
+
+        assertTrue(stats.setPrimitives(Collections.singleton(w)));
+        assertEquals(1, stats.size());
+        assertEquals(2, stats.getValueCount().size());
+        stats.clear();
+        assertTrue(stats.getValueCount().isEmpty());
+        assertTrue(stats.getTypes().isEmpty());
+    }
+
+    /**
+     * Checks that primitives are still found when their id changes, e.g. after an upload.
+     */
+    @Test
+    public void testIdChange() {
+        Node n = (Node) OsmUtils.createPrimitive("node name=A");
+        TagStatistics stats = new TagStatistics();
+        stats.setPrimitives(Collections.singleton(n));
+        n.setOsmId(123, 1);
+        assertFalse(stats.setPrimitives(Collections.singleton(n)));
+        assertEquals(counts("A", 1), stats.getValueCount().get("name"));
+    }
+
+    /**
+     * Checks the discardable keys are only counted if displayed.
+     */
+    @Test
+    public void testDiscardableKeys() {
+        Node n = (Node) OsmUtils.createPrimitive("node name=A created_by=JOSM");
+        TagStatistics stats = new TagStatistics();
+        stats.setPrimitives(Collections.singleton(n));
+        assertEquals(Collections.singleton("name"), stats.getValueCount().keySet());
+        stats.setDisplayDiscardableKeys(true);
+        assertEquals(2, stats.getValueCount().size());
+        stats.setDisplayDiscardableKeys(false);
+        assertEquals(Collections.singleton("name"), stats.getValueCount().keySet());
+        assertEquals(counts("A", 1), stats.getValueCount().get("name"));
+    }
+}
@@ -4,7 +4,9 @@ package org.openstreetmap.josm.gui.dialogs.relation.sort;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Assert;
@@ -13,6 +15,7 @@ import org.junit.Test;
 import org.openstreetmap.josm.Main;
 import org.openstreetmap.josm.data.osm.DataSet;
 import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
 import org.openstreetmap.josm.data.projection.Projections;
 import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
 import org.openstreetmap.josm.io.IllegalDataException;
@@ -108,4 +111,33 @@ public class WayConnectionTypeCalculatorTest {
         actual = getConnections(wayConnectionTypeCalculator.updateLinks(sorter.sortMembers(relation.getMembers())));
         Assert.assertEquals("[BACKWARD, BACKWARD, BACKWARD, FPH FORWARD, FPH FORWARD, FPH FORWARD, FPH FORWARD]", actual);
     }
+
+    /**
+     * Checks that the connection types calculated again after changes of the members are the same as the ones
+     * calculated from scratch.
+     */
+    @Test
+    public void testUpdateLinksIncrementally() {
+        for (String testType : Arrays.asList("generic", "loop")) {
+            List<RelationMember> members = new ArrayList<>(getRelation(testType).getMembers());
+            wayConnectionTypeCalculator.updateLinks(members);
+            for (int i = 0; i < members.size(); i++) {
+                // move a member to the end, and reverse the members after it
+                members.add(members.remove(i));
+                checkUpdateLinksIncrementally(members);
+                Collections.reverse(members.subList(i, members.size()));
+                checkUpdateLinksIncrementally(members);
+            }
+            // remove the last members
+            while (members.size() > 1) {
+                members.remove(members.size() - 1);
+                checkUpdateLinksIncrementally(members);
+            }
+        }
+    }
+
+    private void checkUpdateLinksIncrementally(List<RelationMember> members) {
+        Assert.assertEquals(getConnections(new WayConnectionTypeCalculator().updateLinks(members)),
+                getConnections(wayConnectionTypeCalculator.updateLinksIncrementally(members)));
+    }
 }
@@ -0,0 +1,103 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.data.gpx.ImmutableGpxTrack;
+import org.openstreetmap.josm.data.gpx.WayPoint;
+
+/**
+ * Unit tests of {@link GpxLevelOfDetail} class.
+ */
+public class GpxLevelOfDetailTest {
+
+    /**
+     * Checks the importance of points computed by the Douglas-Peucker algorithm.
+     */
+    @Test
+    public void testImportance() {
+        double[] x = {0, 1, 2, 3, 4, 5, 6};
+        double[] y = {0, 0.1, 0, 3, 0, 0.5, 0};
+        float[] importance = GpxLevelOfDetail.computeImportance(x, y);
+        assertEquals(Float.POSITIVE_INFINITY, importance[0], 0);
+        assertEquals(Float.POSITIVE_INFINITY, importance[6], 0);
+        assertEquals(3, importance[3], 1e-6);
+        // the point at (5, 0.5) is kept up to its distance to the (4, 0)-(6, 0) line, once (4, 0) is kept
+        assertEquals(0.5, importance[5], 1e-6);
+        assertEquals(2 / Math.sqrt(2), importance[4], 1e-6);
+        // the point at (1, 0.1) is kept up to its distance to the (0, 0)-(2, 0) line, once (2, 0) is kept
+        assertEquals(0.1, importance[1], 1e-6);
+        assertTrue(importance[2] > importance[1]);
+    }
+
+    /**
+     * Checks that a point is never more important than the points which split the line before it.
+     */
+    @Test
+    public void testImportanceIsMonotonic() {
+        double[] x = {0, 8, 5, 10};
+        double[] y = {0, 0.5, 1, 0};
+        float[] importance = GpxLevelOfDetail.computeImportance(x, y);
+        assertEquals(1, importance[2], 1e-6);
+        // (8, 0.5) is far from the (0, 0)-(5, 1) line, but only considered once (5, 1) is kept
+        assertEquals(importance[2], importance[1], 0);
+    }
+
+    /**
+     * Checks that points without coordinates split the line and are always kept.
+     */
+    @Test
+    public void testNaN() {
+        double[] x = {0, 1, Double.NaN, 3, 4};
+        double[] y = {0, 1, Double.NaN, 1, 0};
+        float[] importance = GpxLevelOfDetail.computeImportance(x, y);
+        for (float f : importance) {
+            assertEquals(Float.POSITIVE_INFINITY, f, 0);
+        }
+    }
+
+    /**
+     * Checks that a level shares the way points of the full data, and keeps the interruptions of the lines.
+     */
+    @Test
+    public void testUpdate() {
+        List<WayPoint> points = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            WayPoint wp = new WayPoint(new LatLon(0, i));
+            wp.drawLine = i != 0 && i != 2;
+            points.add(wp);
+        }
+        GpxData data = new GpxData();
+        data.tracks.add(new ImmutableGpxTrack(Collections.<Collection<WayPoint>>singleton(points),
+                Collections.<String, Object>emptyMap()));
+        // keeps the points 0, 1 and 5
+        float[] importance = {Float.POSITIVE_INFINITY, 2, 0, 0, 0, Float.POSITIVE_INFINITY};
+        GpxLevelOfDetail.Level level = new GpxLevelOfDetail.Level(1,
+                Collections.singletonList(Collections.singletonList(importance)), 1);
+        level.update(data);
+
+        List<WayPoint> line = new ArrayList<>(level.getLinesIterable(null).iterator().next());
+        // the line from 1 to 2 is not drawn, so 2 is drawn too
+        assertEquals(4, line.size());
+        assertSame(points.get(0), line.get(0));
+        assertSame(points.get(1), line.get(1));
+        assertSame(points.get(2), line.get(2));
+        assertSame(points.get(5), line.get(3));
+        assertFalse(line.get(2).drawLine);
+        assertTrue(line.get(3).drawLine);
+
+        // hidden tracks are not returned
+        assertFalse(level.getLinesIterable(new boolean[] {false}).iterator().hasNext());
+    }
+}
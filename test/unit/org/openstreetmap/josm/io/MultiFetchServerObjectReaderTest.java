@@ -0,0 +1,295 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.Way;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests of {@link MultiFetchServerObjectReader} class, partly against a local HTTP server.
+ */
+public class MultiFetchServerObjectReaderTest {
+
+    private static HttpServer server;
+    private static ExecutorService serverExecutor;
+    /** the queries received by the server, such as {@code nodes?nodes=1,2} */
+    private static final List<String> queries = Collections.synchronizedList(new ArrayList<String>());
+    /** if set, the requests of ways and relations wait for each other */
+    private static volatile CountDownLatch rendezvous;
+    private static final AtomicBoolean concurrent = new AtomicBoolean();
+    /** if set, the requests of nodes are counted down on this latch, and wait for {@link #releaseNodes} */
+    private static volatile CountDownLatch nodesReceived;
+    private static volatile CountDownLatch releaseNodes;
+
+    /**
+     * Setup test.
+     * @throws IOException if the server cannot be started
+     */
+    @BeforeClass
+    public static void setUp() throws IOException {
+        JOSMFixture.createUnitTestFixture().init();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String query = exchange.getRequestURI().getQuery();
+                if (query == null) {
+                    reply(exchange, "<osm version='0.6'><api><version minimum='0.6' maximum='0.6'/></api></osm>");
+                    return;
+                }
+                String path = exchange.getRequestURI().getPath();
+                String type = path.substring(path.lastIndexOf('/') + 1);
+                queries.add(type + '?' + query);
+                try {
+                    await(type);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                StringBuilder sb = new StringBuilder("<osm version='0.6'>");
+                for (String id : query.substring(query.indexOf('=') + 1).split(",")) {
+                    long i = Long.parseLong(id);
+                    switch (type) {
+                    case "nodes":
+                        sb.append("<node id='").append(i).append("' version='1' visible='true' lat='0' lon='")
+                          .append(i / 1000.0).append("'/>");
+                        break;
+                    case "ways":
+                        sb.append("<way id='").append(i).append("' version='1' visible='true'>")
+                          .append("<nd ref='").append(i * 10 + 1).append("'/>")
+                          .append("<nd ref='").append(i * 10 + 2).append("'/></way>");
+                        break;
+                    default:
+                        sb.append("<relation id='").append(i).append("' version='1' visible='true'>")
+                          .append("<tag k='type' v='test'/></relation>");
+                    }
+                }
+                reply(exchange, sb.append("</osm>").toString());
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        Main.pref.put("osm-server.url", "http://localhost:" + server.getAddress().getPort() + "/api");
+        Main.pref.putInteger("osm.download.threads", 2);
+    }
+
+    /**
+     * Stops the server.
+     */
+    @AfterClass
+    public static void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        Main.pref.put("osm-server.url", null);
+        Main.pref.put("osm.download.threads", null);
+    }
+
+    private static void await(String type) throws InterruptedException {
+        CountDownLatch latch = rendezvous;
+        if (latch != null && !"nodes".equals(type)) {
+            latch.countDown();
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                concurrent.set(false);
+            }
+        }
+        CountDownLatch received = nodesReceived;
+        CountDownLatch release = releaseNodes;
+        if (received != null && release != null && "nodes".equals(type)) {
+            received.countDown();
+            release.await(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void reply(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Set<Long> ids(long first, int count) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (long id = first; id < first + count; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Checks that packages of ids are limited by the maximal number of ids and by the length of the request.
+     */
+    @Test
+    public void testExtractIdPackage() {
+        Set<Long> ids = ids(1, 300);
+        Set<Long> pkg = MultiFetchServerObjectReader.extractIdPackage(ids, 200);
+        assertEquals(200, pkg.size());
+        assertEquals(Long.valueOf(1), pkg.iterator().next());
+        assertEquals(100, ids.size());
+        assertEquals(Long.valueOf(201), ids.iterator().next());
+
+        // 13 characters per id, the request string is limited to 1600 characters
+        ids = ids(100000000000L, 300);
+        pkg = MultiFetchServerObjectReader.extractIdPackage(ids, 200);
+        assertEquals(1600 / 13, pkg.size());
+        assertEquals(300 - 1600 / 13, ids.size());
+        assertFalse(ids.removeAll(pkg));
+
+        // the remaining ids
+        ids = ids(1, 5);
+        pkg = MultiFetchServerObjectReader.extractIdPackage(ids, 200);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), new ArrayList<>(pkg));
+        assertTrue(ids.isEmpty());
+    }
+
+    /**
+     * Checks that the number of ids per request is adapted to the download time and to the number of threads.
+     */
+    @Test
+    public void testGetIdsPerRequest() {
+        // fast downloads, the requests are limited to 200 ids
+        for (int i = 0; i < 100; i++) {
+            MultiFetchServerObjectReader.recordDownloadTime(OsmPrimitiveType.WAY, 1000, 0);
+        }
+        assertEquals(200, MultiFetchServerObjectReader.getIdsPerRequest(OsmPrimitiveType.WAY, 1000, 1));
+        // the remaining ids are split between the threads
+        assertEquals(150, MultiFetchServerObjectReader.getIdsPerRequest(OsmPrimitiveType.WAY, 300, 2));
+        // but not in requests of less than 10 ids
+        assertEquals(10, MultiFetchServerObjectReader.getIdsPerRequest(OsmPrimitiveType.WAY, 20, 4));
+        assertEquals(3, MultiFetchServerObjectReader.getIdsPerRequest(OsmPrimitiveType.WAY, 3, 4));
+
+        // slow downloads of 120 ms per id, the requests last about 5 seconds
+        for (int i = 0; i < 100; i++) {
+            MultiFetchServerObjectReader.recordDownloadTime(OsmPrimitiveType.WAY, 10, 1200);
+        }
+        assertEquals(41, MultiFetchServerObjectReader.getIdsPerRequest(OsmPrimitiveType.WAY, 1000, 1));
+        assertEquals(15, MultiFetchServerObjectReader.getIdsPerRequest(OsmPrimitiveType.WAY, 60, 4));
+    }
+
+    /**
+     * Checks that the types are fetched concurrently, and that the nodes of the incomplete ways are fetched.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testParseOsm() throws Exception {
+        queries.clear();
+        concurrent.set(true);
+        rendezvous = new CountDownLatch(2);
+        DataSet ds;
+        try {
+            ds = new MultiFetchServerObjectReader()
+                .append(new Way(1))
+                .append(new Relation(2))
+                .append(new Node(3))
+                .parseOsm(NullProgressMonitor.INSTANCE);
+        } finally {
+            rendezvous = null;
+        }
+        assertTrue(queries.toString(), concurrent.get());
+
+        Way w = (Way) ds.getPrimitiveById(1, OsmPrimitiveType.WAY);
+        assertNotNull(w);
+        assertFalse(w.isIncomplete());
+        assertEquals(2, w.getNodesCount());
+        for (Node n : w.getNodes()) {
+            assertFalse(n.isIncomplete());
+        }
+        assertEquals("test", ds.getPrimitiveById(2, OsmPrimitiveType.RELATION).get("type"));
+        assertNotNull(ds.getPrimitiveById(3, OsmPrimitiveType.NODE));
+        assertTrue(queries.toString(), queries.contains("ways?ways=1"));
+        assertTrue(queries.toString(), queries.contains("relations?relations=2"));
+    }
+
+    /**
+     * Checks that two readers fetching the same objects at the same time share the request to the server.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testSharedRequest() throws Exception {
+        queries.clear();
+        nodesReceived = new CountDownLatch(1);
+        releaseNodes = new CountDownLatch(1);
+        final AtomicReference<DataSet> ds1 = new AtomicReference<>();
+        final AtomicReference<DataSet> ds2 = new AtomicReference<>();
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        Thread t1 = new Thread(new Fetch(ds1, error));
+        Thread t2 = new Thread(new Fetch(ds2, error));
+        try {
+            t1.start();
+            assertTrue(nodesReceived.await(10, TimeUnit.SECONDS));
+            t2.start();
+            // the second reader waits for the request of the first one
+            long timeout = System.currentTimeMillis() + 10000;
+            while (t2.getState() != Thread.State.WAITING && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+        } finally {
+            releaseNodes.countDown();
+            nodesReceived = null;
+            releaseNodes = null;
+        }
+        t1.join(10000);
+        t2.join(10000);
+        assertNull(error.get());
+        assertEquals(Collections.singletonList("nodes?nodes=10,11"), queries);
+        assertEquals(2, ds1.get().getNodes().size());
+        assertEquals(2, ds2.get().getNodes().size());
+    }
+
+    private static class Fetch implements Runnable {
+        private final AtomicReference<DataSet> result;
+        private final AtomicReference<Exception> error;
+
+        Fetch(AtomicReference<DataSet> result, AtomicReference<Exception> error) {
+            this.result = result;
+            this.error = error;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result.set(new MultiFetchServerObjectReader()
+                    .append(new Node(10))
+                    .append(new Node(11))
+                    .parseOsm(NullProgressMonitor.INSTANCE));
+            } catch (OsmTransferException e) {
+                error.set(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.Changeset;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests of {@link OsmApi} class, against a local HTTP server.
+ */
+public class OsmApiTest {
+
+    private static final String CAPABILITIES =
+            "<osm version=\"0.6\" generator=\"test\"><api>" +
+            "<version minimum=\"0.6\" maximum=\"0.6\"/>" +
+            "<area maximum=\"0.25\"/>" +
+            "<changesets maximum_elements=\"10000\"/>" +
+            "<timeout seconds=\"300\"/>" +
+            "</api></osm>";
+
+    private static HttpServer server;
+    private static final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+    private static volatile String uploadBody;
+    private static volatile String uploadContentLength;
+    /** server closing the connections idle for more than 100 ms */
+    private static ServerSocket idleClosingServer;
+    private static final AtomicInteger idleClosingConnections = new AtomicInteger();
+
+    /**
+     * Setup test.
+     * @throws IOException if the server cannot be started
+     */
+    @BeforeClass
+    public static void setUp() throws IOException {
+        JOSMFixture.createUnitTestFixture().init();
+        Main.pref.put("osm-server.username", "test");
+        Main.pref.put("osm-server.password", "test");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/capabilities", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                reply(exchange, CAPABILITIES);
+            }
+        });
+        server.createContext("/api/0.6/changeset/1/upload", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                uploadContentLength = exchange.getRequestHeaders().getFirst("Content-length");
+                uploadBody = read(exchange.getRequestBody());
+                Matcher m = Pattern.compile("<node id='(-\\d+)'").matcher(uploadBody);
+                reply(exchange, "<diffResult version=\"0.6\" generator=\"test\">" +
+                        (m.find() ? "<node old_id=\"" + m.group(1) + "\" new_id=\"1234\" new_version=\"1\"/>" : "") +
+                        "</diffResult>");
+            }
+        });
+        server.start();
+
+        idleClosingServer = new ServerSocket(0, 0, InetAddress.getByName("localhost"));
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        final Socket socket = idleClosingServer.accept();
+                        idleClosingConnections.incrementAndGet();
+                        new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                serveUntilIdle(socket);
+                            }
+                        }).start();
+                    }
+                } catch (IOException e) {
+                    // the server is stopped
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Stops the servers.
+     * @throws IOException if an I/O error occurs
+     */
+    @AfterClass
+    public static void tearDown() throws IOException {
+        server.stop(0);
+        idleClosingServer.close();
+        Main.pref.put("osm-server.username", null);
+        Main.pref.put("osm-server.password", null);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c == -1)
+                return null;
+            if (c != '\r') {
+                sb.append((char) c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Answers the requests received on a connection, and closes it as soon as it is idle.
+     * @param socket the connection
+     */
+    private static void serveUntilIdle(Socket socket) {
+        try (Socket s = socket) {
+            s.setSoTimeout(100);
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            OutputStream out = s.getOutputStream();
+            String requestLine;
+            while ((requestLine = readLine(in)) != null) {
+                int length = 0;
+                for (String header = readLine(in); header != null && !header.isEmpty(); header = readLine(in)) {
+                    if (header.toLowerCase().startsWith("content-length:")) {
+                        length = Integer.parseInt(header.substring(15).trim());
+                    }
+                }
+                for (int i = 0; i < length; i++) {
+                    in.read();
+                }
+                byte[] body = (requestLine.contains("/capabilities") ? CAPABILITIES : "1").getBytes(StandardCharsets.UTF_8);
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/xml\r\nContent-Length: " + body.length + "\r\n\r\n")
+                        .getBytes(StandardCharsets.UTF_8));
+                out.write(body);
+                out.flush();
+            }
+        } catch (SocketTimeoutException e) {
+            // the connection is idle, and closed
+            return;
+        } catch (IOException e) {
+            Main.error(e);
+        }
+    }
+
+    private static void reply(HttpExchange exchange, String body) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-type", "text/xml");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Checks that a diff upload is streamed with a correct Content-length, that its response is processed
+     * and that the connection is reused.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testUploadDiff() throws Exception {
+        OsmApi api = OsmApi.getOsmApi("http://localhost:" + server.getAddress().getPort() + "/api");
+        api.initialize(NullProgressMonitor.INSTANCE);
+        Changeset cs = new Changeset(1);
+        cs.setOpen(true);
+        api.setChangeset(cs);
+
+        Node n = new Node(new LatLon(1, 2));
+        n.put("name", "café");
+        api.uploadDiff(Collections.singleton(n), NullProgressMonitor.INSTANCE);
+        assertEquals(1234, n.getId());
+        assertEquals(1, n.getVersion());
+
+        assertTrue(uploadBody, uploadBody.contains("<create>"));
+        assertTrue(uploadBody, uploadBody.contains("café"));
+        assertEquals(Integer.toString(uploadBody.getBytes(StandardCharsets.UTF_8).length), uploadContentLength);
+
+        Node n2 = new Node(new LatLon(3, 4));
+        api.uploadDiff(Collections.singleton(n2), NullProgressMonitor.INSTANCE);
+        assertEquals(1234, n2.getId());
+        // the connection is kept alive between the requests
+        assertEquals(clientPorts.toString(), 1, clientPorts.size());
+    }
+
+    /**
+     * Checks that a request is sent again on a new connection if the server closed the idle connection kept alive.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testIdleConnectionClosed() throws Exception {
+        OsmApi api = OsmApi.getOsmApi("http://localhost:" + idleClosingServer.getLocalPort() + "/api");
+        api.initialize(NullProgressMonitor.INSTANCE);
+        // the server closes the connection kept alive for the next request
+        Thread.sleep(500);
+        Changeset cs = new Changeset();
+        api.openChangeset(cs, NullProgressMonitor.INSTANCE);
+        assertEquals(1, cs.getId());
+        assertEquals(2, idleClosingConnections.get());
+    }
+}
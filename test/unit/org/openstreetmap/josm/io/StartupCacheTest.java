@@ -0,0 +1,155 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.validation.tests.MapCSSTagChecker;
+import org.openstreetmap.josm.data.validation.tests.MapCSSTagChecker.ParseResult;
+import org.openstreetmap.josm.data.validation.tests.MapCSSTagChecker.TagCheck;
+import org.openstreetmap.josm.gui.mappaint.mapcss.MapCSSTokens;
+import org.openstreetmap.josm.gui.tagging.presets.TaggingPreset;
+import org.openstreetmap.josm.gui.tagging.presets.TaggingPresetItem;
+import org.openstreetmap.josm.gui.tagging.presets.TaggingPresetReader;
+import org.openstreetmap.josm.gui.tagging.presets.items.KeyedItem;
+import org.openstreetmap.josm.tools.SaxEvents;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Unit tests of {@link StartupCache} class.
+ */
+public class StartupCacheTest {
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    /**
+     * Deletes the snapshots of the previous tests.
+     */
+    @Before
+    public void setUp() {
+        Utils.deleteDirectory(new File(Main.pref.getCacheDirectory(), "startup"));
+    }
+
+    private static class Text implements StartupCache.Snapshot {
+        private static final StartupCache.SnapshotReader<Text> READER = new StartupCache.SnapshotReader<Text>() {
+            @Override
+            public Text read(DataInputStream in) throws IOException {
+                return new Text(StartupCache.readString(in));
+            }
+        };
+
+        private final String text;
+
+        Text(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void writeTo(DataOutputStream out) throws IOException {
+            StartupCache.writeString(out, text);
+        }
+    }
+
+    private static byte[] read(String source) throws IOException {
+        try (InputStream in = new CachedFile(source).getInputStream()) {
+            return Utils.readBytesFromStream(in);
+        }
+    }
+
+    /**
+     * Checks that a snapshot is only read for the same content and parameters.
+     */
+    @Test
+    public void testKey() {
+        byte[] content = "content".getBytes(StandardCharsets.UTF_8);
+        byte[] key = StartupCache.getKey(content, "a");
+        assertArrayEquals(key, StartupCache.getKey(content, "a"));
+        assertNull(StartupCache.read("test", "source", key, Text.READER));
+
+        StartupCache.write("test", "source", key, new Text("snapshot"));
+        assertEquals("snapshot", StartupCache.read("test", "source", key, Text.READER).text);
+        assertNull(StartupCache.read("test", "other source", key, Text.READER));
+        assertNull(StartupCache.read("test", "source", StartupCache.getKey(content, "b"), Text.READER));
+        assertNull(StartupCache.read("test", "source", StartupCache.getKey("changed".getBytes(StandardCharsets.UTF_8), "a"),
+                Text.READER));
+
+        // a newer snapshot replaces the previous one
+        StartupCache.write("test", "source", key, new Text("new snapshot"));
+        assertEquals("new snapshot", StartupCache.read("test", "source", key, Text.READER).text);
+    }
+
+    private static List<String> describe(TaggingPreset preset) {
+        List<String> items = new ArrayList<>();
+        items.add(preset.getRawName() + ' ' + preset.types);
+        for (TaggingPresetItem item : preset.data) {
+            if (item instanceof KeyedItem) {
+                items.add(item.getClass().getSimpleName() + ' ' + ((KeyedItem) item).key + ' ' + ((KeyedItem) item).getValues());
+            } else {
+                items.add(item.getClass().getSimpleName());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Checks that the presets read from the XML events of the cache are the same as the parsed ones.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testPresets() throws Exception {
+        String source = "resource://data/defaultpresets.xml";
+        byte[] key = StartupCache.getKey(read(source), "true");
+        List<TaggingPreset> parsed = new ArrayList<>(TaggingPresetReader.readAll(source, true));
+        assertNotNull(StartupCache.read("presets", source, key, SaxEvents.READER));
+
+        List<TaggingPreset> replayed = new ArrayList<>(TaggingPresetReader.readAll(source, true));
+        assertEquals(parsed.size(), replayed.size());
+        assertFalse(parsed.isEmpty());
+        for (int i = 0; i < parsed.size(); i++) {
+            assertEquals(describe(parsed.get(i)), describe(replayed.get(i)));
+        }
+    }
+
+    /**
+     * Checks that the tag checks read from the tokens of the cache are the same as the parsed ones.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testValidatorRules() throws Exception {
+        String source = "resource://data/validator/deprecated.mapcss";
+        ParseResult parsed = new MapCSSTagChecker().addMapCSS(source);
+        assertNotNull(StartupCache.read("validator", source, MapCSSTokens.getKey(read(source)), MapCSSTokens.READER));
+
+        ParseResult replayed = new MapCSSTagChecker().addMapCSS(source);
+        assertEquals(parsed.parseErrors.size(), replayed.parseErrors.size());
+        assertEquals(parsed.parseChecks.size(), replayed.parseChecks.size());
+        assertFalse(parsed.parseChecks.isEmpty());
+        for (int i = 0; i < parsed.parseChecks.size(); i++) {
+            TagCheck check = parsed.parseChecks.get(i);
+            assertEquals(check.toString(), replayed.parseChecks.get(i).toString());
+        }
+    }
+}
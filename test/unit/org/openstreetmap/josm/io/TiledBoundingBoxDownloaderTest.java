@@ -0,0 +1,191 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.Main;
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests of {@link TiledBoundingBoxDownloader} class, against a local HTTP server.
+ */
+public class TiledBoundingBoxDownloaderTest {
+
+    /** The server rejects areas wider than this size, in degrees */
+    private static final double MAX_SIZE = 0.1;
+    /** The server replies an unrelated error for areas north of this latitude */
+    private static final double INVALID_LAT = 10;
+    /** The server rejects any area north of this latitude, as containing too many nodes */
+    private static final double DENSE_LAT = 20;
+
+    private static HttpServer server;
+    private static final AtomicInteger requests = new AtomicInteger();
+    private static final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * Setup test.
+     * @throws IOException if the server cannot be started
+     */
+    @BeforeClass
+    public static void setUp() throws IOException {
+        JOSMFixture.createUnitTestFixture().init();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String query = exchange.getRequestURI().getQuery();
+                if (query == null) {
+                    reply(exchange, 200, "<osm version='0.6'><api><version minimum='0.6' maximum='0.6'/></api></osm>");
+                    return;
+                }
+                requests.incrementAndGet();
+                String[] bbox = query.substring("bbox=".length()).split(",");
+                double minLon = Double.parseDouble(bbox[0]);
+                double minLat = Double.parseDouble(bbox[1]);
+                double maxLon = Double.parseDouble(bbox[2]);
+                double maxLat = Double.parseDouble(bbox[3]);
+                if (minLat >= DENSE_LAT || maxLon - minLon > MAX_SIZE) {
+                    exchange.getResponseHeaders().add("Error", "You requested too many nodes (limit is 50000).");
+                    reply(exchange, 400, "You requested too many nodes (limit is 50000).");
+                } else if (minLat >= INVALID_LAT) {
+                    exchange.getResponseHeaders().add("Error", "The server does not support this request.");
+                    reply(exchange, 400, "The server does not support this request.");
+                } else {
+                    reply(exchange, 200, "<osm version='0.6'>" +
+                            "<bounds minlat='" + minLat + "' minlon='" + minLon + "' maxlat='" + maxLat + "' maxlon='" + maxLon + "'/>" +
+                            "<node id='" + nextId.getAndIncrement() + "' version='1' visible='true' " +
+                            "lat='" + (minLat + maxLat) / 2 + "' lon='" + (minLon + maxLon) / 2 + "'/></osm>");
+                }
+            }
+        });
+        server.start();
+        Main.pref.put("osm-server.url", "http://localhost:" + server.getAddress().getPort() + "/api");
+    }
+
+    /**
+     * Stops the server.
+     */
+    @AfterClass
+    public static void tearDown() {
+        server.stop(0);
+        Main.pref.put("osm-server.url", null);
+        Main.pref.put("osm-server.max-request-splits", null);
+    }
+
+    private static void reply(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Checks the splitting of large areas into tiles.
+     */
+    @Test
+    public void testGetTiles() {
+        List<Bounds> tiles = new TiledBoundingBoxDownloader(new Bounds(0, 0, 1, 1)).getTiles(0.25);
+        assertEquals(4, tiles.size());
+        assertEquals(new Bounds(0, 0, 0.5, 0.5), tiles.get(0));
+
+        tiles = new TiledBoundingBoxDownloader(new Bounds(0, 0, 1, 1)).getTiles(0.1);
+        assertEquals(16, tiles.size());
+
+        // areas crossing the 180th meridian are split at the meridian
+        tiles = new TiledBoundingBoxDownloader(new Bounds(0, 179.8, 0.2, -179.8)).getTiles(0.25);
+        assertEquals(2, tiles.size());
+        assertEquals(new Bounds(0, 179.8, 0.2, 180), tiles.get(0));
+        assertEquals(new Bounds(0, -180, 0.2, -179.8), tiles.get(1));
+    }
+
+    /**
+     * Checks that tiles rejected by the server are split again, and that all tiles are merged.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testParseOsm() throws Exception {
+        requests.set(0);
+        DataSet ds = new TiledBoundingBoxDownloader(new Bounds(0, 0, 0.3, 0.3)).parseOsm(NullProgressMonitor.INSTANCE);
+        // 1 rejected area of 0.3°, 4 rejected areas of 0.15° and 16 areas of 0.075°
+        assertEquals(21, requests.get());
+        assertEquals(16, ds.getNodes().size());
+        assertEquals(16, ds.dataSources.size());
+        assertTrue(ds.getDataSourceIndex().contains(new LatLon(0.01, 0.29)));
+        assertEquals(new Bounds(0, 0, 0.3, 0.3), ds.getDataSourceIndex().getBounds());
+    }
+
+    /**
+     * Checks which errors of the server are solved by splitting the area.
+     */
+    @Test
+    public void testIsRejectedAsTooLarge() {
+        assertTrue(TiledBoundingBoxDownloader.isRejectedAsTooLarge(
+                new OsmApiException(400, "You requested too many nodes (limit is 50000). Either request a smaller area, or use planet.osm", null)));
+        assertTrue(TiledBoundingBoxDownloader.isRejectedAsTooLarge(
+                new OsmApiException(400, null, "The maximum bbox size is 0.25, and your request was too large.")));
+        assertFalse(TiledBoundingBoxDownloader.isRejectedAsTooLarge(
+                new OsmApiException(400, "The latitudes must be between -90 and 90", null)));
+        assertFalse(TiledBoundingBoxDownloader.isRejectedAsTooLarge(
+                new OsmApiException(509, "You requested too many nodes (limit is 50000).", null)));
+        assertFalse(TiledBoundingBoxDownloader.isRejectedAsTooLarge(new OsmTransferException("test")));
+    }
+
+    /**
+     * Checks that an area rejected for another reason than its size is not split.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testUnrelatedBadRequest() throws Exception {
+        requests.set(0);
+        try {
+            new TiledBoundingBoxDownloader(new Bounds(10, 0, 10.05, 0.05)).parseOsm(NullProgressMonitor.INSTANCE);
+            fail("The download should fail");
+        } catch (OsmApiException e) {
+            assertEquals(400, e.getResponseCode());
+        }
+        assertEquals(1, requests.get());
+    }
+
+    /**
+     * Checks that an area still rejected after the max. number of splits is not split again.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    public void testMaxSplits() throws Exception {
+        Main.pref.putInteger("osm-server.max-request-splits", 2);
+        requests.set(0);
+        try {
+            new TiledBoundingBoxDownloader(new Bounds(20, 0, 20.05, 0.05)).parseOsm(NullProgressMonitor.INSTANCE);
+            fail("The download should fail");
+        } catch (OsmApiException e) {
+            assertEquals(400, e.getResponseCode());
+        } finally {
+            Main.pref.put("osm-server.max-request-splits", null);
+        }
+        // at most 1 area of 0.05°, 4 areas of 0.025° and 16 areas of 0.0125°
+        assertTrue(Integer.toString(requests.get()), requests.get() > 5 && requests.get() <= 21);
+    }
+}
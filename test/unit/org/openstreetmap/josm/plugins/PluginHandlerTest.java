@@ -3,23 +3,47 @@ package org.openstreetmap.josm.plugins;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.openstreetmap.josm.JOSMFixture;
 import org.openstreetmap.josm.Main;
 import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.plugins.PluginHandler.DynamicURLClassLoader;
+import org.openstreetmap.josm.tools.Utils;
 
 /**
  * Unit tests of {@link PluginHandler} class.
  */
 public class PluginHandlerTest {
 
+    /**
+     * Temporary folder for the jar files.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     /**
      * Setup test.
      */
@@ -71,4 +95,56 @@ public class PluginHandlerTest {
 
         assertTrue(PluginHandler.pluginLoadingExceptions.toString(), PluginHandler.pluginLoadingExceptions.isEmpty());
     }
+
+    private File createJar(String name, String classPath, String... entries) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (classPath != null) {
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPath);
+        }
+        File file = new File(folder.getRoot(), name);
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file), manifest)) {
+            for (String entry : entries) {
+                jar.putNextEntry(new JarEntry(entry));
+                jar.write(1);
+                jar.closeEntry();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Test of the package index of {@link DynamicURLClassLoader}.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testDynamicURLClassLoaderIndex() throws IOException {
+        createJar("lib.jar", null, "org/example/lib/data.txt");
+        File plugin = createJar("plugin.jar", "lib.jar missing.jar", "images/icon.png", "plugin.txt");
+        assertEquals(new HashSet<>(Arrays.asList("", "META-INF", "images", "org/example/lib")),
+                DynamicURLClassLoader.getPackages(Utils.fileToURL(plugin)));
+        assertNull(DynamicURLClassLoader.getPackages(Utils.fileToURL(folder.getRoot())));
+
+        DynamicURLClassLoader cl = new DynamicURLClassLoader(new URL[0], null);
+        cl.addURL(Utils.fileToURL(plugin));
+        assertNotNull(cl.getResource("images/icon.png"));
+        assertNotNull(cl.getResource("plugin.txt"));
+        assertNotNull(cl.getResource("org/example/lib/data.txt"));
+        assertNull(cl.getResource("images/other.png"));
+        assertNull(cl.getResource("icons/icon.png"));
+        assertFalse(cl.getResources("icons/icon.png").hasMoreElements());
+        try {
+            cl.loadClass("org.example.Missing");
+            fail("class should not be found");
+        } catch (ClassNotFoundException e) {
+            // expected
+        }
+
+        // a directory cannot be indexed, all URLs are searched
+        File dir = folder.newFolder("dir", "icons");
+        assertTrue(new File(dir, "icon.png").createNewFile());
+        cl.addURL(Utils.fileToURL(new File(folder.getRoot(), "dir")));
+        assertNotNull(cl.getResource("icons/icon.png"));
+        assertEquals(1, Collections.list(cl.getResources("images/icon.png")).size());
+    }
 }
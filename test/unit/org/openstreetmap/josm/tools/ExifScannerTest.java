@@ -0,0 +1,67 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.tools.ExifScanner.ExifInfo;
+
+/**
+ * Unit tests of {@link ExifScanner} class.
+ */
+public class ExifScannerTest {
+
+    private static final File DIRECTION_SAMPLE = new File("data_nodist/exif-example_direction.jpg");
+    private static final File ORIENTATION_SAMPLE = new File("data_nodist/exif-example_orientation=6.jpg");
+
+    /**
+     * Setup test.
+     */
+    @BeforeClass
+    public static void setUp() {
+        JOSMFixture.createUnitTestFixture().init();
+    }
+
+    /**
+     * Checks that the scanner reads the same values as {@link ExifReader}.
+     * @throws ParseException if {@link ExifReader#readTime} fails
+     */
+    @Test
+    public void testSameAsExifReader() throws ParseException {
+        ExifInfo info = ExifScanner.scan(DIRECTION_SAMPLE);
+        assertEquals(ExifReader.readTime(DIRECTION_SAMPLE), info.getTime());
+        assertEquals(ExifReader.readDirection(DIRECTION_SAMPLE), info.getDirection());
+        LatLon expected = ExifReader.readLatLon(DIRECTION_SAMPLE);
+        assertNotNull(info.getLatLon());
+        assertEquals(expected.lat(), info.getLatLon().lat(), 1e-9);
+        assertEquals(expected.lon(), info.getLatLon().lon(), 1e-9);
+
+        assertEquals(Integer.valueOf(6), ExifScanner.scan(ORIENTATION_SAMPLE).getOrientation());
+    }
+
+    /**
+     * Checks that files are returned in order, and that unreadable files give empty results.
+     */
+    @Test
+    public void testBulkScan() {
+        File missing = new File("data_nodist/missing.jpg");
+        List<ExifInfo> infos = ExifScanner.scan(Arrays.asList(ORIENTATION_SAMPLE, missing, DIRECTION_SAMPLE), null);
+        assertEquals(3, infos.size());
+        assertEquals(ORIENTATION_SAMPLE, infos.get(0).getFile());
+        assertEquals(missing, infos.get(1).getFile());
+        assertNull(infos.get(1).getTime());
+        assertNull(infos.get(1).getLatLon());
+        assertEquals(DIRECTION_SAMPLE, infos.get(2).getFile());
+        assertNotNull(infos.get(2).getLatLon());
+    }
+}
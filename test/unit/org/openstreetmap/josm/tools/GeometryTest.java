@@ -1,11 +1,22 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.tools;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.openstreetmap.josm.JOSMFixture;
+import org.openstreetmap.josm.command.AddCommand;
+import org.openstreetmap.josm.command.ChangeCommand;
+import org.openstreetmap.josm.command.Command;
 import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Way;
 
 /**
  * Unit tests of {@link Geometry} class.
@@ -51,4 +62,47 @@ public class GeometryTest {
         Assert.assertTrue("scalar product != 0 : " + scalarProduct/len1/len2,
                 Math.abs(scalarProduct/len1/len2) < 1e-10);
     }
+
+    private static Way way(double... coords) {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < coords.length; i += 2) {
+            nodes.add(new Node(new LatLon(coords[i], coords[i + 1])));
+        }
+        Way w = new Way();
+        w.setNodes(nodes);
+        return w;
+    }
+
+    /**
+     * Test of {@link Geometry#addIntersections} method.
+     */
+    @Test
+    public void testAddIntersections() {
+        // a square crossed by a zigzag line, and a self-intersecting "figure eight"
+        Way square = way(0, 0, 0, 1, 1, 1, 1, 0);
+        square.addNode(square.firstNode());
+        Way zigzag = way(-0.5, 0.1, 1.5, 0.2, -0.5, 0.3, 1.5, 0.4);
+        Way eight = way(2, 0, 3, 1, 3, 0, 2, 1);
+        eight.addNode(eight.firstNode());
+        List<Way> ways = Arrays.asList(square, zigzag, eight);
+
+        List<Command> cmds = new ArrayList<>();
+        Assert.assertEquals(1, Geometry.addIntersections(ways, true, cmds).size());
+        Assert.assertTrue(cmds.isEmpty());
+
+        Set<Node> nodes = Geometry.addIntersections(ways, false, cmds);
+        // 6 crossings of the square and the zigzag, 1 of the figure eight
+        Assert.assertEquals(7, nodes.size());
+        int added = 0;
+        int changed = 0;
+        for (Command c : cmds) {
+            if (c instanceof AddCommand) {
+                added++;
+            } else if (c instanceof ChangeCommand) {
+                changed++;
+            }
+        }
+        Assert.assertEquals(7, added);
+        Assert.assertEquals(3, changed);
+    }
 }
@@ -0,0 +1,65 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of {@link SegmentIndex} class.
+ */
+public class SegmentIndexTest {
+
+    private static int[] bruteForce(double[] x, double[] y, double x1, double y1, double x2, double y2) {
+        int[] result = new int[x.length];
+        int count = 0;
+        for (int i = 0; i + 1 < x.length; i++) {
+            if (Math.min(x[i], x[i + 1]) <= Math.max(x1, x2) && Math.max(x[i], x[i + 1]) >= Math.min(x1, x2)
+                    && Math.min(y[i], y[i + 1]) <= Math.max(y1, y2) && Math.max(y[i], y[i + 1]) >= Math.min(y1, y2)) {
+                result[count++] = i;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Compares queries with a brute force search, for short and long segments.
+     */
+    @Test
+    public void testQuery() {
+        Random rand = new Random(42);
+        double[] x = new double[2000];
+        double[] y = new double[2000];
+        for (int i = 0; i < x.length; i++) {
+            // mostly short steps, with some long jumps
+            double step = i % 100 == 0 ? 500 : 5;
+            x[i] = i == 0 ? 0 : x[i - 1] + (rand.nextDouble() - 0.5) * step;
+            y[i] = i == 0 ? 0 : y[i - 1] + (rand.nextDouble() - 0.5) * step;
+        }
+        SegmentIndex index = new SegmentIndex(x, y);
+        assertEquals(1999, index.size());
+        for (int q = 0; q < 1000; q++) {
+            int i = rand.nextInt(x.length - 1);
+            double x1 = x[i] + (rand.nextDouble() - 0.5) * 20;
+            double y1 = y[i] + (rand.nextDouble() - 0.5) * 20;
+            double x2 = x1 + (rand.nextDouble() - 0.5) * 20;
+            double y2 = y1 + (rand.nextDouble() - 0.5) * 20;
+            assertArrayEquals(bruteForce(x, y, x1, y1, x2, y2), index.query(x1, y1, x2, y2));
+        }
+    }
+
+    /**
+     * Checks that segments with undefined coordinates are always returned.
+     */
+    @Test
+    public void testUndefinedCoordinates() {
+        SegmentIndex index = new SegmentIndex(new double[] {0, 1, Double.NaN, 3, 4}, new double[] {0, 1, 2, 3, 4});
+        assertArrayEquals(new int[] {0, 1, 2}, index.query(0.5, 0.5, 0.6, 0.6));
+        assertArrayEquals(new int[] {1, 2, 3}, index.query(3.5, 3.5, 3.6, 3.6));
+        assertArrayEquals(new int[] {0, 1, 2, 3}, index.query(Double.NaN, 0, 1, 1));
+    }
+}
@@ -3,6 +3,15 @@ package org.openstreetmap.josm.tools.date;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
 import org.junit.Test;
 
 /**
@@ -25,4 +34,46 @@ public class DateUtilsTest {
     public void testNoteDate() {
         assertEquals(1417298930000L, DateUtils.fromString("2014-11-29 22:08:50 UTC").getTime());
     }
+
+    /**
+     * Test to parse dates with milliseconds and time zone offsets.
+     */
+    @Test
+    public void testOffsets() {
+        assertEquals(1344870637123L, DateUtils.tsFromString("2012-08-13T15:10:37.123Z"));
+        assertEquals(1344870637000L, DateUtils.tsFromString("2012-08-13T17:10:37+02:00"));
+        assertEquals(1344870637123L, DateUtils.tsFromString("2012-08-13T13:10:37.123-02:00"));
+        // fields out of range are carried over
+        assertEquals(DateUtils.tsFromString("2013-01-01T00:00:00Z"), DateUtils.tsFromString("2012-12-31T24:00:00Z"));
+        assertEquals(DateUtils.tsFromString("2013-01-31T00:00:00Z"), DateUtils.tsFromString("2012-13-31T00:00:00Z"));
+    }
+
+    /**
+     * Compares the arithmetic parser and formatter with the XML calendar of the JDK.
+     * @throws Exception if the XML datatype factory cannot be created
+     */
+    @Test
+    public void testSameAsCalendar() throws Exception {
+        DatatypeFactory factory = DatatypeFactory.newInstance();
+        GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            // from 1600 to 2400
+            long millis = -11676096000000L + (long) (random.nextDouble() * 25245000000000L);
+            if (i % 2 == 0) {
+                millis -= millis % 1000;
+            }
+            calendar.setTimeInMillis(millis);
+            XMLGregorianCalendar xgc = factory.newXMLGregorianCalendar(calendar);
+            if (calendar.get(Calendar.MILLISECOND) == 0) {
+                xgc.setFractionalSecond(null);
+            }
+            String expected = xgc.toXMLFormat();
+            assertEquals(expected, DateUtils.fromDate(new Date(millis)));
+            assertEquals(millis, DateUtils.tsFromString(expected));
+        }
+        assertEquals("1970-01-01T00:00:00Z", DateUtils.fromTimestamp(0));
+        assertEquals("1969-12-31T23:59:59Z", DateUtils.fromTimestamp(-1));
+        assertEquals("2038-01-19T03:14:07Z", DateUtils.fromTimestamp(Integer.MAX_VALUE));
+    }
 }